@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("maven-publish")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.nuix.innovation"
@@ -161,6 +162,15 @@ tasks.getByName<Test>("test") {
     configTestEnv(this)
 }
 
+// Micro benchmarks in src/jmh/java, run with "gradlew jmh".  The GC profiler reports bytes allocated
+// per operation alongside timings.
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    profilers.add("gc")
+}
+
 tasks.getByName<Javadoc>("javadoc") {
     setDestinationDir(File("${projectDir}/../docs"))
 }
\ No newline at end of file
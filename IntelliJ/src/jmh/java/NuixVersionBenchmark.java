@@ -0,0 +1,56 @@
+import com.nuix.innovation.enginewrapper.NuixVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Measures the cost of the version comparisons feature gating code performs in per item loops.  Run with the GC
+ * profiler (configured in build.gradle.kts), comparisons should report 0 B/op once the version strings are cached.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NuixVersionBenchmark {
+    private NuixVersion current;
+    private NuixVersion required;
+    private String requiredString;
+    private String uncachedString;
+    private int uncachedCounter = 0;
+
+    @Setup
+    public void setup() {
+        current = NuixVersion.parse("9.10.3.582");
+        required = NuixVersion.parse("9.6");
+        requiredString = "9.6";
+        NuixVersion.parsePacked(requiredString);
+        uncachedString = "9.10.3.582-preview1";
+    }
+
+    @Benchmark
+    public boolean compareVersions() {
+        return current.isAtLeast(required);
+    }
+
+    @Benchmark
+    public boolean compareToCachedString() {
+        return current.isAtLeast(requiredString);
+    }
+
+    @Benchmark
+    public long parseCachedString() {
+        return NuixVersion.parsePacked(requiredString);
+    }
+
+    @Benchmark
+    public NuixVersion parseNewString() {
+        // Mostly strings beyond the bound of the cache, measuring the parser itself
+        uncachedCounter++;
+        return NuixVersion.parse(uncachedString + uncachedCounter);
+    }
+}
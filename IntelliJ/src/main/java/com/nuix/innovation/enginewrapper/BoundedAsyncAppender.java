@@ -0,0 +1,175 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.NonNull;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/***
+ * A Log4j2 appender which hands events to a bounded buffer and lets a background thread write them to another
+ * appender.  Threads logging events (such as worker item callbacks or Ruby script output) therefore do not wait on
+ * console or file I/O, unless the buffer is full in which case the {@link OverflowPolicy} decides what happens.
+ */
+public class BoundedAsyncAppender extends AbstractAppender {
+    /***
+     * What to do with an event logged while the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /***
+         * Logging thread waits until there is space in the buffer, no events are dropped.
+         */
+        BLOCK,
+        /***
+         * Events less severe than WARN are dropped, WARN and more severe events wait until there is space.
+         */
+        DROP_BELOW_WARN,
+        /***
+         * Like {@link #DROP_BELOW_WARN}, except every Nth event less severe than WARN waits for space rather than
+         * being dropped, so some representative output is still recorded.
+         */
+        SAMPLE
+    }
+
+    private final Appender target;
+    private final BlockingQueue<LogEvent> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final AtomicLong overflowCount = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    private final AtomicLong appendedCount = new AtomicLong(0);
+    private final Thread dispatcher;
+    private volatile boolean stopping = false;
+
+    /***
+     * Creates a new instance.  Call {@link #start()} before use.
+     * @param name Name of this appender
+     * @param target The appender events are written to by the background thread
+     * @param bufferSize Maximum number of events buffered
+     * @param overflowPolicy What to do with events logged while the buffer is full
+     * @param sampleRate When overflow policy is {@link OverflowPolicy#SAMPLE}, 1 of every this many events below WARN
+     *                   logged while the buffer is full is kept
+     */
+    public BoundedAsyncAppender(@NonNull String name, @NonNull Appender target, int bufferSize,
+                                @NonNull OverflowPolicy overflowPolicy, int sampleRate) {
+        super(name, null, null, true, Property.EMPTY_ARRAY);
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be at least 1, was " + bufferSize);
+        }
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate must be at least 1, was " + sampleRate);
+        }
+        this.target = target;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = sampleRate;
+        this.dispatcher = new Thread(this::dispatchEvents, "BoundedAsyncAppender-" + name);
+        this.dispatcher.setDaemon(true);
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        dispatcher.start();
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        // Events may be mutable and reused by the logging thread, so we hand off an immutable copy
+        LogEvent immutableEvent = event.toImmutable();
+        if (buffer.offer(immutableEvent)) {
+            return;
+        }
+
+        long overflowIndex = overflowCount.getAndIncrement();
+        boolean keep = switch (overflowPolicy) {
+            case BLOCK -> true;
+            case DROP_BELOW_WARN -> event.getLevel().isMoreSpecificThan(Level.WARN);
+            case SAMPLE -> event.getLevel().isMoreSpecificThan(Level.WARN) || overflowIndex % sampleRate == 0;
+        };
+
+        if (keep) {
+            try {
+                buffer.put(immutableEvent);
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                droppedCount.incrementAndGet();
+            }
+        } else {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    private void dispatchEvents() {
+        while (!stopping || !buffer.isEmpty()) {
+            try {
+                LogEvent event = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    target.append(event);
+                    appendedCount.incrementAndGet();
+                }
+            } catch (InterruptedException exc) {
+                // Keep draining until stopped
+            } catch (Exception exc) {
+                error("Error appending event to " + target.getName(), exc);
+            }
+        }
+    }
+
+    /***
+     * Stops this appender, first writing any events still in the buffer.
+     */
+    @Override
+    public boolean stop(long timeout, TimeUnit timeUnit) {
+        setStopping();
+        stopping = true;
+        try {
+            dispatcher.join(timeUnit.toMillis(timeout));
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        }
+        setStopped();
+        return !dispatcher.isAlive();
+    }
+
+    /***
+     * @return The appender events are written to.
+     */
+    public Appender getTarget() {
+        return target;
+    }
+
+    /***
+     * @return The number of events currently waiting in the buffer.
+     */
+    public int getBufferedEventCount() {
+        return buffer.size();
+    }
+
+    /***
+     * @return The number of events logged while the buffer was full.
+     */
+    public long getOverflowEventCount() {
+        return overflowCount.get();
+    }
+
+    /***
+     * @return The number of events dropped because the buffer was full.
+     */
+    public long getDroppedEventCount() {
+        return droppedCount.get();
+    }
+
+    /***
+     * @return The number of events written to the target appender.
+     */
+    public long getAppendedEventCount() {
+        return appendedCount.get();
+    }
+}
@@ -0,0 +1,36 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.NonNull;
+import nuix.engine.AvailableLicence;
+import nuix.engine.Engine;
+
+import java.util.Optional;
+
+/***
+ * A {@link LicenseResolver} which separates locating a license from acquiring it.  This allows {@link NuixEngine}
+ * to query several resolvers at the same time while making sure only one license is actually acquired.  See
+ * {@link NuixEngine#usingBestRacedLicense(LicenseResolver...)}.
+ */
+public interface CandidateLicenseResolver extends LicenseResolver {
+    /***
+     * Locates, but does not acquire, the license this resolver would acquire for the provided Engine instance.
+     * @param engine The engine instance a license is being located for.
+     * @return The candidate license, or empty if no available license met this resolver's criteria.
+     * @throws Exception Exceptions thrown by any of the methods working to locate a license will be uncaught and allowed
+     * to bubble up for caller to respond to.
+     */
+    Optional<AvailableLicence> findLicenseCandidate(@NonNull Engine engine) throws Exception;
+
+    /***
+     * Acquires a candidate license previously returned by {@link #findLicenseCandidate(Engine)}.  Lookups by other
+     * resolvers raced against this one may run at the same time on the same engine, so implementations setting the
+     * engine's credential and certificate trust callbacks should keep other resolvers from replacing them while a
+     * lookup or acquisition is using them, and apply their own again before acquiring.
+     * @param engine The engine instance the license is being acquired for.
+     * @param candidate The candidate license to acquire.
+     * @return True if the license was acquired, false if not.
+     * @throws Exception Exceptions thrown while acquiring the license will be uncaught and allowed
+     * to bubble up for caller to respond to.
+     */
+    boolean acquireLicense(@NonNull Engine engine, @NonNull AvailableLicence candidate) throws Exception;
+}
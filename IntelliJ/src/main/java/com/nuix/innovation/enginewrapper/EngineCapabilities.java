@@ -0,0 +1,93 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/***
+ * A table of which {@link EngineCapability} instances are supported by a particular engine, computed once from its
+ * Nuix version and the features of the license it holds.  Checking a capability is then a single array lookup, so
+ * code gating API usage in hot paths need not repeat version comparisons.  Obtain the table of an engine from
+ * {@link NuixEngine#getCapabilities()}.<br><br>
+ * Capabilities defined after a table was built are still answered, by evaluating them directly.
+ */
+public class EngineCapabilities {
+    @Getter
+    private final NuixVersion version;
+    private final long packedVersion;
+    private final EnumSet<LicenseFeature> licenseFeatures;
+    private final boolean[] supported;
+
+    private EngineCapabilities(NuixVersion version, EnumSet<LicenseFeature> licenseFeatures) {
+        this.version = NuixVersion.fromPacked(version.getPacked());
+        this.packedVersion = version.getPacked();
+        this.licenseFeatures = EnumSet.copyOf(licenseFeatures);
+
+        List<EngineCapability> capabilities = EngineCapability.getDefined();
+        this.supported = new boolean[capabilities.size()];
+        for (EngineCapability capability : capabilities) {
+            if (capability.getIndex() < supported.length) {
+                supported[capability.getIndex()] = capability.isSupportedBy(packedVersion, this.licenseFeatures);
+            }
+        }
+    }
+
+    /***
+     * Builds the capability table for an engine.
+     * @param version The Nuix version of the engine
+     * @param licenseFeatures Features of the license the engine holds, empty if it holds none
+     * @return The capability table
+     */
+    public static EngineCapabilities of(@NonNull NuixVersion version, @NonNull EnumSet<LicenseFeature> licenseFeatures) {
+        return new EngineCapabilities(version, licenseFeatures);
+    }
+
+    /***
+     * @param capability The capability to check
+     * @return True if the capability is supported by the engine's version and license
+     */
+    public boolean isSupported(@NonNull EngineCapability capability) {
+        int index = capability.getIndex();
+        return index < supported.length ? supported[index] : capability.isSupportedBy(packedVersion, licenseFeatures);
+    }
+
+    /***
+     * @param capabilityName Name of the capability to check, case insensitive
+     * @return True if the capability is supported by the engine's version and license
+     * @throws IllegalArgumentException If no capability with that name has been defined
+     */
+    public boolean isSupported(@NonNull String capabilityName) {
+        EngineCapability capability = EngineCapability.forName(capabilityName);
+        if (capability == null) {
+            throw new IllegalArgumentException("No capability has been defined with the name: " + capabilityName);
+        }
+        return isSupported(capability);
+    }
+
+    /***
+     * @return The license features the table was built from
+     */
+    public EnumSet<LicenseFeature> getLicenseFeatures() {
+        return EnumSet.copyOf(licenseFeatures);
+    }
+
+    /***
+     * @return Whether each defined capability is supported, keyed by capability name
+     */
+    public Map<String, Boolean> toMap() {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        for (EngineCapability capability : EngineCapability.getDefined()) {
+            result.put(capability.getName(), isSupported(capability));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "EngineCapabilities{version=" + version + ", capabilities=" + toMap() + '}';
+    }
+}
@@ -0,0 +1,117 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/***
+ * Something code may want to use which depends on the Nuix engine version and/or the features of the license held,
+ * such as an API introduced in a particular release.  Each capability is defined once, and is assigned an index so
+ * that {@link EngineCapabilities} can answer whether it is supported with a single array lookup.<br><br>
+ * Defining a capability of your own:
+ * <pre>
+ * {@code
+ * public static final EngineCapability MY_API = EngineCapability.define("MY_API", "9.6", LicenseFeature.SCRIPTING);
+ * ...
+ * if (nuixEngine.getCapabilities().isSupported(MY_API)) { ... }
+ * }
+ * </pre>
+ */
+@Getter
+public final class EngineCapability {
+    private static final List<EngineCapability> defined = new CopyOnWriteArrayList<>();
+    private static final Map<String, EngineCapability> byName = new ConcurrentHashMap<>();
+
+    public static final EngineCapability CASE_CREATION = define("CASE_CREATION", "0", LicenseFeature.CASE_CREATION);
+    public static final EngineCapability SCRIPTING = define("SCRIPTING", "0", LicenseFeature.SCRIPTING);
+    public static final EngineCapability WORKER_SCRIPTING = define("WORKER_SCRIPTING", "0", LicenseFeature.WORKER_SCRIPTING);
+    public static final EngineCapability OCR_PROCESSING = define("OCR_PROCESSING", "0", LicenseFeature.OCR_PROCESSING);
+    public static final EngineCapability LEGAL_EXPORT = define("LEGAL_EXPORT", "0", LicenseFeature.EXPORT_LEGAL, LicenseFeature.PRODUCTION_SET);
+
+    private final String name;
+    private final int index;
+    private final NuixVersion minimumVersion;
+    private final Set<LicenseFeature> requiredFeatures;
+    @Getter(AccessLevel.NONE)
+    private final long minimumPackedVersion;
+    @Getter(AccessLevel.NONE)
+    private final EnumSet<LicenseFeature> requiredFeatureSet;
+
+    private EngineCapability(String name, int index, NuixVersion minimumVersion, EnumSet<LicenseFeature> requiredFeatures) {
+        this.name = name;
+        this.index = index;
+        this.minimumVersion = minimumVersion;
+        this.minimumPackedVersion = minimumVersion.getPacked();
+        this.requiredFeatureSet = requiredFeatures;
+        this.requiredFeatures = Collections.unmodifiableSet(requiredFeatures);
+    }
+
+    /***
+     * Defines a capability.  Defining a capability with the same name and requirements again returns the existing
+     * definition.
+     * @param name Name of the capability, case insensitive
+     * @param minimumVersion The earliest Nuix version which provides the capability, "0" if any version does
+     * @param requiredFeatures License features required to use the capability
+     * @return The capability
+     * @throws IllegalArgumentException If a capability with the same name has been defined with different requirements
+     */
+    public static synchronized EngineCapability define(@NonNull String name, @NonNull String minimumVersion,
+                                                       LicenseFeature... requiredFeatures) {
+        EnumSet<LicenseFeature> features = EnumSet.noneOf(LicenseFeature.class);
+        Collections.addAll(features, requiredFeatures);
+        NuixVersion version = NuixVersion.parse(minimumVersion);
+
+        String key = name.toUpperCase();
+        EngineCapability existing = byName.get(key);
+        if (existing != null) {
+            if (existing.minimumPackedVersion != version.getPacked() || !existing.requiredFeatureSet.equals(features)) {
+                throw new IllegalArgumentException(String.format("Capability %s is already defined as %s", name, existing));
+            }
+            return existing;
+        }
+
+        EngineCapability capability = new EngineCapability(key, defined.size(), version, features);
+        defined.add(capability);
+        byName.put(key, capability);
+        return capability;
+    }
+
+    /***
+     * @param name Name of a capability, case insensitive
+     * @return The capability with that name, or null if none has been defined
+     */
+    public static EngineCapability forName(@NonNull String name) {
+        EngineCapability capability = byName.get(name);
+        return capability != null ? capability : byName.get(name.toUpperCase());
+    }
+
+    /***
+     * @return Every capability defined so far, in index order
+     */
+    public static List<EngineCapability> getDefined() {
+        return Collections.unmodifiableList(defined);
+    }
+
+    /***
+     * Determines whether this capability is supported, without consulting an {@link EngineCapabilities} table.
+     * @param packedVersion The Nuix version, see {@link NuixVersion#getPacked()}
+     * @param licenseFeatures Features of the license held
+     * @return True if the version is at least the minimum version and every required feature is present
+     */
+    public boolean isSupportedBy(long packedVersion, EnumSet<LicenseFeature> licenseFeatures) {
+        return Long.compareUnsigned(packedVersion, minimumPackedVersion) >= 0 && licenseFeatures.containsAll(requiredFeatureSet);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (Nuix %s+, features %s)", name, minimumVersion, requiredFeatures);
+    }
+}
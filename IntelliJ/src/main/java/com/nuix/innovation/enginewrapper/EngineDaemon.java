@@ -0,0 +1,563 @@
+package com.nuix.innovation.enginewrapper;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import lombok.NonNull;
+import nuix.Utilities;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.AclEntry;
+import java.nio.file.attribute.AclEntryPermission;
+import java.nio.file.attribute.AclEntryType;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/***
+ * A long-running process which keeps a licensed {@link NuixEngine} ready and accepts jobs over a loopback socket, so
+ * that many small jobs do not each pay for JVM startup, engine construction and licensing.  Jobs can be Ruby scripts,
+ * run via {@link RubyScriptRunner}, or Java tasks registered with {@link #registerTask(String, EngineTask)}.  Use
+ * {@link EngineDaemonClient} to submit jobs.<br><br>
+ * The protocol is newline delimited JSON.  Each request is a single line JSON object with a "type" of "ping",
+ * "ruby", "rubyFile", "task" or "shutdown", an "id" chosen by the client and the daemon's "token".  As a job runs,
+ * the daemon writes back "output" and "error" events for that id, followed by a single "done" event containing
+ * "success", "result", "errorMessage" and "elapsedMillis".<br><br>
+ * The daemon only listens on the loopback interface and requires every request to carry its token.  On start it
+ * writes its port and token to a discovery file which only the user running the daemon can read (owner-only POSIX
+ * permissions, or an owner-only ACL on Windows), so that clients running as the same user can find it, see
+ * {@link #withDiscoveryFile(File)}.  Requests longer than {@link #withMaxRequestLength(int)} characters are refused
+ * and the connection closed, before the token is checked, so an unauthenticated client cannot make the daemon buffer an
+ * unbounded line.
+ * <pre>
+ * {@code
+ * try (EngineDaemon daemon = EngineDaemon.using(() -> NuixEngine.usingFirstAvailableLicense(cloud_4_workers)
+ *         .setEngineDistributionDirectoryFromEnvVar())
+ *         .registerTask("itemCount", (utilities, arguments, output) -> ...)
+ *         .start()) {
+ *     daemon.awaitShutdown();
+ * }
+ * }
+ * </pre>
+ */
+public class EngineDaemon implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(EngineDaemon.class);
+    private static final Gson gson = new Gson();
+
+    protected Supplier<NuixEngine> engineFactory;
+    protected int port = 0;
+    protected String token = UUID.randomUUID().toString();
+    protected File discoveryFile = getDefaultDiscoveryFile();
+    protected int maxRequestLength = 8 * 1024 * 1024;
+    protected final Map<String, EngineTask> tasks = new ConcurrentHashMap<>();
+
+    private NuixEngine nuixEngine = null;
+    private ServerSocket serverSocket = null;
+    private ExecutorService connectionExecutor = null;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final CountDownLatch shutdownSignal = new CountDownLatch(1);
+
+    protected EngineDaemon() {
+    }
+
+    /***
+     * Starts a daemon with an engine constructed by {@link App#constructNuixEngine(String...)}, listening on the port
+     * provided as the first argument, or a free port if none is provided.  Runs until a client requests shutdown.
+     * @param args Optional port to listen on
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        try (EngineDaemon daemon = EngineDaemon.using(() -> {
+            try {
+                return App.constructNuixEngine();
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        }).withPort(port).start()) {
+            daemon.awaitShutdown();
+        } catch (Exception exc) {
+            log.error("Uncaught exception, exiting", exc);
+        }
+    }
+
+    /***
+     * Creates a new daemon which will use an engine produced by the provided factory.
+     * @param engineFactory Supplier of the NuixEngine the daemon will license and keep ready.
+     * @return A new daemon, call {@link #start()} to begin accepting jobs.
+     */
+    public static EngineDaemon using(@NonNull Supplier<NuixEngine> engineFactory) {
+        EngineDaemon result = new EngineDaemon();
+        result.engineFactory = engineFactory;
+        return result;
+    }
+
+    /***
+     * Gets the default discovery file, "engine-daemon.json" in a directory private to the current user: under
+     * LOCALAPPDATA when that is set, otherwise ".NuixEngineBaseline" in the user's home directory.  Unlike
+     * {@link NuixEngine#getDefaultStartupCacheDirectory()} this never falls back to the shared temp directory, since
+     * the file holds the daemon's token.
+     * @return The default discovery file
+     */
+    public static File getDefaultDiscoveryFile() {
+        String localAppData = System.getenv("LOCALAPPDATA");
+        if (localAppData != null && !localAppData.isBlank()) {
+            return new File(NuixEngine.getDefaultStartupCacheDirectory(), "engine-daemon.json");
+        } else {
+            return new File(new File(System.getProperty("user.home"), ".NuixEngineBaseline"), "engine-daemon.json");
+        }
+    }
+
+    /***
+     * Specifies the loopback port to listen on.  Defaults to 0, meaning any free port.
+     * @param port The port to listen on
+     * @return This daemon for chained method calls.
+     */
+    public EngineDaemon withPort(int port) {
+        this.port = port;
+        return this;
+    }
+
+    /***
+     * Specifies the token clients must provide with each request.  Defaults to a random value.
+     * @param token The token clients must provide
+     * @return This daemon for chained method calls.
+     */
+    public EngineDaemon withToken(@NonNull String token) {
+        this.token = token;
+        return this;
+    }
+
+    /***
+     * Specifies where the daemon writes its port and token when started, and removes them when closed.
+     * @param discoveryFile The file to write, or null to not write one.
+     * @return This daemon for chained method calls.
+     */
+    public EngineDaemon withDiscoveryFile(File discoveryFile) {
+        this.discoveryFile = discoveryFile;
+        return this;
+    }
+
+    /***
+     * Specifies the longest request line, in characters, the daemon will read.  A client sending a longer line is sent
+     * a failed "done" event and disconnected.  Defaults to 8M characters, which leaves room for scripts sent inline.
+     * @param maxRequestLength The maximum number of characters in a single request
+     * @return This daemon for chained method calls.
+     */
+    public EngineDaemon withMaxRequestLength(int maxRequestLength) {
+        if (maxRequestLength < 1) {
+            throw new IllegalArgumentException("maxRequestLength must be at least 1, was " + maxRequestLength);
+        }
+        this.maxRequestLength = maxRequestLength;
+        return this;
+    }
+
+    /***
+     * Registers a Java task which clients can run by name.
+     * @param name The name clients use to run the task
+     * @param task The task to run
+     * @return This daemon for chained method calls.
+     */
+    public EngineDaemon registerTask(@NonNull String name, @NonNull EngineTask task) {
+        tasks.put(name, task);
+        return this;
+    }
+
+    /***
+     * Licenses the engine and starts accepting connections.
+     * @return This daemon for chained method calls.
+     * @throws Exception If the engine could not be licensed or the socket could not be opened.
+     */
+    public EngineDaemon start() throws Exception {
+        nuixEngine = engineFactory.get();
+        if (nuixEngine.getUtilities() == null) {
+            nuixEngine.close();
+            throw new IllegalStateException("Engine daemon was unable to obtain a license");
+        }
+
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        connectionExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "EngineDaemon-Connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (discoveryFile != null) {
+            JsonObject discovery = new JsonObject();
+            discovery.addProperty("port", serverSocket.getLocalPort());
+            discovery.addProperty("token", token);
+            discovery.addProperty("pid", ProcessHandle.current().pid());
+            writeOwnerOnly(discoveryFile, discovery.toString());
+        }
+
+        Thread acceptThread = new Thread(this::acceptConnections, "EngineDaemon-Acceptor");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        log.info("Engine daemon listening on {}:{}", serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort());
+        return this;
+    }
+
+    /***
+     * Writes a file which only the current user can read, since it holds the daemon's token.  The content is written to
+     * a temporary file created with owner-only permissions, which is then moved into place, so clients never see a
+     * partially written file and the file is never readable by others, whatever the process umask.
+     */
+    private static void writeOwnerOnly(File file, String content) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+
+        Path temp;
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            temp = Files.createTempFile(directory, file.getName(), ".tmp",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            temp = Files.createTempFile(directory, file.getName(), ".tmp");
+            restrictToOwner(temp);
+        }
+
+        try {
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exc) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /***
+     * Replaces the ACL of a file with a single entry granting its owner full access, for file systems without POSIX
+     * permissions such as NTFS.
+     */
+    private static void restrictToOwner(Path path) throws IOException {
+        AclFileAttributeView aclView = Files.getFileAttributeView(path, AclFileAttributeView.class);
+        if (aclView == null) {
+            log.warn("Unable to restrict access to {} to its owner", path);
+            return;
+        }
+        AclEntry ownerOnly = AclEntry.newBuilder()
+                .setType(AclEntryType.ALLOW)
+                .setPrincipal(Files.getOwner(path))
+                .setPermissions(EnumSet.allOf(AclEntryPermission.class))
+                .build();
+        aclView.setAcl(List.of(ownerOnly));
+    }
+
+    /***
+     * Compares a token provided by a client against this daemon's token in time which does not depend on how much of
+     * it matched.
+     */
+    private boolean isValidToken(String providedToken) {
+        return providedToken != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), providedToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /***
+     * @return The port the daemon is listening on.
+     */
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : port;
+    }
+
+    /***
+     * @return The token clients must provide with each request.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /***
+     * Blocks until a client requests shutdown or this daemon is closed.
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public void awaitShutdown() throws InterruptedException {
+        shutdownSignal.await();
+    }
+
+    private void acceptConnections() {
+        while (!closed.get()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionExecutor.execute(() -> handleConnection(socket));
+            } catch (SocketException exc) {
+                // Socket was closed, we are shutting down
+                break;
+            } catch (IOException exc) {
+                log.error("Error while accepting connection", exc);
+            }
+        }
+    }
+
+    /***
+     * Handles requests from a single client connection, one at a time, until the client disconnects.
+     */
+    private void handleConnection(Socket socket) {
+        try (socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            while (true) {
+                String line;
+                try {
+                    line = readRequestLine(reader);
+                } catch (RequestTooLongException exc) {
+                    log.warn("Closing connection from client which sent a request over {} characters", maxRequestLength);
+                    sendDone(writer, null, false, null, exc.getMessage(), 0);
+                    break;
+                }
+                if (line == null) {
+                    break;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                JsonObject request;
+                try {
+                    request = JsonParser.parseString(line).getAsJsonObject();
+                } catch (Exception exc) {
+                    sendDone(writer, null, false, null, "Malformed request: " + exc.getMessage(), 0);
+                    continue;
+                }
+
+                String id = getString(request, "id");
+                if (!isValidToken(getString(request, "token"))) {
+                    sendDone(writer, id, false, null, "Invalid token", 0);
+                    break;
+                }
+
+                if ("shutdown".equals(getString(request, "type"))) {
+                    sendDone(writer, id, true, null, null, 0);
+                    log.info("Engine daemon shutdown requested by client");
+                    shutdownSignal.countDown();
+                    break;
+                }
+
+                runJob(request, id, writer);
+            }
+        } catch (IOException exc) {
+            log.warn("Error while communicating with client: {}", exc.getMessage());
+        }
+    }
+
+    /***
+     * Thrown by {@link #readRequestLine(BufferedReader)} when a request is longer than {@link #maxRequestLength}.
+     */
+    private static final class RequestTooLongException extends IOException {
+        private RequestTooLongException(int maxRequestLength) {
+            super("Request exceeds " + maxRequestLength + " characters");
+        }
+    }
+
+    /***
+     * Reads a line like {@link BufferedReader#readLine()}, but stops reading once it is longer than
+     * {@link #maxRequestLength} rather than buffering however much the client sends.
+     * @return The line without its terminator, or null if the client disconnected before sending anything.
+     * @throws RequestTooLongException If the line is longer than the maximum request length.
+     */
+    private String readRequestLine(BufferedReader reader) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '\n') {
+                break;
+            }
+            if (line.length() >= maxRequestLength) {
+                throw new RequestTooLongException(maxRequestLength);
+            }
+            line.append((char) c);
+        }
+        if (c == -1 && line.length() == 0) {
+            return null;
+        }
+        if (line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        return line.toString();
+    }
+
+    private void runJob(JsonObject request, String id, Writer writer) throws IOException {
+        long started = System.currentTimeMillis();
+        String type = getString(request, "type");
+        AtomicBoolean failed = new AtomicBoolean(false);
+        AtomicReference<Object> result = new AtomicReference<>();
+        String errorMessage = null;
+
+        try {
+            Map<String, Object> arguments = getMap(request, "arguments");
+            switch (type == null ? "" : type) {
+                case "ping":
+                    result.set(nuixEngine.getNuixVersionString());
+                    break;
+                case "ruby":
+                case "rubyFile":
+                    RubyScriptRunner runner;
+                    if (type.equals("ruby")) {
+                        runner = nuixEngine.runRubyScriptAsync(getString(request, "script"), arguments,
+                                output -> sendEvent(writer, id, "output", output),
+                                error -> {
+                                    failed.set(true);
+                                    sendEvent(writer, id, "error", error);
+                                },
+                                (value, variables) -> result.set(value));
+                    } else {
+                        runner = nuixEngine.runRubyScriptFileAsync(new File(getString(request, "path")), arguments,
+                                output -> sendEvent(writer, id, "output", output),
+                                error -> {
+                                    failed.set(true);
+                                    sendEvent(writer, id, "error", error);
+                                },
+                                (value, variables) -> result.set(value));
+                    }
+                    runner.join();
+                    if (failed.get()) {
+                        errorMessage = "Script raised an error";
+                    }
+                    break;
+                case "task":
+                    String taskName = getString(request, "task");
+                    EngineTask task = taskName == null ? null : tasks.get(taskName);
+                    if (task == null) {
+                        failed.set(true);
+                        errorMessage = "No task registered with name: " + taskName;
+                    } else {
+                        Utilities utilities = nuixEngine.getUtilities();
+                        result.set(task.run(utilities, arguments, output -> sendEvent(writer, id, "output", output)));
+                    }
+                    break;
+                default:
+                    failed.set(true);
+                    errorMessage = "Unknown request type: " + type;
+            }
+        } catch (Exception exc) {
+            failed.set(true);
+            errorMessage = ExceptionUtils.getMessage(exc);
+            sendEvent(writer, id, "error", ExceptionUtils.getStackTrace(exc));
+        }
+
+        sendDone(writer, id, !failed.get(), result.get(), errorMessage, System.currentTimeMillis() - started);
+    }
+
+    private void sendEvent(Writer writer, String id, String event, String data) {
+        // Script output writers flush frequently, often with nothing new to report
+        if (data == null || data.isEmpty()) {
+            return;
+        }
+        JsonObject message = new JsonObject();
+        message.addProperty("id", id);
+        message.addProperty("event", event);
+        message.addProperty("data", data);
+        try {
+            send(writer, message);
+        } catch (IOException exc) {
+            log.warn("Unable to send {} event to client: {}", event, exc.getMessage());
+        }
+    }
+
+    private void sendDone(Writer writer, String id, boolean success, Object result, String errorMessage,
+                          long elapsedMillis) throws IOException {
+        JsonObject message = new JsonObject();
+        message.addProperty("id", id);
+        message.addProperty("event", "done");
+        message.addProperty("success", success);
+        message.add("result", toJson(result));
+        message.addProperty("errorMessage", errorMessage);
+        message.addProperty("elapsedMillis", elapsedMillis);
+        send(writer, message);
+    }
+
+    private static void send(Writer writer, JsonObject message) throws IOException {
+        synchronized (writer) {
+            writer.write(message.toString());
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    private static JsonElement toJson(Object value) {
+        if (value == null) {
+            return JsonNull.INSTANCE;
+        }
+        try {
+            return gson.toJsonTree(value);
+        } catch (Exception exc) {
+            // Not every value (such as Ruby objects) can be serialized, fall back to its String form
+            return gson.toJsonTree(value.toString());
+        }
+    }
+
+    private static String getString(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    private static Map<String, Object> getMap(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        if (element == null || !element.isJsonObject()) {
+            return Collections.emptyMap();
+        }
+        return gson.fromJson(element, new TypeToken<HashMap<String, Object>>() {}.getType());
+    }
+
+    /***
+     * Stops accepting connections, closes the engine and removes the discovery file.
+     */
+    @Override
+    public void close() throws Exception {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        shutdownSignal.countDown();
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        if (connectionExecutor != null) {
+            connectionExecutor.shutdownNow();
+        }
+        if (discoveryFile != null) {
+            FileUtils.deleteQuietly(discoveryFile);
+        }
+        if (nuixEngine != null) {
+            nuixEngine.close();
+        }
+        log.info("Engine daemon stopped");
+    }
+}
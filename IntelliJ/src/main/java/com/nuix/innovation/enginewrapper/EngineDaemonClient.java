@@ -0,0 +1,224 @@
+package com.nuix.innovation.enginewrapper;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.commons.io.FileUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/***
+ * A thin client for submitting jobs to an {@link EngineDaemon}.  Output produced by a job is streamed to the provided
+ * consumer as it arrives, and each submission returns once the job is done.<br><br>
+ * Example usage:
+ * <pre>
+ * {@code
+ * try (EngineDaemonClient client = EngineDaemonClient.connect()) {
+ *     EngineDaemonClient.JobResult result = client.runRubyScript("puts $utilities.getItemTypeUtility.getAllTypes.size",
+ *             null, System.out::print);
+ * }
+ * }
+ * </pre>
+ */
+public class EngineDaemonClient implements AutoCloseable {
+    private static final Gson gson = new Gson();
+
+    /***
+     * The outcome of a job run by the daemon.
+     */
+    @Getter
+    public static class JobResult {
+        private final boolean success;
+        private final JsonElement result;
+        private final String errorMessage;
+        private final long elapsedMillis;
+
+        private JobResult(boolean success, JsonElement result, String errorMessage, long elapsedMillis) {
+            this.success = success;
+            this.result = result;
+            this.errorMessage = errorMessage;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final Writer writer;
+    private final String token;
+
+    protected EngineDaemonClient(Socket socket, String token) throws IOException {
+        this.socket = socket;
+        this.token = token;
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    /***
+     * Submits a Ruby script file to a daemon found via its default discovery file, streaming output to standard out.
+     * Usage: EngineDaemonClient [script.rb]  With no arguments, asks the daemon to shut down.
+     * @param args Path of the Ruby script to run
+     * @throws Exception If unable to communicate with the daemon
+     */
+    public static void main(String[] args) throws Exception {
+        try (EngineDaemonClient client = EngineDaemonClient.connect()) {
+            if (args.length < 1) {
+                client.shutdownDaemon();
+                return;
+            }
+            JobResult result = client.runRubyScriptFile(new File(args[0]), null, System.out::print);
+            System.out.println();
+            System.out.printf("Completed in %dms, success: %s%n", result.getElapsedMillis(), result.isSuccess());
+            if (!result.isSuccess()) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /***
+     * Connects to a daemon using its default discovery file, see {@link EngineDaemon#getDefaultDiscoveryFile()}.
+     * @return A connected client
+     * @throws IOException If the discovery file cannot be read or the daemon cannot be reached
+     */
+    public static EngineDaemonClient connect() throws IOException {
+        return connect(EngineDaemon.getDefaultDiscoveryFile());
+    }
+
+    /***
+     * Connects to a daemon using the port and token recorded in the provided discovery file.
+     * @param discoveryFile Discovery file written by the daemon
+     * @return A connected client
+     * @throws IOException If the discovery file cannot be read or the daemon cannot be reached
+     */
+    public static EngineDaemonClient connect(@NonNull File discoveryFile) throws IOException {
+        JsonObject discovery = JsonParser.parseString(
+                FileUtils.readFileToString(discoveryFile, StandardCharsets.UTF_8)).getAsJsonObject();
+        return connect(discovery.get("port").getAsInt(), discovery.get("token").getAsString());
+    }
+
+    /***
+     * Connects to a daemon listening on the given loopback port.
+     * @param port The port the daemon listens on
+     * @param token The daemon's token
+     * @return A connected client
+     * @throws IOException If the daemon cannot be reached
+     */
+    public static EngineDaemonClient connect(int port, @NonNull String token) throws IOException {
+        return new EngineDaemonClient(new Socket(InetAddress.getLoopbackAddress(), port), token);
+    }
+
+    /***
+     * Checks the daemon is responsive.
+     * @return The daemon's engine version
+     * @throws IOException If unable to communicate with the daemon
+     */
+    public String ping() throws IOException {
+        JobResult result = submit(newRequest("ping"), null);
+        return result.getResult().getAsString();
+    }
+
+    /***
+     * Runs a Ruby script with the daemon's engine.  The script has access to the same variables as scripts run via
+     * {@link NuixEngine#runRubyScriptAsync(String, Map, java.util.function.BiConsumer)}.
+     * @param script The Ruby script to run
+     * @param variables Additional variables to set, values must be JSON serializable.  Can be null.
+     * @param outputConsumer Receives output as the script produces it.  Can be null.
+     * @return The outcome of the job
+     * @throws IOException If unable to communicate with the daemon
+     */
+    public JobResult runRubyScript(@NonNull String script, Map<String, Object> variables,
+                                   Consumer<String> outputConsumer) throws IOException {
+        JsonObject request = newRequest("ruby");
+        request.addProperty("script", script);
+        request.add("arguments", gson.toJsonTree(variables));
+        return submit(request, outputConsumer);
+    }
+
+    /***
+     * Runs a Ruby script file with the daemon's engine.  The path must be accessible to the daemon.
+     * @param scriptFile The Ruby script file to run
+     * @param variables Additional variables to set, values must be JSON serializable.  Can be null.
+     * @param outputConsumer Receives output as the script produces it.  Can be null.
+     * @return The outcome of the job
+     * @throws IOException If unable to communicate with the daemon
+     */
+    public JobResult runRubyScriptFile(@NonNull File scriptFile, Map<String, Object> variables,
+                                       Consumer<String> outputConsumer) throws IOException {
+        JsonObject request = newRequest("rubyFile");
+        request.addProperty("path", scriptFile.getAbsolutePath());
+        request.add("arguments", gson.toJsonTree(variables));
+        return submit(request, outputConsumer);
+    }
+
+    /***
+     * Runs a Java task registered with the daemon via {@link EngineDaemon#registerTask(String, EngineTask)}.
+     * @param taskName Name of the registered task
+     * @param arguments Arguments to pass to the task, values must be JSON serializable.  Can be null.
+     * @param outputConsumer Receives output as the task produces it.  Can be null.
+     * @return The outcome of the job
+     * @throws IOException If unable to communicate with the daemon
+     */
+    public JobResult runTask(@NonNull String taskName, Map<String, Object> arguments,
+                             Consumer<String> outputConsumer) throws IOException {
+        JsonObject request = newRequest("task");
+        request.addProperty("task", taskName);
+        request.add("arguments", gson.toJsonTree(arguments));
+        return submit(request, outputConsumer);
+    }
+
+    /***
+     * Asks the daemon to shut down, releasing its license.
+     * @throws IOException If unable to communicate with the daemon
+     */
+    public void shutdownDaemon() throws IOException {
+        submit(newRequest("shutdown"), null);
+    }
+
+    private JsonObject newRequest(String type) {
+        JsonObject request = new JsonObject();
+        request.addProperty("id", UUID.randomUUID().toString());
+        request.addProperty("type", type);
+        request.addProperty("token", token);
+        return request;
+    }
+
+    private synchronized JobResult submit(JsonObject request, Consumer<String> outputConsumer) throws IOException {
+        writer.write(request.toString());
+        writer.write('\n');
+        writer.flush();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            JsonObject message = JsonParser.parseString(line).getAsJsonObject();
+            String event = message.get("event").getAsString();
+            if (event.equals("done")) {
+                JsonElement errorMessage = message.get("errorMessage");
+                return new JobResult(message.get("success").getAsBoolean(), message.get("result"),
+                        errorMessage == null || errorMessage.isJsonNull() ? null : errorMessage.getAsString(),
+                        message.get("elapsedMillis").getAsLong());
+            } else if (outputConsumer != null) {
+                outputConsumer.accept(message.get("data").getAsString());
+            }
+        }
+        throw new IOException("Connection closed by daemon before job completed");
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.nuix.innovation.enginewrapper;
+
+import nuix.Utilities;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/***
+ * A Java task which can be registered with an {@link EngineDaemon} via {@link EngineDaemon#registerTask(String, EngineTask)}
+ * and then run by name from an {@link EngineDaemonClient}, using the daemon's already licensed engine.
+ */
+@FunctionalInterface
+public interface EngineTask {
+    /***
+     * Runs the task.
+     * @param utilities Licensed Utilities of the daemon's engine
+     * @param arguments Arguments provided by the client submitting the task, never null
+     * @param output Consumer which streams messages back to the client as the task runs
+     * @return A result to send back to the client, which will be serialized as JSON.  Can be null.
+     * @throws Exception Exceptions are reported back to the client as a failed job.
+     */
+    Object run(Utilities utilities, Map<String, Object> arguments, Consumer<String> output) throws Exception;
+}
@@ -0,0 +1,73 @@
+package com.nuix.innovation.enginewrapper;
+
+import nuix.engine.GlobalContainer;
+import nuix.engine.GlobalContainerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/***
+ * Manages the single Nuix GlobalContainer shared by every {@link NuixEngine} in the JVM.  Each engine acquires a
+ * reference to the container before building its Engine and releases it when closed, so the container is created once
+ * no matter how many engines start concurrently and is never closed out from under an engine which is still in use.
+ * The container is kept open when the last reference is released, since creating it is expensive, and is closed by
+ * {@link #closeIfUnused()} (called by {@link NuixEngine#closeGlobalContainer()}).
+ */
+public class GlobalContainerManager {
+    private static final Logger log = LoggerFactory.getLogger(GlobalContainerManager.class);
+
+    private static GlobalContainer globalContainer = null;
+    private static int referenceCount = 0;
+
+    private GlobalContainerManager() {
+    }
+
+    /***
+     * Acquires a reference to the GlobalContainer, creating it if needed.  Every call must be paired with a later
+     * call to {@link #release()}.
+     * @return The GlobalContainer instance
+     */
+    public static synchronized GlobalContainer acquire() {
+        if (globalContainer == null) {
+            log.info("Creating GlobalContainer");
+            globalContainer = GlobalContainerFactory.newContainer();
+        }
+        referenceCount++;
+        return globalContainer;
+    }
+
+    /***
+     * Releases a reference previously obtained from {@link #acquire()}.
+     */
+    public static synchronized void release() {
+        if (referenceCount > 0) {
+            referenceCount--;
+        } else {
+            log.warn("GlobalContainer released more times than it was acquired");
+        }
+    }
+
+    /***
+     * Closes the GlobalContainer if it exists and no engine currently holds a reference to it.
+     * @return True if the container was closed, false if there was no container or it is still in use.
+     */
+    public static synchronized boolean closeIfUnused() {
+        if (globalContainer == null) {
+            return false;
+        }
+        if (referenceCount > 0) {
+            log.warn("Not closing GlobalContainer, it is still referenced by {} engine(s)", referenceCount);
+            return false;
+        }
+        log.info("Closing GlobalContainer");
+        globalContainer.close();
+        globalContainer = null;
+        return true;
+    }
+
+    /***
+     * @return The number of engines currently holding a reference to the GlobalContainer.
+     */
+    public static synchronized int getReferenceCount() {
+        return referenceCount;
+    }
+}
@@ -0,0 +1,40 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.Getter;
+import nuix.LicenceProperties;
+import nuix.engine.AvailableLicence;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/***
+ * The outcome of a single license acquisition by a {@link NuixLicenseResolver}.  Resolvers are commonly shared by
+ * several engines, so what was decided while acquiring a license is returned to the engine which acquired it rather
+ * than kept on the resolver, where a concurrent acquisition by another engine could replace it.  The acquired license
+ * is null when the resolver does not report it, such as for a custom {@link LicenseResolver}.  The source properties
+ * are the system properties the license was acquired with, see {@link NuixLicenseResolver#getLicenseSourceProperties()}.
+ */
+@Getter
+public class LicenseAcquisition {
+    private final AvailableLicence acquiredLicense;
+    private final WorkerCountPolicy.Decision workerCountDecision;
+    private final Map<String, String> sourceProperties;
+
+    LicenseAcquisition(AvailableLicence acquiredLicense, WorkerCountPolicy.Decision workerCountDecision) {
+        this(acquiredLicense, workerCountDecision, Map.of());
+    }
+
+    LicenseAcquisition(AvailableLicence acquiredLicense, WorkerCountPolicy.Decision workerCountDecision,
+                       Map<String, String> sourceProperties) {
+        this.acquiredLicense = acquiredLicense;
+        this.workerCountDecision = workerCountDecision;
+        this.sourceProperties = Collections.unmodifiableMap(new HashMap<>(sourceProperties));
+    }
+
+    @Override
+    public String toString() {
+        String shortName = acquiredLicense == null ? null : ((LicenceProperties) acquiredLicense).getShortName();
+        return "LicenseAcquisition{shortName=" + shortName + ", workerCountDecision=" + workerCountDecision + '}';
+    }
+}
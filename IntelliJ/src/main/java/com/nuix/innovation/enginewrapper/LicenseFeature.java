@@ -0,0 +1,57 @@
+package com.nuix.innovation.enginewrapper;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/***
+ * The known Nuix license features, copied from the 9.10 license profiles documentation.  Sets of features are best held
+ * in an {@link EnumSet}, which stores them as bits, making membership checks and comparisons of feature sets cheap.
+ */
+public enum LicenseFeature {
+    ANALYSIS, AOS_DATA, AUTOMATIC_CLASSIFIER_EDITING, AXS_ONE, CASE_CREATION, CUSTOM_NAMED_ENTITIES, CYBER_CONTEXT,
+    DESKTOP, ELASTIC_SEARCH, EXCHANGE_WS, EXPORT_CASE_SUBSET, EXPORT_DISCOVER, EXPORT_ITEMS, EXPORT_LEGAL,
+    EXPORT_SINGLE_ITEM, EXPORT_VIEW, FAST_REVIEW, FRONT_LOAD_METADATA, GENERAL_DATA, GRAPH, GWAVA, IMAP_POP,
+    LIGHT_SPEED, LOG_STASH, LOTUS_NOTES, MAIL_XTENDER, METADATA_IMPORT, MICROSOFT_GRAPH, MOBILE_DEVICE_IMAGING,
+    NETWORK_DATA, OCR_PROCESSING, OTHER_EMAIL, OUTLOOK, OUTLOOK_EXPRESS, PARTIAL_LOAD, PRODUCTION_SET, SCRIPTING,
+    SYMANTEC_VAULT, UNRESTRICTED_CASE_ACCESS, WORKER, WORKER_SCRIPTING, ZANTAZ;
+
+    private static final Map<String, LicenseFeature> byName = new HashMap<>();
+
+    static {
+        for (LicenseFeature feature : values()) {
+            byName.put(feature.name(), feature);
+        }
+    }
+
+    /***
+     * @param name A feature name as reported by a license, case insensitive
+     * @return The matching feature, or null if the feature is not known
+     */
+    public static LicenseFeature fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        LicenseFeature feature = byName.get(name);
+        return feature != null ? feature : byName.get(name.toUpperCase());
+    }
+
+    /***
+     * Converts feature names into a set of known features.  Names which are not known are ignored.
+     * @param names Feature names
+     * @return The known features among the names
+     */
+    public static EnumSet<LicenseFeature> setOf(Collection<String> names) {
+        EnumSet<LicenseFeature> features = EnumSet.noneOf(LicenseFeature.class);
+        if (names != null) {
+            for (String name : names) {
+                LicenseFeature feature = fromName(name);
+                if (feature != null) {
+                    features.add(feature);
+                }
+            }
+        }
+        return features;
+    }
+}
@@ -0,0 +1,113 @@
+package com.nuix.innovation.enginewrapper;
+
+import nuix.LicenceProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+/***
+ * Represents a set of license features as bits of a long, one bit per {@link LicenseFeature} at its ordinal, so that
+ * whether a license has every required feature can be determined with a single mask operation rather than a call to
+ * hasFeature for each feature.
+ */
+public final class LicenseFeatureMask {
+    static {
+        if (LicenseFeature.values().length > Long.SIZE) {
+            throw new IllegalStateException(String.format("%s known features do not fit in a %s bit mask",
+                    LicenseFeature.values().length, Long.SIZE));
+        }
+    }
+
+    private LicenseFeatureMask() {}
+
+    /***
+     * @param feature A feature name
+     * @return True if the feature is one of the known features and so can be represented in a mask
+     */
+    public static boolean isKnownFeature(String feature) {
+        return LicenseFeature.fromName(feature) != null;
+    }
+
+    /***
+     * Builds a mask of the given features.
+     * @param features Known features
+     * @return A mask with the bit of each feature set
+     */
+    public static long of(EnumSet<LicenseFeature> features) {
+        long mask = 0L;
+        for (LicenseFeature feature : features) {
+            mask |= 1L << feature.ordinal();
+        }
+        return mask;
+    }
+
+    /***
+     * Builds a mask of the given features.  Features which are not known are ignored, see {@link #unknownFeatures(Collection)}.
+     * @param features Feature names
+     * @return A mask with the bit of each known feature set
+     */
+    public static long of(Collection<String> features) {
+        return of(LicenseFeature.setOf(features));
+    }
+
+    /***
+     * Builds a mask of the features enabled on a license, using a single call to getAllEnabledFeatures.
+     * @param license The license
+     * @return A mask with the bit of each known feature the license has enabled set
+     */
+    public static long of(LicenceProperties license) {
+        Collection<String> enabledFeatures = license.getAllEnabledFeatures();
+        return enabledFeatures == null ? 0L : of(enabledFeatures);
+    }
+
+    /***
+     * @param features Feature names
+     * @return Those features which are not known, and so need to be checked individually
+     */
+    public static List<String> unknownFeatures(Collection<String> features) {
+        List<String> unknown = new ArrayList<>();
+        for (String feature : features) {
+            if (!isKnownFeature(feature)) {
+                unknown.add(feature);
+            }
+        }
+        return unknown;
+    }
+
+    /***
+     * @param licenseMask Mask of features a license has
+     * @param requiredMask Mask of required features
+     * @return True if every required feature is present
+     */
+    public static boolean hasAll(long licenseMask, long requiredMask) {
+        return (licenseMask & requiredMask) == requiredMask;
+    }
+
+    /***
+     * @param mask A feature mask
+     * @return The features in the mask
+     */
+    public static EnumSet<LicenseFeature> toFeatureSet(long mask) {
+        EnumSet<LicenseFeature> features = EnumSet.noneOf(LicenseFeature.class);
+        for (LicenseFeature feature : LicenseFeature.values()) {
+            if ((mask & (1L << feature.ordinal())) != 0) {
+                features.add(feature);
+            }
+        }
+        return features;
+    }
+
+    /***
+     * @param mask A feature mask
+     * @return Names of the features in the mask
+     */
+    public static List<String> toFeatures(long mask) {
+        List<String> features = new ArrayList<>();
+        for (LicenseFeature feature : toFeatureSet(mask)) {
+            features.add(feature.name());
+        }
+        return features;
+    }
+}
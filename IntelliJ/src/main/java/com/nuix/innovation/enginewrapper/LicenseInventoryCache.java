@@ -0,0 +1,241 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.NonNull;
+import nuix.engine.AvailableLicence;
+import nuix.engine.Licensor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/***
+ * Caches the available license inventory of license sources for a configurable time to live (TTL), so that resolving
+ * licenses repeatedly against the same source does not require a round trip for each attempt.<br><br>
+ * An {@link AvailableLicence} can only be acquired by the Engine whose licensor produced it, so inventories are cached
+ * per {@link SourceKey} (source, host and port) and licensor.  An inventory is reused by the Engine which loaded it, for
+ * example across resolvers in a chain or race that target the same source, or when a license is later reacquired.
+ * Loading is single-flight per source and licensor: concurrent requests for the same inventory through the same
+ * Engine's licensor share one query.  Different Engines each query the source themselves, since they could not
+ * acquire a license from another Engine's inventory.  Inventories loaded by an Engine's licensor are removed when that
+ * {@link NuixEngine} is closed, see {@link #invalidateLicensor(Licensor)}.
+ */
+public class LicenseInventoryCache {
+    private static final Logger log = LoggerFactory.getLogger(LicenseInventoryCache.class);
+    private static final LicenseInventoryCache shared = new LicenseInventoryCache();
+
+    /***
+     * Identifies a license source by its type, host and port.
+     */
+    public static final class SourceKey {
+        private final NuixLicenseResolver.LicenseResolutionSource source;
+        private final String host;
+        private final int port;
+
+        public SourceKey(@NonNull NuixLicenseResolver.LicenseResolutionSource source, String host, int port) {
+            this.source = source;
+            this.host = host;
+            this.port = port;
+        }
+
+        public NuixLicenseResolver.LicenseResolutionSource getSource() {
+            return source;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SourceKey)) return false;
+            SourceKey other = (SourceKey) o;
+            return port == other.port && source == other.source && Objects.equals(host, other.host);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, host, port);
+        }
+
+        @Override
+        public String toString() {
+            return host == null ? source.toString() : String.format("%s(%s:%s)", source, host, port);
+        }
+    }
+
+    /***
+     * A loaded inventory along with when it was loaded.
+     */
+    private static final class Entry {
+        private final List<AvailableLicence> licences;
+        private final long loadedAtNanos;
+
+        private Entry(List<AvailableLicence> licences) {
+            this.licences = licences;
+            this.loadedAtNanos = System.nanoTime();
+        }
+    }
+
+    /***
+     * Identifies an inventory, which is specific to both a source and the licensor it is loaded through.
+     */
+    private static final class InventoryKey {
+        private final SourceKey sourceKey;
+        private final Licensor licensor;
+
+        private InventoryKey(SourceKey sourceKey, Licensor licensor) {
+            this.sourceKey = sourceKey;
+            this.licensor = licensor;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof InventoryKey)) return false;
+            InventoryKey other = (InventoryKey) o;
+            return licensor == other.licensor && sourceKey.equals(other.sourceKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sourceKey.hashCode() + System.identityHashCode(licensor);
+        }
+    }
+
+    private final ConcurrentHashMap<InventoryKey, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<InventoryKey, CompletableFuture<List<AvailableLicence>>> inFlightLoads = new ConcurrentHashMap<>();
+    private volatile Duration ttl = Duration.ofSeconds(30);
+
+    /***
+     * Gets the cache shared by all {@link NuixLicenseResolver} instances which have inventory caching enabled via
+     * {@link NuixLicenseResolver#withInventoryCaching()}.
+     * @return The shared cache instance
+     */
+    public static LicenseInventoryCache getShared() {
+        return shared;
+    }
+
+    /***
+     * Gets how long a loaded inventory is considered current.
+     * @return The time to live of cached inventories
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /***
+     * Sets how long a loaded inventory is considered current.  Defaults to 30 seconds.
+     * @param ttl The time to live of cached inventories
+     * @return This cache for chained method calls.
+     */
+    public LicenseInventoryCache setTtl(@NonNull Duration ttl) {
+        this.ttl = ttl;
+        return this;
+    }
+
+    /***
+     * Gets the inventory of the given source for the given licensor.  If a current inventory loaded by the same licensor
+     * is cached it is returned, otherwise the loader is called.  Concurrent calls for the same source and licensor share
+     * a single call to the loader.
+     * @param sourceKey The source being queried
+     * @param licensor The licensor which will be used to acquire a license from the inventory
+     * @param loader Queries the source for its available licenses
+     * @return The available licenses of the source
+     * @throws Exception If the loader throws an exception, it is allowed to bubble up.
+     */
+    public List<AvailableLicence> getInventory(@NonNull SourceKey sourceKey, @NonNull Licensor licensor,
+                                               @NonNull Callable<List<AvailableLicence>> loader) throws Exception {
+        InventoryKey inventoryKey = new InventoryKey(sourceKey, licensor);
+        Entry entry = entries.get(inventoryKey);
+        if (entry != null && isCurrent(entry)) {
+            log.info("Using cached license inventory for {}", sourceKey);
+            return entry.licences;
+        }
+
+        CompletableFuture<List<AvailableLicence>> ownLoad = new CompletableFuture<>();
+        CompletableFuture<List<AvailableLicence>> inFlightLoad = inFlightLoads.putIfAbsent(inventoryKey, ownLoad);
+        if (inFlightLoad != null) {
+            log.info("Waiting on in-flight license inventory query for {}", sourceKey);
+            try {
+                return inFlightLoad.get();
+            } catch (ExecutionException exc) {
+                if (exc.getCause() instanceof Error) {
+                    throw (Error) exc.getCause();
+                }
+                throw exc.getCause() instanceof Exception ? (Exception) exc.getCause() : exc;
+            }
+        }
+
+        try {
+            List<AvailableLicence> licences = List.copyOf(loader.call());
+            entries.put(inventoryKey, new Entry(licences));
+            ownLoad.complete(licences);
+            return licences;
+        } catch (Throwable throwable) {
+            // Waiters must be released whatever went wrong, including Errors
+            ownLoad.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            inFlightLoads.remove(inventoryKey, ownLoad);
+        }
+    }
+
+    /***
+     * Gets the current cached inventory of the given source loaded by the given licensor, without loading it.
+     * @param sourceKey The source to look up
+     * @param licensor The licensor the inventory was loaded through
+     * @return The cached inventory, or empty if there is no current inventory cached for the source and licensor.
+     */
+    public Optional<List<AvailableLicence>> peekInventory(@NonNull SourceKey sourceKey, @NonNull Licensor licensor) {
+        Entry entry = entries.get(new InventoryKey(sourceKey, licensor));
+        if (entry != null && isCurrent(entry)) {
+            return Optional.of(entry.licences);
+        }
+        return Optional.empty();
+    }
+
+    /***
+     * Removes any cached inventories of the given source, whichever licensor loaded them, for example because acquiring
+     * a license from it failed.
+     * @param sourceKey The source to invalidate
+     */
+    public void invalidate(@NonNull SourceKey sourceKey) {
+        if (entries.keySet().removeIf(inventoryKey -> inventoryKey.sourceKey.equals(sourceKey))) {
+            log.info("Invalidated cached license inventory for {}", sourceKey);
+        }
+    }
+
+    /***
+     * Removes any cached inventories loaded by the given licensor.  Licenses in them can no longer be acquired once the
+     * Engine the licensor belongs to has been closed, and keeping them would keep that licensor reachable.
+     * @param licensor The licensor whose inventories should be removed
+     */
+    public void invalidateLicensor(@NonNull Licensor licensor) {
+        if (entries.keySet().removeIf(inventoryKey -> inventoryKey.licensor == licensor)) {
+            log.info("Invalidated cached license inventories of closed licensor");
+        }
+    }
+
+    /***
+     * Removes all cached inventories.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private boolean isCurrent(Entry entry) {
+        return System.nanoTime() - entry.loadedAtNanos < ttl.toNanos();
+    }
+}
@@ -0,0 +1,364 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.Getter;
+import lombok.NonNull;
+import nuix.Licence;
+import nuix.engine.Engine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/***
+ * Watches the license held by a {@link NuixEngine} and, if the lease is lost (for example an NMS or cloud license server
+ * becoming unreachable in the middle of a long job), reacquires a license through the engine's configured
+ * {@link LicenseResolver} chain without rebuilding the engine.  A brief outage only causes a lost lease to be reported
+ * once several consecutive checks have failed.<br><br>
+ * Basic usage example:
+ * <pre>
+ * {@code
+ * NuixEngine nuixEngine = NuixEngine.usingFirstAvailableLicense(resolvers)
+ *     .setLicenseLeaseWatchdog(LicenseLeaseWatchdog.create()
+ *         .withCheckInterval(Duration.ofMinutes(1))
+ *         .addListener(event -> log.warn("License lease event: {}", event)));
+ * }
+ * </pre>
+ */
+public class LicenseLeaseWatchdog implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(LicenseLeaseWatchdog.class);
+
+    /***
+     * Determines whether an engine still holds its license lease.
+     */
+    @FunctionalInterface
+    public interface LeaseProbe {
+        /***
+         * @param engine The engine to check
+         * @return True if the engine still holds its license
+         * @throws Exception Thrown exceptions are treated as the lease not being held
+         */
+        boolean isLeaseHeld(Engine engine) throws Exception;
+    }
+
+    /***
+     * The state of the watched license lease.
+     */
+    public enum LeaseState {
+        /***
+         * Watchdog has not been started or has been closed.
+         */
+        NOT_WATCHING,
+        /***
+         * Most recent check found the lease to be held.
+         */
+        HELD,
+        /***
+         * One or more recent checks failed, but not enough in a row to consider the lease lost.
+         */
+        SUSPECT,
+        /***
+         * The lease was lost and attempts to reacquire a license are under way.
+         */
+        REACQUIRING,
+        /***
+         * The lease was lost and the maximum number of reacquire attempts have failed.
+         */
+        LOST
+    }
+
+    /***
+     * Types of events emitted to listeners.
+     */
+    public enum LeaseEventType {
+        /***
+         * A check failed, but not enough checks in a row have failed yet to consider the lease lost.
+         */
+        CHECK_FAILED,
+        /***
+         * Enough checks in a row failed that the lease is considered lost.
+         */
+        LEASE_LOST,
+        /***
+         * A check succeeded after one or more failed checks, without needing to reacquire.
+         */
+        LEASE_RESTORED,
+        /***
+         * An attempt to reacquire a license failed.
+         */
+        REACQUIRE_FAILED,
+        /***
+         * A license was reacquired.
+         */
+        REACQUIRED,
+        /***
+         * The maximum number of reacquire attempts failed, the watchdog stops trying.
+         */
+        REACQUIRE_ABANDONED
+    }
+
+    /***
+     * An event describing a change in the watched license lease.
+     */
+    @Getter
+    public static class LeaseEvent {
+        private final LeaseEventType type;
+        private final Instant timestamp = Instant.now();
+        private final int consecutiveFailures;
+        private final String message;
+        private final Throwable error;
+
+        LeaseEvent(LeaseEventType type, int consecutiveFailures, String message, Throwable error) {
+            this.type = type;
+            this.consecutiveFailures = consecutiveFailures;
+            this.message = message;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s at %s (consecutive failures: %s): %s%s", type, timestamp, consecutiveFailures,
+                    message, error == null ? "" : " (" + error.getMessage() + ")");
+        }
+    }
+
+    private Duration checkInterval = Duration.ofSeconds(30);
+    private Duration reacquireInterval = Duration.ofSeconds(15);
+    private int failureThreshold = 2;
+    private int maxReacquireAttempts = 0;
+    private LeaseProbe leaseProbe = LicenseLeaseWatchdog::defaultLeaseProbe;
+    private final List<Consumer<LeaseEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private NuixEngine nuixEngine;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> scheduledCheck;
+    @Getter
+    private volatile LeaseState state = LeaseState.NOT_WATCHING;
+    @Getter
+    private volatile int consecutiveFailures = 0;
+    private int reacquireAttempts = 0;
+    @Getter
+    private volatile int reacquiredCount = 0;
+    @Getter
+    private volatile Instant lastCheck = null;
+
+    protected LicenseLeaseWatchdog() {}
+
+    /***
+     * Creates a new watchdog with default settings: a check every 30 seconds, a lease considered lost after 2 failed
+     * checks in a row and reacquire attempts every 15 seconds until one succeeds.
+     * @return A new watchdog
+     */
+    public static LicenseLeaseWatchdog create() {
+        return new LicenseLeaseWatchdog();
+    }
+
+    /***
+     * The default lease probe considers a lease held while the engine reports a licence and that licence can be queried.
+     * @param engine The engine to check
+     * @return True if the engine reports holding a licence
+     */
+    public static boolean defaultLeaseProbe(Engine engine) {
+        Licence licence = engine.getLicence();
+        return licence != null && licence.getWorkers() >= 0;
+    }
+
+    /***
+     * @param checkInterval How often the license lease is checked
+     * @return This instance for method call chaining
+     */
+    public LicenseLeaseWatchdog withCheckInterval(@NonNull Duration checkInterval) {
+        this.checkInterval = checkInterval;
+        return this;
+    }
+
+    /***
+     * @param reacquireInterval How long to wait between attempts to reacquire a lost license
+     * @return This instance for method call chaining
+     */
+    public LicenseLeaseWatchdog withReacquireInterval(@NonNull Duration reacquireInterval) {
+        this.reacquireInterval = reacquireInterval;
+        return this;
+    }
+
+    /***
+     * @param failureThreshold How many checks in a row must fail before the lease is considered lost
+     * @return This instance for method call chaining
+     */
+    public LicenseLeaseWatchdog withFailureThreshold(int failureThreshold) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        return this;
+    }
+
+    /***
+     * @param maxReacquireAttempts Maximum number of attempts to reacquire a lost license, 0 for no limit
+     * @return This instance for method call chaining
+     */
+    public LicenseLeaseWatchdog withMaxReacquireAttempts(int maxReacquireAttempts) {
+        this.maxReacquireAttempts = Math.max(0, maxReacquireAttempts);
+        return this;
+    }
+
+    /***
+     * @param leaseProbe Determines whether the engine still holds its lease, replacing {@link #defaultLeaseProbe(Engine)}
+     * @return This instance for method call chaining
+     */
+    public LicenseLeaseWatchdog withLeaseProbe(@NonNull LeaseProbe leaseProbe) {
+        this.leaseProbe = leaseProbe;
+        return this;
+    }
+
+    /***
+     * @param listener Called with each {@link LeaseEvent}, on the watchdog thread
+     * @return This instance for method call chaining
+     */
+    public LicenseLeaseWatchdog addListener(@NonNull Consumer<LeaseEvent> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    /***
+     * Starts watching the license of the given engine.  Called by {@link NuixEngine} once it has obtained a license when
+     * set with {@link NuixEngine#setLicenseLeaseWatchdog(LicenseLeaseWatchdog)}, may also be called to start watching
+     * an engine which is already licensed.  Has no effect if already started.
+     * @param nuixEngine The engine to watch
+     */
+    public synchronized void start(@NonNull NuixEngine nuixEngine) {
+        if (scheduler != null) {
+            return;
+        }
+        this.nuixEngine = nuixEngine;
+        consecutiveFailures = 0;
+        reacquireAttempts = 0;
+        state = LeaseState.HELD;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LicenseLeaseWatchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleNext(checkInterval);
+        log.info("Watching license lease every {}", checkInterval);
+    }
+
+    private synchronized void scheduleNext(Duration delay) {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduledCheck = scheduler.schedule(this::check, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /***
+     * Performs a single check, reacquiring a license when the lease is considered lost.  Normally called on the
+     * watchdog thread, may be called directly to check immediately.
+     */
+    void check() {
+        NuixEngine watched = nuixEngine;
+        if (watched == null || state == LeaseState.NOT_WATCHING) {
+            return;
+        }
+        lastCheck = Instant.now();
+
+        if (state == LeaseState.REACQUIRING) {
+            attemptReacquire(watched);
+            return;
+        }
+
+        Throwable probeError = null;
+        boolean held;
+        try {
+            Engine engine = watched.engine;
+            held = engine != null && leaseProbe.isLeaseHeld(engine);
+        } catch (Throwable exc) {
+            held = false;
+            probeError = exc;
+        }
+
+        if (held) {
+            if (consecutiveFailures > 0) {
+                emit(new LeaseEvent(LeaseEventType.LEASE_RESTORED, consecutiveFailures, "License lease check succeeded again", null));
+            }
+            consecutiveFailures = 0;
+            state = LeaseState.HELD;
+            scheduleNext(checkInterval);
+            return;
+        }
+
+        consecutiveFailures++;
+        if (consecutiveFailures < failureThreshold) {
+            state = LeaseState.SUSPECT;
+            emit(new LeaseEvent(LeaseEventType.CHECK_FAILED, consecutiveFailures, "License lease check failed", probeError));
+            scheduleNext(checkInterval);
+        } else {
+            state = LeaseState.REACQUIRING;
+            reacquireAttempts = 0;
+            emit(new LeaseEvent(LeaseEventType.LEASE_LOST, consecutiveFailures, "License lease lost, attempting to reacquire", probeError));
+            attemptReacquire(watched);
+        }
+    }
+
+    private void attemptReacquire(NuixEngine watched) {
+        reacquireAttempts++;
+        try {
+            if (watched.reacquireLicense()) {
+                reacquiredCount++;
+                consecutiveFailures = 0;
+                state = LeaseState.HELD;
+                emit(new LeaseEvent(LeaseEventType.REACQUIRED, 0,
+                        String.format("License reacquired after %s attempt(s)", reacquireAttempts), null));
+                scheduleNext(checkInterval);
+                return;
+            }
+            emit(new LeaseEvent(LeaseEventType.REACQUIRE_FAILED, consecutiveFailures,
+                    String.format("Attempt %s to reacquire license obtained no license", reacquireAttempts), null));
+        } catch (Throwable exc) {
+            emit(new LeaseEvent(LeaseEventType.REACQUIRE_FAILED, consecutiveFailures,
+                    String.format("Attempt %s to reacquire license failed", reacquireAttempts), exc));
+        }
+
+        if (maxReacquireAttempts > 0 && reacquireAttempts >= maxReacquireAttempts) {
+            state = LeaseState.LOST;
+            emit(new LeaseEvent(LeaseEventType.REACQUIRE_ABANDONED, consecutiveFailures,
+                    String.format("Giving up reacquiring license after %s attempt(s)", reacquireAttempts), null));
+        } else {
+            scheduleNext(reacquireInterval);
+        }
+    }
+
+    private void emit(LeaseEvent event) {
+        if (event.getType() == LeaseEventType.REACQUIRED || event.getType() == LeaseEventType.LEASE_RESTORED) {
+            log.info("License lease: {}", event);
+        } else {
+            log.warn("License lease: {}", event);
+        }
+        for (Consumer<LeaseEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception exc) {
+                log.error("License lease listener threw an exception", exc);
+            }
+        }
+    }
+
+    /***
+     * Stops watching.  Called by {@link NuixEngine#close()}.
+     */
+    @Override
+    public synchronized void close() {
+        state = LeaseState.NOT_WATCHING;
+        if (scheduledCheck != null) {
+            scheduledCheck.cancel(false);
+            scheduledCheck = null;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        nuixEngine = null;
+    }
+}
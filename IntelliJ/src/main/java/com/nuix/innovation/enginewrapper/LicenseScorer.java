@@ -0,0 +1,87 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.Getter;
+import nuix.LicenceProperties;
+import nuix.engine.AvailableLicence;
+
+/***
+ * Ranks candidate licenses which have met the criteria of a {@link NuixLicenseResolver}, the highest scoring candidate
+ * being acquired.  See {@link NuixLicenseResolver#withLicenseScorer(LicenseScorer)}.
+ */
+@FunctionalInterface
+public interface LicenseScorer {
+    /***
+     * A license which has met the criteria of a resolver, with the details scorers commonly need.
+     */
+    @Getter
+    class Candidate {
+        private final AvailableLicence license;
+        private final long featureMask;
+        private final long requiredFeatureMask;
+        private final Integer workers;
+        private final int minWorkerCount;
+
+        public Candidate(AvailableLicence license, long featureMask, long requiredFeatureMask, int minWorkerCount) {
+            this.license = license;
+            this.featureMask = featureMask;
+            this.requiredFeatureMask = requiredFeatureMask;
+            this.workers = ((LicenceProperties) license).getWorkers();
+            this.minWorkerCount = minWorkerCount;
+        }
+
+        /***
+         * @return Number of enabled features the license has beyond those required
+         */
+        public int getFeatureSurplus() {
+            return Long.bitCount(featureMask & ~requiredFeatureMask);
+        }
+
+        /***
+         * @return Number of workers beyond those required, 0 if the worker count can be chosen when acquiring
+         */
+        public int getWorkerSurplus() {
+            if (workers == null || license.canChooseWorkers()) {
+                return 0;
+            }
+            return Math.max(0, workers - Math.max(1, minWorkerCount));
+        }
+
+        /***
+         * @return The license source type, such as "dongle", "server" or "cloud-server", or an empty string if unknown
+         */
+        public String getSourceType() {
+            if (license.getSource() == null || license.getSource().getType() == null) {
+                return "";
+            }
+            return license.getSource().getType();
+        }
+    }
+
+    /***
+     * @param candidate A candidate license
+     * @return Score of the candidate, higher being preferred
+     */
+    double score(Candidate candidate);
+
+    /***
+     * The default scorer prefers licenses that fit the requirements most closely, so that oversized licenses remain
+     * available to those who need them.  In order of weight:
+     * <ul>
+     *     <li>Fewer surplus workers, relative to the workers required</li>
+     *     <li>Fewer surplus features</li>
+     *     <li>Local dongle licenses over server licenses over cloud licenses, all else being equal</li>
+     * </ul>
+     * @return The default scorer
+     */
+    static LicenseScorer defaultScorer() {
+        return candidate -> {
+            double workerFit = (double) candidate.getWorkerSurplus() / Math.max(1, candidate.getMinWorkerCount());
+            double sourcePreference = switch (candidate.getSourceType().toLowerCase()) {
+                case "dongle" -> 0.2;
+                case "server" -> 0.1;
+                default -> 0.0;
+            };
+            return -(workerFit * 10.0) - candidate.getFeatureSurplus() + sourcePreference;
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import nuix.Licence;
+import nuix.LicenceProperties;
+import nuix.engine.AvailableLicence;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/***
+ * The properties of a license, read from it once.  Reading properties of a license from a license server can involve
+ * remote calls, so inspecting a snapshot rather than the license itself avoids repeating them.  Known features are held
+ * as an {@link EnumSet} of {@link LicenseFeature}, any others by name.<br><br>
+ * The summary of a snapshot is only rendered the first time it is needed and then remembered.  {@link #toString()}
+ * returns the summary, so a snapshot can be passed as a logging parameter and is only rendered if the message is
+ * actually logged:
+ * <pre>
+ * {@code
+ * log.info("Inspecting license: {}", LicenseSnapshot.of(availableLicense));
+ * }
+ * </pre>
+ */
+@Getter
+public final class LicenseSnapshot {
+    private final boolean available;
+    private final String sourceLocation;
+    private final String sourceType;
+    private final String shortName;
+    private final String description;
+    private final int count;
+    private final Integer workers;
+    @Getter(AccessLevel.NONE)
+    private final boolean canChooseWorkers;
+    private final EnumSet<LicenseFeature> features;
+    private final Set<String> otherFeatures;
+    private final long featureMask;
+    @Getter(AccessLevel.NONE)
+    private volatile String summary = null;
+
+    private LicenseSnapshot(boolean available, String sourceLocation, String sourceType, LicenceProperties license,
+                            int count, boolean canChooseWorkers) {
+        this.available = available;
+        this.sourceLocation = sourceLocation;
+        this.sourceType = sourceType;
+        this.shortName = license.getShortName();
+        this.description = license.getDescription();
+        this.count = count;
+        this.workers = license.getWorkers();
+        this.canChooseWorkers = canChooseWorkers;
+
+        Collection<String> enabledFeatures = license.getAllEnabledFeatures();
+        this.features = EnumSet.noneOf(LicenseFeature.class);
+        Set<String> unknown = new LinkedHashSet<>();
+        if (enabledFeatures != null) {
+            for (String name : enabledFeatures) {
+                LicenseFeature feature = LicenseFeature.fromName(name);
+                if (feature != null) {
+                    features.add(feature);
+                } else {
+                    unknown.add(name);
+                }
+            }
+        }
+        this.otherFeatures = Collections.unmodifiableSet(unknown);
+        this.featureMask = LicenseFeatureMask.of(features);
+    }
+
+    /***
+     * Reads the properties of an available license.
+     * @param availableLicense The license to read
+     * @return A snapshot of the license
+     */
+    public static LicenseSnapshot of(@NonNull AvailableLicence availableLicense) {
+        String location = null;
+        String type = null;
+        if (availableLicense.getSource() != null) {
+            location = availableLicense.getSource().getLocation();
+            type = availableLicense.getSource().getType();
+        }
+        return new LicenseSnapshot(true, location, type, (LicenceProperties) availableLicense,
+                availableLicense.getCount(), availableLicense.canChooseWorkers());
+    }
+
+    /***
+     * Reads the properties of an acquired license.
+     * @param license The license to read
+     * @return A snapshot of the license
+     */
+    public static LicenseSnapshot of(@NonNull Licence license) {
+        return new LicenseSnapshot(false, null, null, license, 0, false);
+    }
+
+    /***
+     * @return True if the worker count can be chosen when acquiring the license
+     */
+    public boolean canChooseWorkers() {
+        return canChooseWorkers;
+    }
+
+    /***
+     * @param feature A feature name, case insensitive
+     * @return True if the license has the feature enabled
+     */
+    public boolean hasFeature(@NonNull String feature) {
+        LicenseFeature knownFeature = LicenseFeature.fromName(feature);
+        return knownFeature != null ? features.contains(knownFeature) : otherFeatures.contains(feature);
+    }
+
+    /***
+     * @return Names of every enabled feature, known features first in their declared order
+     */
+    public Set<String> getAllEnabledFeatures() {
+        Set<String> names = new LinkedHashSet<>();
+        for (LicenseFeature feature : features) {
+            names.add(feature.name());
+        }
+        names.addAll(otherFeatures);
+        return names;
+    }
+
+    /***
+     * Gets a one line summary of the license, rendering it the first time it is needed.
+     * @return A summary of the license
+     */
+    public String getSummary() {
+        String result = summary;
+        if (result == null) {
+            if (available) {
+                result = String.format("[Location=%s, Type=%s, ShortName=%s, Description=%s, Count=%s, Workers=%s, Features=%s]",
+                        sourceLocation, sourceType, shortName, description, count, workers,
+                        String.join("; ", getAllEnabledFeatures()));
+            } else {
+                result = String.format("[ShortName=%s, Description=%s, Workers=%s, Features=%s]",
+                        shortName, description, workers, String.join("; ", getAllEnabledFeatures()));
+            }
+            summary = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getSummary();
+    }
+}
@@ -0,0 +1,254 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/***
+ * Remembers recent failures of license sources across all {@link NuixLicenseResolver} instances in the JVM, so that a
+ * source known to be unreachable (such as an NMS instance which is down) is skipped for a cool-down period rather than
+ * each engine waiting on it in turn.  Sources are identified by {@link LicenseInventoryCache.SourceKey}.<br><br>
+ * A source's circuit opens after a number of consecutive failures.  While open, requests to the source are refused
+ * immediately.  Once the cool-down has elapsed a single trial request is allowed through (half open); if it succeeds
+ * the circuit closes, if it fails the circuit opens again for another cool-down.
+ */
+public class LicenseSourceCircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(LicenseSourceCircuitBreaker.class);
+    private static final LicenseSourceCircuitBreaker shared = new LicenseSourceCircuitBreaker();
+
+    /***
+     * States of a source's circuit.
+     */
+    public enum CircuitState {
+        /***
+         * Source is considered healthy, requests are allowed.
+         */
+        CLOSED,
+        /***
+         * Source recently failed, requests are refused until the cool-down elapses.
+         */
+        OPEN,
+        /***
+         * Cool-down has elapsed and a trial request is in progress.
+         */
+        HALF_OPEN
+    }
+
+    /***
+     * A snapshot of the health of a license source.
+     */
+    @Getter
+    public static class SourceHealth {
+        private final LicenseInventoryCache.SourceKey sourceKey;
+        private final CircuitState state;
+        private final int consecutiveFailures;
+        private final long totalFailures;
+        private final long totalSuccesses;
+        private final long refusedRequests;
+        private final Instant lastFailure;
+        private final String lastFailureMessage;
+        private final Instant lastSuccess;
+        private final long lastLatencyMillis;
+        private final Instant openUntil;
+
+        private SourceHealth(LicenseInventoryCache.SourceKey sourceKey, SourceStatus status) {
+            this.sourceKey = sourceKey;
+            this.state = status.state;
+            this.consecutiveFailures = status.consecutiveFailures;
+            this.totalFailures = status.totalFailures;
+            this.totalSuccesses = status.totalSuccesses;
+            this.refusedRequests = status.refusedRequests;
+            this.lastFailure = status.lastFailure;
+            this.lastFailureMessage = status.lastFailureMessage;
+            this.lastSuccess = status.lastSuccess;
+            this.lastLatencyMillis = status.lastLatencyMillis;
+            this.openUntil = status.openUntil;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s (consecutive failures: %s, last failure: %s, last latency: %sms)",
+                    sourceKey, state, consecutiveFailures, lastFailureMessage, lastLatencyMillis);
+        }
+    }
+
+    /***
+     * Mutable status of a source, guarded by synchronizing on the instance.
+     */
+    private static final class SourceStatus {
+        private CircuitState state = CircuitState.CLOSED;
+        private int consecutiveFailures = 0;
+        private long totalFailures = 0;
+        private long totalSuccesses = 0;
+        private long refusedRequests = 0;
+        private Instant lastFailure = null;
+        private String lastFailureMessage = null;
+        private Instant lastSuccess = null;
+        private long lastLatencyMillis = -1;
+        private Instant openUntil = null;
+    }
+
+    private final ConcurrentHashMap<LicenseInventoryCache.SourceKey, SourceStatus> statuses = new ConcurrentHashMap<>();
+    private volatile int failureThreshold = 1;
+    private volatile Duration coolDown = Duration.ofSeconds(60);
+
+    /***
+     * Gets the circuit breaker shared by all {@link NuixLicenseResolver} instances which have circuit breaking enabled
+     * via {@link NuixLicenseResolver#withCircuitBreaking()}.
+     * @return The shared circuit breaker
+     */
+    public static LicenseSourceCircuitBreaker getShared() {
+        return shared;
+    }
+
+    /***
+     * Sets how many consecutive failures open a source's circuit.  Defaults to 1.
+     * @param failureThreshold Number of consecutive failures, at least 1
+     * @return This instance for method call chaining
+     */
+    public LicenseSourceCircuitBreaker setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        return this;
+    }
+
+    /***
+     * Sets how long requests to a failed source are refused before a trial request is allowed.  Defaults to 60 seconds.
+     * @param coolDown The cool-down period
+     * @return This instance for method call chaining
+     */
+    public LicenseSourceCircuitBreaker setCoolDown(@NonNull Duration coolDown) {
+        this.coolDown = coolDown;
+        return this;
+    }
+
+    /***
+     * Determines whether a request to the given source should be attempted.  When the cool-down of an open circuit has
+     * elapsed, this allows a single trial request through and refuses others until its outcome is recorded.  A caller
+     * granted a request must record its outcome with {@link #recordSuccess} or {@link #recordFailure}, whatever happens,
+     * otherwise a trial request would leave the source half open and skipped indefinitely.
+     * @param sourceKey The source about to be queried
+     * @return True if the request should be attempted, false if the source should be skipped
+     */
+    public boolean allowRequest(@NonNull LicenseInventoryCache.SourceKey sourceKey) {
+        SourceStatus status = statuses.computeIfAbsent(sourceKey, key -> new SourceStatus());
+        synchronized (status) {
+            switch (status.state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (Instant.now().isAfter(status.openUntil)) {
+                        log.info("Cool-down of license source {} elapsed, allowing a trial request", sourceKey);
+                        status.state = CircuitState.HALF_OPEN;
+                        return true;
+                    }
+                    status.refusedRequests++;
+                    return false;
+                default:
+                    // Trial request already in progress
+                    status.refusedRequests++;
+                    return false;
+            }
+        }
+    }
+
+    /***
+     * Determines whether requests to the given source are currently being refused, without starting a trial request.
+     * Use this to skip a source early, before any work towards querying it, and {@link #allowRequest} immediately
+     * before actually querying it.
+     * @param sourceKey The source about to be queried
+     * @return True if the source's circuit is open and its cool-down has not elapsed, or a trial request is in progress
+     */
+    public boolean isRefusing(@NonNull LicenseInventoryCache.SourceKey sourceKey) {
+        SourceStatus status = statuses.computeIfAbsent(sourceKey, key -> new SourceStatus());
+        synchronized (status) {
+            boolean refusing = status.state == CircuitState.HALF_OPEN
+                    || (status.state == CircuitState.OPEN && !Instant.now().isAfter(status.openUntil));
+            if (refusing) {
+                status.refusedRequests++;
+            }
+            return refusing;
+        }
+    }
+
+    /***
+     * Records a successful request to the given source, closing its circuit.
+     * @param sourceKey The source which was queried
+     * @param latency How long the request took
+     */
+    public void recordSuccess(@NonNull LicenseInventoryCache.SourceKey sourceKey, @NonNull Duration latency) {
+        SourceStatus status = statuses.computeIfAbsent(sourceKey, key -> new SourceStatus());
+        synchronized (status) {
+            if (status.state != CircuitState.CLOSED) {
+                log.info("License source {} has recovered", sourceKey);
+            }
+            status.state = CircuitState.CLOSED;
+            status.consecutiveFailures = 0;
+            status.totalSuccesses++;
+            status.lastSuccess = Instant.now();
+            status.lastLatencyMillis = latency.toMillis();
+            status.openUntil = null;
+        }
+    }
+
+    /***
+     * Records a failed request to the given source, opening its circuit if the failure threshold has been reached or
+     * if the request was a trial request.
+     * @param sourceKey The source which was queried
+     * @param latency How long the request took before failing
+     * @param failure What went wrong
+     */
+    public void recordFailure(@NonNull LicenseInventoryCache.SourceKey sourceKey, @NonNull Duration latency, Throwable failure) {
+        SourceStatus status = statuses.computeIfAbsent(sourceKey, key -> new SourceStatus());
+        synchronized (status) {
+            status.consecutiveFailures++;
+            status.totalFailures++;
+            status.lastFailure = Instant.now();
+            status.lastFailureMessage = failure == null ? null : failure.toString();
+            status.lastLatencyMillis = latency.toMillis();
+            if (status.state == CircuitState.HALF_OPEN || status.consecutiveFailures >= failureThreshold) {
+                status.state = CircuitState.OPEN;
+                status.openUntil = status.lastFailure.plus(coolDown);
+                log.warn("License source {} failed {} time(s) in a row, skipping it until {}: {}",
+                        sourceKey, status.consecutiveFailures, status.openUntil, status.lastFailureMessage);
+            }
+        }
+    }
+
+    /***
+     * Gets the health of the given source.
+     * @param sourceKey The source to get the health of
+     * @return The health of the source, a source which has never been queried being reported as closed
+     */
+    public SourceHealth getHealth(@NonNull LicenseInventoryCache.SourceKey sourceKey) {
+        SourceStatus status = statuses.computeIfAbsent(sourceKey, key -> new SourceStatus());
+        synchronized (status) {
+            return new SourceHealth(sourceKey, status);
+        }
+    }
+
+    /***
+     * Gets the health of every source which has been queried, for monitoring.
+     * @return Health of each known source, keyed by the source's description
+     */
+    public Map<String, SourceHealth> getHealth() {
+        Map<String, SourceHealth> health = new TreeMap<>();
+        for (LicenseInventoryCache.SourceKey sourceKey : statuses.keySet()) {
+            health.put(sourceKey.toString(), getHealth(sourceKey));
+        }
+        return health;
+    }
+
+    /***
+     * Forgets all recorded failures, closing every circuit.
+     */
+    public void reset() {
+        statuses.clear();
+    }
+}
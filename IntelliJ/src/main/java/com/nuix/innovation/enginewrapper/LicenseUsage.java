@@ -0,0 +1,141 @@
+package com.nuix.innovation.enginewrapper;
+
+import com.google.gson.JsonObject;
+import lombok.Getter;
+import lombok.NonNull;
+import nuix.Licence;
+import nuix.engine.AvailableLicence;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/***
+ * Describes a single hold of a license by a {@link NuixEngine}, from the license being obtained through its license
+ * resolvers until the engine is closed (or the license is reacquired).  The current hold of an engine is available
+ * from {@link NuixEngine#getLicenseUsage()}, holds are aggregated by {@link LicenseUsageMetrics} and can be written to
+ * a {@link LicenseUsageJournal}.
+ */
+@Getter
+public class LicenseUsage {
+    private final String engineId;
+    private final String resolver;
+    private final String sourceType;
+    private final String sourceLocation;
+    private final String shortName;
+    private final int workers;
+    private final Duration acquisitionDuration;
+    private final Duration waitDuration;
+    private final Instant acquiredAt;
+    private final long acquiredNanos;
+    private volatile Instant releasedAt = null;
+    private volatile Duration heldDuration = null;
+    private volatile String releaseReason = null;
+
+    private LicenseUsage(String engineId, String resolver, String sourceType, String sourceLocation, String shortName,
+                         int workers, Duration acquisitionDuration, Duration waitDuration) {
+        this.engineId = engineId;
+        this.resolver = resolver;
+        this.sourceType = sourceType;
+        this.sourceLocation = sourceLocation;
+        this.shortName = shortName;
+        this.workers = workers;
+        this.acquisitionDuration = acquisitionDuration;
+        this.waitDuration = waitDuration;
+        this.acquiredAt = Instant.now();
+        this.acquiredNanos = System.nanoTime();
+    }
+
+    /***
+     * Records that a license has just been obtained.
+     * @param engineId Identifies the engine holding the license
+     * @param resolver Description of the license resolver which obtained the license
+     * @param licence The license the engine now holds
+     * @param acquiredLicense The available license which was acquired, used to determine the license source.  Can be
+     *                        null if not known.
+     * @param acquisitionDuration How long the license resolvers took to obtain the license
+     * @param waitDuration How long was spent waiting for a license to become available, zero if no waiting was needed
+     * @return The new license hold
+     */
+    public static LicenseUsage acquired(@NonNull String engineId, @NonNull String resolver, Licence licence,
+                                        AvailableLicence acquiredLicense, @NonNull Duration acquisitionDuration,
+                                        @NonNull Duration waitDuration) {
+        String sourceType = "";
+        String sourceLocation = "";
+        if (acquiredLicense != null && acquiredLicense.getSource() != null) {
+            sourceType = String.valueOf(acquiredLicense.getSource().getType());
+            sourceLocation = String.valueOf(acquiredLicense.getSource().getLocation());
+        }
+        String shortName = licence == null ? "" : String.valueOf(licence.getShortName());
+        Integer workers = licence == null ? null : licence.getWorkers();
+        return new LicenseUsage(engineId, resolver, sourceType, sourceLocation, shortName,
+                workers == null ? 0 : workers, acquisitionDuration, waitDuration);
+    }
+
+    /***
+     * Records that the license is no longer held.  Calling this more than once has no further effect.
+     * @param reason Why the license is no longer held, such as "closed" or "reacquired"
+     * @return True if this call released the hold, false if it had already been released
+     */
+    public synchronized boolean release(@NonNull String reason) {
+        if (releasedAt != null) {
+            return false;
+        }
+        heldDuration = Duration.ofNanos(System.nanoTime() - acquiredNanos);
+        releasedAt = Instant.now();
+        releaseReason = reason;
+        return true;
+    }
+
+    /***
+     * @return True if the license is still held
+     */
+    public boolean isHeld() {
+        return releasedAt == null;
+    }
+
+    /***
+     * @return How long the license has been held so far, or was held in total once released
+     */
+    public Duration getHeldSoFar() {
+        Duration held = heldDuration;
+        return held != null ? held : Duration.ofNanos(System.nanoTime() - acquiredNanos);
+    }
+
+    /***
+     * @return Seconds the license has been held multiplied by its worker count, the measure of seat usage
+     */
+    public double getWorkerSeconds() {
+        return (getHeldSoFar().toMillis() / 1000.0) * workers;
+    }
+
+    /***
+     * @param event The event being recorded, such as "acquired" or "released"
+     * @return This hold as a JSON object, suitable for a single line of a journal
+     */
+    public JsonObject toJson(@NonNull String event) {
+        JsonObject json = new JsonObject();
+        json.addProperty("event", event);
+        json.addProperty("engineId", engineId);
+        json.addProperty("resolver", resolver);
+        json.addProperty("sourceType", sourceType);
+        json.addProperty("sourceLocation", sourceLocation);
+        json.addProperty("shortName", shortName);
+        json.addProperty("workers", workers);
+        json.addProperty("acquiredAt", acquiredAt.toString());
+        json.addProperty("acquisitionMillis", acquisitionDuration.toMillis());
+        json.addProperty("waitMillis", waitDuration.toMillis());
+        if (releasedAt != null) {
+            json.addProperty("releasedAt", releasedAt.toString());
+            json.addProperty("heldMillis", heldDuration.toMillis());
+            json.addProperty("workerSeconds", getWorkerSeconds());
+            json.addProperty("releaseReason", releaseReason);
+        }
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s workers) from %s %s, acquired in %sms, held %s",
+                shortName, workers, sourceType, sourceLocation, acquisitionDuration.toMillis(), getHeldSoFar());
+    }
+}
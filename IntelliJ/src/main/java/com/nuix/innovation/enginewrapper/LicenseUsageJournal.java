@@ -0,0 +1,100 @@
+package com.nuix.innovation.enginewrapper;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import lombok.Getter;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/***
+ * An append-only journal of license usage, one line of JSON (JSONL) per event.  Each {@link LicenseUsage} produces an
+ * "acquired" line when the license is obtained and a "released" line, including how long the license was held, when
+ * it is no longer held.  A hold with an "acquired" line but no "released" line is either still held or belonged to a
+ * process which did not close its engine.<br><br>
+ * Several engines, even in different processes, can share a journal file as each line is appended with a single
+ * write.  See {@link NuixEngine#setLicenseUsageJournal(LicenseUsageJournal)}.
+ */
+public class LicenseUsageJournal {
+    private static final Logger log = LoggerFactory.getLogger(LicenseUsageJournal.class);
+    private static final Gson gson = new Gson();
+
+    @Getter
+    private final File journalFile;
+
+    public LicenseUsageJournal(@NonNull File journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    /***
+     * Records that a license has been acquired.
+     * @param usage The license hold which has started
+     */
+    public void recordAcquired(@NonNull LicenseUsage usage) {
+        append(usage.toJson("acquired"));
+    }
+
+    /***
+     * Records that a license is no longer held.
+     * @param usage The license hold which has ended
+     */
+    public void recordReleased(@NonNull LicenseUsage usage) {
+        append(usage.toJson("released"));
+    }
+
+    /***
+     * Appends a line to the journal.  Failing to write is logged rather than thrown, so that telemetry problems do not
+     * interfere with the work holding the license.
+     * @param entry The entry to append
+     */
+    protected synchronized void append(@NonNull JsonObject entry) {
+        try {
+            File directory = journalFile.getAbsoluteFile().getParentFile();
+            if (directory != null) {
+                directory.mkdirs();
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+                writer.write(gson.toJson(entry) + "\n");
+            }
+        } catch (IOException exc) {
+            log.error("Unable to write to license usage journal {}: {}", journalFile, exc.getMessage());
+        }
+    }
+
+    /***
+     * Reads every entry of the journal, for reporting.
+     * @return The entries in the order they were written, empty if the journal does not exist yet
+     * @throws IOException If the journal cannot be read
+     */
+    public List<JsonObject> readEntries() throws IOException {
+        List<JsonObject> entries = new ArrayList<>();
+        if (!journalFile.exists()) {
+            return entries;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    entries.add(gson.fromJson(line, JsonObject.class));
+                }
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public String toString() {
+        return "LicenseUsageJournal{" + journalFile + '}';
+    }
+}
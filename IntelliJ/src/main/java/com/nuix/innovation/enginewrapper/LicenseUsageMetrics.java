@@ -0,0 +1,249 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/***
+ * Counters and histograms of license usage by every {@link NuixEngine} in the JVM: how long obtaining a license took,
+ * how long licenses were held, their worker counts and which licenses and sources were used.  Intended for sizing a
+ * license pool and spotting jobs which hold licenses longer than they need to.  The shared instance is exposed over
+ * JMX via {@link LicenseUsageMetricsMXBean}.
+ */
+public class LicenseUsageMetrics implements LicenseUsageMetricsMXBean {
+    private static final Logger log = LoggerFactory.getLogger(LicenseUsageMetrics.class);
+    private static final LicenseUsageMetrics shared = new LicenseUsageMetrics();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(shared,
+                    new ObjectName("com.nuix.innovation.enginewrapper:type=LicenseUsage"));
+        } catch (Exception exc) {
+            log.warn("Unable to register license usage MBean: {}", exc.getMessage());
+        }
+    }
+
+    /***
+     * A histogram with fixed, exponentially growing bucket bounds, so recording a value is a bucket lookup and an
+     * increment regardless of how many values have been recorded.  Percentiles are estimated as the upper bound of the
+     * bucket containing them.
+     */
+    public static class Histogram {
+        private final double[] upperBounds;
+        private final AtomicLongArray bucketCounts;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+        private final AtomicLong maxBits = new AtomicLong(Double.doubleToLongBits(0.0));
+
+        /***
+         * @param firstBound Upper bound of the first bucket
+         * @param growth Factor each subsequent bucket bound grows by
+         * @param bucketCount Number of bounded buckets, an additional bucket holds values above the last bound
+         */
+        public Histogram(double firstBound, double growth, int bucketCount) {
+            upperBounds = new double[bucketCount];
+            double bound = firstBound;
+            for (int i = 0; i < bucketCount; i++) {
+                upperBounds[i] = bound;
+                bound *= growth;
+            }
+            bucketCounts = new AtomicLongArray(bucketCount + 1);
+        }
+
+        public void record(double value) {
+            int bucket = 0;
+            while (bucket < upperBounds.length && value > upperBounds[bucket]) {
+                bucket++;
+            }
+            bucketCounts.incrementAndGet(bucket);
+            count.increment();
+            sum.add(value);
+            maxBits.accumulateAndGet(Double.doubleToLongBits(value),
+                    (current, candidate) -> Double.longBitsToDouble(candidate) > Double.longBitsToDouble(current) ? candidate : current);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getMean() {
+            long currentCount = count.sum();
+            return currentCount == 0 ? 0.0 : sum.sum() / currentCount;
+        }
+
+        public double getMax() {
+            return Double.longBitsToDouble(maxBits.get());
+        }
+
+        /***
+         * @param percentile The percentile to estimate, between 0.0 and 1.0
+         * @return Upper bound of the bucket containing the percentile, never more than the largest value recorded
+         */
+        public double getPercentile(double percentile) {
+            long currentCount = count.sum();
+            if (currentCount == 0) {
+                return 0.0;
+            }
+            long rank = (long) Math.ceil(percentile * currentCount);
+            long seen = 0;
+            for (int i = 0; i < upperBounds.length; i++) {
+                seen += bucketCounts.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBounds[i], getMax());
+                }
+            }
+            return getMax();
+        }
+
+        /***
+         * @return Count, mean, p50, p95, p99 and max of the recorded values
+         */
+        public Map<String, Double> getSummary() {
+            Map<String, Double> summary = new LinkedHashMap<>();
+            summary.put("count", (double) getCount());
+            summary.put("mean", getMean());
+            summary.put("p50", getPercentile(0.50));
+            summary.put("p95", getPercentile(0.95));
+            summary.put("p99", getPercentile(0.99));
+            summary.put("max", getMax());
+            return summary;
+        }
+    }
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquisitionFailures = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+    private final AtomicLong licensesHeld = new AtomicLong(0);
+    private final AtomicLong workersHeld = new AtomicLong(0);
+    // 1ms to about 9 hours
+    private final Histogram acquisitionMillis = new Histogram(1, 2, 25);
+    // 1 second to about 95 days
+    private final Histogram holdSeconds = new Histogram(1, 2, 23);
+    private final Histogram workers = new Histogram(1, 2, 10);
+    private final ConcurrentHashMap<String, LongAdder> acquisitionsByShortName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> acquisitionsBySource = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DoubleAdder> workerSecondsByShortName = new ConcurrentHashMap<>();
+
+    /***
+     * @return The metrics every {@link NuixEngine} in the JVM records license usage to
+     */
+    public static LicenseUsageMetrics getShared() {
+        return shared;
+    }
+
+    /***
+     * Records that a license was obtained.
+     * @param usage The license hold which has started
+     */
+    public void recordAcquired(@NonNull LicenseUsage usage) {
+        acquisitions.increment();
+        licensesHeld.incrementAndGet();
+        workersHeld.addAndGet(usage.getWorkers());
+        acquisitionMillis.record(usage.getAcquisitionDuration().toMillis());
+        workers.record(usage.getWorkers());
+        acquisitionsByShortName.computeIfAbsent(usage.getShortName(), key -> new LongAdder()).increment();
+        acquisitionsBySource.computeIfAbsent(usage.getSourceType() + " " + usage.getSourceLocation(),
+                key -> new LongAdder()).increment();
+    }
+
+    /***
+     * Records that license resolvers were used without obtaining a license.
+     * @param elapsed How long was spent trying
+     */
+    public void recordAcquisitionFailure(@NonNull Duration elapsed) {
+        acquisitionFailures.increment();
+        acquisitionMillis.record(elapsed.toMillis());
+    }
+
+    /***
+     * Records that a license hold has ended.
+     * @param usage The license hold which has been released
+     */
+    public void recordReleased(@NonNull LicenseUsage usage) {
+        releases.increment();
+        licensesHeld.decrementAndGet();
+        workersHeld.addAndGet(-usage.getWorkers());
+        holdSeconds.record(usage.getHeldSoFar().toMillis() / 1000.0);
+        workerSecondsByShortName.computeIfAbsent(usage.getShortName(), key -> new DoubleAdder())
+                .add(usage.getWorkerSeconds());
+    }
+
+    @Override
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    @Override
+    public long getAcquisitionFailures() {
+        return acquisitionFailures.sum();
+    }
+
+    @Override
+    public long getReleases() {
+        return releases.sum();
+    }
+
+    @Override
+    public long getLicensesHeld() {
+        return licensesHeld.get();
+    }
+
+    @Override
+    public long getWorkersHeld() {
+        return workersHeld.get();
+    }
+
+    @Override
+    public Map<String, Double> getAcquisitionMillis() {
+        return acquisitionMillis.getSummary();
+    }
+
+    @Override
+    public Map<String, Double> getHoldSeconds() {
+        return holdSeconds.getSummary();
+    }
+
+    @Override
+    public Map<String, Double> getWorkers() {
+        return workers.getSummary();
+    }
+
+    @Override
+    public Map<String, Long> getAcquisitionsByShortName() {
+        Map<String, Long> result = new TreeMap<>();
+        acquisitionsByShortName.forEach((shortName, count) -> result.put(shortName, count.sum()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getAcquisitionsBySource() {
+        Map<String, Long> result = new TreeMap<>();
+        acquisitionsBySource.forEach((source, count) -> result.put(source, count.sum()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getWorkerSecondsByShortName() {
+        Map<String, Double> result = new TreeMap<>();
+        workerSecondsByShortName.forEach((shortName, seconds) -> result.put(shortName, seconds.sum()));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LicenseUsageMetrics{acquisitions=%s, failures=%s, releases=%s, held=%s, workersHeld=%s}",
+                getAcquisitions(), getAcquisitionFailures(), getReleases(), getLicensesHeld(), getWorkersHeld());
+    }
+}
@@ -0,0 +1,64 @@
+package com.nuix.innovation.enginewrapper;
+
+import java.util.Map;
+
+/***
+ * JMX view of {@link LicenseUsageMetrics}, registered with the platform MBean server under the domain
+ * "com.nuix.innovation.enginewrapper" with "type=LicenseUsage".
+ */
+public interface LicenseUsageMetricsMXBean {
+    /***
+     * @return Number of times a license was obtained
+     */
+    long getAcquisitions();
+
+    /***
+     * @return Number of times license resolvers were used without obtaining a license
+     */
+    long getAcquisitionFailures();
+
+    /***
+     * @return Number of license holds which have ended
+     */
+    long getReleases();
+
+    /***
+     * @return Number of licenses currently held by engines in this JVM
+     */
+    long getLicensesHeld();
+
+    /***
+     * @return Number of workers of the licenses currently held by engines in this JVM
+     */
+    long getWorkersHeld();
+
+    /***
+     * @return Summary of how long obtaining a license took in milliseconds: count, mean, p50, p95, p99 and max
+     */
+    Map<String, Double> getAcquisitionMillis();
+
+    /***
+     * @return Summary of how long licenses were held in seconds: count, mean, p50, p95, p99 and max
+     */
+    Map<String, Double> getHoldSeconds();
+
+    /***
+     * @return Summary of the worker counts of licenses obtained: count, mean, p50, p95, p99 and max
+     */
+    Map<String, Double> getWorkers();
+
+    /***
+     * @return Number of licenses obtained, keyed by license short name
+     */
+    Map<String, Long> getAcquisitionsByShortName();
+
+    /***
+     * @return Number of licenses obtained, keyed by license source type and location
+     */
+    Map<String, Long> getAcquisitionsBySource();
+
+    /***
+     * @return Worker seconds of license holds which have ended, keyed by license short name
+     */
+    Map<String, Double> getWorkerSecondsByShortName();
+}
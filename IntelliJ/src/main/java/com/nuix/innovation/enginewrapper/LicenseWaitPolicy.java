@@ -0,0 +1,100 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/***
+ * Describes how {@link NuixEngine} waits for a license when its resolvers cannot obtain one, for example because every
+ * seat of a license server is in use.  Rather than giving up after a single pass through the resolvers, attempts are
+ * retried with exponential backoff and jitter until a license is obtained or the maximum wait has elapsed.  Waiters in
+ * the same JVM take turns in first come first served order, see {@link LicenseWaitQueue}.<br><br>
+ * Basic usage example:
+ * <pre>
+ * {@code
+ * NuixEngine nuixEngine = NuixEngine.usingFirstAvailableLicense(resolvers)
+ *     .setLicenseWaitPolicy(LicenseWaitPolicy.waitUpTo(Duration.ofMinutes(30))
+ *         .withInitialDelay(Duration.ofSeconds(5))
+ *         .withMaxDelay(Duration.ofMinutes(2)));
+ * }
+ * </pre>
+ */
+@Getter
+public class LicenseWaitPolicy {
+    private Duration maxWait;
+    private Duration initialDelay = Duration.ofSeconds(2);
+    private Duration maxDelay = Duration.ofSeconds(60);
+    private double multiplier = 2.0;
+    private double jitter = 0.2;
+
+    protected LicenseWaitPolicy(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    /***
+     * Creates a policy which waits up to the given duration for a license, with an initial delay between attempts of 2
+     * seconds, doubling after each attempt up to 60 seconds, with 20% jitter.
+     * @param maxWait Maximum time to wait for a license
+     * @return A new policy
+     */
+    public static LicenseWaitPolicy waitUpTo(@NonNull Duration maxWait) {
+        return new LicenseWaitPolicy(maxWait);
+    }
+
+    /***
+     * @param initialDelay Delay after the first failed attempt
+     * @return This instance for method call chaining
+     */
+    public LicenseWaitPolicy withInitialDelay(@NonNull Duration initialDelay) {
+        this.initialDelay = initialDelay;
+        return this;
+    }
+
+    /***
+     * @param maxDelay Largest delay between attempts, before jitter is applied
+     * @return This instance for method call chaining
+     */
+    public LicenseWaitPolicy withMaxDelay(@NonNull Duration maxDelay) {
+        this.maxDelay = maxDelay;
+        return this;
+    }
+
+    /***
+     * @param multiplier Factor the delay grows by after each failed attempt, at least 1.0
+     * @return This instance for method call chaining
+     */
+    public LicenseWaitPolicy withMultiplier(double multiplier) {
+        this.multiplier = Math.max(1.0, multiplier);
+        return this;
+    }
+
+    /***
+     * @param jitter Fraction of each delay randomly added or removed (0.0 to 1.0), so that waiters in different
+     *               processes do not all retry at the same moment
+     * @return This instance for method call chaining
+     */
+    public LicenseWaitPolicy withJitter(double jitter) {
+        this.jitter = Math.min(1.0, Math.max(0.0, jitter));
+        return this;
+    }
+
+    /***
+     * Calculates the delay before the next attempt.
+     * @param failedAttempts How many attempts have failed so far, at least 1
+     * @return The delay before the next attempt
+     */
+    public Duration nextDelay(int failedAttempts) {
+        double baseMillis = initialDelay.toMillis() * Math.pow(multiplier, Math.max(0, failedAttempts - 1));
+        baseMillis = Math.min(baseMillis, maxDelay.toMillis());
+        double jitterMillis = baseMillis * jitter * (ThreadLocalRandom.current().nextDouble() * 2.0 - 1.0);
+        return Duration.ofMillis(Math.max(0, Math.round(baseMillis + jitterMillis)));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LicenseWaitPolicy[maxWait=%s, initialDelay=%s, maxDelay=%s, multiplier=%s, jitter=%s]",
+                maxWait, initialDelay, maxDelay, multiplier, jitter);
+    }
+}
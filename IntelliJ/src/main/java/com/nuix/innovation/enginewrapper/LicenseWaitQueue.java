@@ -0,0 +1,158 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/***
+ * A first come first served queue of {@link NuixEngine} instances in this JVM waiting for a license, see
+ * {@link LicenseWaitPolicy}.  Only the waiter at the head of the queue attempts to obtain a license, so engines start
+ * in the order they began waiting and a license server is polled by a single waiter per JVM rather than by every one.
+ */
+public class LicenseWaitQueue {
+    private static final LicenseWaitQueue shared = new LicenseWaitQueue();
+    private static final Duration MAX_AWAIT = Duration.ofDays(1);
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition headChanged = lock.newCondition();
+    private final Deque<Ticket> waiters = new ArrayDeque<>();
+    private final AtomicLong ticketSequence = new AtomicLong(0);
+
+    /***
+     * A place in the queue.  Close it to leave the queue.
+     */
+    public class Ticket implements AutoCloseable {
+        @Getter
+        private final long number = ticketSequence.incrementAndGet();
+        @Getter
+        private final String waiterName;
+        @Getter
+        private final Instant enqueued = Instant.now();
+        @Getter
+        private volatile int attempts = 0;
+
+        private Ticket(String waiterName) {
+            this.waiterName = waiterName;
+        }
+
+        /***
+         * @return Position in the queue, 0 being the waiter currently allowed to attempt, or -1 if no longer queued.
+         */
+        public int getPosition() {
+            lock.lock();
+            try {
+                int position = 0;
+                for (Ticket ticket : waiters) {
+                    if (ticket == this) {
+                        return position;
+                    }
+                    position++;
+                }
+                return -1;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /***
+         * @return How long this ticket has been waiting
+         */
+        public Duration getWaited() {
+            return Duration.between(enqueued, Instant.now());
+        }
+
+        /***
+         * Waits until this ticket is at the head of the queue.
+         * @param deadline Latest time to wait until
+         * @return True if this ticket is at the head of the queue, false if the deadline passed first
+         * @throws InterruptedException If interrupted while waiting
+         */
+        public boolean awaitTurn(Instant deadline) throws InterruptedException {
+            lock.lock();
+            try {
+                while (waiters.peekFirst() != this) {
+                    Duration remaining = Duration.between(Instant.now(), deadline);
+                    if (remaining.isNegative() || remaining.isZero()) {
+                        return false;
+                    }
+                    // Nanoseconds, as milliseconds would round the last fraction of a millisecond down to giving up
+                    // early.  Distant deadlines are waited on a day at a time, so the conversion cannot overflow.
+                    if (remaining.compareTo(MAX_AWAIT) > 0) {
+                        remaining = MAX_AWAIT;
+                    }
+                    headChanged.await(remaining.toNanos(), TimeUnit.NANOSECONDS);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void recordAttempt() {
+            attempts++;
+        }
+
+        /***
+         * Leaves the queue, letting the next waiter take its turn.
+         */
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (waiters.remove(this)) {
+                    headChanged.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Ticket #%s[waiter=%s, position=%s, waited=%s, attempts=%s]",
+                    number, waiterName, getPosition(), getWaited(), attempts);
+        }
+    }
+
+    /***
+     * @return The queue shared by every {@link NuixEngine} instance in this JVM.
+     */
+    public static LicenseWaitQueue getShared() {
+        return shared;
+    }
+
+    /***
+     * Joins the end of the queue.
+     * @param waiterName Name identifying the waiter, for logging
+     * @return A ticket representing the place in the queue
+     */
+    public Ticket enqueue(String waiterName) {
+        lock.lock();
+        try {
+            Ticket ticket = new Ticket(waiterName);
+            waiters.addLast(ticket);
+            return ticket;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /***
+     * @return Number of waiters currently in the queue
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.Getter;
+import lombok.NonNull;
+import nuix.engine.AvailableLicence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/***
+ * A {@link NuixLicenseResolver} for several Nuix Management Server (NMS) instances.  Each resolution:
+ * <ol>
+ *     <li>Probes every server at the same time with a TCP connection, keeping an exponentially weighted moving average
+ *     (EWMA) of each server's latency and leaving out servers which cannot be reached</li>
+ *     <li>Lists the available licenses of the reachable servers in a single licensor query, providing them to the
+ *     licensor as a comma separated "nuix.registry.servers" list, lowest latency first</li>
+ *     <li>Groups licenses meeting this resolver's criteria by the server location they were offered from, and picks
+ *     the server offering the most free seats, taking turns (round-robin) between servers which tie</li>
+ *     <li>Picks a license from that server using the {@link LicenseScorer}</li>
+ * </ol>
+ * Criteria, credentials and other settings are configured the same way as for {@link NuixLicenseResolver}.  Note that
+ * providing a final decider via {@link #withFinalDecisionMadeBy(java.util.function.Function)} replaces the server
+ * selection described above.<br><br>
+ * Basic usage example:
+ * <pre>
+ * {@code
+ * LicenseResolver nmsServers = MultiServerLicenseResolver.fromServers("nms1.example.com", "nms2.example.com:27444")
+ *     .withLicenseCredentialsResolvedFromEnvVars()
+ *     .withMinWorkerCount(4);
+ * }
+ * </pre>
+ */
+public class MultiServerLicenseResolver extends NuixLicenseResolver {
+    private static final Logger log = LoggerFactory.getLogger(MultiServerLicenseResolver.class);
+    private static final double LATENCY_SMOOTHING = 0.3;
+    private static final ExecutorService probeExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "MultiServerLicenseResolver-Probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /***
+     * An NMS instance and what has been learned about its latency.
+     */
+    @Getter
+    public static class Server {
+        private final String host;
+        private final int port;
+        private volatile double averageLatencyMillis = -1;
+        private volatile boolean reachable = true;
+        private volatile long failedProbes = 0;
+
+        private Server(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        /***
+         * Parses a server from "host" or "host:port", port defaulting to 27443.
+         * @param server The server to parse
+         * @return The parsed server
+         */
+        public static Server parse(@NonNull String server) {
+            String trimmed = server.trim();
+            int colon = trimmed.lastIndexOf(':');
+            if (colon > 0) {
+                return new Server(trimmed.substring(0, colon), Integer.parseInt(trimmed.substring(colon + 1)));
+            } else {
+                return new Server(trimmed, 27443);
+            }
+        }
+
+        private void recordLatency(long latencyMillis) {
+            reachable = true;
+            averageLatencyMillis = averageLatencyMillis < 0 ? latencyMillis :
+                    (LATENCY_SMOOTHING * latencyMillis) + ((1.0 - LATENCY_SMOOTHING) * averageLatencyMillis);
+        }
+
+        private void recordUnreachable() {
+            reachable = false;
+            failedProbes++;
+        }
+
+        @Override
+        public String toString() {
+            return host + ":" + port;
+        }
+    }
+
+    private final List<Server> servers;
+    private Duration probeTimeout = Duration.ofSeconds(2);
+    private final AtomicLong tieBreakCounter = new AtomicLong(0);
+
+    protected MultiServerLicenseResolver(List<Server> servers) {
+        super();
+        this.licenseSource = LicenseResolutionSource.Server;
+        this.servers = List.copyOf(servers);
+    }
+
+    /***
+     * Creates a resolver for the given NMS instances.
+     * @param servers Each server as "host" or "host:port", port defaulting to 27443
+     * @return A multi-server license resolver
+     */
+    public static MultiServerLicenseResolver fromServers(@NonNull String... servers) {
+        return fromServers(List.of(servers));
+    }
+
+    /***
+     * Creates a resolver for the given NMS instances.
+     * @param servers Each server as "host" or "host:port", port defaulting to 27443
+     * @return A multi-server license resolver
+     */
+    public static MultiServerLicenseResolver fromServers(@NonNull List<String> servers) {
+        if (servers.isEmpty()) {
+            throw new IllegalArgumentException("At least one server is required");
+        }
+        return new MultiServerLicenseResolver(servers.stream().map(Server::parse).collect(Collectors.toList()));
+    }
+
+    /***
+     * @param probeTimeout How long to wait for a server to accept a TCP connection before considering it unreachable
+     * @return This license resolver for chained method calls.
+     */
+    public MultiServerLicenseResolver withProbeTimeout(@NonNull Duration probeTimeout) {
+        this.probeTimeout = probeTimeout;
+        return this;
+    }
+
+    /***
+     * @return The servers of this resolver, including what has been learned of their latency
+     */
+    public List<Server> getServers() {
+        return servers;
+    }
+
+    /***
+     * Probes the servers before the licensor is queried, providing only those which could be reached, lowest latency
+     * first.  Probing happens before {@link ScopedSystemProperties} takes its lock, and the probed servers only apply
+     * to this call rather than being kept on the resolver, where engines sharing it could replace each other's list.
+     * @return The system properties listing the reachable servers, or empty if none could be reached.
+     */
+    @Override
+    protected Optional<Map<String, String>> prepareLicenseSourceProperties() {
+        List<Server> reachable = probeServers();
+        if (reachable.isEmpty()) {
+            log.warn("None of the license servers could be reached: " + servers);
+            return Optional.empty();
+        }
+        return Optional.of(toRegistryServersProperty(reachable));
+    }
+
+    /***
+     * Probes every server at the same time, updating their average latency.
+     * @return The reachable servers, lowest average latency first
+     */
+    protected List<Server> probeServers() {
+        List<CompletableFuture<Void>> probes = new ArrayList<>();
+        for (Server server : servers) {
+            probes.add(CompletableFuture.runAsync(() -> probe(server), probeExecutor));
+        }
+        CompletableFuture.allOf(probes.toArray(new CompletableFuture[0])).join();
+        return servers.stream()
+                .filter(Server::isReachable)
+                .sorted(Comparator.comparingDouble(Server::getAverageLatencyMillis))
+                .collect(Collectors.toList());
+    }
+
+    private void probe(Server server) {
+        long started = System.nanoTime();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(server.getHost(), server.getPort()), (int) probeTimeout.toMillis());
+            server.recordLatency((System.nanoTime() - started) / 1_000_000);
+        } catch (IOException exc) {
+            log.warn("License server {} could not be reached: {}", server, exc.getMessage());
+            server.recordUnreachable();
+        }
+    }
+
+    /***
+     * @return The system properties listing every server of this resolver, whether reachable or not.
+     */
+    @Override
+    protected Map<String, String> getLicenseSourceProperties() {
+        return toRegistryServersProperty(servers);
+    }
+
+    private static Map<String, String> toRegistryServersProperty(List<Server> registryServers) {
+        return Map.of("nuix.registry.servers",
+                registryServers.stream().map(Server::toString).collect(Collectors.joining(",")));
+    }
+
+    @Override
+    public LicenseInventoryCache.SourceKey getSourceKey() {
+        return new LicenseInventoryCache.SourceKey(licenseSource,
+                servers.stream().map(Server::toString).collect(Collectors.joining(",")), 0);
+    }
+
+    /***
+     * Picks the server location offering the most free seats among the candidates, taking turns between locations which
+     * tie, then picks the best scoring candidate from that location.
+     * @param candidates Candidate licenses which have met this instance's criteria
+     * @return The selected candidate, or empty if there were no candidates
+     */
+    @Override
+    protected Optional<AvailableLicence> selectBestScoringCandidate(Stream<AvailableLicence> candidates) {
+        Map<String, List<AvailableLicence>> candidatesByLocation = new TreeMap<>();
+        for (AvailableLicence candidate : (Iterable<AvailableLicence>) candidates::iterator) {
+            String location = Objects.toString(getSnapshot(candidate).getSourceLocation(), "");
+            candidatesByLocation.computeIfAbsent(location, key -> new ArrayList<>()).add(candidate);
+        }
+        if (candidatesByLocation.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<String, Integer> freeSeatsByLocation = new TreeMap<>();
+        for (Map.Entry<String, List<AvailableLicence>> entry : candidatesByLocation.entrySet()) {
+            freeSeatsByLocation.put(entry.getKey(), entry.getValue().stream().mapToInt(license -> getSnapshot(license).getCount()).sum());
+        }
+        int mostFreeSeats = freeSeatsByLocation.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        List<String> tiedLocations = freeSeatsByLocation.entrySet().stream()
+                .filter(entry -> entry.getValue() == mostFreeSeats)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        String location = tiedLocations.get((int) (tieBreakCounter.getAndIncrement() % tiedLocations.size()));
+
+        log.info(String.format("Free seats by license server: %s, selected %s%s", freeSeatsByLocation, location,
+                tiedLocations.size() > 1 ? " (round-robin among " + tiedLocations.size() + " tied servers)" : ""));
+        return super.selectBestScoringCandidate(candidatesByLocation.get(location).stream());
+    }
+
+    /***
+     * @return Average latency in milliseconds of each server which has been reached, keyed by server
+     */
+    public Map<String, Double> getServerLatencies() {
+        Map<String, Double> latencies = new TreeMap<>();
+        for (Server server : servers) {
+            if (server.getAverageLatencyMillis() >= 0) {
+                latencies.put(server.toString(), server.getAverageLatencyMillis());
+            }
+        }
+        return latencies;
+    }
+
+    @Override
+    public String toString() {
+        return "MultiServerLicenseResolver{" +
+                "servers=" + servers +
+                ", requiredFeatures=" + requiredFeatures +
+                ", minWorkerCount=" + minWorkerCount +
+                ", maxWorkerCount=" + maxWorkerCount +
+                ", targetShortNames='" + targetShortNames + '\'' +
+                ", workerCountPolicy=" + workerCountPolicy +
+                '}';
+    }
+}
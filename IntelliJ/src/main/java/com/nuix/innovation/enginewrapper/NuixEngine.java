@@ -1,20 +1,23 @@
 package com.nuix.innovation.enginewrapper;
 
 import com.google.common.base.Suppliers;
-import nuix.ThirdPartyDependency;
-import nuix.ThirdPartyDependencyStatus;
+import nuix.Licence;
 import nuix.Utilities;
+import nuix.engine.AvailableLicence;
 import nuix.engine.Engine;
 import nuix.engine.GlobalContainer;
-import nuix.engine.GlobalContainerFactory;
+import nuix.engine.Licensor;
 import org.apache.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.LifeCycle;
+import org.apache.logging.log4j.core.Appender;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.appender.ConsoleAppender;
+import org.apache.logging.log4j.core.config.AppenderRef;
 import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
 import org.apache.logging.log4j.core.filter.AbstractFilter;
 import org.apache.logging.log4j.core.layout.PatternLayout;
 import org.jetbrains.annotations.Nullable;
@@ -25,14 +28,34 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 /***
  * This class represents a wrapper over the Nuix Engine API.  It encapsulates the potentially error prone process of getting
  * a Nuix Engine instance initialized and licensed with a simplified interface.  Use this class as is or use it as a
@@ -67,25 +90,64 @@ import java.util.function.Supplier;
  * @author Jason Wells
  */
 public class NuixEngine implements AutoCloseable {
-    private static GlobalContainer globalContainer = null;
+    private static final Object loggingLock = new Object();
+    private static int loggingReferenceCount = 0;
+    private static final List<BoundedAsyncAppender> asyncLoggingAppenders = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger instanceCounter = new AtomicInteger(0);
+    private static final ExecutorService startupExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "NuixEngine-Startup");
+        thread.setDaemon(true);
+        return thread;
+    });
     protected Supplier<File> engineDistributionDirectorySupplier;
     protected Supplier<File> logDirectorySupplier;
     protected Supplier<File> userDataDirectorySupplier;
     protected List<LicenseResolver> nuixLicenseResolvers;
+    protected boolean raceLicenseResolvers = false;
+    protected Duration licenseRaceTimeout = null;
+    protected Duration dependencyCheckTimeout = Duration.ofSeconds(30);
+    protected boolean deferDependencyChecks = false;
+    protected File startupCacheDirectory = getDefaultStartupCacheDirectory();
+    protected boolean cacheStartupResolution = true;
+    protected boolean preferLastLicenseSource = false;
+    protected int asyncLoggingBufferSize = 0;
+    protected BoundedAsyncAppender.OverflowPolicy asyncLoggingOverflowPolicy = BoundedAsyncAppender.OverflowPolicy.BLOCK;
+    protected int asyncLoggingSampleRate = 100;
+    protected LicenseLeaseWatchdog licenseLeaseWatchdog = null;
+    protected LicenseWaitPolicy licenseWaitPolicy = null;
+    protected LicenseUsageJournal licenseUsageJournal = null;
+    protected ScriptingContainerPool scriptingContainerPool = null;
+    protected Map<Object, Object> additionalEngineConfiguration = new HashMap<>();
+    private volatile LicenseWaitQueue.Ticket licenseWaitTicket = null;
 
     protected Logger log = null;
+    private boolean holdsLoggingReference = false;
+    protected GlobalContainer globalContainer = null;
     protected Engine engine = null;
     protected Utilities utilities = null;
     protected Thread shutdownHook = null;
+    protected CompletableFuture<Utilities> pendingUtilities = null;
+    protected StartupReport startupReport = null;
+    protected WorkerCountPolicy.Decision workerCountDecision = null;
+    protected volatile LicenseUsage licenseUsage = null;
+    protected volatile NuixVersion nuixVersion = null;
+    private volatile EngineCapabilities capabilities = null;
+    private volatile long licenseRequestStartedNanos = 0;
+    protected StartupResolutionCache.Resolution startupResolution = null;
+    private boolean usedCachedStartupResolution = false;
+    private ObjectName startupReportObjectName = null;
+    private volatile boolean closed = false;
+    private final int instanceId = instanceCounter.incrementAndGet();
 
     protected NuixEngine() {
     }
 
+    /***
+     * Closes the GlobalContainer shared by all instances, provided no instance is still using it.  See
+     * {@link GlobalContainerManager}.
+     */
     public static void closeGlobalContainer() {
-        if (globalContainer != null) {
-            globalContainer.close();
-            globalContainer = null;
-        }
+        GlobalContainerManager.closeIfUnused();
     }
 
     /***
@@ -114,6 +176,42 @@ public class NuixEngine implements AutoCloseable {
         return result;
     }
 
+    /***
+     * Creates a new instance which will query all of the provided {@link LicenseResolver} instances at the same time
+     * and acquire the best candidate license found, where resolvers earlier in the list are preferred over later ones.
+     * Only one license is ever acquired.  Startup takes roughly as long as the slowest resolver that is preferred over
+     * the one ultimately used, rather than the sum of all resolvers tried before it.  See also
+     * {@link #setLicenseRaceTimeout(Duration)}.<br><br>
+     * Resolvers implementing {@link CandidateLicenseResolver} (such as {@link NuixLicenseResolver}) take part in the
+     * race.  Other resolvers are called upon in order, as they would be by
+     * {@link #usingFirstAvailableLicense(LicenseResolver...)}.  Note that resolvers share the engine's credential and
+     * certificate trust callbacks, so a {@link NuixLicenseResolver} for a network source holds the engine from applying
+     * its callbacks until its lookup completes, and such lookups raced together query the engine's licensor one at a
+     * time.<br><br>
+     * Cloud and Server lookups set the JVM wide "nuix.registry.servers" property through {@link ScopedSystemProperties},
+     * which holds a lock on that property for the duration of each lookup, so lookups against these network sources run one after another rather
+     * than overlapping.  Racing mainly helps when Dongle, Any or custom sources are among the resolvers.
+     * @param nuixLicenseResolvers One or more resolvers, in order of preference.
+     * @return A new NuixEngine instance
+     */
+    public static NuixEngine usingBestRacedLicense(LicenseResolver... nuixLicenseResolvers) {
+        return usingBestRacedLicense(Arrays.asList(nuixLicenseResolvers));
+    }
+
+    /***
+     * Creates a new instance which will query all of the provided {@link LicenseResolver} instances at the same time
+     * and acquire the best candidate license found, where resolvers earlier in the list are preferred over later ones.
+     * See {@link #usingBestRacedLicense(LicenseResolver...)} for details.
+     * @param nuixLicenseResolvers List of one or more resolvers, in order of preference.
+     * @return A new NuixEngine instance
+     */
+    public static NuixEngine usingBestRacedLicense(List<LicenseResolver> nuixLicenseResolvers) {
+        NuixEngine result = new NuixEngine();
+        result.nuixLicenseResolvers = nuixLicenseResolvers;
+        result.raceLicenseResolvers = true;
+        return result;
+    }
+
     /***
      * Create a new instance which will attempt to retrieve its license from anywhere it can.
      * @return A new NuixEngine instance
@@ -230,6 +328,218 @@ public class NuixEngine implements AutoCloseable {
         return this;
     }
 
+    /***
+     * When license resolvers are raced (see {@link #usingBestRacedLicense(LicenseResolver...)}), a preferred resolver
+     * which is still querying its source would normally be waited on even when a less preferred resolver already has a
+     * candidate.  Setting a race timeout limits that wait: once the timeout has elapsed, preferred resolvers which have
+     * not yet answered are skipped in favor of the best candidate already found.  By default there is no timeout.
+     * @param licenseRaceTimeout How long to wait on preferred resolvers once another candidate is available, null for no limit.
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setLicenseRaceTimeout(@Nullable Duration licenseRaceTimeout) {
+        this.licenseRaceTimeout = licenseRaceTimeout;
+        return this;
+    }
+
+    /***
+     * Third party dependency checks are run in parallel once a license has been obtained.  This sets how long each check
+     * may take before it is abandoned and reported as timed out.  Defaults to 30 seconds.
+     * @param dependencyCheckTimeout How long each third party dependency check may take
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setDependencyCheckTimeout(Duration dependencyCheckTimeout) {
+        this.dependencyCheckTimeout = dependencyCheckTimeout;
+        return this;
+    }
+
+    /***
+     * Enables asynchronous logging.  Rather than the logging thread (such as a worker item callback or Ruby script
+     * output) writing to the console and log files itself, events are placed in a bounded buffer and written by a
+     * background thread.  Logging configuration is shared by every instance in the JVM, so this only has an effect
+     * on the first instance to start.  Disabled by default.
+     * @param bufferSize Maximum number of buffered events, 0 to log synchronously
+     * @param overflowPolicy What to do with events logged while the buffer is full
+     * @return This instance for method call chaining
+     * @see #getAsyncLoggingAppenders()
+     */
+    public NuixEngine setAsyncLogging(int bufferSize, BoundedAsyncAppender.OverflowPolicy overflowPolicy) {
+        this.asyncLoggingBufferSize = bufferSize;
+        this.asyncLoggingOverflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /***
+     * When async logging uses {@link BoundedAsyncAppender.OverflowPolicy#SAMPLE}, sets how many events below WARN
+     * logged while the buffer is full are dropped for each one kept.  Defaults to 100.
+     * @param sampleRate Keep 1 of every this many overflowing events
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setAsyncLoggingSampleRate(int sampleRate) {
+        this.asyncLoggingSampleRate = sampleRate;
+        return this;
+    }
+
+    /***
+     * @return The async appenders in use when async logging is enabled, see {@link #setAsyncLogging(int, BoundedAsyncAppender.OverflowPolicy)}.
+     * Each provides counts of buffered and dropped events.
+     */
+    public static List<BoundedAsyncAppender> getAsyncLoggingAppenders() {
+        return List.copyOf(asyncLoggingAppenders);
+    }
+
+    /***
+     * @return Total number of log events dropped by async logging because its buffers were full.
+     */
+    public static long getDroppedLogEventCount() {
+        return asyncLoggingAppenders.stream().mapToLong(BoundedAsyncAppender::getDroppedEventCount).sum();
+    }
+
+    /***
+     * Adds a value to the configuration map passed when this instance's Engine is constructed, in addition to the
+     * "user" and "userDataDirs" values this class provides.  Unlike system properties, these values only apply to this
+     * instance.  A value for "user" or "userDataDirs" replaces the one this class would provide.
+     * @param key The engine configuration key
+     * @param value The engine configuration value
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setEngineConfigurationValue(Object key, Object value) {
+        this.additionalEngineConfiguration.put(key, value);
+        return this;
+    }
+
+    /***
+     * Sets how to wait for a license when none of the license resolvers are able to obtain one, for example because
+     * every seat on a license server is in use.  By default no waiting is performed: if a single pass through the
+     * license resolvers obtains no license, {@link #getUtilities()} returns null.
+     * @param licenseWaitPolicy The policy to wait with, or null to not wait
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setLicenseWaitPolicy(@Nullable LicenseWaitPolicy licenseWaitPolicy) {
+        this.licenseWaitPolicy = licenseWaitPolicy;
+        return this;
+    }
+
+    /***
+     * While this instance is waiting for a license (see {@link #setLicenseWaitPolicy(LicenseWaitPolicy)}), gets its
+     * place in the queue of waiters in this JVM, which provides its position in the queue and how long it has waited.
+     * @return The ticket of this instance in the license wait queue, or null if it is not waiting.
+     */
+    public LicenseWaitQueue.Ticket getLicenseWaitTicket() {
+        return licenseWaitTicket;
+    }
+
+    /***
+     * Sets a watchdog which, once a license has been obtained, periodically checks the license lease is still held and
+     * reacquires a license through this instance's license resolvers if it is lost.  Not used by default.
+     * @param licenseLeaseWatchdog The watchdog to use, or null to not watch the license lease
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setLicenseLeaseWatchdog(@Nullable LicenseLeaseWatchdog licenseLeaseWatchdog) {
+        this.licenseLeaseWatchdog = licenseLeaseWatchdog;
+        return this;
+    }
+
+    /***
+     * @return The license lease watchdog set by {@link #setLicenseLeaseWatchdog(LicenseLeaseWatchdog)}, or null if there is none.
+     */
+    public LicenseLeaseWatchdog getLicenseLeaseWatchdog() {
+        return licenseLeaseWatchdog;
+    }
+
+    /***
+     * Sets a journal to which each license hold of this instance is appended, when the license is obtained and when
+     * it is released by {@link #close()}.  License usage is always recorded to {@link LicenseUsageMetrics#getShared()},
+     * a journal is not used by default.
+     * @param licenseUsageJournal The journal to append to, or null to not keep a journal
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setLicenseUsageJournal(@Nullable LicenseUsageJournal licenseUsageJournal) {
+        this.licenseUsageJournal = licenseUsageJournal;
+        return this;
+    }
+
+    /***
+     * Sets a pool of warmed JRuby runtimes which Ruby scripts run by this instance borrow from, rather than each
+     * script creating its own runtime.  The pool is not closed when this instance is closed, so it may be shared by
+     * several instances.  Scripts create their own runtime by default.
+     * @param scriptingContainerPool The pool to borrow runtimes from, or null to create a runtime per script
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setScriptingContainerPool(@Nullable ScriptingContainerPool scriptingContainerPool) {
+        this.scriptingContainerPool = scriptingContainerPool;
+        return this;
+    }
+
+    /***
+     * Gets the current license hold of this instance: which license was obtained, from where, how long that took and
+     * how long it has been held.
+     * @return The current license hold, the last hold once closed, or null if no license has been obtained.
+     */
+    public LicenseUsage getLicenseUsage() {
+        return licenseUsage;
+    }
+
+    /***
+     * By default {@link #getUtilities()} performs third party dependency checks before returning.  When deferred, the
+     * checks are instead performed on a background thread after Utilities have been returned, their results still being
+     * logged and recorded in the {@link StartupReport}.  Note that {@link #getUtilitiesAsync()} always defers them.
+     * @param deferDependencyChecks True to perform dependency checks in the background
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setDeferDependencyChecks(boolean deferDependencyChecks) {
+        this.deferDependencyChecks = deferDependencyChecks;
+        return this;
+    }
+
+    /***
+     * Sets the directory in which results of startup work, such as third party dependency checks, are cached so that
+     * later startups on the same host can skip that work.  Defaults to {@link #getDefaultStartupCacheDirectory()}.
+     * @param directory The cache directory to use, or null to disable caching.
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setStartupCacheDirectory(@Nullable File directory) {
+        this.startupCacheDirectory = directory;
+        return this;
+    }
+
+    /***
+     * When enabled (the default) and a startup cache directory is configured, the outcome of validating and resolving
+     * the startup environment is stored in a {@link StartupResolutionCache}.  Later starts in an unchanged environment
+     * load it and skip precondition checks.  If a start using a cached resolution fails, the cached resolution is
+     * discarded so the next start validates the environment again.
+     * @param cacheStartupResolution True to cache the startup resolution
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setCacheStartupResolution(boolean cacheStartupResolution) {
+        this.cacheStartupResolution = cacheStartupResolution;
+        return this;
+    }
+
+    /***
+     * When enabled, the license resolver which obtained a license during the last start (as recorded by the startup
+     * resolution cache, see {@link #setCacheStartupResolution(boolean)}) is tried before the others.  Disabled by default.
+     * @param preferLastLicenseSource True to try the last successful license resolver first
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setPreferLastLicenseSource(boolean preferLastLicenseSource) {
+        this.preferLastLicenseSource = preferLastLicenseSource;
+        return this;
+    }
+
+    /***
+     * Gets the default directory in which startup results are cached, "%LOCALAPPDATA%\Nuix\NuixEngineBaseline" when
+     * LOCALAPPDATA is defined, otherwise "NuixEngineBaseline" in the temp directory.
+     * @return The default startup cache directory
+     */
+    public static File getDefaultStartupCacheDirectory() {
+        String localAppData = System.getenv("LOCALAPPDATA");
+        if (localAppData != null && !localAppData.isBlank()) {
+            return new File(new File(localAppData, "Nuix"), "NuixEngineBaseline");
+        } else {
+            return new File(System.getProperty("java.io.tmpdir"), "NuixEngineBaseline");
+        }
+    }
+
     /***
      * The Nuix Engine will need to be capable of resolving various artifacts such as metadata profiles, processing profiles,
      * export profiles, word lists, etc.  This method allows you to provide a Supplier which will yield a directory containing
@@ -243,132 +553,880 @@ public class NuixEngine implements AutoCloseable {
         return this;
     }
 
-    /***
-     * The Nuix Engine will need to be capable of resolving various artifacts such as metadata profiles, processing profiles,
-     * export profiles, word lists, etc.  This method allows you to provide an explicit user data directory.
-     * If neither this method nor the method {@link #setUserDataDirectorySupplier(Supplier)} are called
-     * before calling {@link #run}, the "user-data" subdirectory of the Nuix Engine distribution will be used.
-     * @param directory The user data directory to use
-     * @return This instance for method call chaining
-     */
-    public NuixEngine setUserDataDirectory(File directory) {
-        setUserDataDirectorySupplier(() -> directory);
-        return this;
+    /***
+     * The Nuix Engine will need to be capable of resolving various artifacts such as metadata profiles, processing profiles,
+     * export profiles, word lists, etc.  This method allows you to provide an explicit user data directory.
+     * If neither this method nor the method {@link #setUserDataDirectorySupplier(Supplier)} are called
+     * before calling {@link #run}, the "user-data" subdirectory of the Nuix Engine distribution will be used.
+     * @param directory The user data directory to use
+     * @return This instance for method call chaining
+     */
+    public NuixEngine setUserDataDirectory(File directory) {
+        setUserDataDirectorySupplier(() -> directory);
+        return this;
+    }
+
+    /***
+     * Gets Utilities object to begin making use of the Nuix API.  If instance has been previously obtained, then
+     * that instance will be returned.  Otherwise, calling this method performs a series of steps to get setup:
+     * <ol>
+     *     <li>A set of preconditions are checked.  Generally if a condition is not met an exception explaining the issue
+     *     will be thrown.  In a couple instances a default will be assumed if possible.
+     *     <ul>
+     *         <li>Can we resolve an engine distribution?</li>
+     *         <li>Can we resolve a log directory?</li>
+     *         <li>Can we resolve a user data directory?</li>
+     *         <li>Does the system PATH have a reference to "[ENGINE_DIR]\bin"?</li>
+     *         <li>Does the system PATH have a reference to "[ENGINE_DIR]\bin\x86"?</li>
+     *     </ul>
+     *     </li>
+     *     <li>Logging is initialized</li>
+     *     <li>The Nuix Engine GlobalContainer instance is created if needed</li>
+     *     <li>An Engine instance is created</li>
+     *     <li>Any provided {@link NuixLicenseResolver} instances are iteratively called upon to obtain a license until an
+     *     instance has successfully acquired one.
+     *     </li>
+     *     <li>The callback provided when calling this method is invoked with a licenses Utilities object if license
+     *     acquisition was successful.</li>
+     *     <li>
+     *         If an exception is thrown during this process, it is caught, written to System.out and then rethrown
+     *         to be further handled by the caller.
+     *     </li>
+     * </ol>
+     * Note that before calling this method you must call one of the following methods to configure where a
+     * Nuix Engine distribution is located:
+     * <ul>
+     *     <li>{@link #setEngineDistributionDirectorySupplier(Supplier)}</li>
+     *     <li>{@link #setEngineDistributionDirectory(File)}</li>
+     *     <li>{@link #setEngineDistributionDirectoryFromEnvVar(String)}</li>
+     *     <li>{@link #setEngineDistributionDirectoryFromEnvVar()}</li>
+     * </ul>
+     *
+     * @return If this instance already has an instance of Utilities, that is returned.  Otherwise necessary steps
+     * will be taken to attempt to obtain and license underlying engine instance to ultimately provide a licensed
+     * Utilities instance.  If startup begun by {@link #getUtilitiesAsync(Executor)} is still in progress, waits for it
+     * rather than starting another engine.
+     * @throws Exception Allows exceptions to bubble up so caller can handle them.
+     */
+    public Utilities getUtilities() throws Exception {
+        CompletableFuture<Utilities> pending;
+        synchronized (this) {
+            pending = pendingUtilities;
+            if (pending == null) {
+                return startUtilities();
+            }
+        }
+
+        // Wait outside the lock, asynchronous startup takes it to complete
+        try {
+            return pending.get();
+        } catch (ExecutionException exc) {
+            throw exc.getCause() instanceof Exception ? (Exception) exc.getCause() : exc;
+        }
+    }
+
+    /***
+     * Performs the steps of {@link #getUtilities()} on the caller's thread.  Called while holding this instance's lock,
+     * so that {@link #getUtilitiesAsync(Executor)} cannot start another engine at the same time.
+     */
+    private Utilities startUtilities() throws Exception {
+        if (utilities == null) {
+            StartupReport syncStartupReport = new StartupReport();
+            startupReport = syncStartupReport;
+            closed = false;
+            boolean reportDeferred = false;
+            boolean engineBuilt = false;
+            try {
+                // Check to make sure some requirements are in place before proceeding
+                timedPhase("checkPreConditions", null, () -> {
+                    resolveStartupEnvironment();
+                    return null;
+                });
+
+                // Make sure logging gets initialized
+                timedPhase("initializeLogging", null, () -> {
+                    try {
+                        initializeLogging();
+                    } catch (Exception exc) {
+                        System.out.println("Error while initializing logging: " + exc.getMessage());
+                        throw new Exception("Error while initializing logging", exc);
+                    }
+                    return null;
+                });
+
+                // Proceed with constructing engine instance, obtaining license and providing licensed Utilities
+                // to provided callback
+                log.info("Engine Distribution Directory: " + engineDistributionDirectorySupplier.get().getAbsolutePath());
+                log.info("Log Directory: " + logDirectorySupplier.get().getAbsolutePath());
+                log.info("User Data Directory: " + userDataDirectorySupplier.get().getAbsolutePath());
+
+                timedPhase("ensureGlobalContainer", null, () -> {
+                    ensureGlobalContainer();
+                    return null;
+                });
+                timedPhase("buildEngine", null, () -> {
+                    buildEngine();
+                    return null;
+                });
+                engineBuilt = true;
+                if (obtainLicense()) {
+                    utilities = engine.getUtilities();
+                    startLicenseLeaseWatchdog();
+                    if (!deferDependencyChecks) {
+                        logAllDependencyInfo(utilities);
+                    }
+                } else {
+                    log.error("No license was able to be resolved");
+                }
+                startupReport.markReady();
+
+                // Deferred dependency checks happen in the background, the startup report is published once they are done
+                if (utilities != null && deferDependencyChecks) {
+                    Utilities licensedUtilities = utilities;
+                    startupExecutor.execute(() -> {
+                        logAllDependencyInfo(licensedUtilities);
+                        publishStartupReport(syncStartupReport);
+                    });
+                    reportDeferred = true;
+                }
+            } catch (Exception exc) {
+                // A cached resolution only affects phases up to engine construction, not licensing
+                if (!engineBuilt) {
+                    invalidateCachedStartupResolution();
+                }
+                throw exc;
+            } finally {
+                if (!reportDeferred) {
+                    publishStartupReport(syncStartupReport);
+                }
+            }
+        }
+
+        recordEngineVersion();
+        return utilities;
+    }
+
+    /***
+     * Asynchronous counterpart to {@link #getUtilities()}, using an internal daemon thread pool to run startup phases.
+     * See {@link #getUtilitiesAsync(Executor)} for details.
+     * @return A future which completes with licensed Utilities, or null if no license was able to be resolved.
+     */
+    public CompletableFuture<Utilities> getUtilitiesAsync() {
+        return getUtilitiesAsync(startupExecutor);
+    }
+
+    /***
+     * Asynchronous counterpart to {@link #getUtilities()}.  Performs the same steps, but phases which do not depend on
+     * each other are overlapped rather than run one after another on the caller's thread:
+     * <ol>
+     *     <li>Preconditions are checked.</li>
+     *     <li>Logging is initialized while, at the same time, the GlobalContainer is created if needed.</li>
+     *     <li>An Engine instance is created once both of the above have completed.</li>
+     *     <li>Provided {@link LicenseResolver} instances are called upon to obtain a license.</li>
+     *     <li>The returned future is completed with licensed Utilities.  Third party dependency checks are then
+     *     performed in the background rather than delaying the caller.</li>
+     * </ol>
+     * The duration of each phase and the critical path through them is logged once startup completes.  Calling this
+     * method again while startup is in progress returns the same future.
+     * @param executor The executor used to run startup phases.
+     * @return A future which completes with licensed Utilities, or null if no license was able to be resolved.  If an
+     * exception is thrown during startup the future completes exceptionally with it.
+     */
+    public synchronized CompletableFuture<Utilities> getUtilitiesAsync(Executor executor) {
+        if (utilities != null) {
+            recordEngineVersion();
+            return CompletableFuture.completedFuture(utilities);
+        }
+
+        if (pendingUtilities != null) {
+            return pendingUtilities;
+        }
+
+        StartupReport asyncStartupReport = new StartupReport();
+        startupReport = asyncStartupReport;
+        closed = false;
+
+        CompletableFuture<Void> preConditionsChecked = CompletableFuture.runAsync(() ->
+                asyncPhase("checkPreConditions", () -> {
+                    resolveStartupEnvironment();
+                    return null;
+                }), executor);
+
+        CompletableFuture<Void> loggingInitialized = preConditionsChecked.thenRunAsync(() ->
+                asyncPhase("initializeLogging", () -> {
+                    try {
+                        initializeLogging();
+                    } catch (Exception exc) {
+                        System.out.println("Error while initializing logging: " + exc.getMessage());
+                        throw new Exception("Error while initializing logging", exc);
+                    }
+                    return null;
+                }), executor);
+
+        CompletableFuture<Void> globalContainerEnsured = preConditionsChecked.thenRunAsync(() ->
+                asyncPhase("ensureGlobalContainer", () -> {
+                    ensureGlobalContainer();
+                    return null;
+                }), executor);
+
+        CompletableFuture<Void> engineBuilt = loggingInitialized
+                .runAfterBothAsync(globalContainerEnsured, () -> asyncPhase("buildEngine", () -> {
+                    log.info("Engine Distribution Directory: " + engineDistributionDirectorySupplier.get().getAbsolutePath());
+                    log.info("Log Directory: " + logDirectorySupplier.get().getAbsolutePath());
+                    log.info("User Data Directory: " + userDataDirectorySupplier.get().getAbsolutePath());
+                    buildEngine();
+                    return null;
+                }), executor);
+
+        CompletableFuture<Utilities> result = engineBuilt
+                .thenApplyAsync(ignored -> asyncPhase(null, this::obtainLicense), executor)
+                .thenApply(licenseWasObtained -> {
+                    synchronized (this) {
+                        if (licenseWasObtained) {
+                            utilities = engine.getUtilities();
+                            startLicenseLeaseWatchdog();
+                        } else {
+                            log.error("No license was able to be resolved");
+                        }
+                        asyncStartupReport.markReady();
+                        recordEngineVersion();
+                        return utilities;
+                    }
+                });
+
+        // Dependency checks happen off the critical path, the startup report is published once they are done
+        result.whenCompleteAsync((licensedUtilities, error) -> {
+            // A cached resolution only affects phases up to engine construction, not licensing
+            if (error != null && engineBuilt.isCompletedExceptionally()) {
+                invalidateCachedStartupResolution();
+            }
+            if (licensedUtilities != null) {
+                logAllDependencyInfo(licensedUtilities);
+            }
+            publishStartupReport(asyncStartupReport);
+        }, executor);
+
+        CompletableFuture<Utilities> pending = result.whenComplete((value, error) -> {
+            synchronized (this) {
+                pendingUtilities = null;
+            }
+        });
+        if (!pending.isDone()) {
+            pendingUtilities = pending;
+        }
+        return pending;
+    }
+
+    /***
+     * Gets the {@link StartupReport} describing how long each phase of the most recent startup of this instance took.
+     * @return The startup report, or null if this instance has not been started.
+     */
+    public StartupReport getStartupReport() {
+        return startupReport;
+    }
+
+    /***
+     * Runs a startup phase, recording it in the current {@link StartupReport} if there is one.
+     */
+    private <T> T timedPhase(String phaseName, String detail, Callable<T> phase) throws Exception {
+        StartupReport report = startupReport;
+        if (report != null) {
+            return report.time(phaseName, detail, phase);
+        } else {
+            return phase.call();
+        }
+    }
+
+    /***
+     * Runs a single asynchronous startup phase, recording it in the current {@link StartupReport} unless phaseName
+     * is null (for steps which record their own phases).  Checked exceptions are wrapped in a
+     * {@link CompletionException} so they propagate through the startup futures.
+     */
+    private <T> T asyncPhase(String phaseName, Callable<T> phase) {
+        try {
+            return phaseName == null ? phase.call() : timedPhase(phaseName, null, phase);
+        } catch (Exception exc) {
+            throw new CompletionException(exc);
+        }
+    }
+
+    /***
+     * Writes the current {@link StartupReport} to the log, both as a human readable critical path summary and as a
+     * single machine-readable JSON line prefixed with "NuixEngineStartupReport", and registers it with the platform
+     * MBean server.  Startup may finish in the background, so nothing is published if this instance has been closed
+     * or started again since, otherwise an MBean could be registered which {@link #close()} never unregisters.
+     * @param report The report of the startup which finished
+     */
+    private synchronized void publishStartupReport(StartupReport report) {
+        if (closed || report != startupReport) {
+            return;
+        }
+
+        Engine startedEngine = engine;
+        if (startedEngine != null) {
+            report.setEngineVersion(startedEngine.getVersion());
+        }
+
+        String summary = String.format("Startup completed in %dms, critical path: %s",
+                report.getReadyMillis(), report.summarizeCriticalPath());
+        String reportLine = "NuixEngineStartupReport " + report.getReportJson();
+        if (log != null) {
+            log.info(summary);
+            log.info(reportLine);
+        } else {
+            System.out.println(summary);
+            System.out.println(reportLine);
+        }
+
+        unregisterStartupReport();
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(String.format(
+                    "com.nuix.innovation.enginewrapper:type=NuixEngineStartup,name=NuixEngine-%d", instanceId));
+            mBeanServer.registerMBean(report, objectName);
+            startupReportObjectName = objectName;
+        } catch (Exception exc) {
+            if (log != null) {
+                log.warn("Unable to register startup report MBean", exc);
+            } else {
+                System.out.println("Unable to register startup report MBean: " + exc.getMessage());
+            }
+        }
+    }
+
+    private void unregisterStartupReport() {
+        if (startupReportObjectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(startupReportObjectName);
+            } catch (Exception exc) {
+                if (log != null) {
+                    log.warn("Unable to unregister startup report MBean", exc);
+                } else {
+                    System.out.println("Unable to unregister startup report MBean: " + exc.getMessage());
+                }
+            }
+            startupReportObjectName = null;
+        }
+    }
+
+    /***
+     * Convenience method for running an operation with a licensed engine instance and then automatically closing this instance.
+     * Supplied consumer will be provided a utilities instance by internally calling {@link #getUtilities()}.
+     * Upon return from consumer, either from normal return or exception, a 'finally' block will call the
+     * {@link #close()} method for you.  Exceptions will be allowed to bubble up, so caller can handle them directly.
+     * @param throwCapableConsumer A callback which is to receive Utilities upon successful initialization and licensing.
+     * @throws Exception May be thrown by process or getting engine initialized or code in supplied consumer.
+     */
+    public void run(ThrowCapableConsumer<Utilities> throwCapableConsumer) throws Exception {
+        try {
+            throwCapableConsumer.accept(getUtilities());
+        } finally {
+            close();
+        }
+    }
+
+    /***
+     * Obtains a license from the license resolvers, waiting according to the {@link LicenseWaitPolicy} if one has
+     * been set.
+     * @return True if a license was obtained, false if not.
+     * @throws Exception If a resolver throws an exception, it is allowed to bubble up.
+     */
+    protected boolean obtainLicense() throws Exception {
+        if (licenseWaitPolicy == null) {
+            return obtainLicenseFromResolvers();
+        } else {
+            return timedPhase("waitForLicense", licenseWaitPolicy.toString(), this::obtainLicenseWaiting);
+        }
+    }
+
+    /***
+     * Repeatedly attempts to obtain a license from the license resolvers, backing off between attempts, until one is
+     * obtained or the maximum wait of the {@link LicenseWaitPolicy} elapses.  Waiters in this JVM take turns in the
+     * order they started waiting through the shared {@link LicenseWaitQueue}.
+     * @return True if a license was obtained, false if the maximum wait elapsed first.
+     * @throws Exception If a resolver throws an exception, it is allowed to bubble up.
+     */
+    private boolean obtainLicenseWaiting() throws Exception {
+        Instant deadline = Instant.now().plus(licenseWaitPolicy.getMaxWait());
+        try (LicenseWaitQueue.Ticket ticket = LicenseWaitQueue.getShared().enqueue(this.toString())) {
+            licenseWaitTicket = ticket;
+            if (ticket.getPosition() > 0) {
+                log.info(String.format("Waiting for license behind %s other waiter(s)", ticket.getPosition()));
+            }
+            while (ticket.awaitTurn(deadline)) {
+                ticket.recordAttempt();
+
+                // Seats may have been freed while waiting, which a cached inventory would not show
+                invalidateResolverInventories();
+                if (obtainLicenseFromResolvers()) {
+                    log.info(String.format("Obtained license after waiting %s over %s attempt(s)",
+                            ticket.getWaited(), ticket.getAttempts()));
+                    return true;
+                }
+
+                Duration remaining = Duration.between(Instant.now(), deadline);
+                if (remaining.isNegative() || remaining.isZero()) {
+                    break;
+                }
+                Duration delay = licenseWaitPolicy.nextDelay(ticket.getAttempts());
+                if (delay.compareTo(remaining) > 0) {
+                    delay = remaining;
+                }
+                log.info(String.format("No license available after attempt %s, waited %s so far, retrying in %s",
+                        ticket.getAttempts(), ticket.getWaited(), delay));
+                Thread.sleep(delay.toMillis());
+            }
+            log.error(String.format("Gave up waiting for license after %s over %s attempt(s)",
+                    ticket.getWaited(), ticket.getAttempts()));
+            return false;
+        } finally {
+            licenseWaitTicket = null;
+        }
+    }
+
+    /***
+     * Removes the inventories of this instance's license sources from the inventory caches of its resolvers, so the
+     * next attempt to obtain a license queries the sources again.  See {@link LicenseInventoryCache}.
+     */
+    private void invalidateResolverInventories() {
+        for (LicenseResolver resolver : nuixLicenseResolvers) {
+            if (resolver instanceof NuixLicenseResolver && ((NuixLicenseResolver) resolver).inventoryCache != null) {
+                NuixLicenseResolver nuixLicenseResolver = (NuixLicenseResolver) resolver;
+                nuixLicenseResolver.inventoryCache.invalidate(nuixLicenseResolver.getSourceKey());
+            }
+        }
+    }
+
+    /***
+     * When creating a new instance via {@link NuixEngine#usingFirstAvailableLicense(LicenseResolver...)}, caller can
+     * specify a series of {@link NuixLicenseResolver} instances which will be called upon in sequence until one acquires
+     * a license.  This method iterates through those resolvers to make that happen.
+     * @return True if a license was obtained, false if not.
+     * @throws Exception This method does not throw any methods itself, but instead allows any thrown methods to bubble up.
+     */
+    protected boolean obtainLicenseFromResolvers() throws Exception {
+        licenseRequestStartedNanos = System.nanoTime();
+        boolean licenseWasObtained = false;
+        try {
+            licenseWasObtained = raceLicenseResolvers ? obtainLicenseFromRacedResolvers() : obtainLicenseFromResolversInOrder();
+            return licenseWasObtained;
+        } finally {
+            if (!licenseWasObtained) {
+                LicenseUsageMetrics.getShared().recordAcquisitionFailure(
+                        Duration.ofNanos(System.nanoTime() - licenseRequestStartedNanos));
+            }
+        }
+    }
+
+    /***
+     * Calls upon each license resolver in turn until one obtains a license.
+     * @return True if a license was obtained, false if not.
+     * @throws Exception If a resolver throws an exception, it is allowed to bubble up.
+     */
+    private boolean obtainLicenseFromResolversInOrder() throws Exception {
+        List<LicenseResolver> resolvers = getOrderedLicenseResolvers();
+        boolean licenseWasObtained = false;
+        // Iterate each provided license resolver in order until one signals to use it has licensed
+        // our engine instance.
+        for (int i = 0; i < resolvers.size(); i++) {
+            LicenseResolver resolver = resolvers.get(i);
+            log.info(String.format("Attempting to resolve license using: %s", resolver));
+            Optional<LicenseAcquisition> acquisition = timedPhase(String.format("resolveLicense[%d]", i), resolver.toString(),
+                    () -> resolveLicenseUsing(resolver));
+            licenseWasObtained = acquisition.isPresent();
+            if (licenseWasObtained) {
+                onLicenseObtained(resolver, acquisition.get());
+                break;
+            } else {
+                log.info("No license was obtained, will try next resolver if there is one");
+            }
+        }
+        return licenseWasObtained;
+    }
+
+    /***
+     * Starts the license lease watchdog, if one has been set.
+     */
+    private void startLicenseLeaseWatchdog() {
+        if (licenseLeaseWatchdog != null) {
+            licenseLeaseWatchdog.start(this);
+        }
+    }
+
+    /***
+     * Attempts to obtain a license again through the license resolvers, using the existing engine instance.  Used
+     * by {@link LicenseLeaseWatchdog} when the license lease has been lost.
+     * @return True if a license was obtained, false if not or if this instance has been closed.
+     * @throws Exception If a resolver throws an exception, it is allowed to bubble up.
+     */
+    synchronized boolean reacquireLicense() throws Exception {
+        if (engine == null) {
+            return false;
+        }
+        log.info("Attempting to reacquire license");
+        if (obtainLicenseFromResolvers()) {
+            utilities = engine.getUtilities();
+            return true;
+        }
+        return false;
+    }
+
+    /***
+     * Gets the license resolvers in the order they should be tried.  If {@link #setPreferLastLicenseSource(boolean)}
+     * is enabled, the resolver which obtained a license during the last start is moved to the front.
+     * @return The license resolvers in the order to try them
+     */
+    private List<LicenseResolver> getOrderedLicenseResolvers() {
+        String lastLicenseSource = startupResolution == null ? null : startupResolution.lastLicenseSource;
+        if (!preferLastLicenseSource || lastLicenseSource == null) {
+            return nuixLicenseResolvers;
+        }
+        List<LicenseResolver> ordered = new ArrayList<>(nuixLicenseResolvers);
+        for (int i = 0; i < ordered.size(); i++) {
+            if (ordered.get(i).toString().equals(lastLicenseSource)) {
+                if (i > 0) {
+                    log.info("Trying last successful license resolver first: " + lastLicenseSource);
+                    ordered.add(0, ordered.remove(i));
+                }
+                break;
+            }
+        }
+        return ordered;
+    }
+
+    /***
+     * Records which resolver obtained a license in the startup resolution cache.
+     */
+    private void recordLicenseSource(LicenseResolver resolver) {
+        StartupResolutionCache cache = getStartupResolutionCache();
+        if (cache != null && startupResolution != null && !resolver.toString().equals(startupResolution.lastLicenseSource)) {
+            startupResolution.lastLicenseSource = resolver.toString();
+            cache.save(startupResolution);
+        }
+    }
+
+    /***
+     * Licenses the engine using the provided resolver.  Resolvers may be shared with other instances, so for a
+     * {@link NuixLicenseResolver} the outcome of acquiring the license is taken from the call itself rather than
+     * read back from the resolver afterwards.
+     * @param resolver The resolver to license the engine with
+     * @return The outcome of acquiring a license, or empty if no license was obtained
+     */
+    private Optional<LicenseAcquisition> resolveLicenseUsing(LicenseResolver resolver) throws Exception {
+        if (resolver instanceof NuixLicenseResolver) {
+            return ((NuixLicenseResolver) resolver).resolveLicenseAcquisition(engine);
+        }
+        return resolver.resolveLicense(engine) ? Optional.of(new LicenseAcquisition(null, null)) : Optional.empty();
+    }
+
+    /***
+     * Acquires a candidate license located by the provided resolver, see {@link #resolveLicenseUsing(LicenseResolver)}.
+     * @param resolver The resolver which located the candidate
+     * @param candidateLicense The candidate license to acquire
+     * @return The outcome of acquiring the license, or empty if it was not acquired
+     */
+    private Optional<LicenseAcquisition> acquireLicenseUsing(CandidateLicenseResolver resolver,
+                                                             AvailableLicence candidateLicense) throws Exception {
+        if (resolver instanceof NuixLicenseResolver) {
+            return Optional.of(((NuixLicenseResolver) resolver).acquireLicenseCandidate(engine, candidateLicense));
+        }
+        return resolver.acquireLicense(engine, candidateLicense) ? Optional.of(new LicenseAcquisition(null, null)) : Optional.empty();
+    }
+
+    /***
+     * Logs the license obtained and records the worker count decision made while acquiring it, if any, along with
+     * which license was acquired from which source.
+     * @param resolver The resolver which obtained the license
+     * @param acquisition The outcome of acquiring the license
+     */
+    private void onLicenseObtained(LicenseResolver resolver, LicenseAcquisition acquisition) {
+        log.info("Obtained license: {}", () -> NuixLicenseFeaturesLogger.summarizeLicense(engine.getLicence()));
+        recordLicenseSource(resolver);
+
+        // The licensor reads the license source properties again after acquisition, such as when renewing the lease
+        // or licensing workers, so they remain set for as long as the license is held
+        ScopedSystemProperties.retain(acquisition.getSourceProperties());
+        capabilities = null;
+        workerCountDecision = acquisition.getWorkerCountDecision();
+        if (workerCountDecision != null) {
+            log.info("Worker count decision: " + workerCountDecision);
+        }
+        recordLicenseUsage(resolver, acquisition.getAcquiredLicense());
+    }
+
+    /***
+     * Starts recording a new license hold, ending any previous hold of this instance (such as when the license lease
+     * was lost and a license has been reacquired).
+     * @param resolver The resolver which obtained the license
+     * @param acquiredLicense The available license which was acquired, if known
+     */
+    private void recordLicenseUsage(LicenseResolver resolver, AvailableLicence acquiredLicense) {
+        releaseLicenseUsage("reacquired");
+        LicenseWaitQueue.Ticket ticket = licenseWaitTicket;
+        licenseUsage = LicenseUsage.acquired(toString(), resolver.toString(), engine.getLicence(), acquiredLicense,
+                Duration.ofNanos(System.nanoTime() - licenseRequestStartedNanos),
+                ticket == null ? Duration.ZERO : ticket.getWaited());
+        LicenseUsageMetrics.getShared().recordAcquired(licenseUsage);
+        if (licenseUsageJournal != null) {
+            licenseUsageJournal.recordAcquired(licenseUsage);
+        }
+    }
+
+    /***
+     * Ends the current license hold of this instance, if there is one which has not already ended.
+     * @param reason Why the license is no longer held
+     */
+    private void releaseLicenseUsage(String reason) {
+        LicenseUsage currentUsage = licenseUsage;
+        if (currentUsage != null && currentUsage.release(reason)) {
+            log.info("License usage: " + currentUsage);
+            LicenseUsageMetrics.getShared().recordReleased(currentUsage);
+            if (licenseUsageJournal != null) {
+                licenseUsageJournal.recordReleased(currentUsage);
+            }
+        }
+    }
+
+    /***
+     * When creating a new instance via {@link NuixEngine#usingBestRacedLicense(LicenseResolver...)}, all resolvers
+     * capable of locating a license without acquiring it are queried at the same time.  Candidates are then considered
+     * in resolver order, so a preferred resolver's candidate wins over a less preferred one, and only the chosen
+     * candidate is acquired.
+     * @return True if a license was obtained, false if not.
+     * @throws Exception If no license was obtained and one or more resolvers threw an exception, the first such
+     * exception is rethrown.
+     */
+    private boolean obtainLicenseFromRacedResolvers() throws Exception {
+        List<LicenseResolver> resolvers = getOrderedLicenseResolvers();
+        List<CompletableFuture<Optional<AvailableLicence>>> candidateLookups = new ArrayList<>();
+        for (int i = 0; i < resolvers.size(); i++) {
+            LicenseResolver resolver = resolvers.get(i);
+            if (resolver instanceof CandidateLicenseResolver) {
+                CandidateLicenseResolver candidateResolver = (CandidateLicenseResolver) resolver;
+                String phaseName = String.format("findLicenseCandidate[%d]", i);
+                log.info(String.format("Racing license candidate lookup using: %s", resolver));
+                candidateLookups.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return timedPhase(phaseName, resolver.toString(), () -> candidateResolver.findLicenseCandidate(engine));
+                    } catch (Exception exc) {
+                        throw new CompletionException(exc);
+                    }
+                }, startupExecutor));
+            } else {
+                candidateLookups.add(null);
+            }
+        }
+
+        // Null when no race timeout is set, comparing against a far off nanoTime value could overflow
+        Long raceDeadline = licenseRaceTimeout == null ? null : System.nanoTime() + licenseRaceTimeout.toNanos();
+        Exception firstError = null;
+        try {
+            for (int i = 0; i < resolvers.size(); i++) {
+                LicenseResolver resolver = resolvers.get(i);
+                CompletableFuture<Optional<AvailableLicence>> candidateLookup = candidateLookups.get(i);
+
+                try {
+                    if (candidateLookup == null) {
+                        // This resolver cannot take part in the race, let it resolve a license the usual way
+                        log.info(String.format("Attempting to resolve license using: %s", resolver));
+                        Optional<LicenseAcquisition> acquisition = timedPhase(String.format("resolveLicense[%d]", i),
+                                resolver.toString(), () -> resolveLicenseUsing(resolver));
+                        if (acquisition.isPresent()) {
+                            onLicenseObtained(resolver, acquisition.get());
+                            return true;
+                        }
+                        continue;
+                    }
+
+                    RacedCandidate candidate = awaitRacedCandidate(i, candidateLookups, raceDeadline);
+                    if (candidate.isSkipped()) {
+                        log.info(String.format("Race timeout elapsed, skipping resolver still waiting on its source: %s", resolver));
+                    } else if (candidate.getLicense().isEmpty()) {
+                        log.info(String.format("No license candidate from: %s", resolver));
+                    } else {
+                        log.info(String.format("Acquiring license candidate from: %s", resolver));
+                        AvailableLicence candidateLicense = candidate.getLicense().get();
+                        Optional<LicenseAcquisition> acquisition = timedPhase(String.format("acquireLicense[%d]", i),
+                                resolver.toString(), () -> acquireLicenseUsing((CandidateLicenseResolver) resolver, candidateLicense));
+                        if (acquisition.isPresent()) {
+                            onLicenseObtained(resolver, acquisition.get());
+                            return true;
+                        }
+                    }
+                } catch (Exception exc) {
+                    Exception cause = exc instanceof ExecutionException && exc.getCause() instanceof Exception
+                            ? (Exception) exc.getCause() : exc;
+                    log.error(String.format("Error while resolving license using: %s", resolver), cause);
+                    if (firstError == null) {
+                        firstError = cause;
+                    }
+                }
+                log.info("No license was obtained, will try next resolver if there is one");
+            }
+        } finally {
+            // Any lookups still running are no longer needed, they never acquire a license themselves
+            for (Future<Optional<AvailableLicence>> candidateLookup : candidateLookups) {
+                if (candidateLookup != null) {
+                    candidateLookup.cancel(true);
+                }
+            }
+        }
+
+        if (firstError != null) {
+            throw firstError;
+        }
+        return false;
     }
 
     /***
-     * Gets Utilities object to begin making use of the Nuix API.  If instance has been previously obtained, then
-     * that instance will be returned.  Otherwise, calling this method performs a series of steps to get setup:
-     * <ol>
-     *     <li>A set of preconditions are checked.  Generally if a condition is not met an exception explaining the issue
-     *     will be thrown.  In a couple instances a default will be assumed if possible.
-     *     <ul>
-     *         <li>Can we resolve an engine distribution?</li>
-     *         <li>Can we resolve a log directory?</li>
-     *         <li>Can we resolve a user data directory?</li>
-     *         <li>Does the system PATH have a reference to "[ENGINE_DIR]\bin"?</li>
-     *         <li>Does the system PATH have a reference to "[ENGINE_DIR]\bin\x86"?</li>
-     *     </ul>
-     *     </li>
-     *     <li>Logging is initialized</li>
-     *     <li>The Nuix Engine GlobalContainer instance is created if needed</li>
-     *     <li>An Engine instance is created</li>
-     *     <li>Any provided {@link NuixLicenseResolver} instances are iteratively called upon to obtain a license until an
-     *     instance has successfully acquired one.
-     *     </li>
-     *     <li>The callback provided when calling this method is invoked with a licenses Utilities object if license
-     *     acquisition was successful.</li>
-     *     <li>
-     *         If an exception is thrown during this process, it is caught, written to System.out and then rethrown
-     *         to be further handled by the caller.
-     *     </li>
-     * </ol>
-     * Note that before calling this method you must call one of the following methods to configure where a
-     * Nuix Engine distribution is located:
-     * <ul>
-     *     <li>{@link #setEngineDistributionDirectorySupplier(Supplier)}</li>
-     *     <li>{@link #setEngineDistributionDirectory(File)}</li>
-     *     <li>{@link #setEngineDistributionDirectoryFromEnvVar(String)}</li>
-     *     <li>{@link #setEngineDistributionDirectoryFromEnvVar()}</li>
-     * </ul>
-     *
-     * @return If this instance already has an instance of Utilities, that is returned.  Otherwise necessary steps
-     * will be taken to attempt to obtain and license underlying engine instance to ultimately provide a licensed
-     * Utilities instance.
-     * @throws Exception Allows exceptions to bubble up so caller can handle them.
+     * Waits on the candidate lookup of the resolver at the given index.  Once the race deadline has passed, stops
+     * waiting if a less preferred resolver already has a candidate.  With no race deadline, simply waits for the lookup
+     * to finish.
+     * @return The lookup result, or a skipped result if the lookup was not waited on due to the race deadline.
      */
-    public Utilities getUtilities() throws Exception {
-        if (utilities == null) {
-            // Check to make sure some requirements are in place before proceeding
-            checkPreConditions();
+    private RacedCandidate awaitRacedCandidate(int index,
+                                                           List<CompletableFuture<Optional<AvailableLicence>>> candidateLookups,
+                                                           Long raceDeadline) throws Exception {
+        CompletableFuture<Optional<AvailableLicence>> candidateLookup = candidateLookups.get(index);
+        if (raceDeadline == null) {
+            return RacedCandidate.of(candidateLookup.get());
+        }
+        while (true) {
+            long remainingNanos = raceDeadline - System.nanoTime();
+            if (remainingNanos > 0) {
+                try {
+                    return RacedCandidate.of(candidateLookup.get(remainingNanos, TimeUnit.NANOSECONDS));
+                } catch (TimeoutException exc) {
+                    continue;
+                }
+            }
+
+            List<CompletableFuture<?>> laterLookups = new ArrayList<>();
+            for (int i = index + 1; i < candidateLookups.size(); i++) {
+                CompletableFuture<Optional<AvailableLicence>> laterLookup = candidateLookups.get(i);
+                if (laterLookup == null) {
+                    continue;
+                }
+                if (laterLookup.isDone() && !laterLookup.isCompletedExceptionally() && laterLookup.join().isPresent()) {
+                    return RacedCandidate.SKIPPED;
+                }
+                if (!laterLookup.isDone()) {
+                    laterLookups.add(laterLookup);
+                }
+            }
+
+            if (candidateLookup.isDone() || laterLookups.isEmpty()) {
+                return RacedCandidate.of(candidateLookup.get());
+            }
 
-            // Make sure logging gets initialized
+            // Wait until either this lookup or a less preferred one finishes, then check again
+            laterLookups.add(candidateLookup);
             try {
-                initializeLogging();
+                CompletableFuture.anyOf(laterLookups.toArray(new CompletableFuture[0])).get();
             } catch (Exception exc) {
-                System.out.println("Error while initializing logging: " + exc.getMessage());
-                throw new Exception("Error while initializing logging", exc);
+                // Failures are reported when each lookup is considered in turn
             }
+        }
+    }
+
+    /***
+     * The result of waiting on a raced candidate lookup, see {@link #awaitRacedCandidate(int, List, Long)}.
+     */
+    private static final class RacedCandidate {
+        private static final RacedCandidate SKIPPED = new RacedCandidate(true, Optional.empty());
 
-            // Proceed with constructing engine instance, obtaining license and providing licensed Utilities
-            // to provided callback
-            log.info("Engine Distribution Directory: " + engineDistributionDirectorySupplier.get().getAbsolutePath());
-            log.info("Log Directory: " + logDirectorySupplier.get().getAbsolutePath());
-            log.info("User Data Directory: " + userDataDirectorySupplier.get().getAbsolutePath());
+        private final boolean skipped;
+        private final Optional<AvailableLicence> license;
 
-            ensureGlobalContainer();
-            buildEngine();
-            if (obtainLicenseFromResolvers()) {
-                utilities = engine.getUtilities();
-                logAllDependencyInfo(utilities);
-            } else {
-                log.error("No license was able to be resolved");
-            }
+        private RacedCandidate(boolean skipped, Optional<AvailableLicence> license) {
+            this.skipped = skipped;
+            this.license = license;
         }
 
-        // Set NuixVersion.current to right value
-        NuixVersion.setCurrent(NuixVersion.parse(engine.getVersion()));
-        return utilities;
+        private static RacedCandidate of(Optional<AvailableLicence> license) {
+            return new RacedCandidate(false, license);
+        }
+
+        /***
+         * @return True if the lookup was skipped because the race deadline passed while a less preferred resolver
+         * already had a candidate
+         */
+        private boolean isSkipped() {
+            return skipped;
+        }
+
+        /***
+         * @return The candidate license found by the lookup, empty if it found none or was skipped
+         */
+        private Optional<AvailableLicence> getLicense() {
+            return license;
+        }
     }
 
     /***
-     * Convenience method for running an operation with a licensed engine instance and then automatically closing this instance.
-     * Supplied consumer will be provided a utilities instance by internally calling {@link #getUtilities()}.
-     * Upon return from consumer, either from normal return or exception, a 'finally' block will call the
-     * {@link #close()} method for you.  Exceptions will be allowed to bubble up, so caller can handle them directly.
-     * @param throwCapableConsumer A callback which is to receive Utilities upon successful initialization and licensing.
-     * @throws Exception May be thrown by process or getting engine initialized or code in supplied consumer.
+     * @return The startup resolution cache for this instance, or null if caching is disabled or the engine
+     * distribution directory has not been configured.
      */
-    public void run(ThrowCapableConsumer<Utilities> throwCapableConsumer) throws Exception {
-        try {
-            throwCapableConsumer.accept(getUtilities());
-        } finally {
-            close();
+    private StartupResolutionCache getStartupResolutionCache() {
+        if (!cacheStartupResolution || startupCacheDirectory == null || engineDistributionDirectorySupplier == null) {
+            return null;
         }
+        return new StartupResolutionCache(startupCacheDirectory, engineDistributionDirectorySupplier.get());
     }
 
     /***
-     * When creating a new instance via {@link NuixEngine#usingFirstAvailableLicense(LicenseResolver...)}, caller can
-     * specify a series of {@link NuixLicenseResolver} instances which will be called upon in sequence until one acquires
-     * a license.  This method iterates through those resolvers to make that happen.
-     * @return True if a license was obtained, false if not.
-     * @throws Exception This method does not throw any methods itself, but instead allows any thrown methods to bubble up.
+     * Resolves the startup environment, using a cached resolution when one was recorded for the current environment
+     * and otherwise calling {@link #checkPreConditions()} and recording the result.
+     * @throws Exception If preconditions are checked and are not met
      */
-    private boolean obtainLicenseFromResolvers() throws Exception {
-        boolean licenseWasObtained = false;
-        // Iterate each provided license resolver in order until one signals to use it has licensed
-        // our engine instance.
-        for (LicenseResolver resolver : nuixLicenseResolvers) {
-            log.info(String.format("Attempting to resolve license using: %s", resolver));
-            licenseWasObtained = resolver.resolveLicense(engine);
-            if (licenseWasObtained) {
-                log.info(String.format("Obtained license: %s", NuixLicenseFeaturesLogger.summarizeLicense(engine.getLicence())));
-                break;
-            } else {
-                log.info("No license was obtained, will try next resolver if there is one");
+    private void resolveStartupEnvironment() throws Exception {
+        StartupResolutionCache cache = getStartupResolutionCache();
+        if (cache == null) {
+            checkPreConditions();
+            return;
+        }
+
+        String fingerprint = StartupResolutionCache.computeFingerprint(engineDistributionDirectorySupplier.get(),
+                userDataDirectorySupplier == null ? null : userDataDirectorySupplier.get());
+        Optional<StartupResolutionCache.Resolution> cachedResolution = cache.load(fingerprint);
+        if (cachedResolution.isPresent()) {
+            System.out.println("Using cached startup resolution, skipping precondition checks: " + cache.getCacheFile().getAbsolutePath());
+            startupResolution = cachedResolution.get();
+            usedCachedStartupResolution = true;
+            System.setProperty("nuix.libdir", startupResolution.libDirectory);
+            if (userDataDirectorySupplier == null) {
+                File userDataDirectory = new File(startupResolution.userDataDirectory);
+                userDataDirectorySupplier = () -> userDataDirectory;
             }
+            ensureLogDirectory(false);
+            return;
+        }
+
+        checkPreConditions();
+        StartupResolutionCache.Resolution resolution = new StartupResolutionCache.Resolution();
+        resolution.fingerprint = fingerprint;
+        resolution.engineDirectory = engineDistributionDirectorySupplier.get().getAbsolutePath();
+        resolution.libDirectory = System.getProperty("nuix.libdir");
+        resolution.userDataDirectory = userDataDirectorySupplier.get().getAbsolutePath();
+        resolution.log4jConfigurationUri = getLog4jConfigurationFile().toURI().toString();
+        resolution.lastLicenseSource = cache.loadAny().map(StartupResolutionCache.Resolution::getLastLicenseSource).orElse(null);
+        cache.save(resolution);
+        startupResolution = resolution;
+        usedCachedStartupResolution = false;
+    }
+
+    /***
+     * If this start used a cached startup resolution, discards it so that the next start validates its environment.
+     * Only called for failures in the phases a cached resolution affects: precondition checks, logging initialization
+     * and engine construction.
+     */
+    private void invalidateCachedStartupResolution() {
+        StartupResolutionCache cache = getStartupResolutionCache();
+        if (usedCachedStartupResolution && cache != null) {
+            System.out.println("Startup failed using cached startup resolution, discarding it");
+            cache.invalidate();
+            usedCachedStartupResolution = false;
         }
-        return licenseWasObtained;
     }
 
     /***
@@ -419,30 +1477,8 @@ public class NuixEngine implements AutoCloseable {
         File libDir = new File(engineDistributionDirectorySupplier.get(), "lib");
         System.setProperty("nuix.libdir", libDir.getAbsolutePath());
 
-        // If caller has not configured a log directory, attempt to guess one in local app data, otherwise throw exception.
-        if (logDirectorySupplier == null) {
-            String localAppData = System.getenv("LOCALAPPDATA");
-            if (localAppData != null && !localAppData.isEmpty()) {
-                File localAppDataDirectory = new File(localAppData);
-                File logDirectory = new File(localAppDataDirectory, "Engine-" + DateTime.now().toString("YYYYMMdd-HHmmss"));
-                System.out.println("No log directory specified, assuming local app data log directory: " + logDirectory.getAbsolutePath());
-                setLogDirectory(logDirectory);
-            } else {
-                if (!ignoreIssues) {
-                    throw new IllegalStateException("Unable to resolve log directory, please call either " +
-                            "setLogDirectorySupplier or setLogDirectory method before calling run method");
-                }
-            }
-        }
-
-        // If we reached here, we should have been able to resolve a log directory.  Let's make sure that directory
-        // exists so later during logging initialization we don't receive an exception about non-existent directory.
-        logDirectorySupplier.get().getCanonicalFile().mkdirs();
-        if (!logDirectorySupplier.get().getCanonicalFile().exists()) {
-            if (!ignoreIssues) {
-                throw new IOException("Unable to create log directory: " + logDirectorySupplier.get().getCanonicalPath());
-            }
-        }
+        // Make sure we have a log directory to write to
+        ensureLogDirectory(ignoreIssues);
 
         // If caller has not specified a user-data directory directly, check to see if one was specified in system property
         // nuix.userDataDirs.  If not specified there, then use the one specified in the engine release directory.
@@ -498,60 +1534,165 @@ public class NuixEngine implements AutoCloseable {
     }
 
     /***
-     * Initializes some logging details.
+     * Resolves the log directory, assuming a default if one has not been configured, and makes sure it exists.
+     * @param ignoreIssues True to continue even if a log directory cannot be resolved or created (for testing)
+     * @throws Exception If a log directory cannot be resolved or created
+     */
+    private void ensureLogDirectory(boolean ignoreIssues) throws Exception {
+        // If caller has not configured a log directory, attempt to guess one in local app data, otherwise throw exception.
+        if (logDirectorySupplier == null) {
+            String localAppData = System.getenv("LOCALAPPDATA");
+            if (localAppData != null && !localAppData.isEmpty()) {
+                File localAppDataDirectory = new File(localAppData);
+                File logDirectory = new File(localAppDataDirectory, "Engine-" + DateTime.now().toString("YYYYMMdd-HHmmss"));
+                System.out.println("No log directory specified, assuming local app data log directory: " + logDirectory.getAbsolutePath());
+                setLogDirectory(logDirectory);
+            } else {
+                if (!ignoreIssues) {
+                    throw new IllegalStateException("Unable to resolve log directory, please call either " +
+                            "setLogDirectorySupplier or setLogDirectory method before calling run method");
+                }
+            }
+        }
+
+        // If we reached here, we should have been able to resolve a log directory.  Let's make sure that directory
+        // exists so later during logging initialization we don't receive an exception about non-existent directory.
+        logDirectorySupplier.get().getCanonicalFile().mkdirs();
+        if (!logDirectorySupplier.get().getCanonicalFile().exists()) {
+            if (!ignoreIssues) {
+                throw new IOException("Unable to create log directory: " + logDirectorySupplier.get().getCanonicalPath());
+            }
+        }
+    }
+
+    /***
+     * Initializes some logging details.  Logging configuration is shared by every instance in the JVM, so it is only
+     * configured by the first instance to start and is only shut down once the last instance using it has been closed.
+     * Note this means log files are written to the log directory of the first instance to start.
      */
     protected void initializeLogging() {
         if (log == null) {
-            // Default log4j2.yaml included with engine distribution references these system properties
-            // so we want them in place before we ask log4j2 to reload configuration
-            System.setProperty("nuix.loglevel", "info");
-            System.setProperty("nuix.logdir", logDirectorySupplier.get().getAbsolutePath());
-
-            // Use Log4j2 config YAML from engine distribution directory
-            File log4jConfigFile = new File(engineDistributionDirectorySupplier.get(), "config/log4j2.yml");
-            System.setProperty("log4j.configurationFile", log4jConfigFile.toURI().toString());
-
-            // Report settings we're using
-            System.out.println("log4j.configurationFile => " + System.getProperty("log4j.configurationFile"));
-            System.out.println("nuix.loglevel => " + System.getProperty("nuix.loglevel"));
-            System.out.println("nuix.logdir => " + System.getProperty("nuix.logdir"));
-
-            // Log4j2 has likely already attempted to configure itself at this point but configuration
-            // above likely was not already in place at that moment.  Now that we have configured those values
-            // we ask log4j2 to reconfigure itself.  It should then find the "log4j.configurationFile" property
-            // and configure itself from that.
-            System.out.println("Asking log4j2 to reload configuration...");
-            LoggerContext context = (org.apache.logging.log4j.core.LoggerContext) LogManager.getContext(false);
-            context.reconfigure();
-
-            // Default log4j2.yml file only appends to console when logged event is fatal, also it logs that to
-            // SYSTEM_ERR rather than SYSTEM_OUT.  For testing it can be helpful to have INFO events written to the
-            // console, so we will add our own appender with these traits.
-            ConsoleAppender consoleAppender = ConsoleAppender.newBuilder()
-                    .setName("Nuix_Engine_Console_Appender")
-                    .setFilter(new AbstractFilter() {
-                        @Override
-                        public Result filter(LogEvent event) {
-                            return Result.NEUTRAL;
-                        }
-                    })
-                    .setLayout(PatternLayout.newBuilder().withPattern("%d{yyyy-MM-dd HH:mm:ss.SSS Z} [%t] %r %-5p %c - %m%n").build())
-                    .setConfiguration(context.getConfiguration()).build();
-            consoleAppender.start();
-            context.getConfiguration().addAppender(consoleAppender);
-            context.getRootLogger().addAppender(context.getConfiguration().getAppender(consoleAppender.getName()));
-            context.updateLoggers();
-
+            synchronized (loggingLock) {
+                if (loggingReferenceCount == 0) {
+                    configureLogging();
+                }
+                loggingReferenceCount++;
+            }
+            holdsLoggingReference = true;
             log = LogManager.getLogger(this.getClass());
         }
     }
 
     /***
-     * If we do not yet have a global container instance, creates one.
+     * Configures Log4j2 using the configuration from the engine distribution and adds a console appender.
+     */
+    private void configureLogging() {
+        // Default log4j2.yaml included with engine distribution references these system properties
+        // so we want them in place before we ask log4j2 to reload configuration
+        System.setProperty("nuix.loglevel", "info");
+        System.setProperty("nuix.logdir", logDirectorySupplier.get().getAbsolutePath());
+
+        // Use Log4j2 config YAML from engine distribution directory
+        String log4jConfigUri = startupResolution != null && startupResolution.log4jConfigurationUri != null ?
+                startupResolution.log4jConfigurationUri : getLog4jConfigurationFile().toURI().toString();
+        System.setProperty("log4j.configurationFile", log4jConfigUri);
+
+        // Report settings we're using
+        System.out.println("log4j.configurationFile => " + System.getProperty("log4j.configurationFile"));
+        System.out.println("nuix.loglevel => " + System.getProperty("nuix.loglevel"));
+        System.out.println("nuix.logdir => " + System.getProperty("nuix.logdir"));
+
+        // Log4j2 has likely already attempted to configure itself at this point but configuration
+        // above likely was not already in place at that moment.  Now that we have configured those values
+        // we ask log4j2 to reconfigure itself.  It should then find the "log4j.configurationFile" property
+        // and configure itself from that.
+        System.out.println("Asking log4j2 to reload configuration...");
+        LoggerContext context = (org.apache.logging.log4j.core.LoggerContext) LogManager.getContext(false);
+        context.reconfigure();
+
+        // Default log4j2.yml file only appends to console when logged event is fatal, also it logs that to
+        // SYSTEM_ERR rather than SYSTEM_OUT.  For testing it can be helpful to have INFO events written to the
+        // console, so we will add our own appender with these traits.
+        ConsoleAppender consoleAppender = ConsoleAppender.newBuilder()
+                .setName("Nuix_Engine_Console_Appender")
+                .setFilter(new AbstractFilter() {
+                    @Override
+                    public Result filter(LogEvent event) {
+                        return Result.NEUTRAL;
+                    }
+                })
+                .setLayout(PatternLayout.newBuilder().withPattern("%d{yyyy-MM-dd HH:mm:ss.SSS Z} [%t] %r %-5p %c - %m%n").build())
+                .setConfiguration(context.getConfiguration()).build();
+        consoleAppender.start();
+        context.getConfiguration().addAppender(consoleAppender);
+        context.getRootLogger().addAppender(context.getConfiguration().getAppender(consoleAppender.getName()));
+        if (asyncLoggingBufferSize > 0) {
+            wrapRootAppendersAsync(context.getConfiguration());
+        }
+        context.updateLoggers();
+    }
+
+    /***
+     * Replaces each appender of the root logger, such as the console and log file appenders, with a
+     * {@link BoundedAsyncAppender} writing to it.
+     * @param configuration The logging configuration to modify
+     */
+    private void wrapRootAppendersAsync(Configuration configuration) {
+        LoggerConfig rootLoggerConfig = configuration.getRootLogger();
+        Map<String, AppenderRef> appenderRefs = new HashMap<>();
+        for (AppenderRef appenderRef : rootLoggerConfig.getAppenderRefs()) {
+            appenderRefs.put(appenderRef.getRef(), appenderRef);
+        }
+
+        for (Appender appender : List.copyOf(rootLoggerConfig.getAppenders().values())) {
+            BoundedAsyncAppender asyncAppender = new BoundedAsyncAppender("Async_" + appender.getName(), appender,
+                    asyncLoggingBufferSize, asyncLoggingOverflowPolicy, asyncLoggingSampleRate);
+            asyncAppender.start();
+            configuration.addAppender(asyncAppender);
+
+            AppenderRef appenderRef = appenderRefs.get(appender.getName());
+            rootLoggerConfig.removeAppender(appender.getName());
+            rootLoggerConfig.addAppender(asyncAppender,
+                    appenderRef == null ? null : appenderRef.getLevel(),
+                    appenderRef == null ? null : appenderRef.getFilter());
+            asyncLoggingAppenders.add(asyncAppender);
+        }
+        System.out.println(String.format("Async logging enabled for %s appenders, buffer size %s, overflow policy %s",
+                asyncLoggingAppenders.size(), asyncLoggingBufferSize, asyncLoggingOverflowPolicy));
+    }
+
+    /***
+     * @return The Log4j2 configuration file of the engine distribution.
+     */
+    private File getLog4jConfigurationFile() {
+        return new File(engineDistributionDirectorySupplier.get(), "config/log4j2.yml");
+    }
+
+    /***
+     * Releases this instance's use of the shared logging configuration, shutting logging down if this was the last
+     * instance using it.
+     */
+    private void releaseLogging() {
+        if (holdsLoggingReference) {
+            synchronized (loggingLock) {
+                loggingReferenceCount--;
+                if (loggingReferenceCount == 0) {
+                    ((LifeCycle) LogManager.getContext()).stop();
+                    asyncLoggingAppenders.clear();
+                }
+            }
+            holdsLoggingReference = false;
+        }
+        log = null;
+    }
+
+    /***
+     * If this instance does not yet hold a reference to the shared global container instance, acquires one from
+     * {@link GlobalContainerManager}, which creates the container if needed.
      */
-    protected void ensureGlobalContainer() {
+    protected synchronized void ensureGlobalContainer() {
         if (globalContainer == null) {
-            globalContainer = GlobalContainerFactory.newContainer();
+            globalContainer = GlobalContainerManager.acquire();
         }
     }
 
@@ -561,13 +1702,13 @@ public class NuixEngine implements AutoCloseable {
      * in place it is possible for a license to remain claimed after the claiming process has ended and until a timeout
      * period has elapsed for the license.
      */
-    protected void buildEngine() {
-        System.setProperty("nuix.userDataBase", userDataDirectorySupplier.get().getAbsolutePath());
-        Map<Object, Object> engineConfiguration = Map.of(
-                "user", System.getProperty("user.name"),
-                "userDataDirs", userDataDirectorySupplier.get().getAbsolutePath()
-        );
+    protected void buildEngine() throws Exception {
+        Map<Object, Object> engineConfiguration = new HashMap<>();
+        engineConfiguration.put("user", System.getProperty("user.name"));
+        engineConfiguration.put("userDataDirs", userDataDirectorySupplier.get().getAbsolutePath());
+        engineConfiguration.putAll(additionalEngineConfiguration);
 
+        System.setProperty("nuix.userDataBase", userDataDirectorySupplier.get().getAbsolutePath());
         engine = globalContainer.newEngine(engineConfiguration);
         log.info("Obtained Engine instance v" + engine.getVersion());
 
@@ -586,6 +1727,52 @@ public class NuixEngine implements AutoCloseable {
         Runtime.getRuntime().addShutdownHook(shutdownHook);
     }
 
+    /***
+     * Determines whether this instance currently has licensed Utilities available, without attempting to start or
+     * license the engine.  Useful for checking whether a long-lived instance (such as one held by {@link NuixEnginePool})
+     * is still usable.
+     * @return True if Utilities have been obtained and the underlying Engine reports holding a license, false otherwise.
+     */
+    public boolean isLicensed() {
+        if (engine == null || utilities == null) {
+            return false;
+        }
+        try {
+            return engine.getLicence() != null;
+        } catch (Exception exc) {
+            return false;
+        }
+    }
+
+    /***
+     * Gets the worker count decided upon by the {@link WorkerCountPolicy} of the resolver which obtained this
+     * instance's license.
+     * @return The worker count decision, or null if the resolver had no policy or no license has been obtained.
+     */
+    public WorkerCountPolicy.Decision getWorkerCountDecision() {
+        return workerCountDecision;
+    }
+
+    /***
+     * Gets parallel processing settings appropriate for the license held and this host, suitable for passing to
+     * setParallelProcessingSettings.  When a {@link WorkerCountPolicy} was used, contains "workerCount" and
+     * "workerMemory" from its decision, otherwise contains "workerCount" set to the worker count of the license.
+     * Callers can copy the returned map to add further settings such as "workerTemp".
+     * @return A map of parallel processing settings
+     * @throws Exception If obtaining licensed Utilities throws an exception, it is allowed to bubble up.
+     */
+    public Map<String, Object> getParallelProcessingSettings() throws Exception {
+        Utilities licensedUtilities = getUtilities();
+        if (workerCountDecision != null) {
+            return workerCountDecision.toParallelProcessingSettings();
+        }
+        Map<String, Object> settings = new HashMap<>();
+        if (licensedUtilities != null) {
+            settings.put("workerCount", licensedUtilities.getLicence().getWorkers());
+        }
+        return settings;
+    }
+
     /***
      * Returns the Nuix engine version by internally calling Engine.getVersion
      * <br>Note that if Engine instance has not yet been initialized this returns "0.0.0.0"
@@ -606,7 +1793,46 @@ public class NuixEngine implements AutoCloseable {
      * Engine has not yet been initialized.
      */
     public NuixVersion getNuixVersion() {
-        return NuixVersion.getCurrent();
+        NuixVersion version = nuixVersion;
+        if (version != null) {
+            return version;
+        } else if (engine != null) {
+            return NuixVersion.parse(engine.getVersion());
+        } else {
+            return new NuixVersion();
+        }
+    }
+
+    /***
+     * Records the version of this instance's Engine.  {@link NuixVersion#getCurrent()} is also updated for callers
+     * relying on it, although with several engines in the JVM it only reflects whichever started last.
+     */
+    private void recordEngineVersion() {
+        if (engine != null) {
+            nuixVersion = NuixVersion.parse(engine.getVersion());
+            capabilities = null;
+            NuixVersion.setCurrent(nuixVersion);
+        }
+    }
+
+    /***
+     * Gets the table of {@link EngineCapability} instances supported by this instance, based on its Engine version and
+     * the features of the license it holds.  The table is built the first time it is needed after a license is obtained,
+     * so checking a capability is then a single array lookup.
+     * @return The capabilities of this instance, those of an unlicensed "0.0.0.0" engine if there is no Engine yet.
+     */
+    public EngineCapabilities getCapabilities() {
+        EngineCapabilities result = capabilities;
+        if (result == null) {
+            Licence licence = engine == null ? null : engine.getLicence();
+            EnumSet<LicenseFeature> licenseFeatures = licence == null ?
+                    EnumSet.noneOf(LicenseFeature.class) : LicenseSnapshot.of(licence).getFeatures();
+            result = EngineCapabilities.of(getNuixVersion(), licenseFeatures);
+            if (licence != null) {
+                capabilities = result;
+            }
+        }
+        return result;
     }
 
     /***
@@ -641,6 +1867,7 @@ public class NuixEngine implements AutoCloseable {
         vars.put("$utilities", getUtilities());
         vars.put("$nuix_version", getNuixVersion());
         RubyScriptRunner rubyScriptRunner = new RubyScriptRunner();
+        rubyScriptRunner.setScriptingContainerPool(scriptingContainerPool);
         rubyScriptRunner.setStandardOutputConsumer(standardOutputReceiver);
         rubyScriptRunner.setErrorOutputConsumer(errorOutputReceiver);
         if (completedCallback != null) {
@@ -724,6 +1951,7 @@ public class NuixEngine implements AutoCloseable {
         vars.put("$utilities", getUtilities());
         vars.put("$nuix_version", getNuixVersion());
         RubyScriptRunner rubyScriptRunner = new RubyScriptRunner();
+        rubyScriptRunner.setScriptingContainerPool(scriptingContainerPool);
         rubyScriptRunner.setStandardOutputConsumer(standardOutputReceiver);
         rubyScriptRunner.setErrorOutputConsumer(errorOutputReceiver);
         if (completedCallback != null) {
@@ -778,49 +2006,71 @@ public class NuixEngine implements AutoCloseable {
     }
 
     /***
-     * Logs information about all Nuix third party dependencies
+     * Logs information about all Nuix third party dependencies.  Checks are performed in parallel by a
+     * {@link ThirdPartyDependencyChecker}, reusing results cached in the startup cache directory when the engine
+     * distribution has not changed since they were recorded.
      * @param utilities Needs an instance of Utilities to get access to third party dependency information
      */
     protected void logAllDependencyInfo(Utilities utilities) {
-        log.info("Reviewing third party dependency statuses:");
+        // May be running in the background, so hold on to logger in case this instance is closed meanwhile
+        Logger dependencyLog = log;
+        if (dependencyLog == null) {
+            return;
+        }
+
+        dependencyLog.info("Reviewing third party dependency statuses:");
         try {
-            List<ThirdPartyDependency> dependencies = utilities.getThirdPartyDependencies();
-            for (ThirdPartyDependency dependency : dependencies) {
-                try {
-                    ThirdPartyDependencyStatus status = dependency.performCheck();
-                    log.info(String.format(
+            ThirdPartyDependencyChecker checker = new ThirdPartyDependencyChecker(engineDistributionDirectorySupplier.get(),
+                    startupCacheDirectory, dependencyCheckTimeout, startupExecutor);
+            for (ThirdPartyDependencyChecker.Result result : checker.performChecks(utilities, startupReport)) {
+                if (result.isCompleted()) {
+                    dependencyLog.info(String.format(
                             "[%s] '%s': %s",
-                            status.isAttentionRequired() ? " " : "X",
-                            dependency.getDescription(),
-                            status.getMessage()
+                            result.isAttentionRequired() ? " " : "X",
+                            result.getDescription(),
+                            result.getMessage()
                     ));
-                } catch (Exception e) {
-                    log.error(String.format(
-                            "[!] '%s': Error Checking Status: %s",
-                            dependency.getDescription(),
-                            e.getMessage()
+                } else {
+                    dependencyLog.error(String.format(
+                            "[!] '%s': %s",
+                            result.getDescription(),
+                            result.getMessage()
                     ));
                 }
             }
         } catch (Exception e) {
-            log.error("Error while fetching list of third party dependencies", e);
+            dependencyLog.error("Error while fetching list of third party dependencies", e);
         }
     }
 
     /***
      * Cleans up resources associated with this instance:
      * <ul>
+     *     <li>Stops the license lease watchdog, if there is one</li>
+     *     <li>Records the end of the license hold, see {@link #getLicenseUsage()}</li>
      *     <li>Calls close on underlying Engine instance</li>
      *     <li>Drop reference to obtained Utilities object</li>
+     *     <li>Releases reference to the shared GlobalContainer</li>
      *     <li>Unregisters shutdown hook</li>
-     *     <li>Shuts down logging</li>
+     *     <li>Shuts down logging if no other instance is still using it</li>
      * </ul>
+     * Calling this method more than once has no further effect.
      * @throws Exception If thrown, was a result of a method being called by this method and allowed to bubble up to caller.
      */
     @Override
-    public void close() throws Exception {
-        // Close engine if we have an instance to close
+    public synchronized void close() throws Exception {
+        // Startup still finishing in the background should no longer publish its report
+        closed = true;
+
+        // Stop watching license lease before the engine goes away
+        if (licenseLeaseWatchdog != null) {
+            licenseLeaseWatchdog.close();
+        }
+
+        // Close engine if we have an instance to close, which releases any license it holds
         if (engine != null) {
+            releaseLicenseUsage("closed");
+            invalidateCachedInventories();
             final String message = "Closing engine instance";
             if (log != null) {
                 log.info(message);
@@ -828,10 +2078,21 @@ public class NuixEngine implements AutoCloseable {
                 System.out.println(message);
             }
             engine.close();
+            engine = null;
         }
 
         // Drop reference to Utilities object
         utilities = null;
+        capabilities = null;
+
+        // Let go of our reference to the shared GlobalContainer
+        if (globalContainer != null) {
+            GlobalContainerManager.release();
+            globalContainer = null;
+        }
+
+        // Startup report no longer describes a running engine
+        unregisterStartupReport();
 
         // Unregister shutdown hook since we are closing things up now
         if (shutdownHook != null) {
@@ -845,10 +2106,33 @@ public class NuixEngine implements AutoCloseable {
             shutdownHook = null;
         }
 
-        // Shutdown logging
-        if (log != null) {
-            ((LifeCycle) LogManager.getContext()).stop();
-            log = null;
+        // Shutdown logging, unless other instances are still using it
+        releaseLogging();
+    }
+
+    /***
+     * Removes inventories loaded through this instance's licensor from the inventory caches of its resolvers, since
+     * licenses in them can no longer be acquired once the engine is closed.  See {@link LicenseInventoryCache}.
+     */
+    private void invalidateCachedInventories() {
+        if (nuixLicenseResolvers == null) {
+            return;
+        }
+        try {
+            Licensor licensor = null;
+            for (LicenseResolver resolver : nuixLicenseResolvers) {
+                if (resolver instanceof NuixLicenseResolver && ((NuixLicenseResolver) resolver).inventoryCache != null) {
+                    if (licensor == null) {
+                        licensor = engine.getLicensor();
+                    }
+                    ((NuixLicenseResolver) resolver).inventoryCache.invalidateLicensor(licensor);
+                }
+            }
+        } catch (Exception exc) {
+            // Stale inventories expire on their own, this should not prevent the engine from closing
+            if (log != null) {
+                log.warn("Error while invalidating cached license inventories", exc);
+            }
         }
     }
 
@@ -0,0 +1,532 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.NonNull;
+import nuix.Utilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/***
+ * Maintains a pool of licensed {@link NuixEngine} instances which can be borrowed and returned across many jobs.  Getting
+ * a {@link NuixEngine} to the point of having licensed {@link Utilities} involves checking preconditions, initializing
+ * logging, building an Engine, resolving a license and checking third party dependencies.  A pool allows that cost
+ * to be paid once per pooled instance rather than once per job.<br><br>
+ * Basic usage example:
+ * <pre>
+ * {@code
+ * try (NuixEnginePool pool = NuixEnginePool.using(() -> NuixEngine.usingFirstAvailableLicense(cloud_4_workers, anyDongle)
+ *         .setEngineDistributionDirectoryFromEnvVar())
+ *         .withMaxSize(2)
+ *         .withMinIdle(1)
+ *         .withIdleTimeout(Duration.ofMinutes(30))
+ *         .start()) {
+ *     pool.run(utilities -> {
+ *         // Do something with Utilities here, engine is returned to the pool afterwards
+ *     });
+ * }
+ * }
+ * </pre>
+ */
+public class NuixEnginePool implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(NuixEnginePool.class);
+
+    /***
+     * Tracks an idle engine along with when it was returned to the pool.
+     */
+    private static class IdleEngine {
+        private final NuixEngine nuixEngine;
+        private final long idleSinceNanos;
+
+        private IdleEngine(NuixEngine nuixEngine) {
+            this.nuixEngine = nuixEngine;
+            this.idleSinceNanos = System.nanoTime();
+        }
+    }
+
+    protected Supplier<NuixEngine> engineFactory;
+    protected int maxSize = 1;
+    protected int minIdle = 0;
+    protected Duration idleTimeout = Duration.ofMinutes(10);
+    protected Duration evictionInterval = Duration.ofMinutes(1);
+    protected Duration borrowTimeout = Duration.ofMinutes(5);
+    protected Predicate<NuixEngine> healthCheck = NuixEngine::isLicensed;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition engineAvailable = lock.newCondition();
+    private final Deque<IdleEngine> idleEngines = new ArrayDeque<>();
+    private final Map<NuixEngine, Boolean> borrowedEngines = new IdentityHashMap<>();
+    private int engineCount = 0;
+    private int pendingIdleCount = 0;
+    private boolean closed = false;
+    private ScheduledExecutorService evictionExecutor = null;
+
+    protected NuixEnginePool() {
+    }
+
+    /***
+     * Creates a new pool which will use the provided Supplier to construct each {@link NuixEngine} instance it pools.
+     * Supplied instances should be fully configured (license resolvers, engine distribution directory, etc) but should
+     * not yet have been started, the pool will take care of obtaining licensed {@link Utilities} from them.
+     * @param engineFactory Supplier which yields a new, configured, NuixEngine instance each time it is called.
+     * @return A new NuixEnginePool instance
+     */
+    public static NuixEnginePool using(@NonNull Supplier<NuixEngine> engineFactory) {
+        NuixEnginePool result = new NuixEnginePool();
+        result.engineFactory = engineFactory;
+        return result;
+    }
+
+    /***
+     * Specifies the maximum number of licensed engines this pool will hold at once, whether idle or borrowed.
+     * Defaults to 1.
+     * @param maxSize The maximum number of engines.  Must be at least 1.
+     * @return This pool for chained method calls.
+     */
+    public NuixEnginePool withMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    /***
+     * Specifies the number of licensed engines this pool will try to keep ready, even when they have been idle longer
+     * than the idle timeout.  These are created when {@link #start()} is called.  Defaults to 0.
+     * @param minIdle Minimum number of engines to keep warm.
+     * @return This pool for chained method calls.
+     */
+    public NuixEnginePool withMinIdle(int minIdle) {
+        this.minIdle = Math.max(0, minIdle);
+        return this;
+    }
+
+    /***
+     * Specifies how long an engine may sit idle in the pool before it is closed, releasing its license.  Engines needed
+     * to satisfy {@link #withMinIdle(int)} are not evicted.  Defaults to 10 minutes.
+     * @param idleTimeout How long an engine may remain idle.
+     * @return This pool for chained method calls.
+     */
+    public NuixEnginePool withIdleTimeout(@NonNull Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+        return this;
+    }
+
+    /***
+     * Specifies how often idle engines are inspected for eviction and health.  Defaults to 1 minute.
+     * @param evictionInterval Interval between eviction runs.
+     * @return This pool for chained method calls.
+     */
+    public NuixEnginePool withEvictionInterval(@NonNull Duration evictionInterval) {
+        this.evictionInterval = evictionInterval;
+        return this;
+    }
+
+    /***
+     * Specifies how long {@link #borrow()} will wait for an engine to become available when the pool is at its maximum
+     * size and all engines are borrowed.  Defaults to 5 minutes.
+     * @param borrowTimeout How long to wait for an engine.
+     * @return This pool for chained method calls.
+     */
+    public NuixEnginePool withBorrowTimeout(@NonNull Duration borrowTimeout) {
+        this.borrowTimeout = borrowTimeout;
+        return this;
+    }
+
+    /***
+     * Specifies the check used to determine whether an engine is still usable.  It is called when an engine is returned
+     * to the pool and when idle engines are inspected.  Engines which fail the check are closed and replaced as needed.
+     * Idle engines stay available to {@link #borrow()} while they are inspected, so the check may still be running when
+     * an engine is handed out.  By default {@link NuixEngine#isLicensed()} is used.
+     * @param healthCheck A predicate returning true when the provided engine is still healthy.
+     * @return This pool for chained method calls.
+     */
+    public NuixEnginePool withHealthCheck(@NonNull Predicate<NuixEngine> healthCheck) {
+        this.healthCheck = healthCheck;
+        return this;
+    }
+
+    /***
+     * Starts the pool, creating and licensing enough engines to satisfy {@link #withMinIdle(int)} and scheduling
+     * periodic idle eviction and health checks.
+     * @return This pool for chained method calls.
+     * @throws Exception If an engine cannot be created or licensed.
+     */
+    public NuixEnginePool start() throws Exception {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Pool has been closed");
+            }
+            if (evictionExecutor == null) {
+                evictionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "NuixEnginePool-Evictor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                long intervalMillis = evictionInterval.toMillis();
+                evictionExecutor.scheduleWithFixedDelay(this::evictIdleEngines, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        ensureMinIdle();
+        return this;
+    }
+
+    /***
+     * Borrows a licensed engine from the pool, waiting up to the configured borrow timeout for one to become available.
+     * Engines obtained this way must be handed back by calling {@link #release(NuixEngine)}.
+     * @return A NuixEngine which has already obtained licensed Utilities.
+     * @throws Exception If no engine became available in time, or a new engine could not be created or licensed.
+     */
+    public NuixEngine borrow() throws Exception {
+        return borrow(borrowTimeout);
+    }
+
+    /***
+     * Borrows a licensed engine from the pool, waiting up to the specified timeout for one to become available.
+     * Engines obtained this way must be handed back by calling {@link #release(NuixEngine)}.
+     * @param timeout How long to wait for an engine to become available.
+     * @return A NuixEngine which has already obtained licensed Utilities.
+     * @throws Exception If no engine became available in time, or a new engine could not be created or licensed.
+     */
+    public NuixEngine borrow(@NonNull Duration timeout) throws Exception {
+        long remainingNanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("Pool has been closed");
+                }
+
+                IdleEngine idleEngine = idleEngines.pollFirst();
+                if (idleEngine != null) {
+                    borrowedEngines.put(idleEngine.nuixEngine, Boolean.TRUE);
+                    return idleEngine.nuixEngine;
+                }
+
+                if (engineCount < maxSize) {
+                    // Reserve a slot, engine construction happens outside the lock since it can take a while
+                    engineCount++;
+                    break;
+                }
+
+                if (remainingNanos <= 0) {
+                    throw new TimeoutException(String.format("Timed out after %s waiting for a pooled engine", timeout));
+                }
+                remainingNanos = engineAvailable.awaitNanos(remainingNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        NuixEngine nuixEngine = createLicensedEngine();
+        lock.lock();
+        try {
+            borrowedEngines.put(nuixEngine, Boolean.TRUE);
+        } finally {
+            lock.unlock();
+        }
+        return nuixEngine;
+    }
+
+    /***
+     * Returns a previously borrowed engine to the pool.  The engine is health checked first and closed if the check
+     * fails or if the pool has since been closed.
+     * @param nuixEngine The engine to return, as obtained from {@link #borrow()}.
+     */
+    public void release(@NonNull NuixEngine nuixEngine) {
+        boolean healthy = isHealthy(nuixEngine);
+        lock.lock();
+        try {
+            if (borrowedEngines.remove(nuixEngine) == null) {
+                throw new IllegalArgumentException("Engine was not borrowed from this pool");
+            }
+            if (healthy && !closed) {
+                idleEngines.offerFirst(new IdleEngine(nuixEngine));
+                engineAvailable.signal();
+                return;
+            }
+            engineCount--;
+            engineAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (!healthy) {
+            log.warn("Returned engine failed health check, closing it");
+        }
+        closeQuietly(nuixEngine);
+    }
+
+    /***
+     * Removes a borrowed engine from the pool and closes it.  Use this when a job has left an engine in a state that
+     * should not be shared with later jobs.
+     * @param nuixEngine The engine to discard, as obtained from {@link #borrow()}.
+     */
+    public void invalidate(@NonNull NuixEngine nuixEngine) {
+        lock.lock();
+        try {
+            if (borrowedEngines.remove(nuixEngine) == null) {
+                throw new IllegalArgumentException("Engine was not borrowed from this pool");
+            }
+            engineCount--;
+            engineAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        closeQuietly(nuixEngine);
+    }
+
+    /***
+     * Convenience method for running an operation with a pooled, licensed engine.  An engine is borrowed, the supplied
+     * consumer is provided its Utilities and upon return, either from normal return or exception, the engine is
+     * returned to the pool.  Exceptions will be allowed to bubble up, so caller can handle them directly.
+     * @param throwCapableConsumer A callback which is to receive licensed Utilities.
+     * @throws Exception May be thrown while borrowing an engine or by code in supplied consumer.
+     */
+    public void run(ThrowCapableConsumer<Utilities> throwCapableConsumer) throws Exception {
+        NuixEngine nuixEngine = borrow();
+        try {
+            throwCapableConsumer.accept(nuixEngine.getUtilities());
+        } finally {
+            release(nuixEngine);
+        }
+    }
+
+    /***
+     * @return The number of engines currently idle in the pool.
+     */
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idleEngines.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /***
+     * @return The number of engines currently borrowed from the pool.
+     */
+    public int getBorrowedCount() {
+        lock.lock();
+        try {
+            return borrowedEngines.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /***
+     * Closes the pool.  Idle engines are closed immediately, releasing their licenses.  Engines which are currently
+     * borrowed will be closed when they are returned.
+     */
+    @Override
+    public void close() {
+        List<NuixEngine> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (IdleEngine idleEngine : idleEngines) {
+                toClose.add(idleEngine.nuixEngine);
+            }
+            idleEngines.clear();
+            engineCount -= toClose.size();
+            engineAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (evictionExecutor != null) {
+            evictionExecutor.shutdownNow();
+        }
+
+        log.info("Closing {} idle pooled engines", toClose.size());
+        for (NuixEngine nuixEngine : toClose) {
+            closeQuietly(nuixEngine);
+        }
+    }
+
+    /***
+     * Creates a new engine using the engine factory and obtains licensed Utilities from it.  Caller must already
+     * have reserved a slot by incrementing the engine count, the slot is given back if creation fails.
+     */
+    private NuixEngine createLicensedEngine() throws Exception {
+        NuixEngine nuixEngine = null;
+        try {
+            nuixEngine = engineFactory.get();
+            if (nuixEngine.getUtilities() == null) {
+                throw new IllegalStateException("Pooled engine was unable to obtain a license");
+            }
+            log.info("Added licensed engine to pool");
+            return nuixEngine;
+        } catch (Exception exc) {
+            lock.lock();
+            try {
+                engineCount--;
+                engineAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+            if (nuixEngine != null) {
+                closeQuietly(nuixEngine);
+            }
+            throw exc;
+        }
+    }
+
+    /***
+     * Creates engines until the pool holds at least the configured minimum number of idle engines.  Engines already
+     * being created for this purpose count towards the minimum, so concurrent calls do not overshoot it.
+     */
+    private void ensureMinIdle() throws Exception {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || idleEngines.size() + pendingIdleCount >= minIdle || engineCount >= maxSize) {
+                    return;
+                }
+                engineCount++;
+                pendingIdleCount++;
+            } finally {
+                lock.unlock();
+            }
+
+            NuixEngine nuixEngine;
+            try {
+                nuixEngine = createLicensedEngine();
+            } catch (Exception exc) {
+                lock.lock();
+                try {
+                    pendingIdleCount--;
+                } finally {
+                    lock.unlock();
+                }
+                throw exc;
+            }
+
+            lock.lock();
+            try {
+                pendingIdleCount--;
+                if (closed) {
+                    engineCount--;
+                } else {
+                    idleEngines.offerLast(new IdleEngine(nuixEngine));
+                    engineAvailable.signal();
+                    continue;
+                }
+            } finally {
+                lock.unlock();
+            }
+            closeQuietly(nuixEngine);
+        }
+    }
+
+    /***
+     * Closes engines which have been idle longer than the idle timeout (beyond the minimum idle count) as well as
+     * idle engines which fail their health check, then tops the pool back up to its minimum idle count.  Healthy
+     * engines are left in the pool while being checked, so a concurrent {@link #borrow()} takes one of them rather than
+     * building another engine.
+     */
+    private void evictIdleEngines() {
+        List<NuixEngine> toClose = new ArrayList<>();
+        List<IdleEngine> toCheck;
+        long idleTimeoutNanos = idleTimeout.toNanos();
+        long now = System.nanoTime();
+
+        lock.lock();
+        try {
+            // Oldest idle engines are at the end of the deque
+            int remainingIdleCount = idleEngines.size();
+            Iterator<IdleEngine> oldestFirst = idleEngines.descendingIterator();
+            while (oldestFirst.hasNext() && remainingIdleCount > minIdle) {
+                IdleEngine idleEngine = oldestFirst.next();
+                if (now - idleEngine.idleSinceNanos > idleTimeoutNanos) {
+                    oldestFirst.remove();
+                    toClose.add(idleEngine.nuixEngine);
+                    engineCount--;
+                    remainingIdleCount--;
+                }
+            }
+            toCheck = new ArrayList<>(idleEngines);
+        } finally {
+            lock.unlock();
+        }
+
+        List<IdleEngine> unhealthyEngines = new ArrayList<>();
+        for (IdleEngine idleEngine : toCheck) {
+            if (!isHealthy(idleEngine.nuixEngine)) {
+                unhealthyEngines.add(idleEngine);
+            }
+        }
+
+        lock.lock();
+        try {
+            for (IdleEngine unhealthyEngine : unhealthyEngines) {
+                // An engine borrowed during the check is health checked again when it is released
+                if (idleEngines.remove(unhealthyEngine)) {
+                    log.warn("Idle engine failed health check, closing it");
+                    toClose.add(unhealthyEngine.nuixEngine);
+                    engineCount--;
+                }
+            }
+            if (!toClose.isEmpty()) {
+                engineAvailable.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!toClose.isEmpty()) {
+            log.info("Evicting {} idle pooled engines", toClose.size());
+        }
+        for (NuixEngine nuixEngine : toClose) {
+            closeQuietly(nuixEngine);
+        }
+
+        try {
+            ensureMinIdle();
+        } catch (Exception exc) {
+            log.error("Error while replenishing pool to its minimum idle count", exc);
+        }
+    }
+
+    private boolean isHealthy(NuixEngine nuixEngine) {
+        try {
+            return healthCheck.test(nuixEngine);
+        } catch (Exception exc) {
+            log.warn("Error while checking pooled engine health", exc);
+            return false;
+        }
+    }
+
+    private void closeQuietly(NuixEngine nuixEngine) {
+        try {
+            nuixEngine.close();
+        } catch (Exception exc) {
+            log.error("Error while closing pooled engine", exc);
+        }
+    }
+}
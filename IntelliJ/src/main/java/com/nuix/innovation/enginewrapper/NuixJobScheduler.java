@@ -0,0 +1,576 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.Getter;
+import lombok.NonNull;
+import nuix.Utilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/***
+ * Schedules jobs against a single licensed {@link NuixEngine}, treating the licensed worker count as a shared budget so
+ * that concurrently running jobs never use more workers than the license holds.  Each job declares how many workers it
+ * needs and is only started once that many are free.<br><br>
+ * When choosing the next job to start, the scheduler considers jobs of the highest queued priority, then picks the
+ * tenant which has used the least worker time relative to its weight (fair-share), then the job of that tenant with
+ * the earliest deadline, then the one submitted first.  Jobs whose deadline passes while queued are failed with a
+ * {@link TimeoutException}.  Submissions are rejected when the queue is full (admission control).<br><br>
+ * Example usage:
+ * <pre>
+ * {@code
+ * try (NuixJobScheduler scheduler = NuixJobScheduler.using(nuixEngine).withMaxQueueDepth(100).start()) {
+ *     CompletableFuture<Void> export = scheduler.submit(NuixJobScheduler.Job.of("export", 4, context -> {
+ *         BatchExporter exporter = context.getUtilities().createBatchExporter(exportDirectory);
+ *         exporter.setParallelProcessingSettings(context.getParallelProcessingSettings());
+ *         ...
+ *     }).forTenant("matter-123").withPriority(5));
+ * }
+ * }
+ * </pre>
+ */
+public class NuixJobScheduler implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(NuixJobScheduler.class);
+
+    /***
+     * Describes a job to be scheduled.
+     */
+    @Getter
+    public static class Job {
+        private final String name;
+        private final int workerCount;
+        private final ThrowCapableConsumer<JobContext> work;
+        private String tenant = "default";
+        private int priority = 0;
+        private Instant deadline = null;
+
+        private Job(String name, int workerCount, ThrowCapableConsumer<JobContext> work) {
+            this.name = name;
+            this.workerCount = workerCount;
+            this.work = work;
+        }
+
+        /***
+         * Creates a new job.
+         * @param name Name of the job, used in logging
+         * @param workerCount Number of licensed workers the job will use, 0 for jobs which do not use workers
+         * @param work The work to perform once the job is started
+         * @return A new job
+         */
+        public static Job of(@NonNull String name, int workerCount, @NonNull ThrowCapableConsumer<JobContext> work) {
+            return new Job(name, Math.max(0, workerCount), work);
+        }
+
+        /***
+         * @param tenant The tenant this job belongs to, used for fair-share.  Defaults to "default".
+         * @return This job for chained method calls.
+         */
+        public Job forTenant(@NonNull String tenant) {
+            this.tenant = tenant;
+            return this;
+        }
+
+        /***
+         * @param priority Priority of this job, higher values are started first.  Defaults to 0.
+         * @return This job for chained method calls.
+         */
+        public Job withPriority(int priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        /***
+         * @param deadline Time by which the job must have started, or null for no deadline.
+         * @return This job for chained method calls.
+         */
+        public Job withDeadline(Instant deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s(tenant=%s, workers=%d, priority=%d)", name, tenant, workerCount, priority);
+        }
+    }
+
+    /***
+     * Provided to a running job.
+     */
+    @Getter
+    public static class JobContext {
+        private final Utilities utilities;
+        private final Job job;
+
+        private JobContext(Utilities utilities, Job job) {
+            this.utilities = utilities;
+            this.job = job;
+        }
+
+        /***
+         * @return The number of workers reserved for this job.
+         */
+        public int getWorkerCount() {
+            return job.getWorkerCount();
+        }
+
+        /***
+         * @return Parallel processing settings limited to the workers reserved for this job, suitable for passing to
+         * setParallelProcessingSettings.  Callers can add further settings such as "workerTemp" to the returned map.
+         */
+        public Map<String, Object> getParallelProcessingSettings() {
+            Map<String, Object> settings = new HashMap<>();
+            settings.put("workerCount", job.getWorkerCount());
+            return settings;
+        }
+    }
+
+    /***
+     * A point in time view of scheduler activity.
+     */
+    @Getter
+    public static class Metrics {
+        private final int queueDepth;
+        private final int runningJobs;
+        private final int workersInUse;
+        private final int workerBudget;
+        private final long submitted;
+        private final long completed;
+        private final long failed;
+        private final long rejected;
+        private final long expired;
+        private final long maxWaitMillis;
+        private final double averageWaitMillis;
+        private final Map<String, Integer> queueDepthByTenant;
+
+        private Metrics(int queueDepth, int runningJobs, int workersInUse, int workerBudget, long submitted,
+                        long completed, long failed, long rejected, long expired, long maxWaitMillis,
+                        double averageWaitMillis, Map<String, Integer> queueDepthByTenant) {
+            this.queueDepth = queueDepth;
+            this.runningJobs = runningJobs;
+            this.workersInUse = workersInUse;
+            this.workerBudget = workerBudget;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.failed = failed;
+            this.rejected = rejected;
+            this.expired = expired;
+            this.maxWaitMillis = maxWaitMillis;
+            this.averageWaitMillis = averageWaitMillis;
+            this.queueDepthByTenant = queueDepthByTenant;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("queued=%d, running=%d, workers=%d/%d, completed=%d, failed=%d, rejected=%d, " +
+                            "expired=%d, avgWait=%.1fms, maxWait=%dms", queueDepth, runningJobs, workersInUse,
+                    workerBudget, completed, failed, rejected, expired, averageWaitMillis, maxWaitMillis);
+        }
+    }
+
+    // About a hundred years, well within what System.nanoTime() arithmetic can represent
+    private static final Duration MAX_DEADLINE = Duration.ofDays(36_500);
+
+    private static class QueuedJob {
+        private final Job job;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final long sequence;
+        private final long enqueuedNanos = System.nanoTime();
+        private final long deadlineNanos;
+
+        private QueuedJob(Job job, long sequence) {
+            this.job = job;
+            this.sequence = sequence;
+            this.deadlineNanos = toDeadlineNanos(enqueuedNanos, job.getDeadline());
+        }
+
+        /***
+         * Converts a deadline to a System.nanoTime() value.  Deadlines further off than {@link #MAX_DEADLINE} are
+         * treated as no deadline, since they could not be represented as nanoseconds without overflowing.
+         */
+        private static long toDeadlineNanos(long enqueuedNanos, Instant deadline) {
+            if (deadline == null) {
+                return Long.MAX_VALUE;
+            }
+            Duration remaining = Duration.between(Instant.now(), deadline);
+            if (remaining.compareTo(MAX_DEADLINE) > 0) {
+                return Long.MAX_VALUE;
+            }
+            return enqueuedNanos + remaining.toNanos();
+        }
+    }
+
+    /***
+     * Worker usage of a tenant, used for fair-share.
+     */
+    private static class TenantUsage {
+        private double weight = 1.0;
+        private long completedWorkerNanos = 0;
+        private int runningWorkers = 0;
+        private long runningWorkerStartNanosSum = 0;
+
+        private double weightedUsage(long nowNanos) {
+            long runningWorkerNanos = runningWorkers * nowNanos - runningWorkerStartNanosSum;
+            return (completedWorkerNanos + runningWorkerNanos) / weight;
+        }
+    }
+
+    protected NuixEngine nuixEngine;
+    protected int workerBudget = 0;
+    protected int maxQueueDepth = 1000;
+    protected int maxConcurrentJobs = Integer.MAX_VALUE;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private final List<QueuedJob> queue = new ArrayList<>();
+    private final Map<String, TenantUsage> tenants = new HashMap<>();
+    private Utilities utilities = null;
+    private ExecutorService jobExecutor = null;
+    private Thread dispatcher = null;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private boolean closed = false;
+    private long sequence = 0;
+    private int runningJobs = 0;
+    private int workersInUse = 0;
+    private long submitted = 0;
+    private long completed = 0;
+    private long failed = 0;
+    private long rejected = 0;
+    private long expired = 0;
+    private long startedCount = 0;
+    private long totalWaitNanos = 0;
+    private long maxWaitNanos = 0;
+
+    protected NuixJobScheduler() {
+    }
+
+    /***
+     * Creates a scheduler which runs jobs with the provided engine.  The engine is licensed when the scheduler is
+     * started if it has not been already, and is not closed when the scheduler is closed.
+     * @param nuixEngine The engine jobs are run with
+     * @return A new scheduler, call {@link #start()} before submitting jobs.
+     */
+    public static NuixJobScheduler using(@NonNull NuixEngine nuixEngine) {
+        NuixJobScheduler result = new NuixJobScheduler();
+        result.nuixEngine = nuixEngine;
+        return result;
+    }
+
+    /***
+     * Overrides the worker budget.  By default the budget is the worker count of the engine's license.
+     * @param workerBudget Total workers running jobs may use at once, 0 to use the license worker count.
+     * @return This scheduler for chained method calls.
+     */
+    public NuixJobScheduler withWorkerBudget(int workerBudget) {
+        this.workerBudget = Math.max(0, workerBudget);
+        return this;
+    }
+
+    /***
+     * @param maxQueueDepth Maximum number of queued jobs, further submissions are rejected.  Defaults to 1000.
+     * @return This scheduler for chained method calls.
+     */
+    public NuixJobScheduler withMaxQueueDepth(int maxQueueDepth) {
+        this.maxQueueDepth = Math.max(1, maxQueueDepth);
+        return this;
+    }
+
+    /***
+     * @param maxConcurrentJobs Maximum number of jobs running at once, regardless of workers.  Defaults to no limit.
+     * @return This scheduler for chained method calls.
+     */
+    public NuixJobScheduler withMaxConcurrentJobs(int maxConcurrentJobs) {
+        this.maxConcurrentJobs = Math.max(1, maxConcurrentJobs);
+        return this;
+    }
+
+    /***
+     * Sets the fair-share weight of a tenant.  A tenant with weight 2 receives roughly twice the worker time of a
+     * tenant with weight 1 when both have jobs queued.  Defaults to 1.
+     * @param tenant The tenant
+     * @param weight The tenant's weight, must be greater than 0
+     * @return This scheduler for chained method calls.
+     */
+    public NuixJobScheduler withTenantWeight(@NonNull String tenant, double weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Tenant weight must be greater than 0");
+        }
+        lock.lock();
+        try {
+            tenants.computeIfAbsent(tenant, t -> new TenantUsage()).weight = weight;
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /***
+     * Licenses the engine if needed, determines the worker budget and starts dispatching jobs.  A scheduler can only be
+     * started once.
+     * @return This scheduler for chained method calls.
+     * @throws IllegalStateException If the scheduler has already been started
+     * @throws Exception If the engine could not be licensed
+     */
+    public NuixJobScheduler start() throws Exception {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Job scheduler has already been started");
+        }
+        try {
+            utilities = nuixEngine.getUtilities();
+        } catch (Exception exc) {
+            started.set(false);
+            throw exc;
+        }
+        if (utilities == null) {
+            started.set(false);
+            throw new IllegalStateException("Unable to schedule jobs, engine could not be licensed");
+        }
+        if (workerBudget == 0) {
+            Integer licensedWorkers = utilities.getLicence().getWorkers();
+            workerBudget = licensedWorkers == null ? 0 : licensedWorkers;
+        }
+        log.info("Job scheduler starting with a budget of {} workers", workerBudget);
+
+        jobExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "NuixJobScheduler-Job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher = new Thread(this::dispatchJobs, "NuixJobScheduler-Dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        return this;
+    }
+
+    /***
+     * Submits a job to be run once its workers are available.
+     * @param job The job to run
+     * @return A future completed when the job finishes, exceptionally if the job throws, expires or is cancelled.
+     * @throws RejectedExecutionException If the scheduler is closed or the queue is full
+     * @throws IllegalArgumentException If the job needs more workers than the budget or its deadline has passed
+     */
+    public CompletableFuture<Void> submit(@NonNull Job job) {
+        lock.lock();
+        try {
+            if (closed || dispatcher == null) {
+                rejected++;
+                throw new RejectedExecutionException("Scheduler is not running");
+            }
+            if (job.getWorkerCount() > workerBudget) {
+                rejected++;
+                throw new IllegalArgumentException(String.format("Job %s needs %d workers but the budget is %d",
+                        job, job.getWorkerCount(), workerBudget));
+            }
+            if (job.getDeadline() != null && job.getDeadline().isBefore(Instant.now())) {
+                rejected++;
+                throw new IllegalArgumentException("Deadline of job " + job + " has already passed");
+            }
+            if (queue.size() >= maxQueueDepth) {
+                rejected++;
+                throw new RejectedExecutionException(String.format("Queue is full (%d jobs), rejecting job %s",
+                        queue.size(), job));
+            }
+
+            QueuedJob queuedJob = new QueuedJob(job, sequence++);
+            queue.add(queuedJob);
+            tenants.computeIfAbsent(job.getTenant(), t -> new TenantUsage());
+            submitted++;
+            stateChanged.signalAll();
+            return queuedJob.future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /***
+     * @return A snapshot of current scheduler activity.
+     */
+    public Metrics getMetrics() {
+        lock.lock();
+        try {
+            Map<String, Integer> depthByTenant = new LinkedHashMap<>();
+            for (QueuedJob queuedJob : queue) {
+                depthByTenant.merge(queuedJob.job.getTenant(), 1, Integer::sum);
+            }
+            return new Metrics(queue.size(), runningJobs, workersInUse, workerBudget, submitted, completed, failed,
+                    rejected, expired, maxWaitNanos / 1_000_000,
+                    startedCount == 0 ? 0.0 : totalWaitNanos / (double) startedCount / 1_000_000.0, depthByTenant);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatchJobs() {
+        lock.lock();
+        try {
+            while (!closed) {
+                long nowNanos = System.nanoTime();
+                long nextDeadlineNanos = expireOverdueJobs(nowNanos);
+
+                QueuedJob next = runningJobs < maxConcurrentJobs ? selectNextJob(nowNanos) : null;
+                if (next != null && next.job.getWorkerCount() <= workerBudget - workersInUse) {
+                    queue.remove(next);
+                    startJob(next, nowNanos);
+                    continue;
+                }
+
+                // Either nothing is queued or the next job is waiting on workers, wake when that changes or a deadline passes
+                if (nextDeadlineNanos == Long.MAX_VALUE) {
+                    stateChanged.await();
+                } else {
+                    stateChanged.awaitNanos(Math.max(1, nextDeadlineNanos - nowNanos));
+                }
+            }
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /***
+     * Fails queued jobs whose deadline has passed.
+     * @return The earliest deadline of the remaining queued jobs, or Long.MAX_VALUE if none have a deadline.
+     */
+    private long expireOverdueJobs(long nowNanos) {
+        long nextDeadlineNanos = Long.MAX_VALUE;
+        for (QueuedJob queuedJob : new ArrayList<>(queue)) {
+            if (queuedJob.deadlineNanos <= nowNanos) {
+                queue.remove(queuedJob);
+                expired++;
+                log.warn("Job {} expired before it could be started", queuedJob.job);
+                queuedJob.future.completeExceptionally(new TimeoutException(
+                        "Deadline passed before job could be started: " + queuedJob.job));
+            } else {
+                nextDeadlineNanos = Math.min(nextDeadlineNanos, queuedJob.deadlineNanos);
+            }
+        }
+        return nextDeadlineNanos;
+    }
+
+    /***
+     * Picks the next job: highest priority, then the tenant with the least weighted usage, then earliest deadline,
+     * then first submitted.
+     */
+    private QueuedJob selectNextJob(long nowNanos) {
+        if (queue.isEmpty()) {
+            return null;
+        }
+        int topPriority = queue.stream().mapToInt(queuedJob -> queuedJob.job.getPriority()).max().getAsInt();
+        Comparator<QueuedJob> order = Comparator
+                .comparingDouble((QueuedJob queuedJob) -> tenants.get(queuedJob.job.getTenant()).weightedUsage(nowNanos))
+                .thenComparingLong(queuedJob -> queuedJob.deadlineNanos)
+                .thenComparingLong(queuedJob -> queuedJob.sequence);
+        return queue.stream()
+                .filter(queuedJob -> queuedJob.job.getPriority() == topPriority)
+                .min(order)
+                .orElse(null);
+    }
+
+    private void startJob(QueuedJob queuedJob, long nowNanos) {
+        Job job = queuedJob.job;
+        long waitNanos = nowNanos - queuedJob.enqueuedNanos;
+        startedCount++;
+        totalWaitNanos += waitNanos;
+        maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+
+        TenantUsage tenantUsage = tenants.get(job.getTenant());
+        tenantUsage.runningWorkers += job.getWorkerCount();
+        tenantUsage.runningWorkerStartNanosSum += job.getWorkerCount() * nowNanos;
+        workersInUse += job.getWorkerCount();
+        runningJobs++;
+
+        log.info("Starting job {} after waiting {}ms, {} of {} workers in use", job, waitNanos / 1_000_000,
+                workersInUse, workerBudget);
+        jobExecutor.execute(() -> {
+            Throwable error = null;
+            try {
+                job.getWork().accept(new JobContext(utilities, job));
+            } catch (Throwable exc) {
+                error = exc;
+            } finally {
+                // Always runs, so an Error thrown by a job still releases its workers and completes its future
+                finishJob(queuedJob, nowNanos, error);
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+        });
+    }
+
+    private void finishJob(QueuedJob queuedJob, long startedNanos, Throwable error) {
+        Job job = queuedJob.job;
+        lock.lock();
+        try {
+            long nowNanos = System.nanoTime();
+            TenantUsage tenantUsage = tenants.get(job.getTenant());
+            tenantUsage.runningWorkers -= job.getWorkerCount();
+            tenantUsage.runningWorkerStartNanosSum -= job.getWorkerCount() * startedNanos;
+            tenantUsage.completedWorkerNanos += job.getWorkerCount() * (nowNanos - startedNanos);
+            workersInUse -= job.getWorkerCount();
+            runningJobs--;
+            if (error == null) {
+                completed++;
+            } else {
+                failed++;
+            }
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (error == null) {
+            queuedJob.future.complete(null);
+        } else {
+            log.error("Job {} failed", job, error);
+            queuedJob.future.completeExceptionally(error);
+        }
+    }
+
+    /***
+     * Stops the scheduler.  Queued jobs are cancelled and running jobs are allowed to finish.  The engine is not closed.
+     * @throws InterruptedException If interrupted while waiting for running jobs to finish
+     */
+    @Override
+    public void close() throws InterruptedException {
+        List<QueuedJob> cancelledJobs;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            cancelledJobs = new ArrayList<>(queue);
+            queue.clear();
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        for (QueuedJob cancelledJob : cancelledJobs) {
+            cancelledJob.future.completeExceptionally(new CancellationException("Scheduler closed before job started"));
+        }
+        if (jobExecutor != null) {
+            jobExecutor.shutdown();
+            jobExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        log.info("Job scheduler stopped: {}", getMetrics());
+    }
+}
@@ -6,6 +6,7 @@ import nuix.engine.AvailableLicence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.EnumSet;
 import java.util.StringJoiner;
 
 /***
@@ -16,16 +17,16 @@ public class NuixLicenseFeaturesLogger {
     // Obtain a logger instance for this class
     private final static Logger logger = LoggerFactory.getLogger("LicenseFeatures");
 
-    // List of license features copied from 9.10 license profiles documentation
-    private static final String[] knownFeatures = new String[]{
-            "ANALYSIS", "AOS_DATA", "AUTOMATIC_CLASSIFIER_EDITING", "AXS_ONE", "CASE_CREATION", "CUSTOM_NAMED_ENTITIES",
-            "CYBER_CONTEXT", "DESKTOP", "ELASTIC_SEARCH", "EXCHANGE_WS", "EXPORT_CASE_SUBSET", "EXPORT_DISCOVER",
-            "EXPORT_ITEMS", "EXPORT_LEGAL", "EXPORT_SINGLE_ITEM", "EXPORT_VIEW", "FAST_REVIEW", "FRONT_LOAD_METADATA",
-            "GENERAL_DATA", "GRAPH", "GWAVA", "IMAP_POP", "LIGHT_SPEED", "LOG_STASH", "LOTUS_NOTES", "MAIL_XTENDER",
-            "METADATA_IMPORT", "MICROSOFT_GRAPH", "MOBILE_DEVICE_IMAGING", "NETWORK_DATA", "OCR_PROCESSING",
-            "OTHER_EMAIL", "OUTLOOK", "OUTLOOK_EXPRESS", "PARTIAL_LOAD", "PRODUCTION_SET", "SCRIPTING",
-            "SYMANTEC_VAULT", "UNRESTRICTED_CASE_ACCESS", "WORKER", "WORKER_SCRIPTING", "ZANTAZ"
-    };
+    // List of license features copied from 9.10 license profiles documentation, see LicenseFeature
+    private static final String[] knownFeatures;
+
+    static {
+        LicenseFeature[] features = LicenseFeature.values();
+        knownFeatures = new String[features.length];
+        for (int i = 0; i < features.length; i++) {
+            knownFeatures[i] = features[i].name();
+        }
+    }
 
     /***
      * Returns a String array containing a list of known license features
@@ -36,22 +37,15 @@ public class NuixLicenseFeaturesLogger {
     }
 
     /***
-     * Generates a String summarizing the details of the provided AvailableLicence.
+     * Generates a String summarizing the details of the provided AvailableLicence.  When the same license is summarized
+     * repeatedly, or may not be logged at all, prefer holding on to a {@link LicenseSnapshot} which renders its
+     * summary only once and only when needed.
      * @param availableLicense The AvailableLicense to summarize
      * @return A String summarizing the AvailableLicense
      */
     public static String summarizeLicense(AvailableLicence availableLicense) {
         if(availableLicense == null) { return "NULL LICENSE"; }
-        String result = String.format("[Location=%s, Type=%s, ShortName=%s, Description=%s, Count=%s, Workers=%s, Features=%s]",
-                availableLicense.getSource().getLocation(),
-                availableLicense.getSource().getType(),
-                availableLicense.getShortName(),
-                availableLicense.getDescription(),
-                availableLicense.getCount(),
-                ((LicenceProperties) availableLicense).getWorkers(),
-                String.join("; ", availableLicense.getAllEnabledFeatures())
-        );
-        return result;
+        return LicenseSnapshot.of(availableLicense).getSummary();
     }
 
     /***
@@ -61,25 +55,37 @@ public class NuixLicenseFeaturesLogger {
      */
     public static String summarizeLicense(Licence license) {
         if(license == null) { return "NULL LICENSE"; }
-        String result = String.format("[ShortName=%s, Description=%s, Workers=%s, Features=%s]",
-                license.getShortName(),
-                license.getDescription(),
-                ((LicenceProperties) license).getWorkers(),
-                String.join("; ", license.getAllEnabledFeatures())
-        );
-        return result;
+        return LicenseSnapshot.of(license).getSummary();
     }
 
     /***
-     * Logs a listing of whether each feature is present or not on the provided license.
+     * Logs a listing of whether each feature is present or not on the provided license.  The enabled features are
+     * read from the license in a single call, and not at all if the listing would not be logged.
      * @param license The license to log feature presence information about
      */
     public static void logFeaturesOfLicense(LicenceProperties license) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        logFeatures(LicenseFeature.setOf(license.getAllEnabledFeatures()));
+    }
+
+    /***
+     * Logs a listing of whether each feature is present or not on the provided license snapshot.
+     * @param license The license snapshot to log feature presence information about
+     */
+    public static void logFeaturesOfLicense(LicenseSnapshot license) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        logFeatures(license.getFeatures());
+    }
+
+    private static void logFeatures(EnumSet<LicenseFeature> enabledFeatures) {
         StringJoiner message = new StringJoiner("\n");
         message.add("License Features:");
-        for (String feature : knownFeatures) {
-            boolean hasFeature = license.hasFeature(feature);
-            message.add(String.format("[%s] %s", hasFeature ? "X" : " ", feature));
+        for (LicenseFeature feature : LicenseFeature.values()) {
+            message.add((enabledFeatures.contains(feature) ? "[X] " : "[ ] ") + feature.name());
         }
         logger.info(message.toString());
     }
@@ -6,8 +6,18 @@ import nuix.engine.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /***
@@ -26,6 +36,7 @@ import java.util.stream.Stream;
  *         <li>{@link #withFinalDecisionMadeBy(Function)}</li>
  *     </ul></li>
  *     <li>Custom logic to ultimately pick the license acquired from candidates {@link #withFinalDecisionMadeBy(Function)}</li>
+ *     <li>How many workers to acquire when a license allows choosing {@link #withWorkerCountPolicy(WorkerCountPolicy)}</li>
  *     <li>Configuration details that are part of obtaining a license:<ul>
  *         <li>{@link #withCertificateTrustCallback(CertificateTrustCallback)}</li>
  *         <li>{@link #withLicenseCredentials(String, String)}</li>
@@ -54,8 +65,17 @@ import java.util.stream.Stream;
  * </pre>
  * @author Jason Wells
  */
-public class NuixLicenseResolver implements LicenseResolver {
+public class NuixLicenseResolver implements CandidateLicenseResolver {
     private static final Logger log = LoggerFactory.getLogger(NuixLicenseResolver.class);
+    private static final ExecutorService sourceQueryExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "NuixLicenseResolver-SourceQuery");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // An engine holds a single credential and certificate trust callback, shared by every resolver working with it, so
+    // each resolver holds the engine's lock from applying its callbacks until it is done with the licensor
+    private static final Map<Engine, ReentrantLock> engineCallbackLocks = Collections.synchronizedMap(new WeakHashMap<>());
 
     /***
      * An enum with options about how this license resolver should locate its license.
@@ -94,15 +114,20 @@ public class NuixLicenseResolver implements LicenseResolver {
     protected int maxWorkerCount = 0;
     protected List<String> targetShortNames = null;
     protected Function<Stream<AvailableLicence>, Optional<AvailableLicence>> finalDecider;
+    protected LicenseInventoryCache inventoryCache = null;
+    protected WorkerCountPolicy workerCountPolicy = null;
+    protected LicenseScorer licenseScorer = LicenseScorer.defaultScorer();
+    protected Duration sourceTimeout = null;
+    protected LicenseSourceCircuitBreaker circuitBreaker = null;
+    protected long requiredFeatureMask = 0L;
+    protected List<String> unknownRequiredFeatures = Collections.emptyList();
+    private final Map<AvailableLicence, LicenseSnapshot> snapshotCache = Collections.synchronizedMap(new WeakHashMap<>());
 
     protected NuixLicenseResolver() {
-        // By default, we will just return the first one that matches our criteria, but user
+        // By default, we pick the best scoring of those that match our criteria, but user
         // could provide custom logic that ultimately decides which license (if any) of those
         // that have met other criteria is selected.
-        finalDecider = availableLicenceStream -> {
-            log.info("Picking first available license candidate...");
-            return availableLicenceStream.findAny();
-        };
+        finalDecider = this::selectBestScoringCandidate;
 
         // By default, we blindly trust any cert.  User can provide more discerning method if they wish.
         certificateTrustCallback = certificateTrustCallbackInfo -> {
@@ -187,6 +212,7 @@ public class NuixLicenseResolver implements LicenseResolver {
     public NuixLicenseResolver withRequiredFeatures(String... features) {
         if (features != null) {
             requiredFeatures.addAll(Arrays.asList(features));
+            compileRequiredFeatures();
         }
         return this;
     }
@@ -199,10 +225,36 @@ public class NuixLicenseResolver implements LicenseResolver {
     public NuixLicenseResolver withRequiredFeatures(Collection<String> features) {
         if (features != null) {
             requiredFeatures.addAll(features);
+            compileRequiredFeatures();
         }
         return this;
     }
 
+    /***
+     * Compiles the required features into a {@link LicenseFeatureMask}, so each license can be checked with a single
+     * mask operation.  Features which are not known cannot be represented in the mask and are checked individually.
+     */
+    private void compileRequiredFeatures() {
+        requiredFeatureMask = LicenseFeatureMask.of(requiredFeatures);
+        unknownRequiredFeatures = LicenseFeatureMask.unknownFeatures(requiredFeatures);
+        if (!unknownRequiredFeatures.isEmpty()) {
+            log.warn("Required features not among known features will be checked individually: " +
+                    String.join(", ", unknownRequiredFeatures));
+        }
+    }
+
+    /***
+     * Specifies how candidate licenses which have met this instance's criteria are ranked by the default final decider,
+     * the highest scoring candidate being acquired.  Defaults to {@link LicenseScorer#defaultScorer()}.  Has no effect
+     * when a final decider has been provided with {@link #withFinalDecisionMadeBy(Function)}.
+     * @param licenseScorer The scorer to rank candidates with
+     * @return This license resolver for chained method calls.
+     */
+    public NuixLicenseResolver withLicenseScorer(@NonNull LicenseScorer licenseScorer) {
+        this.licenseScorer = licenseScorer;
+        return this;
+    }
+
     /***
      * Specifies a minimum worker count a given license must have to be acceptable.
      * @param minWorkerCount The minimum worker count.  A value of 0 means no minimum.
@@ -225,6 +277,19 @@ public class NuixLicenseResolver implements LicenseResolver {
         return this;
     }
 
+    /***
+     * Specifies a policy used to decide how many workers to acquire when a license allows choosing the worker count,
+     * based on the cores and free memory of this host.  Without a policy, the minimum worker count or 2 (whichever is
+     * higher) is acquired.  For licenses with a fixed worker count, the policy still decides how many of those workers
+     * the host can run, see {@link LicenseAcquisition#getWorkerCountDecision()}.
+     * @param workerCountPolicy The policy to apply, or null to use the default behavior.
+     * @return This license resolver for chained method calls.
+     */
+    public NuixLicenseResolver withWorkerCountPolicy(WorkerCountPolicy workerCountPolicy) {
+        this.workerCountPolicy = workerCountPolicy;
+        return this;
+    }
+
     /***
      * Specifies one or more license shortnames that desired license must have to be acceptable.
      * @param shortNames One or more Nuix license short names (enterprise-workstation, enterprise-reviewer, etc).
@@ -257,6 +322,58 @@ public class NuixLicenseResolver implements LicenseResolver {
         return this;
     }
 
+    /***
+     * Enables caching of this source's available license inventory in the shared {@link LicenseInventoryCache}, so
+     * that engines resolving licenses from the same source in quick succession do not each require a round trip.
+     * See {@link LicenseInventoryCache} for how cached inventories are used.
+     * @return This license resolver for chained method calls.
+     */
+    public NuixLicenseResolver withInventoryCaching() {
+        return withInventoryCache(LicenseInventoryCache.getShared());
+    }
+
+    /***
+     * Enables caching of this source's available license inventory in the provided {@link LicenseInventoryCache}.
+     * @param inventoryCache The cache to use, or null to disable inventory caching (the default).
+     * @return This license resolver for chained method calls.
+     */
+    public NuixLicenseResolver withInventoryCache(LicenseInventoryCache inventoryCache) {
+        this.inventoryCache = inventoryCache;
+        return this;
+    }
+
+    /***
+     * Specifies how long to wait for the license source to list its available licenses.  An unreachable license server
+     * can otherwise block for a long time.  When the timeout elapses, this resolver behaves as if no license was
+     * available so the next resolver can be tried, and the failure is recorded with the circuit breaker if there is
+     * one.  Note the timeout does not apply to acquiring the selected license.
+     * @param sourceTimeout The timeout, or null for no timeout (the default).
+     * @return This license resolver for chained method calls.
+     */
+    public NuixLicenseResolver withSourceTimeout(Duration sourceTimeout) {
+        this.sourceTimeout = sourceTimeout;
+        return this;
+    }
+
+    /***
+     * Enables the shared {@link LicenseSourceCircuitBreaker}, so that once this resolver's license source fails, all
+     * resolvers in the JVM using the same source skip it for a cool-down period rather than waiting on it again.
+     * @return This license resolver for chained method calls.
+     */
+    public NuixLicenseResolver withCircuitBreaking() {
+        return withCircuitBreaker(LicenseSourceCircuitBreaker.getShared());
+    }
+
+    /***
+     * Specifies the {@link LicenseSourceCircuitBreaker} tracking the health of this resolver's license source.
+     * @param circuitBreaker The circuit breaker to use, or null to disable circuit breaking (the default).
+     * @return This license resolver for chained method calls.
+     */
+    public NuixLicenseResolver withCircuitBreaker(LicenseSourceCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
     /***
      * Allows you to provider a license credentials callback used for license authentication (CLS/NMS).
      * @param credentialsCallback The custom credentials callback
@@ -325,6 +442,8 @@ public class NuixLicenseResolver implements LicenseResolver {
 
     /***
      * Attempts to license the provided Engine instance using resolution and filtering configuration of this instance.
+     * Internally this calls {@link #findLicenseCandidate(Engine)} and, if a candidate was found,
+     * {@link #acquireLicense(Engine, AvailableLicence)}.
      * @param engine The engine instance to attempt to license.
      * @return True if a license was obtained, false if not.
      * @throws Exception Exceptions thrown by any of the methods working to obtain a license will be uncaught and allowed
@@ -332,6 +451,84 @@ public class NuixLicenseResolver implements LicenseResolver {
      */
     @Override
     public boolean resolveLicense(@NonNull Engine engine) throws Exception {
+        return resolveLicenseAcquisition(engine).isPresent();
+    }
+
+    /***
+     * Attempts to license the provided Engine instance, as {@link #resolveLicense(Engine)} does, returning what was
+     * decided while acquiring the license.  The outcome belongs to the caller, so engines sharing this resolver each
+     * get their own even when licensing at the same time.
+     * @param engine The engine instance to attempt to license.
+     * @return The outcome of acquiring a license, or empty if no license was obtained.
+     * @throws Exception Exceptions thrown by any of the methods working to obtain a license will be uncaught and allowed
+     * to bubble up for caller to respond to.
+     */
+    public Optional<LicenseAcquisition> resolveLicenseAcquisition(@NonNull Engine engine) throws Exception {
+        Optional<Map<String, String>> sourceProperties = prepareLicenseSourceProperties();
+        if (sourceProperties.isEmpty()) {
+            return Optional.empty();
+        }
+        return ScopedSystemProperties.call(sourceProperties.get(), () -> {
+            Optional<AvailableLicence> possiblySelectedLicense = findLicenseCandidateInScope(engine);
+
+            // If we have a license to obtain, obtain it and let caller know what was acquired.  Otherwise, return
+            // empty so caller knows that no license has been resolved yet.
+            if (possiblySelectedLicense.isPresent()) {
+                return Optional.of(acquireLicenseCandidate(engine, possiblySelectedLicense.get(), sourceProperties.get()));
+            } else {
+                return Optional.empty();
+            }
+        });
+    }
+
+    /***
+     * Gets the system properties the Nuix licensor requires to query this instance's license source.  While querying or
+     * acquiring a license these are only set for the duration of the call, see {@link ScopedSystemProperties}, so
+     * resolvers of engines starting at the same time using different license servers do not overwrite each other's
+     * settings.  Once a license has been acquired, {@link NuixEngine} keeps the properties it was acquired with set,
+     * as the licensor reads them again later on, such as when renewing the lease or licensing workers.
+     * @return The system properties to set while querying this license source, empty if none are needed.
+     */
+    protected Map<String, String> getLicenseSourceProperties() {
+        switch (licenseSource) {
+            case Cloud:
+                return Map.of("nuix.registry.servers", "https://licence-api.nuix.com");
+            case Server:
+                return Map.of("nuix.registry.servers", serverHost + ":" + serverPort);
+            default:
+                return Collections.emptyMap();
+        }
+    }
+
+    /***
+     * Determines the system properties for a single query or acquisition of this instance's license source.  This is
+     * called before {@link ScopedSystemProperties} takes its lock, and the result is passed along with the call rather
+     * than stored, so work such as probing servers neither holds up other engines nor is shared with them.  By default
+     * returns {@link #getLicenseSourceProperties()}.
+     * @return The system properties to set, or empty if the license source cannot currently be queried.
+     */
+    protected Optional<Map<String, String>> prepareLicenseSourceProperties() {
+        return Optional.of(getLicenseSourceProperties());
+    }
+
+    /***
+     * Queries the configured license source for available licenses, applies this instance's filtering and then asks
+     * the final decider to pick a license from the remaining candidates.  No license is acquired by this method.
+     * @param engine The engine instance whose licensor should be queried.
+     * @return The selected candidate license, or empty if no available license met the criteria.
+     * @throws Exception Exceptions thrown by any of the methods working to locate a license will be uncaught and allowed
+     * to bubble up for caller to respond to.
+     */
+    @Override
+    public Optional<AvailableLicence> findLicenseCandidate(@NonNull Engine engine) throws Exception {
+        Optional<Map<String, String>> sourceProperties = prepareLicenseSourceProperties();
+        if (sourceProperties.isEmpty()) {
+            return Optional.empty();
+        }
+        return ScopedSystemProperties.call(sourceProperties.get(), () -> findLicenseCandidateInScope(engine));
+    }
+
+    private Optional<AvailableLicence> findLicenseCandidateInScope(Engine engine) throws Exception {
         Map<String, Object> licenseOptions = Collections.emptyMap();
 
         log.info("License Source: " + licenseSource);
@@ -339,11 +536,9 @@ public class NuixLicenseResolver implements LicenseResolver {
         switch (licenseSource) {
             case Cloud:
                 licenseOptions = Map.of("sources", "cloud-server");
-                System.setProperty("nuix.registry.servers", "https://licence-api.nuix.com");
                 break;
             case Server:
                 licenseOptions = Map.of("sources", "server");
-                System.setProperty("nuix.registry.servers", serverHost + ":" + serverPort);
                 break;
             case Dongle:
                 licenseOptions = Map.of("sources", "dongle");
@@ -356,65 +551,51 @@ public class NuixLicenseResolver implements LicenseResolver {
                 break;
         }
 
-        // Credentials supplier for instances which require it (server/cls)
-        if (credentialsCallback != null) {
-            engine.whenAskedForCredentials(credentialsCallback);
-        }
-
-        // Certificate trust callback
-        if (certificateTrustCallback != null) {
-            engine.whenAskedForCertificateTrust(certificateTrustCallback);
-        }
+        final Map<String, Object> lookupLicenseOptions = licenseOptions;
+        return withEngineCallbacks(engine, () -> findLicenseCandidateWithCallbacks(engine, lookupLicenseOptions));
+    }
 
+    private Optional<AvailableLicence> findLicenseCandidateWithCallbacks(Engine engine, Map<String, Object> licenseOptions) throws Exception {
         log.info("Obtaining licensor....");
         Licensor licensor = engine.getLicensor();
-
-        log.info("Obtaining license stream...");
-        Stream<AvailableLicence> availableLicensesStream = licensor.findAvailableLicencesStream(licenseOptions);
-
-        log.info("Applying filtering to available licenses...");
-        Stream<AvailableLicence> filteredLicensesStream = availableLicensesStream.filter((availableLicense -> {
-            log.info("Inspecting license: " + NuixLicenseFeaturesLogger.summarizeLicense(availableLicense));
-
-            // It is possible to get a Licence specifically for running an NMS instance and not an Engine instance
-            // which we can ignore since it cannot license an Engine instance for us.
-            if (availableLicense.getShortName().equalsIgnoreCase("server")) {
-                log.info("Skipping license with shortname 'server' as we cannot make use of it");
-                return false;
-            }
-
-            // Get the number of workers this license has to offer
-            Integer availableWorkerCount = ((LicenceProperties) availableLicense).getWorkers();
-
-            // Verify the minimum worker count
-            if (availableWorkerCount != null && minWorkerCount > 0 && availableWorkerCount < minWorkerCount) {
-                log.info(String.format("License has %s workers, filter specifies a minimum of %s, ignoring this license",
-                        availableWorkerCount, minWorkerCount));
-                return false;
+        LicenseInventoryCache.SourceKey sourceKey = getSourceKey();
+
+        // A recent inventory of this source loaded by this engine can tell us cheaply that nothing suitable is
+        // available, without another round trip and before the circuit breaker is consulted
+        if (inventoryCache != null) {
+            Optional<List<AvailableLicence>> cachedInventory = inventoryCache.peekInventory(sourceKey, licensor);
+            if (cachedInventory.isPresent() && cachedInventory.get().stream().noneMatch(this::meetsCriteria)) {
+                log.info("Cached license inventory for " + sourceKey + " has no license meeting criteria");
+                return Optional.empty();
             }
+        }
 
-            // Verify the maximum worker count.  This is intended for situations where perhaps multiple fixed worker
-            // count licenses may be available, and you don't want to acquire licenses with larger worker counts.
-            // When acquiring from a license server and the license shares a worker pool (canChooseWorkers below) then
-            // the maximum is ignored.
-            if (availableLicense.canChooseWorkers() && maxWorkerCount > 0 && availableWorkerCount > maxWorkerCount) {
-                log.info(String.format("License has %s workers, filter specifies a maximum of %s, ignoring this license",
-                        availableWorkerCount, minWorkerCount));
-                return false;
-            }
+        // Skip sources which recently failed, so callers can fail over to another resolver right away.  This does not
+        // start a trial request, that only happens once the source is actually queried.
+        if (circuitBreaker != null && circuitBreaker.isRefusing(sourceKey)) {
+            log.warn("Skipping license source " + sourceKey + " as it recently failed: " + circuitBreaker.getHealth(sourceKey));
+            return Optional.empty();
+        }
 
-            // Verify short name
-            String availableLicenseShortName = availableLicense.getShortName().toLowerCase();
-            if (targetShortNames != null && !targetShortNames.isEmpty() &&
-                    targetShortNames.stream().noneMatch(availableLicenseShortName::equalsIgnoreCase)) {
-                log.info(String.format("License has shortname %s which does not match any of the target shortnames: %s",
-                        availableLicenseShortName, String.join(", ", targetShortNames)));
-                return false;
+        final Map<String, Object> queryLicenseOptions = licenseOptions;
+        Stream<AvailableLicence> availableLicensesStream;
+        try {
+            if (inventoryCache != null) {
+                availableLicensesStream = inventoryCache.getInventory(sourceKey, licensor,
+                        () -> queryAvailableLicenses(licensor, queryLicenseOptions, sourceKey)).stream();
+            } else if (sourceTimeout != null || circuitBreaker != null) {
+                availableLicensesStream = queryAvailableLicenses(licensor, queryLicenseOptions, sourceKey).stream();
+            } else {
+                log.info("Obtaining license stream...");
+                availableLicensesStream = licensor.findAvailableLicencesStream(licenseOptions);
             }
+        } catch (TimeoutException | SourceSkippedException exc) {
+            log.warn(exc.getMessage());
+            return Optional.empty();
+        }
 
-            log.info("License meets all specified criteria...");
-            return true;
-        }));
+        log.info("Applying filtering to available licenses...");
+        Stream<AvailableLicence> filteredLicensesStream = availableLicensesStream.filter(this::meetsCriteria);
 
         // If we have a finalDecider function, allow it to pick from the remaining choices
         Optional<AvailableLicence> possiblySelectedLicense;
@@ -425,27 +606,306 @@ public class NuixLicenseResolver implements LicenseResolver {
             log.info("Choosing first license from potential candidates...");
             possiblySelectedLicense = filteredLicensesStream.findAny();
         }
+        return possiblySelectedLicense;
+    }
+
+    /***
+     * Queries the licensor for available licenses, applying the source timeout and recording the outcome with the
+     * circuit breaker, if either has been configured.
+     * @param licensor The licensor to query
+     * @param licenseOptions Options passed to the licensor
+     * @param sourceKey The source being queried
+     * @return The available licenses
+     * @throws TimeoutException If the query took longer than the source timeout
+     * @throws SourceSkippedException If the circuit breaker refused the query
+     * @throws Exception If the licensor throws an exception, it is allowed to bubble up.
+     */
+    private List<AvailableLicence> queryAvailableLicenses(Licensor licensor, Map<String, Object> licenseOptions,
+                                                          LicenseInventoryCache.SourceKey sourceKey) throws Exception {
+        // Checked here rather than before consulting the inventory cache, so that a trial request granted while the
+        // circuit is half open is always followed by a query whose outcome is recorded
+        if (circuitBreaker != null && !circuitBreaker.allowRequest(sourceKey)) {
+            throw new SourceSkippedException(String.format("Skipping license source %s as it recently failed: %s",
+                    sourceKey, circuitBreaker.getHealth(sourceKey)));
+        }
+
+        log.info("Obtaining license stream...");
+        long started = System.nanoTime();
+        try {
+            List<AvailableLicence> licences;
+            if (sourceTimeout == null) {
+                licences = licensor.findAvailableLicencesStream(licenseOptions).collect(Collectors.toList());
+            } else {
+                // Query on another thread, since the licensor itself may block indefinitely on an unreachable source
+                Future<List<AvailableLicence>> query = sourceQueryExecutor.submit(
+                        () -> licensor.findAvailableLicencesStream(licenseOptions).collect(Collectors.toList()));
+                try {
+                    licences = query.get(sourceTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException exc) {
+                    query.cancel(true);
+                    throw new TimeoutException(String.format("License source %s did not respond within %s", sourceKey, sourceTimeout));
+                } catch (ExecutionException exc) {
+                    throw exc.getCause() instanceof Exception ? (Exception) exc.getCause() : exc;
+                }
+            }
+            if (circuitBreaker != null) {
+                circuitBreaker.recordSuccess(sourceKey, Duration.ofNanos(System.nanoTime() - started));
+            }
+            return licences;
+        } catch (Throwable failure) {
+            // Includes Errors, so a failed trial request never leaves the source half open
+            if (circuitBreaker != null) {
+                circuitBreaker.recordFailure(sourceKey, Duration.ofNanos(System.nanoTime() - started), failure);
+            }
+            throw failure;
+        }
+    }
+
+    /***
+     * Thrown when the circuit breaker refuses a query to a license source which recently failed.
+     */
+    private static class SourceSkippedException extends Exception {
+        private SourceSkippedException(String message) {
+            super(message);
+        }
+    }
+
+    /***
+     * Sets this instance's credential and certificate trust callbacks, if any, on the provided Engine instance and then
+     * performs the provided work.  The engine only holds one of each, so other resolvers working with the same engine,
+     * such as lookups raced by {@link NuixEngine#usingBestRacedLicense(LicenseResolver...)}, wait until the work is done
+     * rather than replacing the callbacks part way through.  Callbacks are applied again before acquiring in case
+     * another resolver replaced them after the candidate was located.  Dongles are local and never ask for credentials or
+     * certificate trust, so for them the work is performed right away, without waiting on lookups of network sources.
+     * @param engine The engine instance the callbacks are set on.
+     * @param work The work using the engine's licensor
+     * @param <T> The type of value returned by the work
+     * @return The value returned by the work
+     * @throws Exception If the work throws an exception, it is allowed to bubble up.
+     */
+    private <T> T withEngineCallbacks(Engine engine, Callable<T> work) throws Exception {
+        if (licenseSource == LicenseResolutionSource.Dongle) {
+            return work.call();
+        }
+        ReentrantLock lock = engineCallbackLocks.computeIfAbsent(engine, key -> new ReentrantLock(true));
+        lock.lock();
+        try {
+            applyEngineCallbacks(engine);
+            return work.call();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void applyEngineCallbacks(Engine engine) {
+        // Credentials supplier for instances which require it (server/cls)
+        if (credentialsCallback != null) {
+            engine.whenAskedForCredentials(credentialsCallback);
+        }
+
+        // Certificate trust callback
+        if (certificateTrustCallback != null) {
+            engine.whenAskedForCertificateTrust(certificateTrustCallback);
+        }
+    }
+
+    /***
+     * Acquires the provided candidate license, as previously located by {@link #findLicenseCandidate(Engine)}.
+     * @param engine The engine instance the license is being acquired for.
+     * @param selectedLicense The candidate license to acquire.
+     * @return True once the license has been acquired.
+     * @throws Exception Exceptions thrown while acquiring the license will be uncaught and allowed
+     * to bubble up for caller to respond to.
+     */
+    @Override
+    public boolean acquireLicense(@NonNull Engine engine, @NonNull AvailableLicence selectedLicense) throws Exception {
+        acquireLicenseCandidate(engine, selectedLicense);
+        return true;
+    }
+
+    /***
+     * Acquires the provided candidate license, as {@link #acquireLicense(Engine, AvailableLicence)} does, returning
+     * what was decided while acquiring it.
+     * @param engine The engine instance the license is being acquired for.
+     * @param selectedLicense The candidate license to acquire.
+     * @return The outcome of acquiring the license.
+     * @throws Exception Exceptions thrown while acquiring the license will be uncaught and allowed
+     * to bubble up for caller to respond to.
+     */
+    public LicenseAcquisition acquireLicenseCandidate(@NonNull Engine engine, @NonNull AvailableLicence selectedLicense) throws Exception {
+        return acquireLicenseCandidate(engine, selectedLicense,
+                prepareLicenseSourceProperties().orElseGet(this::getLicenseSourceProperties));
+    }
+
+    private LicenseAcquisition acquireLicenseCandidate(Engine engine, AvailableLicence selectedLicense,
+                                                       Map<String, String> sourceProperties) throws Exception {
+        try {
+            return ScopedSystemProperties.call(sourceProperties, () ->
+                    withEngineCallbacks(engine, () -> acquireSelectedLicense(selectedLicense, sourceProperties)));
+        } catch (Exception exc) {
+            // Whatever we knew about this source's inventory is likely no longer accurate
+            if (inventoryCache != null) {
+                inventoryCache.invalidate(getSourceKey());
+            }
+            throw exc;
+        }
+    }
 
-        // If we have a license to obtain, obtain it and let caller know we have obtained it by
-        // returning true.  Otherwise, return false so caller knows that no license has been resolved yet.
-        if (possiblySelectedLicense.isPresent()) {
-            AvailableLicence selectedLicense = possiblySelectedLicense.get();
-            if (selectedLicense.canChooseWorkers()) {
-                int countToAcquire = Math.max(minWorkerCount, 2);
-                log.info(String.format("License supports choosing worker count, attempting to acquire with %s workers",
-                        countToAcquire));
+    private LicenseAcquisition acquireSelectedLicense(AvailableLicence selectedLicense, Map<String, String> sourceProperties) {
+        Integer licenseWorkerCount = ((LicenceProperties) selectedLicense).getWorkers();
+        WorkerCountPolicy.Decision decision = null;
+        if (selectedLicense.canChooseWorkers()) {
+            int countToAcquire;
+            if (workerCountPolicy != null) {
+                // Acquire as many workers as this host can actually run
+                decision = workerCountPolicy.decide(minWorkerCount, licenseWorkerCount);
+                log.info("Worker count policy decided on " + decision);
+                countToAcquire = decision.getWorkerCount();
+            } else {
                 // If we are able to select the number of workers to obtain with the license,
                 // we will either use the minimum user provided or 2, whichever is higher.
-                selectedLicense.acquire(Map.of("workerCount", countToAcquire));
-            } else {
-                log.info(String.format("License does not support choosing worker count, attempting to acquire with all %s workers",
-                        ((LicenceProperties) selectedLicense).getWorkers()));
-                selectedLicense.acquire();
+                countToAcquire = Math.max(minWorkerCount, 2);
             }
-            return true;
+            log.info(String.format("License supports choosing worker count, attempting to acquire with %s workers",
+                    countToAcquire));
+            selectedLicense.acquire(Map.of("workerCount", countToAcquire));
         } else {
+            if (workerCountPolicy != null) {
+                // Worker count is fixed by the license, but the host may not be able to run all of them
+                decision = workerCountPolicy.decide(0, licenseWorkerCount);
+                log.info("Worker count policy decided on " + decision);
+            }
+            log.info(String.format("License does not support choosing worker count, attempting to acquire with all %s workers",
+                    licenseWorkerCount));
+            selectedLicense.acquire();
+        }
+        return new LicenseAcquisition(selectedLicense, decision, sourceProperties);
+    }
+
+    /***
+     * Determines whether an available license meets the criteria configured on this instance.
+     * @param availableLicense The available license to inspect.
+     * @return True if the license is acceptable, false if it should be ignored.
+     */
+    protected boolean meetsCriteria(AvailableLicence availableLicense) {
+        // Read the license's properties once, its summary is only rendered if it is actually logged
+        LicenseSnapshot snapshot = getSnapshot(availableLicense);
+        log.info("Inspecting license: {}", snapshot);
+
+        // It is possible to get a Licence specifically for running an NMS instance and not an Engine instance
+        // which we can ignore since it cannot license an Engine instance for us.
+        if (snapshot.getShortName().equalsIgnoreCase("server")) {
+            log.info("Skipping license with shortname 'server' as we cannot make use of it");
+            return false;
+        }
+
+        // Get the number of workers this license has to offer
+        Integer availableWorkerCount = snapshot.getWorkers();
+
+        // Verify the minimum worker count
+        if (availableWorkerCount != null && minWorkerCount > 0 && availableWorkerCount < minWorkerCount) {
+            log.info(String.format("License has %s workers, filter specifies a minimum of %s, ignoring this license",
+                    availableWorkerCount, minWorkerCount));
             return false;
         }
+
+        // Verify the maximum worker count.  This is intended for situations where perhaps multiple fixed worker
+        // count licenses may be available, and you don't want to acquire licenses with larger worker counts.
+        // When acquiring from a license server and the license shares a worker pool (canChooseWorkers below) then
+        // the maximum is ignored.
+        if (snapshot.canChooseWorkers() && maxWorkerCount > 0 && availableWorkerCount > maxWorkerCount) {
+            log.info(String.format("License has %s workers, filter specifies a maximum of %s, ignoring this license",
+                    availableWorkerCount, minWorkerCount));
+            return false;
+        }
+
+        // Verify short name
+        String availableLicenseShortName = snapshot.getShortName().toLowerCase();
+        if (targetShortNames != null && !targetShortNames.isEmpty() &&
+                targetShortNames.stream().noneMatch(availableLicenseShortName::equalsIgnoreCase)) {
+            log.info(String.format("License has shortname %s which does not match any of the target shortnames: %s",
+                    availableLicenseShortName, String.join(", ", targetShortNames)));
+            return false;
+        }
+
+        // Verify required features, known features with a single mask operation
+        if (!requiredFeatures.isEmpty()) {
+            long licenseFeatureMask = snapshot.getFeatureMask();
+            if (!LicenseFeatureMask.hasAll(licenseFeatureMask, requiredFeatureMask)) {
+                log.info(String.format("License is missing required features: %s",
+                        String.join(", ", LicenseFeatureMask.toFeatures(requiredFeatureMask & ~licenseFeatureMask))));
+                return false;
+            }
+            for (String feature : unknownRequiredFeatures) {
+                if (!snapshot.hasFeature(feature)) {
+                    log.info(String.format("License is missing required feature: %s", feature));
+                    return false;
+                }
+            }
+        }
+
+        log.info("License meets all specified criteria...");
+        return true;
+    }
+
+    /***
+     * Gets a snapshot of a license's properties, reading them only once for each license instance.  License instances
+     * are reused when inventory caching is enabled, see {@link #withInventoryCaching()}.
+     * @param availableLicense The license
+     * @return A snapshot of the license
+     */
+    protected LicenseSnapshot getSnapshot(AvailableLicence availableLicense) {
+        return snapshotCache.computeIfAbsent(availableLicense, LicenseSnapshot::of);
+    }
+
+    /***
+     * Gets the feature mask of a license, computing it only once for each license instance.
+     * @param availableLicense The license
+     * @return The feature mask of the license
+     */
+    protected long getFeatureMask(AvailableLicence availableLicense) {
+        return getSnapshot(availableLicense).getFeatureMask();
+    }
+
+    /***
+     * The default final decider, which ranks the candidates using the {@link LicenseScorer} and picks the one with the
+     * highest score.  Ties go to the first of the tied candidates.
+     * @param candidates Candidate licenses which have met this instance's criteria
+     * @return The highest scoring candidate, or empty if there were no candidates
+     */
+    protected Optional<AvailableLicence> selectBestScoringCandidate(Stream<AvailableLicence> candidates) {
+        log.info("Picking best scoring license candidate...");
+        AvailableLicence best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (AvailableLicence candidate : (Iterable<AvailableLicence>) candidates::iterator) {
+            double score = licenseScorer.score(new LicenseScorer.Candidate(candidate, getFeatureMask(candidate),
+                    requiredFeatureMask, minWorkerCount));
+            if (best == null || score > bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        if (best != null) {
+            log.info("Best scoring license candidate (score {}): {}", String.format("%.2f", bestScore), getSnapshot(best));
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /***
+     * Gets the key identifying the license source this instance queries, as used by {@link LicenseInventoryCache}.
+     * @return The source key of this instance.
+     */
+    public LicenseInventoryCache.SourceKey getSourceKey() {
+        switch (licenseSource) {
+            case Cloud:
+                return new LicenseInventoryCache.SourceKey(licenseSource, "licence-api.nuix.com", 443);
+            case Server:
+                return new LicenseInventoryCache.SourceKey(licenseSource, serverHost, serverPort);
+            case Custom:
+                return new LicenseInventoryCache.SourceKey(licenseSource, customSource, 0);
+            default:
+                return new LicenseInventoryCache.SourceKey(licenseSource, null, 0);
+        }
     }
 
     @Override
@@ -459,6 +919,7 @@ public class NuixLicenseResolver implements LicenseResolver {
                 ", minWorkerCount=" + minWorkerCount +
                 ", maxWorkerCount=" + maxWorkerCount +
                 ", targetShortNames='" + targetShortNames + '\'' +
+                ", workerCountPolicy=" + workerCountPolicy +
                 '}';
     }
 }
@@ -1,26 +1,36 @@
 package com.nuix.innovation.enginewrapper;
 
 import lombok.AccessLevel;
-import lombok.Getter;
 import lombok.Setter;
 
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 /***
- * Provides a wrapper around Nuix version string that allows for comparison of versions.
+ * Provides a wrapper around Nuix version string that allows for comparison of versions.<br><br>
+ * The four components of a version are packed into a single long, 16 bits each, so comparing two versions is a single
+ * comparison of longs.  Version strings are parsed without regular expressions and the results of parsing are kept in a
+ * bounded cache, so comparing against a version string such as {@code isAtLeast("9.10")} in a loop neither re-parses
+ * the string nor allocates.<br><br>
+ * Because of this packing, each component must be between 0 and {@link #MAX_COMPONENT} (65535).  Constructors throw
+ * an {@link IllegalArgumentException} for components outside that range, where earlier releases accepted any int.
+ * Instances are immutable, so earlier releases' setters such as {@code setMinor} have been removed; use methods such as
+ * {@link #withMinor(int)} to derive a different version.
  * @author Jason Wells
  */
 public class NuixVersion implements Comparable<NuixVersion> {
-    private static Pattern previewVersionInfoRemovalPattern = Pattern.compile("[^0-9\\.].*$");
+    /***
+     * Largest value any one component of a version can have.
+     */
+    public static final int MAX_COMPONENT = 0xFFFF;
+
+    private static final int MAX_CACHED_VERSION_STRINGS = 1024;
+    private static final ConcurrentHashMap<String, Long> parsedVersionStrings = new ConcurrentHashMap<>();
 
-    @Getter
     @Setter(AccessLevel.PACKAGE)
     private static NuixVersion current = NuixVersion.parse("0.0.0.0");
 
-    private int major = 0;
-    private int minor = 0;
-    private int bugfix = 0;
-    private int build = 0;
+    // major, minor, bugfix and build from most to least significant 16 bits
+    private final long packed;
 
     /***
      * Creates a new instance defaulting to version 0.0.0
@@ -32,6 +42,7 @@ public class NuixVersion implements Comparable<NuixVersion> {
     /***
      * Creates a new instance using the provided major version: major.0.0.0
      * @param majorVersion The major version number
+     * @throws IllegalArgumentException If a component is negative or greater than {@link #MAX_COMPONENT}
      */
     public NuixVersion(int majorVersion) {
         this(majorVersion, 0, 0, 0);
@@ -41,6 +52,7 @@ public class NuixVersion implements Comparable<NuixVersion> {
      * Creates a new instance using the provided major and minor versions: major.minor.0.0
      * @param majorVersion The major version number
      * @param minorVersion The minor version number
+     * @throws IllegalArgumentException If a component is negative or greater than {@link #MAX_COMPONENT}
      */
     public NuixVersion(int majorVersion, int minorVersion) {
         this(majorVersion, minorVersion, 0, 0);
@@ -51,6 +63,7 @@ public class NuixVersion implements Comparable<NuixVersion> {
      * @param majorVersion The major version number
      * @param minorVersion The minor version number
      * @param bugfixVersion The bugfix version number
+     * @throws IllegalArgumentException If a component is negative or greater than {@link #MAX_COMPONENT}
      */
     public NuixVersion(int majorVersion, int minorVersion, int bugfixVersion) {
         this(majorVersion, minorVersion, bugfixVersion, 0);
@@ -62,61 +75,171 @@ public class NuixVersion implements Comparable<NuixVersion> {
      * @param minorVersion The minor version number
      * @param bugfixVersion The bugfix version number
      * @param buildVersion The build version number
+     * @throws IllegalArgumentException If a component is negative or greater than {@link #MAX_COMPONENT}
      */
     public NuixVersion(int majorVersion, int minorVersion, int bugfixVersion, int buildVersion) {
-        major = majorVersion;
-        minor = minorVersion;
-        bugfix = bugfixVersion;
-        build = buildVersion;
+        packed = pack(majorVersion, minorVersion, bugfixVersion, buildVersion);
+    }
+
+    private NuixVersion(long packedVersion) {
+        packed = packedVersion;
+    }
+
+    /***
+     * Creates an instance from a version packed by {@link #pack(int, int, int, int)}.
+     * @param packedVersion The packed version
+     * @return A NuixVersion instance representing the packed version
+     */
+    public static NuixVersion fromPacked(long packedVersion) {
+        return new NuixVersion(packedVersion);
+    }
+
+    /***
+     * Packs the components of a version into a single long, such that packed versions compare in the same order as the
+     * versions they represent.
+     * @param major The major version number
+     * @param minor The minor version number
+     * @param bugfix The bugfix version number
+     * @param build The build version number
+     * @return The packed version
+     * @throws IllegalArgumentException If a component is negative or greater than {@link #MAX_COMPONENT}
+     */
+    public static long pack(int major, int minor, int bugfix, int build) {
+        return ((long) checkComponent("major", major) << 48) |
+                ((long) checkComponent("minor", minor) << 32) |
+                ((long) checkComponent("bugfix", bugfix) << 16) |
+                checkComponent("build", build);
+    }
+
+    private static int checkComponent(String name, int value) {
+        if (value < 0 || value > MAX_COMPONENT) {
+            throw new IllegalArgumentException(String.format("Version %s component must be between 0 and %s, but was %s",
+                    name, MAX_COMPONENT, value));
+        }
+        return value;
     }
 
     /***
      * Parses a version string into a NuixVersion instance.  Supports values such as: 6, 6.2, 6.2.0, 6.2.1-preview6, 7.8.0.10 <br>
      * When providing a version string such as "6.2.1-preview6", "-preview6" will be trimmed off before parsing.
+     * Components greater than {@link #MAX_COMPONENT} are treated as an error.
      * @param versionString The version string to parse.
      * @return A NuixVersion instance representing the supplied version string, if there is an error parsing the provided value will return
      * an instance representing 999.0.0
      */
     public static NuixVersion parse(String versionString) {
+        return new NuixVersion(parsePacked(versionString));
+    }
+
+    /***
+     * Parses a version string as {@link #parse(String)} does, returning the version packed as a long.  Results are
+     * cached, so parsing the same string again is a cache lookup which does not allocate.
+     * @param versionString The version string to parse.
+     * @return The packed version, see {@link #pack(int, int, int, int)}
+     */
+    public static long parsePacked(String versionString) {
+        if (versionString == null) {
+            return parseUncached(null);
+        }
+        Long cached = parsedVersionStrings.get(versionString);
+        if (cached != null) {
+            return cached;
+        }
+        long packedVersion = parseUncached(versionString);
+        if (parsedVersionStrings.size() < MAX_CACHED_VERSION_STRINGS) {
+            parsedVersionStrings.putIfAbsent(versionString, packedVersion);
+        }
+        return packedVersion;
+    }
+
+    private static long parseUncached(String versionString) {
         try {
-            String[] versionParts = NuixVersion.previewVersionInfoRemovalPattern.matcher(versionString.trim()).replaceAll("").split("\\.");
-            int[] versionPartInts = new int[versionParts.length];
-            for (int i = 0; i < versionParts.length; i++) {
-                versionPartInts[i] = Integer.parseInt(versionParts[i]);
+            String trimmed = versionString.trim();
+            int[] parts = new int[4];
+            int partCount = 0;
+            int value = 0;
+            boolean hasDigits = false;
+            boolean tooManyParts = false;
+            int i = 0;
+            for (; i < trimmed.length(); i++) {
+                char c = trimmed.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+                    hasDigits = true;
+                } else if (c == '.') {
+                    if (!hasDigits) {
+                        break;
+                    }
+                    if (partCount < parts.length) {
+                        parts[partCount] = value;
+                    } else {
+                        tooManyParts = true;
+                    }
+                    partCount++;
+                    value = 0;
+                    hasDigits = false;
+                } else {
+                    // Trim off things like "-preview6"
+                    break;
+                }
+            }
+            if (hasDigits) {
+                if (partCount < parts.length) {
+                    parts[partCount] = value;
+                } else {
+                    tooManyParts = true;
+                }
+                partCount++;
+            } else if (partCount == 0 || (i < trimmed.length() && trimmed.charAt(i) == '.')) {
+                // Nothing to parse, or an empty component such as "6..2"
+                throw new NumberFormatException("Missing version component");
             }
-            switch (versionParts.length) {
-                case 1:
-                    return new NuixVersion(versionPartInts[0]);
-                case 2:
-                    return new NuixVersion(versionPartInts[0], versionPartInts[1]);
-                case 3:
-                    return new NuixVersion(versionPartInts[0], versionPartInts[1], versionPartInts[2]);
-                case 4:
-                    return new NuixVersion(versionPartInts[0], versionPartInts[1], versionPartInts[2], versionPartInts[3]);
-                default:
-                    return new NuixVersion();
+            if (tooManyParts) {
+                return 0L;
             }
+            return pack(parts[0], parts[1], parts[2], parts[3]);
         } catch (Exception exc) {
             System.out.println("Error while parsing version: " + versionString);
             System.out.println("Pretending version is 999.0.0.0");
-            return new NuixVersion(100, 0, 0, 0);
+            return pack(100, 0, 0, 0);
         }
     }
 
+    /***
+     * Gets the version of the most recently started {@link NuixEngine}.
+     * @return The version of the most recently started engine, "0.0.0.0" if none has been started
+     * @deprecated With several engines in the JVM this only reflects whichever started last, use
+     * {@link NuixEngine#getNuixVersion()} instead.
+     */
+    @Deprecated
+    public static NuixVersion getCurrent() {
+        return current;
+    }
+
+    /***
+     * Gets this version packed into a single long, see {@link #pack(int, int, int, int)}.
+     * @return This version packed as a long
+     */
+    public long getPacked() {
+        return packed;
+    }
+
     /***
      * Gets the determined major portion of this version instance (X.0.0.0)
      * @return The determined major portion of version
      */
     public int getMajor() {
-        return major;
+        return (int) ((packed >>> 48) & MAX_COMPONENT);
     }
 
     /***
-     * Sets the major portion of this version instance (X.0.0.0)
+     * Creates a copy of this version with a different major portion (X.0.0.0)
      * @param major The major version value
+     * @return A new instance, this instance is unchanged
+     * @throws IllegalArgumentException If the value is negative or greater than {@link #MAX_COMPONENT}
      */
-    public void setMajor(int major) {
-        this.major = major;
+    public NuixVersion withMajor(int major) {
+        return new NuixVersion(pack(major, getMinor(), getBugfix(), getBuild()));
     }
 
     /***
@@ -124,15 +247,17 @@ public class NuixVersion implements Comparable<NuixVersion> {
      * @return The determined minor portion of version
      */
     public int getMinor() {
-        return minor;
+        return (int) ((packed >>> 32) & MAX_COMPONENT);
     }
 
     /***
-     * Sets the minor portion of this version instance (0.X.0.0)
+     * Creates a copy of this version with a different minor portion (0.X.0.0)
      * @param minor The minor version value
+     * @return A new instance, this instance is unchanged
+     * @throws IllegalArgumentException If the value is negative or greater than {@link #MAX_COMPONENT}
      */
-    public void setMinor(int minor) {
-        this.minor = minor;
+    public NuixVersion withMinor(int minor) {
+        return new NuixVersion(pack(getMajor(), minor, getBugfix(), getBuild()));
     }
 
     /***
@@ -140,15 +265,17 @@ public class NuixVersion implements Comparable<NuixVersion> {
      * @return The determined bugfix portion of version
      */
     public int getBugfix() {
-        return bugfix;
+        return (int) ((packed >>> 16) & MAX_COMPONENT);
     }
 
     /***
-     * Sets the determined bugfix portion of this version instance (0.0.x.0)
+     * Creates a copy of this version with a different bugfix portion (0.0.x.0)
      * @param bugfix The determined bugfix portion of version
+     * @return A new instance, this instance is unchanged
+     * @throws IllegalArgumentException If the value is negative or greater than {@link #MAX_COMPONENT}
      */
-    public void setBugfix(int bugfix) {
-        this.bugfix = bugfix;
+    public NuixVersion withBugfix(int bugfix) {
+        return new NuixVersion(pack(getMajor(), getMinor(), bugfix, getBuild()));
     }
 
     /***
@@ -156,15 +283,17 @@ public class NuixVersion implements Comparable<NuixVersion> {
      * @return The determined build portion of version
      */
     public int getBuild() {
-        return build;
+        return (int) (packed & MAX_COMPONENT);
     }
 
     /***
-     * Sets the build portion of this version instance (0.0.0.x)
+     * Creates a copy of this version with a different build portion (0.0.0.x)
      * @param build The build version value
+     * @return A new instance, this instance is unchanged
+     * @throws IllegalArgumentException If the value is negative or greater than {@link #MAX_COMPONENT}
      */
-    public void setBuild(int build) {
-        this.build = build;
+    public NuixVersion withBuild(int build) {
+        return new NuixVersion(pack(getMajor(), getMinor(), getBugfix(), build));
     }
 
     /***
@@ -200,7 +329,7 @@ public class NuixVersion implements Comparable<NuixVersion> {
      * @return True if the other instance is greater than this instance, false otherwise
      */
     public boolean isGreaterThan(String other) {
-        return this.compareTo(NuixVersion.parse(other)) > 0;
+        return Long.compareUnsigned(packed, parsePacked(other)) > 0;
     }
 
     /***
@@ -218,7 +347,7 @@ public class NuixVersion implements Comparable<NuixVersion> {
      * @return True if the other instance is equal to this instance (major, minor and release are the same), false otherwise
      */
     public boolean isEqualTo(String other) {
-        return this.compareTo(NuixVersion.parse(other)) == 0;
+        return packed == parsePacked(other);
     }
 
     /***
@@ -227,7 +356,7 @@ public class NuixVersion implements Comparable<NuixVersion> {
      * @return True if the other instance is a lower version, false otherwise
      */
     public boolean isLessThan(String other) {
-        return isLessThan(parse(other));
+        return Long.compareUnsigned(packed, parsePacked(other)) < 0;
     }
 
     /***
@@ -236,7 +365,7 @@ public class NuixVersion implements Comparable<NuixVersion> {
      * @return True if the other instance is greater than or equal to this instance, false otherwise
      */
     public boolean isAtLeast(String other) {
-        return isAtLeast(parse(other));
+        return Long.compareUnsigned(packed, parsePacked(other)) >= 0;
     }
 
     /***
@@ -244,20 +373,17 @@ public class NuixVersion implements Comparable<NuixVersion> {
      */
     @Override
     public int compareTo(NuixVersion other) {
-        if (this.major == other.major) {
-            if (this.minor == other.minor) {
-                if (this.bugfix == other.bugfix) {
-                    return Integer.compare(this.build, other.build);
-                } else {
-                    return Integer.compare(this.bugfix, other.bugfix);
-                }
-            } else {
-                return Integer.compare(this.minor, other.minor);
-            }
-        } else {
-            return Integer.compare(this.major, other.major);
-        }
+        return Long.compareUnsigned(this.packed, other.packed);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof NuixVersion && ((NuixVersion) other).packed == packed;
+    }
 
+    @Override
+    public int hashCode() {
+        return Long.hashCode(packed);
     }
 
     /***
@@ -265,9 +391,6 @@ public class NuixVersion implements Comparable<NuixVersion> {
      */
     @Override
     public String toString() {
-        return Integer.toString(this.major) + "." +
-                Integer.toString(this.minor) + "." +
-                Integer.toString(this.bugfix) + "." +
-                Integer.toString(this.build);
+        return getMajor() + "." + getMinor() + "." + getBugfix() + "." + getBuild();
     }
 }
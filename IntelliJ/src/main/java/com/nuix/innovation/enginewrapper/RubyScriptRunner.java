@@ -6,6 +6,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jruby.embed.LocalVariableBehavior;
 import org.jruby.embed.ScriptingContainer;
 import org.jruby.embed.internal.BiVariableMap;
+import org.jruby.javasupport.JavaEmbedUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,10 +65,21 @@ public class RubyScriptRunner {
     protected Consumer<String> standardOutput;
     protected Consumer<String> errorOutput;
     protected BiConsumer<Object, BiVariableMap> completedCallback;
+    protected ScriptingContainerPool scriptingContainerPool;
 
     public RubyScriptRunner() {
     }
 
+    /***
+     * Sets a pool this runner borrows warmed {@link ScriptingContainer} instances from, rather than creating a new one
+     * for each script.  The container is returned to the pool once the script has completed and the completed callback
+     * has been invoked, so the variable map passed to that callback should not be retained beyond the callback.
+     * @param scriptingContainerPool The pool to borrow containers from, or null to create a new container per script.
+     */
+    public void setScriptingContainerPool(ScriptingContainerPool scriptingContainerPool) {
+        this.scriptingContainerPool = scriptingContainerPool;
+    }
+
     /***
      * Allows you to provide a callback to be invoked when script finishes.
      * @param completedCallback A {@link Consumer} that accepts an Object (the final returned value) and
@@ -151,11 +163,13 @@ public class RubyScriptRunner {
 
         scriptThread = new Thread(() -> {
             try {
-                Object returnedValue = scriptingContainer.runScriptlet(script);
+                Object returnedValue = runScript(script);
                 fireCompletedCallback(returnedValue);
             } catch (Exception exc) {
                 errorOutput.accept(ExceptionUtils.getMessage(exc) + "\n" + ExceptionUtils.getStackTrace(exc));
                 fireCompletedCallback(null);
+            } finally {
+                releaseScriptingContainer();
             }
         });
 
@@ -173,12 +187,14 @@ public class RubyScriptRunner {
         initialize(nuixVersion, variables);
 
         scriptThread = new Thread(() -> {
-            try (InputStream scriptFileInputStream = FileUtils.openInputStream(scriptFile)) {
-                Object returnedValue = scriptingContainer.runScriptlet(scriptFileInputStream, scriptFile.getAbsolutePath());
+            try {
+                Object returnedValue = runScriptFile(scriptFile);
                 fireCompletedCallback(returnedValue);
             } catch (Exception exc) {
                 errorOutput.accept(ExceptionUtils.getMessage(exc) + "\n" + ExceptionUtils.getStackTrace(exc));
                 fireCompletedCallback(null);
+            } finally {
+                releaseScriptingContainer();
             }
         });
 
@@ -201,17 +217,61 @@ public class RubyScriptRunner {
             errorOutput = log::error;
         }
 
-        scriptingContainer = new ScriptingContainer(LocalVariableBehavior.PERSISTENT);
+        if (scriptingContainerPool != null) {
+            try {
+                scriptingContainer = scriptingContainerPool.borrow();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            scriptingContainer = new ScriptingContainer(LocalVariableBehavior.PERSISTENT);
+        }
+
+        try {
+            scriptingContainer.setWriter(new EventedWriter(this.standardOutput));
+            scriptingContainer.setErrorWriter(new EventedWriter(this.standardOutput));
 
-        scriptingContainer.setWriter(new EventedWriter(this.standardOutput));
-        scriptingContainer.setErrorWriter(new EventedWriter(this.standardOutput));
+            scriptingContainer.clear();
+
+            scriptingContainer.runScriptlet("NUIX_VERSION = \"" + nuixVersion + "\"");
+            for (Map.Entry<String, Object> variableToSet : variablesToSet.entrySet()) {
+                scriptingContainer.put(variableToSet.getKey(), variableToSet.getValue());
+            }
+        } catch (Throwable throwable) {
+            // No script thread will hand a borrowed container back, and its state is unknown, so discard it
+            if (scriptingContainerPool != null) {
+                scriptingContainerPool.invalidate(scriptingContainer);
+            }
+            throw throwable;
+        }
+    }
 
-        scriptingContainer.clear();
+    /***
+     * Runs a script in the container, using the parsed script cached by the container's pool when there is one.
+     */
+    private Object runScript(String script) {
+        ScriptCompileCache compileCache = getCompileCache();
+        if (compileCache == null) {
+            return scriptingContainer.runScriptlet(script);
+        }
+        return JavaEmbedUtils.rubyToJava(compileCache.parse(script).run());
+    }
 
-        scriptingContainer.runScriptlet("NUIX_VERSION = \"" + nuixVersion + "\"");
-        for (Map.Entry<String, Object> variableToSet : variablesToSet.entrySet()) {
-            scriptingContainer.put(variableToSet.getKey(), variableToSet.getValue());
+    /***
+     * Runs a script file in the container, using the parsed script cached by the container's pool when there is one.
+     */
+    private Object runScriptFile(File scriptFile) throws IOException {
+        ScriptCompileCache compileCache = getCompileCache();
+        if (compileCache == null) {
+            try (InputStream scriptFileInputStream = FileUtils.openInputStream(scriptFile)) {
+                return scriptingContainer.runScriptlet(scriptFileInputStream, scriptFile.getAbsolutePath());
+            }
         }
+        return JavaEmbedUtils.rubyToJava(compileCache.parse(scriptFile).run());
+    }
+
+    private ScriptCompileCache getCompileCache() {
+        return scriptingContainerPool != null ? scriptingContainerPool.getCompileCache(scriptingContainer) : null;
     }
 
     private void fireCompletedCallback(Object returnedValue) {
@@ -219,4 +279,10 @@ public class RubyScriptRunner {
             completedCallback.accept(returnedValue, scriptingContainer.getVarMap());
         }
     }
+
+    private void releaseScriptingContainer() {
+        if (scriptingContainerPool != null) {
+            scriptingContainerPool.release(scriptingContainer);
+        }
+    }
 }
@@ -0,0 +1,115 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/***
+ * Some Nuix settings, such as the license registry servers ("nuix.registry.servers"), can only be provided as JVM wide
+ * system properties.  When several {@link NuixEngine} instances start at the same time, each with its own settings, they
+ * would overwrite each other's values.  This class sets such properties only for the duration of a piece of work, under
+ * a JVM wide lock for each property name, restoring the previous values afterwards.  Work setting different properties
+ * does not wait on each other, while work setting the same property runs one at a time.  Locks are reentrant, so scopes
+ * may be nested.  Properties which must stay set beyond a piece of work, such as the registry servers a license was
+ * acquired from, are set using {@link #retain(Map)} so that scopes in progress do not restore over them.
+ */
+public final class ScopedSystemProperties {
+    private static final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    private ScopedSystemProperties() {}
+
+    /***
+     * Sets the given system properties, calls the provided work and then restores the previous values of the properties.
+     * Other callers setting any of the same properties wait until the work has completed.
+     * @param properties The properties to set, a null value clears the property.  When empty, the work is called without
+     *                   taking any lock.
+     * @param work The work to perform while the properties are set
+     * @param <T> The type of value returned by the work
+     * @return The value returned by the work
+     * @throws Exception If the work throws an exception, it is allowed to bubble up after properties have been restored.
+     */
+    public static <T> T call(@NonNull Map<String, String> properties, @NonNull Callable<T> work) throws Exception {
+        if (properties.isEmpty()) {
+            return work.call();
+        }
+
+        List<ReentrantLock> heldLocks = lockAll(properties);
+        Map<String, String> previousValues = new HashMap<>();
+        try {
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                previousValues.put(property.getKey(), System.getProperty(property.getKey()));
+                setOrClear(property.getKey(), property.getValue());
+            }
+            return work.call();
+        } finally {
+            for (Map.Entry<String, String> previousValue : previousValues.entrySet()) {
+                setOrClear(previousValue.getKey(), previousValue.getValue());
+            }
+            unlockAll(heldLocks);
+        }
+    }
+
+    /***
+     * Sets the given system properties until they are changed again, rather than for the duration of a piece of work.
+     * This waits for work currently setting any of the same properties to complete, so that the values are not replaced
+     * when that work restores its previous values.  Scopes started afterwards restore these values when they complete.
+     * @param properties The properties to set, a null value clears the property.
+     */
+    public static void retain(@NonNull Map<String, String> properties) {
+        List<ReentrantLock> heldLocks = lockAll(properties);
+        try {
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                setOrClear(property.getKey(), property.getValue());
+            }
+        } finally {
+            unlockAll(heldLocks);
+        }
+    }
+
+    /***
+     * Convenience method for {@link #call(Map, Callable)} with a single property.
+     * @param name Name of the property to set
+     * @param value Value of the property, null to clear it
+     * @param work The work to perform while the property is set
+     * @param <T> The type of value returned by the work
+     * @return The value returned by the work
+     * @throws Exception If the work throws an exception, it is allowed to bubble up after the property has been restored.
+     */
+    public static <T> T call(@NonNull String name, String value, @NonNull Callable<T> work) throws Exception {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(name, value);
+        return call(properties, work);
+    }
+
+    private static List<ReentrantLock> lockAll(Map<String, String> properties) {
+        // Locks are always taken in name order so that callers setting overlapping properties cannot deadlock
+        List<ReentrantLock> heldLocks = new ArrayList<>();
+        for (String name : new TreeSet<>(properties.keySet())) {
+            ReentrantLock lock = locks.computeIfAbsent(name, key -> new ReentrantLock(true));
+            lock.lock();
+            heldLocks.add(lock);
+        }
+        return heldLocks;
+    }
+
+    private static void unlockAll(List<ReentrantLock> heldLocks) {
+        for (int i = heldLocks.size() - 1; i >= 0; i--) {
+            heldLocks.get(i).unlock();
+        }
+    }
+
+    private static void setOrClear(String name, String value) {
+        if (value == null) {
+            System.clearProperty(name);
+        } else {
+            System.setProperty(name, value);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.commons.io.FileUtils;
+import org.jruby.embed.EmbedEvalUnit;
+import org.jruby.embed.ScriptingContainer;
+import org.jruby.embed.internal.BiVariableMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/***
+ * A least recently used cache of Ruby scripts parsed by a particular {@link ScriptingContainer}, so that running the
+ * same script again skips parsing and compiling it.  Parsed scripts belong to the runtime which parsed them, so each
+ * container has its own cache; {@link ScriptingContainerPool} keeps one for every container it pools, see
+ * {@link ScriptingContainerPool#getCompileCache(ScriptingContainer)}.<br><br>
+ * Scripts are keyed by the SHA-256 hash of their content, script files by their path, modification time and size.
+ * Both also include the names of local (non-global) variables in the container, since those are bound when a script is
+ * parsed.
+ */
+public class ScriptCompileCache {
+    private final ScriptingContainer container;
+    @Getter
+    private final int maxEntries;
+    private final LinkedHashMap<String, EmbedEvalUnit> units;
+    @Getter
+    private long hits = 0;
+    @Getter
+    private long misses = 0;
+
+    /***
+     * @param container The container which scripts are parsed by and run in
+     * @param maxEntries Maximum number of parsed scripts to keep, least recently used are discarded first
+     */
+    public ScriptCompileCache(@NonNull ScriptingContainer container, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.container = container;
+        this.maxEntries = maxEntries;
+        this.units = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, EmbedEvalUnit> eldest) {
+                return size() > ScriptCompileCache.this.maxEntries;
+            }
+        };
+    }
+
+    /***
+     * Gets a script parsed by the container, parsing it if it is not already cached.
+     * @param script The Ruby script
+     * @return The parsed script, call {@link EmbedEvalUnit#run()} to run it
+     */
+    public synchronized EmbedEvalUnit parse(@NonNull String script) {
+        String key = "sha256:" + sha256(script) + localVariableNames();
+        EmbedEvalUnit unit = units.get(key);
+        if (unit != null) {
+            hits++;
+            return unit;
+        }
+        misses++;
+        unit = container.parse(script);
+        units.put(key, unit);
+        return unit;
+    }
+
+    /***
+     * Gets a script file parsed by the container, parsing it if it is not already cached or has been modified since
+     * it was cached.
+     * @param scriptFile The Ruby script file
+     * @return The parsed script, call {@link EmbedEvalUnit#run()} to run it
+     * @throws IOException If the file cannot be read
+     */
+    public synchronized EmbedEvalUnit parse(@NonNull File scriptFile) throws IOException {
+        String path = scriptFile.getAbsolutePath();
+        String key = "file:" + path + ":" + scriptFile.lastModified() + ":" + scriptFile.length() + localVariableNames();
+        EmbedEvalUnit unit = units.get(key);
+        if (unit != null) {
+            hits++;
+            return unit;
+        }
+        misses++;
+        try (InputStream scriptFileInputStream = FileUtils.openInputStream(scriptFile)) {
+            unit = container.parse(scriptFileInputStream, path);
+        }
+        // Entries for earlier versions of the file will not be used again
+        units.keySet().removeIf(existing -> existing.startsWith("file:" + path + ":"));
+        units.put(key, unit);
+        return unit;
+    }
+
+    /***
+     * @return The number of parsed scripts currently cached
+     */
+    public synchronized int size() {
+        return units.size();
+    }
+
+    /***
+     * Discards every cached script.
+     */
+    public synchronized void clear() {
+        units.clear();
+    }
+
+    private String localVariableNames() {
+        BiVariableMap varMap = container.getVarMap();
+        TreeSet<String> names = new TreeSet<>();
+        for (String name : varMap.getNames()) {
+            if (!name.startsWith("$")) {
+                names.add(name);
+            }
+        }
+        return names.isEmpty() ? "" : ":" + String.join(",", names);
+    }
+
+    private static String sha256(String script) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(script.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException("SHA-256 is not available", exc);
+        }
+    }
+}
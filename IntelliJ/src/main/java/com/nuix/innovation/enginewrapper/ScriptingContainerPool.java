@@ -0,0 +1,604 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.NonNull;
+import org.jruby.embed.LocalContextScope;
+import org.jruby.embed.LocalVariableBehavior;
+import org.jruby.embed.ScriptingContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/***
+ * Maintains a pool of warmed JRuby {@link ScriptingContainer} runtimes which {@link RubyScriptRunner} instances can
+ * borrow, so that the seconds it takes to create a JRuby runtime and load commonly required libraries are paid once
+ * per pooled runtime rather than once per script.  Each pooled container has its own runtime
+ * ({@link LocalContextScope#SINGLETHREAD}), used by one borrower at a time.<br><br>
+ * When a container is created it is warmed up by requiring the configured libraries and running the bootstrap script,
+ * if any.  When a container is returned, state left behind by the borrower is reset: writers are detached, variables
+ * are cleared, global variables introduced since warm-up are set to nil and top level constants (other than classes
+ * and modules) introduced since warm-up are removed.  Classes, modules and methods defined by borrowers are not
+ * removed, which is one reason containers are retired after a number of uses.<br><br>
+ * Basic usage example:
+ * <pre>
+ * {@code
+ * ScriptingContainerPool pool = ScriptingContainerPool.create()
+ *         .withMaxSize(4)
+ *         .withMinIdle(2)
+ *         .withWarmupRequires("json", "csv")
+ *         .withBootstrapScript("def log_line(line); puts line; end")
+ *         .start();
+ * nuixEngine.setScriptingContainerPool(pool);
+ * }
+ * </pre>
+ */
+public class ScriptingContainerPool implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ScriptingContainerPool.class);
+
+    // Aliases of $stdout and $stderr which JRuby defines once they are first referenced, these cannot be set to nil
+    private static final Set<String> RUNTIME_DEFINED_GLOBALS = Set.of("$defout", "$deferr");
+
+    /***
+     * A pooled container along with what is known about its use.
+     */
+    private static class PooledContainer {
+        private final ScriptingContainer container;
+        private final Set<String> baselineGlobals;
+        private final Set<String> baselineConstants;
+        private final ScriptCompileCache compileCache;
+        private int uses = 0;
+
+        private PooledContainer(ScriptingContainer container, Set<String> baselineGlobals, Set<String> baselineConstants,
+                                ScriptCompileCache compileCache) {
+            this.container = container;
+            this.compileCache = compileCache;
+            this.baselineGlobals = baselineGlobals;
+            this.baselineConstants = baselineConstants;
+        }
+    }
+
+    protected int maxSize = 2;
+    protected int minIdle = 0;
+    protected List<String> warmupRequires = new ArrayList<>();
+    protected String bootstrapScript = null;
+    protected int maxUses = 100;
+    protected double maxHeapUsage = 0.85;
+    protected Duration borrowTimeout = Duration.ofMinutes(5);
+    protected int compileCacheSize = 32;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition containerAvailable = lock.newCondition();
+    private final Deque<PooledContainer> idleContainers = new ArrayDeque<>();
+    private final Map<ScriptingContainer, PooledContainer> borrowedContainers = new IdentityHashMap<>();
+    private int containerCount = 0;
+    private boolean closed = false;
+    private ExecutorService warmupExecutor = null;
+    private final AtomicBoolean warmupScheduled = new AtomicBoolean(false);
+    private final AtomicLong createdCount = new AtomicLong(0);
+    private final AtomicLong evictedCount = new AtomicLong(0);
+
+    protected ScriptingContainerPool() {
+    }
+
+    /***
+     * Creates a new pool.  Configure it using the "with" methods, then call {@link #start()}.
+     * @return A new ScriptingContainerPool instance
+     */
+    public static ScriptingContainerPool create() {
+        return new ScriptingContainerPool();
+    }
+
+    /***
+     * Specifies the maximum number of containers this pool will hold at once, whether idle or borrowed.  Borrowers
+     * wait for a container to be returned once this many exist.  Defaults to 2.
+     * @param maxSize The maximum number of containers.  Must be at least 1.
+     * @return This pool for chained method calls.
+     */
+    public ScriptingContainerPool withMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    /***
+     * Specifies the number of warmed containers this pool keeps ready.  These are created when {@link #start()} is
+     * called and replaced when evicted.  Defaults to 0.
+     * @param minIdle Minimum number of containers to keep warm.
+     * @return This pool for chained method calls.
+     */
+    public ScriptingContainerPool withMinIdle(int minIdle) {
+        this.minIdle = Math.max(0, minIdle);
+        return this;
+    }
+
+    /***
+     * Specifies libraries each container requires while warming up, such as "json" or "csv".
+     * @param libraries Names of the libraries to require.
+     * @return This pool for chained method calls.
+     */
+    public ScriptingContainerPool withWarmupRequires(@NonNull String... libraries) {
+        this.warmupRequires = List.of(libraries);
+        return this;
+    }
+
+    /***
+     * Specifies a script each container runs while warming up, after requiring libraries, such as one defining
+     * helper methods commonly used by scripts.
+     * @param bootstrapScript The Ruby script to run, or null for none.
+     * @return This pool for chained method calls.
+     */
+    public ScriptingContainerPool withBootstrapScript(String bootstrapScript) {
+        this.bootstrapScript = bootstrapScript;
+        return this;
+    }
+
+    /***
+     * Specifies how many times a container may be borrowed before it is retired, limiting how much state (classes,
+     * methods, caches) scripts can accumulate in a runtime.  Defaults to 100.
+     * @param maxUses Maximum number of borrows per container, 0 for no limit.
+     * @return This pool for chained method calls.
+     */
+    public ScriptingContainerPool withMaxUses(int maxUses) {
+        this.maxUses = Math.max(0, maxUses);
+        return this;
+    }
+
+    /***
+     * Specifies the fraction of the maximum heap above which containers are retired rather than returned to the pool
+     * when a borrower returns them, so that runtimes holding on to memory are released.  Defaults to 0.85.
+     * @param maxHeapUsage Fraction of maximum heap, between 0.0 and 1.0, or 1.0 to never retire based on heap usage.
+     * @return This pool for chained method calls.
+     */
+    public ScriptingContainerPool withMaxHeapUsage(double maxHeapUsage) {
+        this.maxHeapUsage = maxHeapUsage;
+        return this;
+    }
+
+    /***
+     * Specifies how long {@link #borrow()} will wait for a container when the pool is at its maximum size and all
+     * containers are borrowed.  Defaults to 5 minutes.
+     * @param borrowTimeout How long to wait for a container.
+     * @return This pool for chained method calls.
+     */
+    public ScriptingContainerPool withBorrowTimeout(@NonNull Duration borrowTimeout) {
+        this.borrowTimeout = borrowTimeout;
+        return this;
+    }
+
+    /***
+     * Specifies how many parsed scripts each container keeps in its {@link ScriptCompileCache}, so that scripts run
+     * repeatedly by {@link RubyScriptRunner} are only parsed and compiled once per container.  Defaults to 32.
+     * @param compileCacheSize Maximum number of parsed scripts per container, 0 to not cache parsed scripts.
+     * @return This pool for chained method calls.
+     */
+    public ScriptingContainerPool withCompileCacheSize(int compileCacheSize) {
+        this.compileCacheSize = Math.max(0, compileCacheSize);
+        return this;
+    }
+
+    /***
+     * Starts the pool, creating and warming enough containers to satisfy {@link #withMinIdle(int)}.  Containers which
+     * later replace retired ones are warmed up on a background thread.
+     * @return This pool for chained method calls.
+     */
+    public ScriptingContainerPool start() {
+        lock.lock();
+        try {
+            if (warmupExecutor == null) {
+                warmupExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "ScriptingContainerPool-Warmup");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        } finally {
+            lock.unlock();
+        }
+        ensureMinIdle();
+        return this;
+    }
+
+    /***
+     * Borrows a warmed container from the pool, waiting up to the configured borrow timeout for one to become
+     * available.  Containers obtained this way must be handed back by calling {@link #release(ScriptingContainer)}.
+     * @return A warmed ScriptingContainer
+     * @throws Exception If no container became available in time, or a new container could not be warmed up.
+     */
+    public ScriptingContainer borrow() throws Exception {
+        return borrow(borrowTimeout);
+    }
+
+    /***
+     * Borrows a warmed container from the pool, waiting up to the specified timeout for one to become available.
+     * Containers obtained this way must be handed back by calling {@link #release(ScriptingContainer)}.
+     * @param timeout How long to wait for a container to become available.
+     * @return A warmed ScriptingContainer
+     * @throws Exception If no container became available in time, or a new container could not be warmed up.
+     */
+    public ScriptingContainer borrow(@NonNull Duration timeout) throws Exception {
+        long remainingNanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("Pool has been closed");
+                }
+
+                PooledContainer idleContainer = idleContainers.pollFirst();
+                if (idleContainer != null) {
+                    idleContainer.uses++;
+                    borrowedContainers.put(idleContainer.container, idleContainer);
+                    return idleContainer.container;
+                }
+
+                if (containerCount < maxSize) {
+                    // Reserve a slot, warming up happens outside the lock since it can take a while
+                    containerCount++;
+                    break;
+                }
+
+                if (remainingNanos <= 0) {
+                    throw new TimeoutException(String.format("Timed out after %s waiting for a pooled scripting container", timeout));
+                }
+                remainingNanos = containerAvailable.awaitNanos(remainingNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        PooledContainer pooledContainer = createWarmedContainer();
+        lock.lock();
+        try {
+            pooledContainer.uses++;
+            borrowedContainers.put(pooledContainer.container, pooledContainer);
+        } finally {
+            lock.unlock();
+        }
+        return pooledContainer.container;
+    }
+
+    /***
+     * Returns a previously borrowed container to the pool.  State left by the borrower is reset first.  The container
+     * is instead retired if it has reached the maximum number of uses, heap usage is above the configured maximum, it
+     * could not be reset or the pool has since been closed.
+     * @param container The container to return, as obtained from {@link #borrow()}.
+     */
+    public void release(@NonNull ScriptingContainer container) {
+        PooledContainer pooledContainer;
+        lock.lock();
+        try {
+            pooledContainer = borrowedContainers.remove(container);
+            if (pooledContainer == null) {
+                throw new IllegalArgumentException("Container was not borrowed from this pool");
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        String retireReason = null;
+        if (maxUses > 0 && pooledContainer.uses >= maxUses) {
+            retireReason = String.format("reached %s uses", pooledContainer.uses);
+        } else if (getHeapUsage() > maxHeapUsage) {
+            retireReason = String.format("heap usage is %.0f%%", getHeapUsage() * 100);
+        } else {
+            try {
+                reset(pooledContainer);
+            } catch (Exception exc) {
+                retireReason = "it could not be reset: " + exc.getMessage();
+            }
+        }
+
+        lock.lock();
+        try {
+            if (retireReason == null && !closed) {
+                idleContainers.offerFirst(pooledContainer);
+                containerAvailable.signal();
+                return;
+            }
+            containerCount--;
+            containerAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (retireReason != null) {
+            log.info("Retiring pooled scripting container as {}", retireReason);
+            evictedCount.incrementAndGet();
+        }
+        terminateQuietly(container);
+        scheduleEnsureMinIdle();
+    }
+
+    /***
+     * Removes a borrowed container from the pool and terminates it.  Use this when a script has left a container in a
+     * state that should not be shared with later scripts.
+     * @param container The container to discard, as obtained from {@link #borrow()}.
+     */
+    public void invalidate(@NonNull ScriptingContainer container) {
+        lock.lock();
+        try {
+            if (borrowedContainers.remove(container) == null) {
+                throw new IllegalArgumentException("Container was not borrowed from this pool");
+            }
+            containerCount--;
+            containerAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        evictedCount.incrementAndGet();
+        terminateQuietly(container);
+        scheduleEnsureMinIdle();
+    }
+
+    /***
+     * Gets the cache of scripts parsed by a borrowed container.  Parsed scripts belong to the container which parsed
+     * them, so the cache stays with the container while it is pooled.
+     * @param container A container obtained from {@link #borrow()} which has not yet been returned.
+     * @return The container's compile cache, or null if compile caching is disabled.
+     */
+    public ScriptCompileCache getCompileCache(@NonNull ScriptingContainer container) {
+        lock.lock();
+        try {
+            PooledContainer pooledContainer = borrowedContainers.get(container);
+            if (pooledContainer == null) {
+                throw new IllegalArgumentException("Container is not currently borrowed from this pool");
+            }
+            return pooledContainer.compileCache;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /***
+     * @return The number of containers currently idle in the pool.
+     */
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idleContainers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /***
+     * @return The number of containers currently borrowed from the pool.
+     */
+    public int getBorrowedCount() {
+        lock.lock();
+        try {
+            return borrowedContainers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /***
+     * @return The number of containers this pool has created and warmed up.
+     */
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    /***
+     * @return The number of containers this pool has retired or had invalidated.
+     */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    /***
+     * Closes the pool.  Idle containers are terminated immediately, containers which are currently borrowed will be
+     * terminated when they are returned.
+     */
+    @Override
+    public void close() {
+        List<PooledContainer> toTerminate;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (warmupExecutor != null) {
+                warmupExecutor.shutdown();
+            }
+            toTerminate = new ArrayList<>(idleContainers);
+            idleContainers.clear();
+            containerCount -= toTerminate.size();
+            containerAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        log.info("Terminating {} idle pooled scripting containers", toTerminate.size());
+        for (PooledContainer pooledContainer : toTerminate) {
+            terminateQuietly(pooledContainer.container);
+        }
+    }
+
+    /***
+     * Creates and warms up a new container.  Caller must already have reserved a slot by incrementing the container
+     * count, the slot is given back if warming up fails.
+     */
+    private PooledContainer createWarmedContainer() {
+        long started = System.nanoTime();
+        ScriptingContainer container = null;
+        try {
+            container = new ScriptingContainer(LocalContextScope.SINGLETHREAD, LocalVariableBehavior.PERSISTENT);
+            for (String library : warmupRequires) {
+                container.runScriptlet("require '" + library.replace("'", "\\'") + "'");
+            }
+            if (bootstrapScript != null) {
+                container.runScriptlet(bootstrapScript);
+            }
+            PooledContainer pooledContainer = new PooledContainer(container,
+                    getGlobalVariables(container), getTopLevelConstants(container),
+                    compileCacheSize > 0 ? new ScriptCompileCache(container, compileCacheSize) : null);
+            createdCount.incrementAndGet();
+            log.info("Warmed up pooled scripting container in {}ms", (System.nanoTime() - started) / 1_000_000);
+            return pooledContainer;
+        } catch (Throwable throwable) {
+            // The reserved slot must be given back whatever went wrong, including Errors
+            lock.lock();
+            try {
+                containerCount--;
+                containerAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+            if (container != null) {
+                terminateQuietly(container);
+            }
+            throw throwable;
+        }
+    }
+
+    /***
+     * Replaces retired containers on the warm-up thread, so that whoever released or invalidated a container does not
+     * wait for a new runtime to be warmed up.  At most one such warm-up is pending at a time.
+     */
+    private void scheduleEnsureMinIdle() {
+        ExecutorService executor;
+        lock.lock();
+        try {
+            if (closed || warmupExecutor == null || idleContainers.size() >= minIdle) {
+                return;
+            }
+            executor = warmupExecutor;
+        } finally {
+            lock.unlock();
+        }
+
+        if (warmupScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    warmupScheduled.set(false);
+                    ensureMinIdle();
+                });
+            } catch (RejectedExecutionException exc) {
+                // Pool was closed in the meantime
+                warmupScheduled.set(false);
+            }
+        }
+    }
+
+    /***
+     * Creates containers until the pool holds at least the configured minimum number of idle containers.
+     */
+    private void ensureMinIdle() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || idleContainers.size() >= minIdle || containerCount >= maxSize) {
+                    return;
+                }
+                containerCount++;
+            } finally {
+                lock.unlock();
+            }
+
+            PooledContainer pooledContainer;
+            try {
+                pooledContainer = createWarmedContainer();
+            } catch (Exception exc) {
+                log.error("Unable to warm up pooled scripting container", exc);
+                return;
+            }
+
+            lock.lock();
+            try {
+                if (closed) {
+                    containerCount--;
+                } else {
+                    idleContainers.offerLast(pooledContainer);
+                    containerAvailable.signal();
+                    continue;
+                }
+            } finally {
+                lock.unlock();
+            }
+            terminateQuietly(pooledContainer.container);
+            return;
+        }
+    }
+
+    /***
+     * Resets state a borrower may have left in a container back to how it was after warm-up.
+     */
+    private void reset(PooledContainer pooledContainer) {
+        ScriptingContainer container = pooledContainer.container;
+        // Detach the borrower's writers.  Output of the next borrower is discarded until it provides writers of its own,
+        // since putting back the original writers would result in System.out being closed along with the container.
+        container.setWriter(Writer.nullWriter());
+        container.setErrorWriter(Writer.nullWriter());
+        container.clear();
+        for (String global : getGlobalVariables(container)) {
+            if (!pooledContainer.baselineGlobals.contains(global) && !RUNTIME_DEFINED_GLOBALS.contains(global)) {
+                container.runScriptlet(global + " = nil");
+            }
+        }
+        for (String constant : getTopLevelConstants(container)) {
+            if (!pooledContainer.baselineConstants.contains(constant)) {
+                container.runScriptlet(String.format(
+                        "Object.send(:remove_const, :%1$s) unless Object.const_get(:%1$s).is_a?(Module)", constant));
+            }
+        }
+    }
+
+    private static Set<String> getGlobalVariables(ScriptingContainer container) {
+        return toNames(container.runScriptlet("global_variables.map(&:to_s)"));
+    }
+
+    private static Set<String> getTopLevelConstants(ScriptingContainer container) {
+        return toNames(container.runScriptlet("Object.constants.map(&:to_s)"));
+    }
+
+    private static Set<String> toNames(Object names) {
+        Set<String> result = new HashSet<>();
+        if (names instanceof Collection) {
+            for (Object name : (Collection<?>) names) {
+                result.add(String.valueOf(name));
+            }
+        }
+        return result;
+    }
+
+    private static double getHeapUsage() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        return heap.getMax() > 0 ? (double) heap.getUsed() / heap.getMax() : 0.0;
+    }
+
+    private static void terminateQuietly(ScriptingContainer container) {
+        try {
+            // Terminating closes the container's writers, which may write to System.out and System.err
+            container.setWriter(Writer.nullWriter());
+            container.setErrorWriter(Writer.nullWriter());
+            container.terminate();
+        } catch (Exception exc) {
+            log.warn("Error while terminating pooled scripting container", exc);
+        }
+    }
+}
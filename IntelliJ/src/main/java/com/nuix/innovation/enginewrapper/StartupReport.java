@@ -0,0 +1,207 @@
+package com.nuix.innovation.enginewrapper;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/***
+ * Records how long each phase of {@link NuixEngine} startup took, using a monotonic clock.  Phases include checking
+ * preconditions, initializing logging, creating the GlobalContainer, building the Engine, each license resolver attempt
+ * and each third party dependency check.  A report is available from {@link NuixEngine#getStartupReport()}, is written
+ * to the log as a single line of JSON and is exposed over JMX via {@link StartupReportMXBean}.
+ */
+public class StartupReport implements StartupReportMXBean {
+    /***
+     * The timing of a single startup phase.  Offsets are relative to when startup began.
+     */
+    @Getter
+    public static class Phase {
+        private final String name;
+        private final String detail;
+        private final long startOffsetNanos;
+        private final long durationNanos;
+        private final boolean succeeded;
+
+        private Phase(String name, String detail, long startOffsetNanos, long durationNanos, boolean succeeded) {
+            this.name = name;
+            this.detail = detail;
+            this.startOffsetNanos = startOffsetNanos;
+            this.durationNanos = durationNanos;
+            this.succeeded = succeeded;
+        }
+
+        public long getEndOffsetNanos() {
+            return startOffsetNanos + durationNanos;
+        }
+
+        public double getDurationMillis() {
+            return durationNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%.1fms)", name, getDurationMillis());
+        }
+    }
+
+    @Getter
+    private final Instant startedAt = Instant.now();
+    private final long startedNanos = System.nanoTime();
+    private final List<Phase> phases = new CopyOnWriteArrayList<>();
+    private volatile long readyOffsetNanos = -1;
+    private volatile String engineVersion = "0.0.0.0";
+
+    /***
+     * Runs a phase, recording how long it took and whether it completed without throwing.
+     * @param name Name of the phase, such as "buildEngine"
+     * @param detail Optional additional information about the phase, such as which resolver was used.  Can be null.
+     * @param phase The work performed by the phase
+     * @param <T> The type of value returned by the phase
+     * @return The value returned by the phase
+     * @throws Exception Exceptions thrown by the phase are allowed to bubble up after it has been recorded.
+     */
+    public <T> T time(@NonNull String name, String detail, @NonNull Callable<T> phase) throws Exception {
+        long phaseStarted = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T result = phase.call();
+            succeeded = true;
+            return result;
+        } finally {
+            phases.add(new Phase(name, detail, phaseStarted - startedNanos, System.nanoTime() - phaseStarted, succeeded));
+        }
+    }
+
+    /***
+     * Marks the point at which startup finished, either with licensed Utilities or having given up on obtaining them.
+     * Phases recorded after this point (such as background dependency checks) are not part of the critical path.
+     */
+    void markReady() {
+        readyOffsetNanos = System.nanoTime() - startedNanos;
+    }
+
+    void setEngineVersion(String engineVersion) {
+        this.engineVersion = engineVersion;
+    }
+
+    /***
+     * @return All recorded phases, in the order they started.
+     */
+    public List<Phase> getPhases() {
+        return phases.stream()
+                .sorted(Comparator.comparingLong(Phase::getStartOffsetNanos))
+                .collect(Collectors.toList());
+    }
+
+    /***
+     * Determines the chain of phases which gated startup.  Starting from the last phase to finish before startup was
+     * ready, repeatedly steps back to the phase which finished last before the current one started.  When phases
+     * overlapped, only the one which finished later is on the critical path.
+     * @return The critical path phases, in the order they ran.
+     */
+    public List<Phase> getCriticalPathPhases() {
+        long readyOffset = readyOffsetNanos;
+        List<Phase> candidates = new ArrayList<>();
+        for (Phase phase : phases) {
+            if (readyOffset < 0 || phase.getEndOffsetNanos() <= readyOffset) {
+                candidates.add(phase);
+            }
+        }
+
+        List<Phase> criticalPath = new ArrayList<>();
+        Phase current = candidates.stream().max(Comparator.comparingLong(Phase::getEndOffsetNanos)).orElse(null);
+        while (current != null) {
+            criticalPath.add(0, current);
+            long currentStart = current.getStartOffsetNanos();
+            current = candidates.stream()
+                    .filter(phase -> phase.getEndOffsetNanos() <= currentStart)
+                    .max(Comparator.comparingLong(Phase::getEndOffsetNanos))
+                    .orElse(null);
+        }
+        return criticalPath;
+    }
+
+    @Override
+    public long getReadyMillis() {
+        long readyOffset = readyOffsetNanos;
+        return readyOffset < 0 ? getTotalMillis() : readyOffset / 1_000_000;
+    }
+
+    @Override
+    public long getTotalMillis() {
+        return phases.stream().mapToLong(Phase::getEndOffsetNanos).max().orElse(0) / 1_000_000;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseDurationsMillis() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Phase phase : getPhases()) {
+            result.put(phase.getName(), phase.getDurationNanos() / 1_000_000);
+        }
+        return result;
+    }
+
+    @Override
+    public List<String> getCriticalPath() {
+        return getCriticalPathPhases().stream().map(Phase::getName).collect(Collectors.toList());
+    }
+
+    @Override
+    public String getEngineVersion() {
+        return engineVersion;
+    }
+
+    @Override
+    public String getReportJson() {
+        JsonObject report = new JsonObject();
+        report.addProperty("startedAt", startedAt.toString());
+        report.addProperty("engineVersion", engineVersion);
+        report.addProperty("readyMillis", getReadyMillis());
+        report.addProperty("totalMillis", getTotalMillis());
+
+        JsonArray criticalPath = new JsonArray();
+        getCriticalPath().forEach(criticalPath::add);
+        report.add("criticalPath", criticalPath);
+
+        JsonArray phaseArray = new JsonArray();
+        for (Phase phase : getPhases()) {
+            JsonObject phaseObject = new JsonObject();
+            phaseObject.addProperty("name", phase.getName());
+            if (phase.getDetail() != null) {
+                phaseObject.addProperty("detail", phase.getDetail());
+            }
+            phaseObject.addProperty("startMillis", Math.round(phase.getStartOffsetNanos() / 1_000.0) / 1_000.0);
+            phaseObject.addProperty("durationMillis", Math.round(phase.getDurationNanos() / 1_000.0) / 1_000.0);
+            phaseObject.addProperty("succeeded", phase.isSucceeded());
+            phaseArray.add(phaseObject);
+        }
+        report.add("phases", phaseArray);
+        return report.toString();
+    }
+
+    /***
+     * @return A human readable summary of the critical path, such as "checkPreConditions (12.0ms) -> buildEngine (2100.4ms)"
+     */
+    public String summarizeCriticalPath() {
+        StringJoiner summary = new StringJoiner(" -> ");
+        getCriticalPathPhases().forEach(phase -> summary.add(phase.toString()));
+        return summary.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getReportJson();
+    }
+}
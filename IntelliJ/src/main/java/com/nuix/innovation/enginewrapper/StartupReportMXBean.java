@@ -0,0 +1,41 @@
+package com.nuix.innovation.enginewrapper;
+
+import java.util.List;
+import java.util.Map;
+
+/***
+ * JMX view of a {@link StartupReport}.  Each started {@link NuixEngine} registers its report with the platform MBean
+ * server under the domain "com.nuix.innovation.enginewrapper" with "type=NuixEngineStartup".
+ */
+public interface StartupReportMXBean {
+    /***
+     * @return Milliseconds from the start of startup until licensed Utilities were available (or startup gave up).
+     */
+    long getReadyMillis();
+
+    /***
+     * @return Milliseconds from the start of startup until the last recorded phase finished, including any
+     * phases which ran in the background after Utilities were available.
+     */
+    long getTotalMillis();
+
+    /***
+     * @return Duration in milliseconds of each recorded phase, keyed by phase name, in the order phases started.
+     */
+    Map<String, Long> getPhaseDurationsMillis();
+
+    /***
+     * @return Names of the phases which determined how long it took for Utilities to become available.
+     */
+    List<String> getCriticalPath();
+
+    /***
+     * @return The Nuix engine version started, or "0.0.0.0" if an Engine was not built.
+     */
+    String getEngineVersion();
+
+    /***
+     * @return This report as a single line of JSON.
+     */
+    String getReportJson();
+}
@@ -0,0 +1,159 @@
+package com.nuix.innovation.enginewrapper;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+/***
+ * Persists the outcome of validating and resolving the startup environment of a {@link NuixEngine}, so that later
+ * starts in the same environment can skip precondition checks and go straight to engine construction.  Entries are
+ * keyed by a fingerprint of the environment (JVM arguments, PATH, relevant system properties and environment
+ * variables) and of the engine distribution (its location and modification times), so any change to these causes the
+ * environment to be validated again.  The license resolver which last obtained a license is also recorded.
+ */
+public class StartupResolutionCache {
+    private static final Logger log = LoggerFactory.getLogger(StartupResolutionCache.class);
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    /***
+     * A validated startup environment resolution.
+     */
+    @Getter
+    @Setter
+    public static class Resolution {
+        String fingerprint;
+        String engineDirectory;
+        String libDirectory;
+        String userDataDirectory;
+        String log4jConfigurationUri;
+        String lastLicenseSource;
+    }
+
+    private final File cacheFile;
+
+    /***
+     * Creates a new instance storing resolutions for the given engine distribution in the given directory.
+     * @param cacheDirectory Directory to store the cache file in
+     * @param engineDistributionDirectory The engine distribution the resolution applies to
+     */
+    public StartupResolutionCache(@NonNull File cacheDirectory, @NonNull File engineDistributionDirectory) {
+        String key = Integer.toHexString(engineDistributionDirectory.getAbsolutePath().toLowerCase().hashCode());
+        this.cacheFile = new File(cacheDirectory, "startup-resolution-" + key + ".json");
+    }
+
+    /***
+     * Computes a fingerprint of everything which affects startup environment resolution.
+     * @param engineDistributionDirectory The engine distribution directory
+     * @param userDataDirectory The user data directory configured by the caller, or null if one was not configured
+     * @return A hex encoded SHA-256 fingerprint
+     */
+    public static String computeFingerprint(@NonNull File engineDistributionDirectory, File userDataDirectory) {
+        StringBuilder fingerprintSource = new StringBuilder();
+        fingerprintSource.append(engineDistributionDirectory.getAbsolutePath()).append('\n');
+        fingerprintSource.append(engineDistributionDirectory.lastModified()).append('\n');
+        fingerprintSource.append(new File(engineDistributionDirectory, "lib").lastModified()).append('\n');
+        fingerprintSource.append(userDataDirectory == null ? "" : userDataDirectory.getAbsolutePath()).append('\n');
+        fingerprintSource.append(String.join(" ", ManagementFactory.getRuntimeMXBean().getInputArguments())).append('\n');
+        fingerprintSource.append(System.getProperty("java.version")).append('\n');
+        fingerprintSource.append(System.getProperty("nuix.userDataBase", "")).append('\n');
+        fingerprintSource.append(System.getProperty("engine.ignore.preCheckIssues", "")).append('\n');
+        fingerprintSource.append(System.getenv().getOrDefault("LOCALAPPDATA", "")).append('\n');
+        for (Map.Entry<String, String> envEntry : System.getenv().entrySet()) {
+            if (envEntry.getKey().trim().equalsIgnoreCase("PATH")) {
+                fingerprintSource.append(envEntry.getValue()).append('\n');
+            }
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(fingerprintSource.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    /***
+     * Loads the cached resolution if it was recorded for the same fingerprint.
+     * @param fingerprint Fingerprint of the current environment, see {@link #computeFingerprint(File, File)}
+     * @return The cached resolution, or empty if there is none for this fingerprint.
+     */
+    public Optional<Resolution> load(@NonNull String fingerprint) {
+        return loadAny().filter(resolution -> fingerprint.equals(resolution.fingerprint));
+    }
+
+    /***
+     * Loads the cached resolution regardless of the fingerprint it was recorded for, for example to carry forward
+     * the last license source after the environment has changed.
+     * @return The cached resolution, or empty if there is none or it cannot be read.
+     */
+    public Optional<Resolution> loadAny() {
+        if (!cacheFile.isFile()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(gson.fromJson(FileUtils.readFileToString(cacheFile, StandardCharsets.UTF_8), Resolution.class));
+        } catch (Exception exc) {
+            log.warn("Ignoring unreadable startup resolution cache file: {}", cacheFile.getAbsolutePath(), exc);
+            return Optional.empty();
+        }
+    }
+
+    /***
+     * Saves a resolution, replacing any previously cached one.  The file is written to a temporary file first and then
+     * moved into place, so engines starting at the same time never read a partially written file.
+     * @param resolution The resolution to save
+     */
+    public void save(@NonNull Resolution resolution) {
+        try {
+            Path target = cacheFile.toPath().toAbsolutePath();
+            Path directory = target.getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, cacheFile.getName(), ".tmp");
+            try {
+                Files.writeString(temp, gson.toJson(resolution), StandardCharsets.UTF_8);
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException exc) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException exc) {
+            log.warn("Unable to write startup resolution cache file: {}", cacheFile.getAbsolutePath(), exc);
+        }
+    }
+
+    /***
+     * Removes the cached resolution, so the next start validates its environment again.
+     */
+    public void invalidate() {
+        FileUtils.deleteQuietly(cacheFile);
+    }
+
+    /***
+     * @return The file resolutions are cached in.
+     */
+    public File getCacheFile() {
+        return cacheFile;
+    }
+}
@@ -0,0 +1,183 @@
+package com.nuix.innovation.enginewrapper;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import lombok.Getter;
+import lombok.NonNull;
+import nuix.ThirdPartyDependency;
+import nuix.ThirdPartyDependencyStatus;
+import nuix.Utilities;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/***
+ * Performs Nuix third party dependency checks.  Checks are run in parallel, each limited by a timeout, and results
+ * can be cached on disk so that later startups using the same engine distribution can skip the checks entirely.
+ * Cached results are keyed by the engine distribution directory and its last modified time, so installing a different
+ * or updated distribution causes the checks to be run again.  Results are only cached when every check completed.
+ */
+public class ThirdPartyDependencyChecker {
+    private static final Logger log = LoggerFactory.getLogger(ThirdPartyDependencyChecker.class);
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    /***
+     * The outcome of checking a single third party dependency.
+     */
+    @Getter
+    public static class Result {
+        private final String description;
+        private final boolean attentionRequired;
+        private final String message;
+        private final boolean completed;
+
+        public Result(String description, boolean attentionRequired, String message, boolean completed) {
+            this.description = description;
+            this.attentionRequired = attentionRequired;
+            this.message = message;
+            this.completed = completed;
+        }
+    }
+
+    /***
+     * Structure of the on disk cache file.
+     */
+    private static class CacheFile {
+        private String engineDirectory;
+        private long engineDirectoryLastModified;
+        private List<Result> results;
+    }
+
+    private final File engineDistributionDirectory;
+    private final File cacheDirectory;
+    private final Duration checkTimeout;
+    private final Executor executor;
+
+    /***
+     * Creates a new instance.
+     * @param engineDistributionDirectory The engine distribution the checks are performed against, used to key cached results.
+     * @param cacheDirectory Directory in which to cache results, or null to disable caching.
+     * @param checkTimeout How long each individual check may take before it is abandoned.
+     * @param executor Executor used to run checks in parallel.
+     */
+    public ThirdPartyDependencyChecker(@NonNull File engineDistributionDirectory, File cacheDirectory,
+                                       @NonNull Duration checkTimeout, @NonNull Executor executor) {
+        this.engineDistributionDirectory = engineDistributionDirectory;
+        this.cacheDirectory = cacheDirectory;
+        this.checkTimeout = checkTimeout;
+        this.executor = executor;
+    }
+
+    /***
+     * Checks all third party dependencies, returning cached results when they are available for this engine
+     * distribution.
+     * @param utilities Needs an instance of Utilities to get access to third party dependency information
+     * @param startupReport If not null, each check performed is recorded as a phase of this report
+     * @return The results of each check
+     */
+    public List<Result> performChecks(@NonNull Utilities utilities, StartupReport startupReport) {
+        List<Result> cachedResults = loadCachedResults();
+        if (cachedResults != null) {
+            log.info("Using cached third party dependency statuses from: {}", getCacheFile().getAbsolutePath());
+            return cachedResults;
+        }
+
+        List<ThirdPartyDependency> dependencies = utilities.getThirdPartyDependencies();
+        List<CompletableFuture<Result>> checks = new ArrayList<>();
+        for (int i = 0; i < dependencies.size(); i++) {
+            ThirdPartyDependency dependency = dependencies.get(i);
+            String phaseName = String.format("dependencyCheck[%d]", i);
+            checks.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    ThirdPartyDependencyStatus status = startupReport == null ? dependency.performCheck() :
+                            startupReport.time(phaseName, dependency.getDescription(), dependency::performCheck);
+                    return new Result(dependency.getDescription(), status.isAttentionRequired(), status.getMessage(), true);
+                } catch (Exception exc) {
+                    throw new CompletionException(exc);
+                }
+            }, executor));
+        }
+
+        // All checks were started together, so they share a deadline
+        long deadline = System.nanoTime() + checkTimeout.toNanos();
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < checks.size(); i++) {
+            String description = dependencies.get(i).getDescription();
+            try {
+                results.add(checks.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException exc) {
+                checks.get(i).cancel(true);
+                results.add(new Result(description, true, "Timed out after " + checkTimeout, false));
+            } catch (ExecutionException exc) {
+                Throwable cause = exc.getCause() != null ? exc.getCause() : exc;
+                results.add(new Result(description, true, "Error Checking Status: " + cause.getMessage(), false));
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                results.add(new Result(description, true, "Interrupted while checking status", false));
+            }
+        }
+
+        if (results.stream().allMatch(Result::isCompleted)) {
+            saveCachedResults(results);
+        }
+        return results;
+    }
+
+    /***
+     * @return The file results are cached in for this engine distribution, or null if caching is disabled.
+     */
+    public File getCacheFile() {
+        if (cacheDirectory == null) {
+            return null;
+        }
+        String key = Integer.toHexString(engineDistributionDirectory.getAbsolutePath().toLowerCase().hashCode());
+        return new File(cacheDirectory, "dependency-checks-" + key + ".json");
+    }
+
+    private List<Result> loadCachedResults() {
+        File cacheFile = getCacheFile();
+        if (cacheFile == null || !cacheFile.isFile()) {
+            return null;
+        }
+        try {
+            CacheFile cached = gson.fromJson(FileUtils.readFileToString(cacheFile, StandardCharsets.UTF_8), CacheFile.class);
+            if (cached != null && cached.results != null &&
+                    engineDistributionDirectory.getAbsolutePath().equalsIgnoreCase(cached.engineDirectory) &&
+                    engineDistributionDirectory.lastModified() == cached.engineDirectoryLastModified) {
+                return cached.results;
+            }
+        } catch (Exception exc) {
+            log.warn("Ignoring unreadable third party dependency cache file: {}", cacheFile.getAbsolutePath(), exc);
+        }
+        return null;
+    }
+
+    private void saveCachedResults(List<Result> results) {
+        File cacheFile = getCacheFile();
+        if (cacheFile == null) {
+            return;
+        }
+        CacheFile cached = new CacheFile();
+        cached.engineDirectory = engineDistributionDirectory.getAbsolutePath();
+        cached.engineDirectoryLastModified = engineDistributionDirectory.lastModified();
+        cached.results = results;
+        try {
+            FileUtils.writeStringToFile(cacheFile, gson.toJson(cached), StandardCharsets.UTF_8);
+        } catch (IOException exc) {
+            log.warn("Unable to write third party dependency cache file: {}", cacheFile.getAbsolutePath(), exc);
+        }
+    }
+}
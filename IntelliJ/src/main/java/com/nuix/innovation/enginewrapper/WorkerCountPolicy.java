@@ -0,0 +1,196 @@
+package com.nuix.innovation.enginewrapper;
+
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/***
+ * Decides how many workers to use based on what the host can actually run: available cores, free physical memory and
+ * how much memory each worker needs, optionally capped by the caller.  When provided to a {@link NuixLicenseResolver}
+ * via {@link NuixLicenseResolver#withWorkerCountPolicy(WorkerCountPolicy)}, licenses which allow choosing a worker count
+ * are acquired with the largest worker count the host can run.  The resulting {@link Decision} is available from
+ * {@link NuixEngine#getWorkerCountDecision()} and {@link NuixEngine#getParallelProcessingSettings()} so it can be
+ * reused when calling setParallelProcessingSettings.<br><br>
+ * Example usage:
+ * <pre>
+ * {@code
+ * LicenseResolver cloud = NuixLicenseResolver.fromCloud()
+ *     .withLicenseCredentialsResolvedFromEnvVars()
+ *     .withWorkerCountPolicy(WorkerCountPolicy.hostAware()
+ *         .withWorkerMemoryMb(2048)
+ *         .withMaxWorkers(16));
+ * }
+ * </pre>
+ */
+public class WorkerCountPolicy {
+    private static final Logger log = LoggerFactory.getLogger(WorkerCountPolicy.class);
+
+    /***
+     * The outcome of applying a policy, including the host resources it was based on.
+     */
+    @Getter
+    public static class Decision {
+        private final int workerCount;
+        private final int workerMemoryMb;
+        private final int availableCores;
+        private final long freeMemoryMb;
+        private final String limitedBy;
+
+        private Decision(int workerCount, int workerMemoryMb, int availableCores, long freeMemoryMb, String limitedBy) {
+            this.workerCount = workerCount;
+            this.workerMemoryMb = workerMemoryMb;
+            this.availableCores = availableCores;
+            this.freeMemoryMb = freeMemoryMb;
+            this.limitedBy = limitedBy;
+        }
+
+        /***
+         * @return Settings suitable for passing to setParallelProcessingSettings, containing "workerCount" and "workerMemory".
+         */
+        public Map<String, Object> toParallelProcessingSettings() {
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("workerCount", workerCount);
+            settings.put("workerMemory", workerMemoryMb);
+            return settings;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d workers with %dMB each (limited by %s; %d cores, %dMB free memory)",
+                    workerCount, workerMemoryMb, limitedBy, availableCores, freeMemoryMb);
+        }
+    }
+
+    protected int workerMemoryMb = 2048;
+    protected int reservedMemoryMb = 2048;
+    protected int coresPerWorker = 1;
+    protected int maxWorkers = 0;
+
+    protected WorkerCountPolicy() {
+    }
+
+    /***
+     * Creates a policy with defaults of 2048MB per worker, 2048MB reserved for this JVM and the operating system,
+     * 1 core per worker and no cap on worker count.
+     * @return A new policy instance
+     */
+    public static WorkerCountPolicy hostAware() {
+        return new WorkerCountPolicy();
+    }
+
+    /***
+     * Specifies how much memory each worker will be given.  Also reported as "workerMemory" in parallel processing settings.
+     * @param workerMemoryMb Memory per worker in megabytes.
+     * @return This policy for chained method calls.
+     */
+    public WorkerCountPolicy withWorkerMemoryMb(int workerMemoryMb) {
+        this.workerMemoryMb = Math.max(1, workerMemoryMb);
+        return this;
+    }
+
+    /***
+     * Specifies how much of the currently free physical memory should not be allocated to workers.
+     * @param reservedMemoryMb Memory to hold back in megabytes.
+     * @return This policy for chained method calls.
+     */
+    public WorkerCountPolicy withReservedMemoryMb(int reservedMemoryMb) {
+        this.reservedMemoryMb = Math.max(0, reservedMemoryMb);
+        return this;
+    }
+
+    /***
+     * Specifies how many cores each worker is expected to keep busy.
+     * @param coresPerWorker Cores per worker.
+     * @return This policy for chained method calls.
+     */
+    public WorkerCountPolicy withCoresPerWorker(int coresPerWorker) {
+        this.coresPerWorker = Math.max(1, coresPerWorker);
+        return this;
+    }
+
+    /***
+     * Specifies an upper limit on the worker count regardless of what the host could run.
+     * @param maxWorkers The maximum worker count.  A value of 0 means no maximum.
+     * @return This policy for chained method calls.
+     */
+    public WorkerCountPolicy withMaxWorkers(int maxWorkers) {
+        this.maxWorkers = Math.max(0, maxWorkers);
+        return this;
+    }
+
+    /***
+     * Decides on a worker count based on the resources currently available on this host.
+     * @param minWorkers The fewest workers acceptable, such as a resolver's minimum worker count.  Used even if the host
+     *                   appears unable to run that many.
+     * @param licenseWorkers The most workers the license can provide, or null if unknown.
+     * @return The decision reached
+     */
+    public Decision decide(int minWorkers, Integer licenseWorkers) {
+        return decide(Runtime.getRuntime().availableProcessors(), getFreePhysicalMemoryMb(), minWorkers, licenseWorkers);
+    }
+
+    /***
+     * Decides on a worker count based on the provided host resources.
+     * @param availableCores Number of cores available
+     * @param freeMemoryMb Free physical memory in megabytes
+     * @param minWorkers The fewest workers acceptable.  Used even if the host appears unable to run that many.
+     * @param licenseWorkers The most workers the license can provide, or null if unknown.
+     * @return The decision reached
+     */
+    public Decision decide(int availableCores, long freeMemoryMb, int minWorkers, Integer licenseWorkers) {
+        int workerCount = Math.max(1, availableCores / coresPerWorker);
+        String limitedBy = "cores";
+
+        int byMemory = (int) Math.max(1, (freeMemoryMb - reservedMemoryMb) / workerMemoryMb);
+        if (byMemory < workerCount) {
+            workerCount = byMemory;
+            limitedBy = "memory";
+        }
+
+        if (maxWorkers > 0 && maxWorkers < workerCount) {
+            workerCount = maxWorkers;
+            limitedBy = "maximum";
+        }
+
+        if (licenseWorkers != null && licenseWorkers > 0 && licenseWorkers < workerCount) {
+            workerCount = licenseWorkers;
+            limitedBy = "license";
+        }
+
+        if (minWorkers > workerCount) {
+            log.warn(String.format("Host appears able to run %d workers (limited by %s), using required minimum of %d",
+                    workerCount, limitedBy, minWorkers));
+            workerCount = minWorkers;
+            limitedBy = "minimum";
+        }
+
+        return new Decision(workerCount, workerMemoryMb, availableCores, freeMemoryMb, limitedBy);
+    }
+
+    /***
+     * @return Free physical memory of this host in megabytes, or the maximum heap of this JVM if it cannot be determined.
+     */
+    protected long getFreePhysicalMemoryMb() {
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) osBean).getFreeMemorySize() / (1024 * 1024);
+        } else {
+            return Runtime.getRuntime().maxMemory() / (1024 * 1024);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WorkerCountPolicy{" +
+                "workerMemoryMb=" + workerMemoryMb +
+                ", reservedMemoryMb=" + reservedMemoryMb +
+                ", coresPerWorker=" + coresPerWorker +
+                ", maxWorkers=" + maxWorkers +
+                '}';
+    }
+}
@@ -0,0 +1,114 @@
+import com.nuix.innovation.enginewrapper.BoundedAsyncAppender;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncLoggingTests {
+    private static final Logger log = LogManager.getLogger(AsyncLoggingTests.class);
+
+    /***
+     * Stands in for console/file I/O, taking a fixed amount of time to write each event.
+     */
+    private static class SlowAppender extends AbstractAppender {
+        private final AtomicLong warnCount = new AtomicLong(0);
+        private final AtomicLong eventCount = new AtomicLong(0);
+
+        private SlowAppender() {
+            super("Slow", null, null, true, Property.EMPTY_ARRAY);
+            start();
+        }
+
+        @Override
+        public synchronized void append(LogEvent event) {
+            LockSupport.parkNanos(20_000);
+            eventCount.incrementAndGet();
+            if (event.getLevel() == Level.WARN) {
+                warnCount.incrementAndGet();
+            }
+        }
+    }
+
+    /***
+     * Simulates worker item callbacks on several threads each logging a number of events, 1 in 100 being a WARN.
+     * @return Events logged per second by the callback threads
+     */
+    private double logFromCallbacks(AbstractAppender appender, int threadCount, int eventsPerThread) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int t = 0; t < threadCount; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < eventsPerThread; i++) {
+                    appender.append(Log4jLogEvent.newBuilder()
+                            .setLoggerName("callback")
+                            .setLevel(i % 100 == 0 ? Level.WARN : Level.INFO)
+                            .setMessage(new SimpleMessage("Processed item " + i))
+                            .build());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        return (threadCount * eventsPerThread) / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    @Test
+    public void CallbackThroughputSyncVsAsync() throws Exception {
+        int threadCount = 4;
+        int eventsPerThread = 2_000;
+        int totalEvents = threadCount * eventsPerThread;
+
+        SlowAppender syncTarget = new SlowAppender();
+        double syncThroughput = logFromCallbacks(syncTarget, threadCount, eventsPerThread);
+        assertEquals(totalEvents, syncTarget.eventCount.get());
+
+        SlowAppender blockingTarget = new SlowAppender();
+        BoundedAsyncAppender blocking = new BoundedAsyncAppender("Blocking", blockingTarget, 1024,
+                BoundedAsyncAppender.OverflowPolicy.BLOCK, 1);
+        blocking.start();
+        double blockingThroughput = logFromCallbacks(blocking, threadCount, eventsPerThread);
+        assertTrue(blocking.stop(1, TimeUnit.MINUTES));
+        assertEquals(0, blocking.getDroppedEventCount());
+        assertEquals(totalEvents, blockingTarget.eventCount.get());
+
+        SlowAppender droppingTarget = new SlowAppender();
+        BoundedAsyncAppender dropping = new BoundedAsyncAppender("Dropping", droppingTarget, 1024,
+                BoundedAsyncAppender.OverflowPolicy.DROP_BELOW_WARN, 1);
+        dropping.start();
+        double droppingThroughput = logFromCallbacks(dropping, threadCount, eventsPerThread);
+        assertTrue(dropping.stop(1, TimeUnit.MINUTES));
+        assertEquals(totalEvents, droppingTarget.eventCount.get() + dropping.getDroppedEventCount());
+        assertEquals(totalEvents / 100, droppingTarget.warnCount.get());
+
+        SlowAppender samplingTarget = new SlowAppender();
+        BoundedAsyncAppender sampling = new BoundedAsyncAppender("Sampling", samplingTarget, 1024,
+                BoundedAsyncAppender.OverflowPolicy.SAMPLE, 10);
+        sampling.start();
+        double samplingThroughput = logFromCallbacks(sampling, threadCount, eventsPerThread);
+        assertTrue(sampling.stop(1, TimeUnit.MINUTES));
+        assertEquals(totalEvents, samplingTarget.eventCount.get() + sampling.getDroppedEventCount());
+        assertEquals(totalEvents / 100, samplingTarget.warnCount.get());
+
+        log.info(String.format("Callback events/sec: sync %.0f, async BLOCK %.0f, async DROP_BELOW_WARN %.0f (%s dropped), async SAMPLE %.0f (%s dropped)",
+                syncThroughput, blockingThroughput, droppingThroughput, dropping.getDroppedEventCount(),
+                samplingThroughput, sampling.getDroppedEventCount()));
+        assertTrue(droppingThroughput > syncThroughput);
+    }
+}
@@ -1,5 +1,5 @@
 import com.nuix.innovation.enginewrapper.NuixEngine;
-import com.nuix.innovation.enginewrapper.NuixVersion;
+import com.nuix.innovation.enginewrapper.StartupReport;
 import nuix.*;
 import org.junit.jupiter.api.Test;
 
@@ -8,11 +8,13 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BasicTests extends CommonTestFunctionality {
@@ -23,7 +25,7 @@ public class BasicTests extends CommonTestFunctionality {
         // run method will call close before returning
         nuixEngine.run((utilities -> {
             licenseWasObtained.set(true);
-            log.info("Nuix v{}", NuixVersion.getCurrent());
+            log.info("Nuix v{}", nuixEngine.getNuixVersion());
         }));
         assertTrue(licenseWasObtained.get());
     }
@@ -48,6 +50,30 @@ public class BasicTests extends CommonTestFunctionality {
         nuixEngine.close();
     }
 
+    @Test
+    public void GetLicenseAsync() throws Exception {
+        // Startup phases which do not depend on each other are overlapped, caller is free to do other
+        // work until the future completes
+        try (NuixEngine nuixEngine = constructNuixEngine()) {
+            CompletableFuture<Utilities> futureUtilities = nuixEngine.getUtilitiesAsync();
+            Utilities utilities = futureUtilities.get();
+            assertNotNull(utilities);
+            utilities.getItemTypeUtility().getAllTypes();
+        }
+    }
+
+    @Test
+    public void StartupPhasesAreReported() throws Exception {
+        try (NuixEngine nuixEngine = constructNuixEngine()) {
+            nuixEngine.getUtilities();
+            StartupReport startupReport = nuixEngine.getStartupReport();
+            assertNotNull(startupReport);
+            log.info("Startup critical path: {}", startupReport.summarizeCriticalPath());
+            assertTrue(startupReport.getPhaseDurationsMillis().containsKey("buildEngine"));
+            assertTrue(startupReport.getCriticalPath().contains("checkPreConditions"));
+        }
+    }
+
     @Test
     public void OverrideUserDataViaProperty() throws Exception {
         File engineUserDataBase = Paths.get(System.getenv("NUIX_ENGINE_DIR"), "user-data").toFile();
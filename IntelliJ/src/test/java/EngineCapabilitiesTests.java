@@ -0,0 +1,54 @@
+import com.nuix.innovation.enginewrapper.EngineCapabilities;
+import com.nuix.innovation.enginewrapper.EngineCapability;
+import com.nuix.innovation.enginewrapper.LicenseFeature;
+import com.nuix.innovation.enginewrapper.NuixLicenseResolver;
+import com.nuix.innovation.enginewrapper.NuixVersion;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineCapabilitiesTests {
+    private static final EngineCapability NEWER_API = EngineCapability.define("TEST_NEWER_API", "9.12", LicenseFeature.SCRIPTING);
+
+    @Test
+    public void CapabilitiesDependOnVersionAndLicenseFeatures() {
+        EngineCapabilities older = EngineCapabilities.of(NuixVersion.parse("9.10.3"), EnumSet.of(LicenseFeature.SCRIPTING));
+        EngineCapabilities newer = EngineCapabilities.of(NuixVersion.parse("9.12"), EnumSet.of(LicenseFeature.SCRIPTING));
+        EngineCapabilities unscripted = EngineCapabilities.of(NuixVersion.parse("10.0"), EnumSet.of(LicenseFeature.CASE_CREATION));
+
+        assertFalse(older.isSupported(NEWER_API));
+        assertTrue(newer.isSupported(NEWER_API));
+        assertTrue(newer.isSupported("test_newer_api"));
+        assertFalse(unscripted.isSupported(NEWER_API));
+        assertTrue(unscripted.isSupported(EngineCapability.CASE_CREATION));
+        assertThrows(IllegalArgumentException.class, () -> newer.isSupported("NOT_DEFINED"));
+
+        // Capabilities defined after a table is built are still answered
+        EngineCapability later = EngineCapability.define("TEST_DEFINED_LATER", "9.11");
+        assertFalse(older.isSupported(later));
+        assertTrue(newer.isSupported(later));
+        assertSame(later, EngineCapability.define("TEST_DEFINED_LATER", "9.11"));
+        assertThrows(IllegalArgumentException.class, () -> EngineCapability.define("TEST_DEFINED_LATER", "9.12"));
+    }
+
+    @Test
+    public void EachEngineHasItsOwnVersion() throws Exception {
+        FakeLicensing licensing = new FakeLicensing()
+                .withLicense(new FakeLicensing.FakeLicense("enterprise-workstation").withFeatures("SCRIPTING", "CASE_CREATION").withCount(2));
+        FakeLicensing.FakeNuixEngine olderEngine = licensing.withEngineVersion("9.10.3.582").newNuixEngine(NuixLicenseResolver.fromDongle());
+        FakeLicensing.FakeNuixEngine newerEngine = licensing.withEngineVersion("9.12.0.10").newNuixEngine(NuixLicenseResolver.fromDongle());
+
+        assertFalse(olderEngine.getCapabilities().isSupported(EngineCapability.SCRIPTING), "Unlicensed engine");
+        assertTrue(olderEngine.obtainLicense());
+        assertTrue(newerEngine.obtainLicense());
+
+        assertEquals("9.10.3.582", olderEngine.getNuixVersion().toString());
+        assertEquals("9.12.0.10", newerEngine.getNuixVersion().toString());
+        assertTrue(olderEngine.getCapabilities().isSupported(EngineCapability.SCRIPTING));
+        assertFalse(olderEngine.getCapabilities().isSupported(NEWER_API));
+        assertTrue(newerEngine.getCapabilities().isSupported(NEWER_API));
+        assertSame(newerEngine.getCapabilities(), newerEngine.getCapabilities());
+    }
+}
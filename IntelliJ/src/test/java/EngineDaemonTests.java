@@ -0,0 +1,100 @@
+import com.nuix.innovation.enginewrapper.EngineDaemon;
+import com.nuix.innovation.enginewrapper.EngineDaemonClient;
+import com.nuix.innovation.enginewrapper.NuixEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineDaemonTests extends CommonTestFunctionality {
+    private NuixEngine constructNuixEngineUnchecked() {
+        try {
+            return constructNuixEngine();
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    @Test
+    public void SubmitJobsToDaemon() throws Exception {
+        File discoveryFile = new File(testOutputDirectory, "engine-daemon.json");
+        try (EngineDaemon daemon = EngineDaemon.using(this::constructNuixEngineUnchecked)
+                .withDiscoveryFile(discoveryFile)
+                .registerTask("typeCount", (utilities, arguments, output) -> {
+                    output.accept("Counting types for " + arguments.get("caller"));
+                    return utilities.getItemTypeUtility().getAllTypes().size();
+                })
+                .start()) {
+            assertTrue(discoveryFile.exists());
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                // Discovery file holds the token, so only the owner may read it
+                assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(discoveryFile.toPath())));
+            }
+
+            try (EngineDaemonClient client = EngineDaemonClient.connect(discoveryFile)) {
+                assertFalse(client.ping().isEmpty());
+
+                // Many small jobs against the same hot engine
+                for (int i = 0; i < 5; i++) {
+                    List<String> output = new ArrayList<>();
+                    EngineDaemonClient.JobResult result = client.runRubyScript(
+                            "puts \"Job #{$job}\"\n$utilities.getItemTypeUtility.getAllKinds.size",
+                            Map.of("$job", i), output::add);
+                    assertTrue(result.isSuccess(), result.getErrorMessage());
+                    assertTrue(String.join("", output).contains("Job " + i));
+                    assertTrue(result.getResult().getAsInt() > 0);
+                    log.info("Daemon job {} completed in {}ms", i, result.getElapsedMillis());
+                }
+
+                List<String> taskOutput = new ArrayList<>();
+                EngineDaemonClient.JobResult taskResult = client.runTask("typeCount", Map.of("caller", "test"), taskOutput::add);
+                assertTrue(taskResult.isSuccess());
+                assertTrue(taskResult.getResult().getAsInt() > 0);
+                assertEquals("Counting types for test", taskOutput.get(0));
+
+                EngineDaemonClient.JobResult failedResult = client.runRubyScript("raise 'expected failure'", null, null);
+                assertFalse(failedResult.isSuccess());
+
+                client.shutdownDaemon();
+            }
+            daemon.awaitShutdown();
+        }
+        assertFalse(discoveryFile.exists());
+    }
+
+    @Test
+    public void OversizedRequestIsRefusedBeforeTokenCheck() throws Exception {
+        try (EngineDaemon daemon = EngineDaemon.using(this::constructNuixEngineUnchecked)
+                .withDiscoveryFile(null)
+                .withMaxRequestLength(1024)
+                .start();
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort())) {
+            socket.setSoTimeout(10_000);
+            OutputStream output = socket.getOutputStream();
+            output.write("x".repeat(4096).getBytes(StandardCharsets.UTF_8));
+            output.flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String response = reader.readLine();
+            assertNotNull(response);
+            assertTrue(response.contains("Request exceeds 1024 characters"), response);
+            // Daemon closes the connection rather than waiting for the rest of the line
+            assertNull(reader.readLine());
+        }
+    }
+}
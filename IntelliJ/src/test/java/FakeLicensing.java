@@ -0,0 +1,376 @@
+import com.nuix.innovation.enginewrapper.LicenseResolver;
+import com.nuix.innovation.enginewrapper.NuixEngine;
+import nuix.Licence;
+import nuix.Utilities;
+import nuix.engine.AvailableLicence;
+import nuix.engine.Engine;
+import nuix.engine.LicenceSource;
+import nuix.engine.Licensor;
+import org.apache.logging.log4j.LogManager;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/***
+ * An in-process stand-in for Nuix licensing, so license resolution can be tested and benchmarked without a license
+ * or network.  Provides fake Engine, Licensor and AvailableLicence instances over a configurable inventory, with
+ * configurable query latency, failures and hangs.
+ */
+public class FakeLicensing {
+    /***
+     * Describes a license in the fake inventory.
+     */
+    public static class FakeLicense {
+        private final String shortName;
+        private int workers = 4;
+        private int count = 1;
+        private boolean canChooseWorkers = false;
+        private Set<String> features = Set.of();
+        private String sourceType = "dongle";
+        private String location = "local";
+        private final AtomicInteger callCount = new AtomicInteger(0);
+
+        public FakeLicense(String shortName) {
+            this.shortName = shortName;
+        }
+
+        public FakeLicense withWorkers(int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        public FakeLicense withCount(int count) {
+            this.count = count;
+            return this;
+        }
+
+        public FakeLicense withChoosableWorkers() {
+            this.canChooseWorkers = true;
+            return this;
+        }
+
+        public FakeLicense withFeatures(String... features) {
+            this.features = Set.of(features);
+            return this;
+        }
+
+        public FakeLicense fromSource(String sourceType, String location) {
+            this.sourceType = sourceType;
+            this.location = location;
+            return this;
+        }
+
+        /***
+         * @return Number of calls made to available licenses and license sources listed for this license, other than
+         * hashCode and equals
+         */
+        public int getCallCount() {
+            return callCount.get();
+        }
+
+        private void recordCall(String methodName) {
+            if (!methodName.equals("hashCode") && !methodName.equals("equals")) {
+                callCount.incrementAndGet();
+            }
+        }
+    }
+
+    private final List<FakeLicense> inventory = new CopyOnWriteArrayList<>();
+    private volatile Duration queryLatency = Duration.ZERO;
+    private volatile RuntimeException queryFailure = null;
+    private volatile String engineVersion = "9.10.0.0";
+    private volatile CountDownLatch hang = null;
+    private final Set<String> unreachableRegistryServers = new CopyOnWriteArraySet<>();
+    private final CountDownLatch unreachableRecovered = new CountDownLatch(1);
+    private final AtomicInteger queryCount = new AtomicInteger(0);
+    private final AtomicInteger acquireCount = new AtomicInteger(0);
+    private final AtomicReference<String> lastAcquired = new AtomicReference<>();
+    private final AtomicReference<String> lastQueriedRegistryServers = new AtomicReference<>();
+    private final AtomicInteger trustCallbackReplacementsDuringQueries = new AtomicInteger(0);
+
+    public FakeLicensing withLicense(FakeLicense license) {
+        inventory.add(license);
+        return this;
+    }
+
+    /***
+     * Adds many licenses to the inventory.
+     * @param count Number of licenses to add
+     * @param generator Creates the license for each index
+     * @return This instance for method call chaining
+     */
+    public FakeLicensing withLicenses(int count, IntFunction<FakeLicense> generator) {
+        List<FakeLicense> licenses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            licenses.add(generator.apply(i));
+        }
+        inventory.addAll(licenses);
+        return this;
+    }
+
+    /***
+     * @param engineVersion Version reported by fake engines created after this call
+     * @return This instance for method call chaining
+     */
+    public FakeLicensing withEngineVersion(String engineVersion) {
+        this.engineVersion = engineVersion;
+        return this;
+    }
+
+    /***
+     * @param queryLatency How long each licensor query takes, like a remote license server
+     * @return This instance for method call chaining
+     */
+    public FakeLicensing withQueryLatency(Duration queryLatency) {
+        this.queryLatency = queryLatency;
+        return this;
+    }
+
+    /***
+     * @param queryFailure Thrown by licensor queries, or null for queries to succeed
+     * @return This instance for method call chaining
+     */
+    public FakeLicensing withQueryFailure(RuntimeException queryFailure) {
+        this.queryFailure = queryFailure;
+        return this;
+    }
+
+    /***
+     * Makes licensor queries hang, like an unreachable license server, until {@link #recover()} is called.
+     * @return This instance for method call chaining
+     */
+    public FakeLicensing hang() {
+        this.hang = new CountDownLatch(1);
+        return this;
+    }
+
+    /***
+     * Makes licensor queries hang while "nuix.registry.servers" is set to the given value, like a single unreachable
+     * license server, until {@link #recover()} is called.  Queries to other servers are unaffected.
+     * @param registryServers Value of "nuix.registry.servers" for which queries hang
+     * @return This instance for method call chaining
+     */
+    public FakeLicensing withUnreachableRegistryServers(String registryServers) {
+        unreachableRegistryServers.add(registryServers);
+        return this;
+    }
+
+    /***
+     * Ends a hang, including of unreachable registry servers, and any query failure.
+     */
+    public void recover() {
+        CountDownLatch currentHang = hang;
+        hang = null;
+        queryFailure = null;
+        if (currentHang != null) {
+            currentHang.countDown();
+        }
+        unreachableRegistryServers.clear();
+        unreachableRecovered.countDown();
+    }
+
+    public int getQueryCount() {
+        return queryCount.get();
+    }
+
+    public int getAcquireCount() {
+        return acquireCount.get();
+    }
+
+    /***
+     * @return Short name of the last license acquired
+     */
+    public String getLastAcquired() {
+        return lastAcquired.get();
+    }
+
+    /***
+     * @return Value of "nuix.registry.servers" during the last licensor query
+     */
+    public String getLastQueriedRegistryServers() {
+        return lastQueriedRegistryServers.get();
+    }
+
+    /***
+     * @return Number of licensor queries during which the engine's certificate trust callback was replaced
+     */
+    public int getTrustCallbackReplacementsDuringQueries() {
+        return trustCallbackReplacementsDuringQueries.get();
+    }
+
+    /***
+     * Creates a fake Engine whose licensor lists this inventory.  Once a license has been acquired through it, the
+     * engine reports holding it.
+     * @return A fake Engine
+     */
+    public Engine newEngine() {
+        AtomicReference<Licence> heldLicence = new AtomicReference<>();
+        AtomicReference<Object> trustCallback = new AtomicReference<>();
+        String version = engineVersion;
+        Utilities utilities = (Utilities) Proxy.newProxyInstance(Utilities.class.getClassLoader(), new Class[]{Utilities.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getLicence" -> heldLicence.get();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+        Licensor licensor = (Licensor) Proxy.newProxyInstance(Licensor.class.getClassLoader(), new Class[]{Licensor.class},
+                (proxy, method, args) -> {
+                    queryCount.incrementAndGet();
+                    String registryServers = System.getProperty("nuix.registry.servers");
+                    lastQueriedRegistryServers.set(registryServers);
+                    Object queryTrustCallback = trustCallback.get();
+                    if (registryServers != null && unreachableRegistryServers.contains(registryServers)) {
+                        unreachableRecovered.await();
+                    }
+                    CountDownLatch currentHang = hang;
+                    if (currentHang != null) {
+                        currentHang.await();
+                    }
+                    if (!queryLatency.isZero()) {
+                        Thread.sleep(queryLatency.toMillis());
+                    }
+                    if (trustCallback.get() != queryTrustCallback) {
+                        trustCallbackReplacementsDuringQueries.incrementAndGet();
+                    }
+                    if (queryFailure != null) {
+                        throw queryFailure;
+                    }
+                    List<AvailableLicence> available = new ArrayList<>(inventory.size());
+                    for (FakeLicense license : inventory) {
+                        available.add(newAvailableLicence(license, heldLicence));
+                    }
+                    return method.getName().equals("findAvailableLicencesStream") ? available.stream() : available;
+                });
+        return (Engine) Proxy.newProxyInstance(Engine.class.getClassLoader(), new Class[]{Engine.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getLicensor" -> licensor;
+                    case "getLicence" -> heldLicence.get();
+                    case "getUtilities" -> utilities;
+                    case "getVersion" -> version;
+                    case "whenAskedForCertificateTrust" -> {
+                        trustCallback.set(args[0]);
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    private AvailableLicence newAvailableLicence(FakeLicense license, AtomicReference<Licence> heldLicence) {
+        LicenceSource source = (LicenceSource) Proxy.newProxyInstance(LicenceSource.class.getClassLoader(),
+                new Class[]{LicenceSource.class}, (proxy, method, args) -> {
+                    license.recordCall(method.getName());
+                    return switch (method.getName()) {
+                        case "getType" -> license.sourceType;
+                        case "getLocation" -> license.location;
+                        default -> null;
+                    };
+                });
+        return (AvailableLicence) Proxy.newProxyInstance(AvailableLicence.class.getClassLoader(),
+                new Class[]{AvailableLicence.class}, (proxy, method, args) -> {
+                    license.recordCall(method.getName());
+                    return switch (method.getName()) {
+                        case "getShortName", "getDescription" -> license.shortName;
+                        case "getWorkers" -> license.workers;
+                        case "getCount" -> license.count;
+                        case "getSource" -> source;
+                        case "canChooseWorkers" -> license.canChooseWorkers;
+                        case "getAllEnabledFeatures" -> license.features;
+                        case "hasFeature" -> license.features.contains((String) args[0]);
+                        case "acquire" -> {
+                            Integer workerCount = args != null && args.length > 0 ? (Integer) ((Map<?, ?>) args[0]).get("workerCount") : null;
+                            heldLicence.set(newLicence(license, workerCount == null ? license.workers : workerCount));
+                            acquireCount.incrementAndGet();
+                            lastAcquired.set(license.shortName);
+                            yield null;
+                        }
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    };
+                });
+    }
+
+    private Licence newLicence(FakeLicense license, int workers) {
+        return (Licence) Proxy.newProxyInstance(Licence.class.getClassLoader(), new Class[]{Licence.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getShortName", "getDescription" -> license.shortName;
+                    case "getWorkers" -> workers;
+                    case "getAllEnabledFeatures" -> license.features;
+                    case "hasFeature" -> license.features.contains((String) args[0]);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    /***
+     * Creates a NuixEngine over a fake Engine of this inventory, so its license resolution can be exercised without
+     * starting a real engine.
+     * @param resolvers The license resolvers of the engine
+     * @return A NuixEngine whose license can be obtained through {@link FakeNuixEngine#obtainLicense()}
+     */
+    public FakeNuixEngine newNuixEngine(LicenseResolver... resolvers) {
+        return new FakeNuixEngine(newEngine(), List.of(resolvers));
+    }
+
+    /***
+     * A NuixEngine wrapping a fake Engine.
+     */
+    public static class FakeNuixEngine extends NuixEngine {
+        private FakeNuixEngine(Engine fakeEngine, List<LicenseResolver> resolvers) {
+            log = LogManager.getLogger(FakeNuixEngine.class);
+            engine = fakeEngine;
+            nuixLicenseResolvers = resolvers;
+        }
+
+        /***
+         * @return The fake Engine wrapped by this instance
+         */
+        public Engine getFakeEngine() {
+            return engine;
+        }
+
+        /***
+         * Makes this instance query its resolvers at the same time, as
+         * {@link NuixEngine#usingBestRacedLicense(LicenseResolver...)} does.
+         * @return This instance for method call chaining
+         */
+        public FakeNuixEngine racing() {
+            raceLicenseResolvers = true;
+            return this;
+        }
+
+        /***
+         * Obtains a license through the resolvers, waiting according to the license wait policy if one has been set,
+         * as {@link NuixEngine#getUtilities()} does once the engine is built.
+         * @return True if a license was obtained
+         * @throws Exception If a resolver throws an exception
+         */
+        @Override
+        public boolean obtainLicense() throws Exception {
+            boolean obtained = super.obtainLicense();
+            if (obtained) {
+                utilities = engine.getUtilities();
+            }
+            return obtained;
+        }
+
+        @Override
+        public Utilities getUtilities() {
+            return utilities;
+        }
+    }
+}
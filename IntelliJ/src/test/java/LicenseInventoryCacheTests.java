@@ -0,0 +1,86 @@
+import com.nuix.innovation.enginewrapper.LicenseInventoryCache;
+import com.nuix.innovation.enginewrapper.NuixLicenseResolver;
+import nuix.engine.AvailableLicence;
+import nuix.engine.Engine;
+import nuix.engine.Licensor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LicenseInventoryCacheTests {
+    @Test
+    public void ClosingEngineRemovesItsInventories() throws Exception {
+        FakeLicensing licensing = new FakeLicensing()
+                .withLicense(new FakeLicensing.FakeLicense("enterprise-workstation").fromSource("server", "nms.example.com"));
+        LicenseInventoryCache inventoryCache = new LicenseInventoryCache().setTtl(Duration.ofMinutes(5));
+        NuixLicenseResolver resolver = NuixLicenseResolver.fromServer("nms.example.com").withInventoryCache(inventoryCache);
+
+        FakeLicensing.FakeNuixEngine nuixEngine = licensing.newNuixEngine(resolver);
+        assertTrue(nuixEngine.obtainLicense());
+        Licensor licensor = nuixEngine.getFakeEngine().getLicensor();
+        assertTrue(inventoryCache.peekInventory(resolver.getSourceKey(), licensor).isPresent());
+
+        nuixEngine.close();
+        assertTrue(inventoryCache.peekInventory(resolver.getSourceKey(), licensor).isEmpty());
+    }
+
+    @Test
+    public void EnginesOnlyReuseInventoriesTheyLoaded() throws Exception {
+        FakeLicensing licensing = new FakeLicensing();
+        NuixLicenseResolver resolver = NuixLicenseResolver.fromServer("nms.example.com")
+                .withInventoryCache(new LicenseInventoryCache().setTtl(Duration.ofMinutes(5)));
+
+        // The same engine is answered from its cached inventory, even when nothing in it meets criteria
+        Engine firstEngine = licensing.newEngine();
+        assertFalse(resolver.resolveLicense(firstEngine));
+        assertFalse(resolver.resolveLicense(firstEngine));
+        assertEquals(1, licensing.getQueryCount());
+
+        // Another engine does not rely on an inventory it did not load, and sees a newly freed seat
+        licensing.withLicense(new FakeLicensing.FakeLicense("enterprise-workstation").fromSource("server", "nms.example.com"));
+        assertTrue(resolver.resolveLicense(licensing.newEngine()));
+        assertEquals(2, licensing.getQueryCount());
+    }
+
+    @Test
+    public void LoaderErrorReleasesWaitingRequests() throws Exception {
+        LicenseInventoryCache inventoryCache = new LicenseInventoryCache();
+        LicenseInventoryCache.SourceKey sourceKey = NuixLicenseResolver.fromServer("nms.example.com").getSourceKey();
+        Licensor licensor = new FakeLicensing().newEngine().getLicensor();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<AvailableLicence>> loader = executor.submit(() -> inventoryCache.getInventory(sourceKey, licensor, () -> {
+                loading.countDown();
+                fail.await();
+                throw new OutOfMemoryError("Simulated");
+            }));
+            assertTrue(loading.await(30, TimeUnit.SECONDS));
+            Future<List<AvailableLicence>> waiter = executor.submit(() -> inventoryCache.getInventory(sourceKey, licensor, List::of));
+
+            // Give the second request time to join the in-flight load before it fails
+            Thread.sleep(200);
+            fail.countDown();
+
+            Exception loaderFailure = assertThrows(Exception.class, () -> loader.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(OutOfMemoryError.class, loaderFailure.getCause());
+            Exception waiterFailure = assertThrows(Exception.class, () -> waiter.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(OutOfMemoryError.class, waiterFailure.getCause());
+
+            // Nothing is left in flight, so the next request loads again
+            assertEquals(List.of(), inventoryCache.getInventory(sourceKey, licensor, List::of));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import com.nuix.innovation.enginewrapper.LicenseLeaseWatchdog;
+import com.nuix.innovation.enginewrapper.NuixEngine;
+import nuix.Licence;
+import nuix.Utilities;
+import nuix.engine.Engine;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LicenseLeaseWatchdogTests {
+    /***
+     * Stands in for a licensed engine whose license server can go away and come back.
+     */
+    private static class FakeLeasedEngine extends NuixEngine {
+        private final AtomicBoolean leaseHeld = new AtomicBoolean(true);
+        private final AtomicInteger failingReacquireAttempts = new AtomicInteger(0);
+        private final AtomicInteger reacquireAttempts = new AtomicInteger(0);
+
+        private FakeLeasedEngine() {
+            log = LogManager.getLogger(FakeLeasedEngine.class);
+            Licence licence = (Licence) Proxy.newProxyInstance(Licence.class.getClassLoader(), new Class[]{Licence.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getWorkers" -> 4;
+                        case "getAllEnabledFeatures" -> Set.of();
+                        default -> "fake";
+                    });
+            Utilities fakeUtilities = (Utilities) Proxy.newProxyInstance(Utilities.class.getClassLoader(), new Class[]{Utilities.class},
+                    (proxy, method, args) -> method.getName().equals("getLicence") ? licence : null);
+            engine = (Engine) Proxy.newProxyInstance(Engine.class.getClassLoader(), new Class[]{Engine.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getLicence" -> leaseHeld.get() ? licence : null;
+                        case "getUtilities" -> fakeUtilities;
+                        default -> null;
+                    });
+            utilities = fakeUtilities;
+            nuixLicenseResolvers = List.of(engine -> {
+                reacquireAttempts.incrementAndGet();
+                if (failingReacquireAttempts.getAndDecrement() > 0) {
+                    throw new IllegalStateException("License server unreachable");
+                }
+                leaseHeld.set(true);
+                return true;
+            });
+        }
+
+        @Override
+        public Utilities getUtilities() {
+            return utilities;
+        }
+    }
+
+    @Test
+    public void ReacquiresLostLeaseAfterOutage() throws Exception {
+        BlockingQueue<LicenseLeaseWatchdog.LeaseEvent> events = new LinkedBlockingQueue<>();
+        FakeLeasedEngine nuixEngine = new FakeLeasedEngine();
+        nuixEngine.setLicenseLeaseWatchdog(LicenseLeaseWatchdog.create()
+                .withCheckInterval(Duration.ofMillis(20))
+                .withReacquireInterval(Duration.ofMillis(20))
+                .withFailureThreshold(2)
+                .addListener(events::add));
+        nuixEngine.getLicenseLeaseWatchdog().start(nuixEngine);
+        assertEquals(LicenseLeaseWatchdog.LeaseState.HELD, nuixEngine.getLicenseLeaseWatchdog().getState());
+
+        // Brief outage, recovers by itself before the lease is considered lost
+        nuixEngine.leaseHeld.set(false);
+        assertEquals(LicenseLeaseWatchdog.LeaseEventType.CHECK_FAILED, events.poll(5, TimeUnit.SECONDS).getType());
+        nuixEngine.leaseHeld.set(true);
+        assertEquals(LicenseLeaseWatchdog.LeaseEventType.LEASE_RESTORED, events.poll(5, TimeUnit.SECONDS).getType());
+        assertEquals(0, nuixEngine.reacquireAttempts.get());
+
+        // Longer outage, license server is unreachable for the first 2 reacquire attempts
+        nuixEngine.failingReacquireAttempts.set(2);
+        nuixEngine.leaseHeld.set(false);
+        assertEquals(LicenseLeaseWatchdog.LeaseEventType.CHECK_FAILED, events.poll(5, TimeUnit.SECONDS).getType());
+        assertEquals(LicenseLeaseWatchdog.LeaseEventType.LEASE_LOST, events.poll(5, TimeUnit.SECONDS).getType());
+        assertEquals(LicenseLeaseWatchdog.LeaseEventType.REACQUIRE_FAILED, events.poll(5, TimeUnit.SECONDS).getType());
+        assertEquals(LicenseLeaseWatchdog.LeaseEventType.REACQUIRE_FAILED, events.poll(5, TimeUnit.SECONDS).getType());
+        assertEquals(LicenseLeaseWatchdog.LeaseEventType.REACQUIRED, events.poll(5, TimeUnit.SECONDS).getType());
+        assertEquals(3, nuixEngine.reacquireAttempts.get());
+        assertEquals(1, nuixEngine.getLicenseLeaseWatchdog().getReacquiredCount());
+        assertTrue(nuixEngine.isLicensed());
+
+        nuixEngine.getLicenseLeaseWatchdog().close();
+        assertEquals(LicenseLeaseWatchdog.LeaseState.NOT_WATCHING, nuixEngine.getLicenseLeaseWatchdog().getState());
+    }
+
+    @Test
+    public void GivesUpAfterMaxReacquireAttempts() throws Exception {
+        BlockingQueue<LicenseLeaseWatchdog.LeaseEvent> events = new LinkedBlockingQueue<>();
+        FakeLeasedEngine nuixEngine = new FakeLeasedEngine();
+        nuixEngine.failingReacquireAttempts.set(Integer.MAX_VALUE);
+        nuixEngine.setLicenseLeaseWatchdog(LicenseLeaseWatchdog.create()
+                .withCheckInterval(Duration.ofMillis(20))
+                .withReacquireInterval(Duration.ofMillis(20))
+                .withFailureThreshold(1)
+                .withMaxReacquireAttempts(3)
+                .addListener(events::add));
+        nuixEngine.getLicenseLeaseWatchdog().start(nuixEngine);
+        nuixEngine.leaseHeld.set(false);
+
+        LicenseLeaseWatchdog.LeaseEvent event;
+        do {
+            event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event);
+        } while (event.getType() != LicenseLeaseWatchdog.LeaseEventType.REACQUIRE_ABANDONED);
+        assertEquals(3, nuixEngine.reacquireAttempts.get());
+        assertEquals(LicenseLeaseWatchdog.LeaseState.LOST, nuixEngine.getLicenseLeaseWatchdog().getState());
+        nuixEngine.getLicenseLeaseWatchdog().close();
+    }
+}
@@ -0,0 +1,124 @@
+import com.nuix.innovation.enginewrapper.NuixLicenseResolver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/***
+ * Benchmarks license resolution against {@link FakeLicensing}, so it can be measured without a license or network.
+ */
+public class LicenseResolutionBenchmarkTests {
+    private static final Logger log = LogManager.getLogger(LicenseResolutionBenchmarkTests.class);
+
+    /***
+     * An inventory of the given size in which only the last license has the feature resolvers require.
+     */
+    private FakeLicensing inventoryOf(int size) {
+        return new FakeLicensing().withLicenses(size, i -> new FakeLicensing.FakeLicense(i == size - 1 ? "target" : "license" + i)
+                .withWorkers(2 + (i % 8))
+                .withFeatures(i == size - 1 ? new String[]{"CASE_CREATION", "SCRIPTING"} : new String[]{"CASE_CREATION"})
+                .fromSource("server", "nms" + (i % 3)));
+    }
+
+    private static long percentile(List<Long> sortedNanos, double percentile) {
+        return sortedNanos.get((int) Math.min(sortedNanos.size() - 1, Math.round(percentile * (sortedNanos.size() - 1))));
+    }
+
+    @Test
+    public void ResolutionLatencyByInventorySize() throws Exception {
+        StringBuilder results = new StringBuilder("License resolution latency by inventory size:");
+        for (int size : new int[]{1, 10, 100, 1_000, 10_000}) {
+            FakeLicensing licensing = inventoryOf(size);
+            NuixLicenseResolver resolver = NuixLicenseResolver.fromServer("nms.example.com").withRequiredFeatures("SCRIPTING");
+
+            List<Long> nanos = new ArrayList<>();
+            for (int run = 0; run < 7; run++) {
+                long started = System.nanoTime();
+                assertTrue(resolver.resolveLicense(licensing.newEngine()));
+                if (run >= 2) {
+                    nanos.add(System.nanoTime() - started);
+                }
+                assertEquals("target", licensing.getLastAcquired());
+            }
+            Collections.sort(nanos);
+            results.append(String.format("%n  %,7d licenses: p50 %.3fms, max %.3fms", size,
+                    percentile(nanos, 0.5) / 1_000_000.0, percentile(nanos, 1.0) / 1_000_000.0));
+        }
+        log.info(results.toString());
+    }
+
+    @Test
+    public void ConcurrentEnginesAgainstSlowSource() throws Exception {
+        int engineCount = 32;
+        int threadCount = 8;
+        FakeLicensing licensing = inventoryOf(1_000).withQueryLatency(Duration.ofMillis(50));
+        NuixLicenseResolver resolver = NuixLicenseResolver.fromDongle().withRequiredFeatures("SCRIPTING");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            // Hold every query until one is in flight on each thread, which is only reached if engines query the
+            // source at the same time rather than one round trip after another
+            licensing.hang();
+            long started = System.nanoTime();
+            List<Future<Long>> resolutions = new ArrayList<>();
+            for (int i = 0; i < engineCount; i++) {
+                resolutions.add(executor.submit(() -> {
+                    long engineStarted = System.nanoTime();
+                    FakeLicensing.FakeNuixEngine nuixEngine = licensing.newNuixEngine(resolver);
+                    assertTrue(nuixEngine.obtainLicense());
+                    assertTrue(nuixEngine.isLicensed());
+                    return System.nanoTime() - engineStarted;
+                }));
+            }
+            for (int waits = 0; licensing.getQueryCount() < threadCount && waits < 1_000; waits++) {
+                Thread.sleep(10);
+            }
+            assertEquals(threadCount, licensing.getQueryCount());
+            licensing.recover();
+
+            List<Long> nanos = new ArrayList<>();
+            for (Future<Long> resolution : resolutions) {
+                nanos.add(resolution.get());
+            }
+            double elapsedSeconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            Collections.sort(nanos);
+
+            log.info(String.format("%s engines resolving from a 50ms source with 1,000 licenses: %.1f resolutions/sec, p50 %.1fms, p95 %.1fms",
+                    engineCount, engineCount / elapsedSeconds, percentile(nanos, 0.5) / 1_000_000.0, percentile(nanos, 0.95) / 1_000_000.0));
+            assertEquals(engineCount, licensing.getAcquireCount());
+            assertEquals(engineCount, licensing.getQueryCount());
+        } finally {
+            licensing.recover();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void FailingSourceFailsOverToNextResolver() throws Exception {
+        FakeLicensing licensing = inventoryOf(100).withUnreachableRegistryServers("nms-down.example.com:27443");
+        NuixLicenseResolver failingResolver = NuixLicenseResolver.fromServer("nms-down.example.com")
+                .withSourceTimeout(Duration.ofMillis(200));
+        NuixLicenseResolver healthyResolver = NuixLicenseResolver.fromServer("nms.example.com");
+        try {
+            FakeLicensing.FakeNuixEngine nuixEngine = licensing.newNuixEngine(failingResolver, healthyResolver);
+            assertTrue(nuixEngine.obtainLicense());
+
+            // The unreachable server was tried first, the license was acquired from the healthy one
+            assertEquals(2, licensing.getQueryCount());
+            assertEquals(1, licensing.getAcquireCount());
+            assertEquals("nms.example.com:27443", licensing.getLastQueriedRegistryServers());
+            nuixEngine.close();
+        } finally {
+            licensing.recover();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import com.nuix.innovation.enginewrapper.NuixLicenseResolver;
+import com.nuix.innovation.enginewrapper.WorkerCountPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LicenseSelectionTests {
+    @Test
+    public void RequiredFeaturesFilterAndClosestFitWins() throws Exception {
+        FakeLicensing licensing = new FakeLicensing()
+                .withLicense(new FakeLicensing.FakeLicense("oversized").withWorkers(16)
+                        .withFeatures("CASE_CREATION", "EXPORT_ITEMS", "OCR_PROCESSING"))
+                .withLicense(new FakeLicensing.FakeLicense("missing-feature").withWorkers(4)
+                        .withFeatures("EXPORT_ITEMS"))
+                .withLicense(new FakeLicensing.FakeLicense("closest-fit").withWorkers(4)
+                        .withFeatures("CASE_CREATION", "EXPORT_ITEMS"))
+                .withLicense(new FakeLicensing.FakeLicense("extra-features").withWorkers(4)
+                        .withFeatures("CASE_CREATION", "EXPORT_ITEMS", "OCR_PROCESSING", "SCRIPTING"));
+
+        NuixLicenseResolver resolver = NuixLicenseResolver.fromDongle()
+                .withMinWorkerCount(4)
+                .withRequiredFeatures("case_creation", "EXPORT_ITEMS");
+        assertTrue(resolver.resolveLicense(licensing.newEngine()));
+        assertEquals("closest-fit", licensing.getLastAcquired());
+
+        // Nothing meets criteria
+        NuixLicenseResolver unmetResolver = NuixLicenseResolver.fromDongle().withRequiredFeatures("GRAPH");
+        assertFalse(unmetResolver.resolveLicense(licensing.newEngine()));
+        assertEquals(1, licensing.getAcquireCount());
+    }
+
+    @Test
+    public void CustomScorerDecides() throws Exception {
+        FakeLicensing licensing = new FakeLicensing()
+                .withLicense(new FakeLicensing.FakeLicense("small").withWorkers(2).withFeatures("CASE_CREATION"))
+                .withLicense(new FakeLicensing.FakeLicense("large").withWorkers(32).withFeatures("CASE_CREATION"));
+        NuixLicenseResolver resolver = NuixLicenseResolver.fromDongle()
+                .withRequiredFeatures("CASE_CREATION")
+                .withLicenseScorer(candidate -> candidate.getWorkers());
+        assertTrue(resolver.resolveLicense(licensing.newEngine()));
+        assertEquals("large", licensing.getLastAcquired());
+    }
+
+    @Test
+    public void WorkerCountDecisionBelongsToEachEngine() throws Exception {
+        // Decides as a large host would, slowly enough that engines sharing the resolver overlap
+        WorkerCountPolicy slowPolicy = new WorkerCountPolicy() {
+            @Override
+            public Decision decide(int minWorkers, Integer licenseWorkers) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                }
+                return decide(64, 1024 * 1024, minWorkers, licenseWorkers);
+            }
+        }.withWorkerMemoryMb(1);
+        NuixLicenseResolver sharedResolver = NuixLicenseResolver.fromDongle().withWorkerCountPolicy(slowPolicy);
+
+        FakeLicensing twoWorkers = new FakeLicensing().withLicense(new FakeLicensing.FakeLicense("two").withWorkers(2));
+        FakeLicensing sixWorkers = new FakeLicensing().withLicense(new FakeLicensing.FakeLicense("six").withWorkers(6));
+
+        List<CompletableFuture<Void>> starts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int licenseWorkers = i % 2 == 0 ? 2 : 6;
+            FakeLicensing.FakeNuixEngine engine = (i % 2 == 0 ? twoWorkers : sixWorkers).newNuixEngine(sharedResolver);
+            starts.add(CompletableFuture.runAsync(() -> {
+                try {
+                    assertTrue(engine.obtainLicense());
+                } catch (Exception exc) {
+                    throw new RuntimeException(exc);
+                }
+                assertEquals(licenseWorkers, engine.getWorkerCountDecision().getWorkerCount());
+            }));
+        }
+        CompletableFuture.allOf(starts.toArray(new CompletableFuture[0])).get(1, TimeUnit.MINUTES);
+    }
+
+    @Test
+    public void RacedLookupsDoNotReplaceEachOthersCallbacks() throws Exception {
+        FakeLicensing licensing = new FakeLicensing()
+                .withQueryLatency(Duration.ofMillis(200))
+                .withLicense(new FakeLicensing.FakeLicense("enterprise-workstation"));
+        NuixLicenseResolver strictServer = NuixLicenseResolver.fromServer("nms.example.com")
+                .withCertificateTrustCallback(info -> info.setTrusted(false));
+        NuixLicenseResolver anySource = NuixLicenseResolver.fromAnySource();
+
+        FakeLicensing.FakeNuixEngine nuixEngine = licensing.newNuixEngine(strictServer, anySource).racing();
+        assertTrue(nuixEngine.obtainLicense());
+        assertEquals(2, licensing.getQueryCount());
+        assertEquals(0, licensing.getTrustCallbackReplacementsDuringQueries());
+        nuixEngine.close();
+    }
+}
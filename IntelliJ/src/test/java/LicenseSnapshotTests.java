@@ -0,0 +1,49 @@
+import com.nuix.innovation.enginewrapper.LicenseFeature;
+import com.nuix.innovation.enginewrapper.LicenseFeatureMask;
+import com.nuix.innovation.enginewrapper.LicenseSnapshot;
+import nuix.engine.AvailableLicence;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LicenseSnapshotTests {
+    @Test
+    public void SnapshotReadsLicenseOnceAndRendersSummaryOnce() {
+        FakeLicensing.FakeLicense license = new FakeLicensing.FakeLicense("enterprise-workstation")
+                .withCount(3)
+                .withChoosableWorkers()
+                .withFeatures("SCRIPTING", "CASE_CREATION", "SOMETHING_NEW")
+                .fromSource("server", "nms1:27443");
+        AvailableLicence availableLicence = new FakeLicensing().withLicense(license).newEngine().getLicensor()
+                .findAvailableLicencesStream(Map.of()).findFirst().orElseThrow();
+        LicenseSnapshot snapshot = LicenseSnapshot.of(availableLicence);
+        int callsToSnapshot = license.getCallCount();
+        assertTrue(callsToSnapshot > 0);
+
+        assertEquals("enterprise-workstation", snapshot.getShortName());
+        assertEquals(3, snapshot.getCount());
+        assertTrue(snapshot.canChooseWorkers());
+        assertEquals(EnumSet.of(LicenseFeature.SCRIPTING, LicenseFeature.CASE_CREATION), snapshot.getFeatures());
+        assertTrue(snapshot.hasFeature("scripting"));
+        assertTrue(snapshot.hasFeature("SOMETHING_NEW"));
+        assertFalse(snapshot.hasFeature("OCR_PROCESSING"));
+
+        String summary = snapshot.getSummary();
+        assertSame(summary, snapshot.toString());
+        assertTrue(summary.contains("ShortName=enterprise-workstation"));
+        assertTrue(summary.contains("Location=nms1:27443"));
+        assertEquals(callsToSnapshot, license.getCallCount(), "Snapshot should not read the license again");
+    }
+
+    @Test
+    public void FeatureMaskBitsAreEnumOrdinals() {
+        long mask = LicenseFeatureMask.of(List.of("scripting", "OCR_PROCESSING", "NOT_A_FEATURE"));
+        assertEquals((1L << LicenseFeature.SCRIPTING.ordinal()) | (1L << LicenseFeature.OCR_PROCESSING.ordinal()), mask);
+        assertEquals(EnumSet.of(LicenseFeature.SCRIPTING, LicenseFeature.OCR_PROCESSING), LicenseFeatureMask.toFeatureSet(mask));
+        assertEquals(List.of("NOT_A_FEATURE"), LicenseFeatureMask.unknownFeatures(List.of("scripting", "NOT_A_FEATURE")));
+    }
+}
@@ -0,0 +1,79 @@
+import com.nuix.innovation.enginewrapper.LicenseInventoryCache;
+import com.nuix.innovation.enginewrapper.LicenseSourceCircuitBreaker;
+import com.nuix.innovation.enginewrapper.NuixLicenseResolver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LicenseSourceCircuitBreakerTests {
+    @Test
+    public void DeadSourceIsSkippedUntilCoolDownElapses() throws Exception {
+        // Licensor hangs, like one trying to reach an unreachable NMS
+        FakeLicensing licensing = new FakeLicensing().hang();
+        LicenseSourceCircuitBreaker circuitBreaker = new LicenseSourceCircuitBreaker().setCoolDown(Duration.ofMillis(500));
+        NuixLicenseResolver resolver = NuixLicenseResolver.fromServer("nms.example.com")
+                .withSourceTimeout(Duration.ofMillis(200))
+                .withCircuitBreaker(circuitBreaker);
+
+        // First attempt waits for the timeout, then fails over
+        long started = System.nanoTime();
+        assertFalse(licensing.newNuixEngine(resolver).obtainLicense());
+        long firstMillis = (System.nanoTime() - started) / 1_000_000;
+        assertTrue(firstMillis >= 200 && firstMillis < 5_000, "First attempt took " + firstMillis + "ms");
+        assertEquals(LicenseSourceCircuitBreaker.CircuitState.OPEN,
+                circuitBreaker.getHealth(resolver.getSourceKey()).getState());
+
+        // Bulk startup during the outage, other engines skip the dead source without querying it
+        started = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            assertFalse(licensing.newNuixEngine(resolver).obtainLicense());
+        }
+        long bulkMillis = (System.nanoTime() - started) / 1_000_000;
+        assertTrue(bulkMillis < 200, "100 attempts took " + bulkMillis + "ms");
+        assertEquals(1, licensing.getQueryCount());
+        LicenseSourceCircuitBreaker.SourceHealth health = circuitBreaker.getHealth().get(resolver.getSourceKey().toString());
+        assertEquals(100, health.getRefusedRequests());
+        assertEquals(1, health.getConsecutiveFailures());
+
+        // Once the server is back and the cool-down has elapsed, a trial request closes the circuit
+        licensing.recover();
+        licensing.withLicense(new FakeLicensing.FakeLicense("enterprise-workstation").fromSource("server", "nms.example.com"));
+        Thread.sleep(600);
+        FakeLicensing.FakeNuixEngine nuixEngine = licensing.newNuixEngine(resolver);
+        assertTrue(nuixEngine.obtainLicense());
+        assertTrue(nuixEngine.isLicensed());
+        assertEquals(2, licensing.getQueryCount());
+        assertEquals(LicenseSourceCircuitBreaker.CircuitState.CLOSED,
+                circuitBreaker.getHealth(resolver.getSourceKey()).getState());
+    }
+
+    @Test
+    public void CachedInventoryDoesNotStrandTrialRequest() throws Exception {
+        FakeLicensing licensing = new FakeLicensing()
+                .withLicense(new FakeLicensing.FakeLicense("enterprise-workstation").fromSource("server", "nms.example.com"));
+        LicenseSourceCircuitBreaker circuitBreaker = new LicenseSourceCircuitBreaker().setCoolDown(Duration.ofMillis(200));
+        NuixLicenseResolver resolver = NuixLicenseResolver.fromServer("nms.example.com")
+                .withInventoryCache(new LicenseInventoryCache().setTtl(Duration.ofMinutes(5)))
+                .withCircuitBreaker(circuitBreaker);
+
+        FakeLicensing.FakeNuixEngine nuixEngine = licensing.newNuixEngine(resolver);
+        assertTrue(nuixEngine.obtainLicense());
+        assertEquals(1, licensing.getQueryCount());
+
+        // Source fails for someone else, then its cool-down elapses while this engine's inventory is still cached
+        circuitBreaker.recordFailure(resolver.getSourceKey(), Duration.ZERO, new RuntimeException("NMS unreachable"));
+        Thread.sleep(300);
+        assertTrue(nuixEngine.obtainLicense());
+        assertEquals(1, licensing.getQueryCount());
+        assertNotEquals(LicenseSourceCircuitBreaker.CircuitState.HALF_OPEN,
+                circuitBreaker.getHealth(resolver.getSourceKey()).getState());
+
+        // Another engine actually queries the source, which is the trial request that closes the circuit
+        assertTrue(licensing.newNuixEngine(resolver).obtainLicense());
+        assertEquals(2, licensing.getQueryCount());
+        assertEquals(LicenseSourceCircuitBreaker.CircuitState.CLOSED,
+                circuitBreaker.getHealth(resolver.getSourceKey()).getState());
+    }
+}
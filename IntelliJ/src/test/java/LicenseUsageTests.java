@@ -0,0 +1,101 @@
+import com.google.gson.JsonObject;
+import com.nuix.innovation.enginewrapper.LicenseUsage;
+import com.nuix.innovation.enginewrapper.LicenseUsageJournal;
+import com.nuix.innovation.enginewrapper.LicenseUsageMetrics;
+import com.nuix.innovation.enginewrapper.NuixLicenseResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LicenseUsageTests {
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void RecordsLicenseHoldFromAcquisitionToClose() throws Exception {
+        FakeLicensing licensing = new FakeLicensing()
+                .withLicense(new FakeLicensing.FakeLicense("enterprise-workstation").withWorkers(8).fromSource("server", "nms1:27443"));
+        LicenseUsageJournal journal = new LicenseUsageJournal(new File(tempDir, "usage/license-usage.jsonl"));
+        LicenseUsageMetrics metrics = LicenseUsageMetrics.getShared();
+        long acquisitionsBefore = metrics.getAcquisitions();
+        long releasesBefore = metrics.getReleases();
+        long heldBefore = metrics.getLicensesHeld();
+
+        FakeLicensing.FakeNuixEngine nuixEngine = licensing.newNuixEngine(NuixLicenseResolver.fromServer("nms1"));
+        nuixEngine.setLicenseUsageJournal(journal);
+        assertTrue(nuixEngine.obtainLicense());
+
+        LicenseUsage usage = nuixEngine.getLicenseUsage();
+        assertEquals("enterprise-workstation", usage.getShortName());
+        assertEquals(8, usage.getWorkers());
+        assertEquals("server", usage.getSourceType());
+        assertEquals("nms1:27443", usage.getSourceLocation());
+        assertTrue(usage.isHeld());
+        assertEquals(acquisitionsBefore + 1, metrics.getAcquisitions());
+        assertEquals(heldBefore + 1, metrics.getLicensesHeld());
+
+        Thread.sleep(20);
+        nuixEngine.close();
+        nuixEngine.close();
+
+        assertFalse(usage.isHeld());
+        assertEquals("closed", usage.getReleaseReason());
+        assertTrue(usage.getHeldDuration().toMillis() >= 20);
+        assertEquals(releasesBefore + 1, metrics.getReleases());
+        assertEquals(heldBefore, metrics.getLicensesHeld());
+
+        List<JsonObject> entries = journal.readEntries();
+        assertEquals(2, entries.size());
+        assertEquals("acquired", entries.get(0).get("event").getAsString());
+        assertEquals("released", entries.get(1).get("event").getAsString());
+        assertEquals(8, entries.get(1).get("workers").getAsInt());
+        assertTrue(entries.get(1).get("heldMillis").getAsLong() >= 20);
+    }
+
+    @Test
+    public void SharedResolverAttributesEachEngineItsOwnSource() throws Exception {
+        NuixLicenseResolver sharedResolver = NuixLicenseResolver.fromDongle();
+        FakeLicensing first = new FakeLicensing()
+                .withLicense(new FakeLicensing.FakeLicense("first").withWorkers(2).fromSource("dongle", "first-dongle"));
+        FakeLicensing second = new FakeLicensing()
+                .withLicense(new FakeLicensing.FakeLicense("second").withWorkers(4).fromSource("dongle", "second-dongle"));
+
+        List<CompletableFuture<Void>> starts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            FakeLicensing licensing = i % 2 == 0 ? first : second;
+            String expectedLocation = i % 2 == 0 ? "first-dongle" : "second-dongle";
+            FakeLicensing.FakeNuixEngine nuixEngine = licensing.newNuixEngine(sharedResolver);
+            starts.add(CompletableFuture.runAsync(() -> {
+                try {
+                    assertTrue(nuixEngine.obtainLicense());
+                    assertEquals(expectedLocation, nuixEngine.getLicenseUsage().getSourceLocation());
+                    nuixEngine.close();
+                } catch (Exception exc) {
+                    throw new RuntimeException(exc);
+                }
+            }));
+        }
+        CompletableFuture.allOf(starts.toArray(new CompletableFuture[0])).get(1, TimeUnit.MINUTES);
+    }
+
+    @Test
+    public void HistogramEstimatesPercentiles() {
+        LicenseUsageMetrics.Histogram histogram = new LicenseUsageMetrics.Histogram(1, 2, 20);
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMean(), 0.001);
+        assertEquals(100.0, histogram.getMax());
+        // Percentiles are reported as the upper bound of the bucket containing them
+        assertEquals(64.0, histogram.getPercentile(0.5));
+        assertEquals(100.0, histogram.getPercentile(0.99));
+    }
+}
@@ -0,0 +1,112 @@
+import com.nuix.innovation.enginewrapper.LicenseInventoryCache;
+import com.nuix.innovation.enginewrapper.LicenseWaitPolicy;
+import com.nuix.innovation.enginewrapper.LicenseWaitQueue;
+import com.nuix.innovation.enginewrapper.NuixLicenseResolver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LicenseWaitTests {
+    @Test
+    public void BackoffGrowsWithJitterUpToMaxDelay() {
+        LicenseWaitPolicy policy = LicenseWaitPolicy.waitUpTo(Duration.ofMinutes(5))
+                .withInitialDelay(Duration.ofMillis(100))
+                .withMaxDelay(Duration.ofMillis(1000))
+                .withJitter(0.0);
+        assertEquals(Duration.ofMillis(100), policy.nextDelay(1));
+        assertEquals(Duration.ofMillis(200), policy.nextDelay(2));
+        assertEquals(Duration.ofMillis(800), policy.nextDelay(4));
+        assertEquals(Duration.ofMillis(1000), policy.nextDelay(5));
+        assertEquals(Duration.ofMillis(1000), policy.nextDelay(50));
+
+        policy.withJitter(0.25);
+        for (int i = 0; i < 100; i++) {
+            long delayMillis = policy.nextDelay(3).toMillis();
+            assertTrue(delayMillis >= 300 && delayMillis <= 500, "Delay was " + delayMillis);
+        }
+    }
+
+    @Test
+    public void WaitersTakeTurnsInOrder() throws Exception {
+        LicenseWaitQueue queue = new LicenseWaitQueue();
+        List<String> turnOrder = Collections.synchronizedList(new ArrayList<>());
+        List<LicenseWaitQueue.Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tickets.add(queue.enqueue("waiter" + i));
+        }
+        assertEquals(4, queue.size());
+        assertEquals(0, tickets.get(0).getPosition());
+        assertEquals(3, tickets.get(3).getPosition());
+
+        // Start waiters in reverse order, they should still take turns in the order they joined the queue
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 3; i >= 0; i--) {
+            LicenseWaitQueue.Ticket ticket = tickets.get(i);
+            Thread thread = new Thread(() -> {
+                try (ticket) {
+                    assertTrue(ticket.awaitTurn(Instant.now().plusSeconds(30)));
+                    turnOrder.add(ticket.getWaiterName());
+                    Thread.sleep(20);
+                } catch (InterruptedException exc) {
+                    throw new RuntimeException(exc);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(List.of("waiter0", "waiter1", "waiter2", "waiter3"), turnOrder);
+        assertEquals(0, queue.size());
+        assertEquals(-1, tickets.get(0).getPosition());
+    }
+
+    @Test
+    public void WaiterGivesUpAtDeadline() throws Exception {
+        LicenseWaitQueue queue = new LicenseWaitQueue();
+        try (LicenseWaitQueue.Ticket first = queue.enqueue("first");
+             LicenseWaitQueue.Ticket second = queue.enqueue("second")) {
+            assertTrue(first.awaitTurn(Instant.now()));
+            assertFalse(second.awaitTurn(Instant.now().plusMillis(100)));
+            assertTrue(second.getWaited().toMillis() >= 100);
+        }
+    }
+
+    @Test
+    public void RetriesSeeSeatsFreedWithinInventoryTtl() throws Exception {
+        FakeLicensing licensing = new FakeLicensing();
+        NuixLicenseResolver resolver = NuixLicenseResolver.fromServer("nms.example.com")
+                .withInventoryCache(new LicenseInventoryCache().setTtl(Duration.ofMinutes(5)));
+        FakeLicensing.FakeNuixEngine nuixEngine = licensing.newNuixEngine(resolver);
+        nuixEngine.setLicenseWaitPolicy(LicenseWaitPolicy.waitUpTo(Duration.ofSeconds(10))
+                .withInitialDelay(Duration.ofMillis(50))
+                .withMaxDelay(Duration.ofMillis(50))
+                .withJitter(0.0));
+
+        CompletableFuture<Boolean> obtained = CompletableFuture.supplyAsync(() -> {
+            try {
+                return nuixEngine.obtainLicense();
+            } catch (Exception exc) {
+                throw new RuntimeException(exc);
+            }
+        });
+        while (licensing.getQueryCount() == 0) {
+            Thread.sleep(10);
+        }
+
+        // A seat is freed while the empty inventory is still cached, the next attempt should see it
+        licensing.withLicense(new FakeLicensing.FakeLicense("enterprise-workstation"));
+        assertTrue(obtained.get(5, TimeUnit.SECONDS));
+        assertTrue(licensing.getQueryCount() >= 2);
+        nuixEngine.close();
+    }
+}
@@ -0,0 +1,77 @@
+import com.nuix.innovation.enginewrapper.GlobalContainerManager;
+import com.nuix.innovation.enginewrapper.NuixEngine;
+import nuix.Utilities;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LifeCycle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiEngineTests extends CommonTestFunctionality {
+    // Each concurrent engine needs its own license, keep this within what the test environment can provide
+    private static final int concurrentEngines = 3;
+
+    @Test
+    public void StartAndStopEnginesFromManyThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrentEngines);
+        try {
+            for (int round = 0; round < 3; round++) {
+                // Release all threads at once so startups and shutdowns overlap as much as possible
+                CountDownLatch startSignal = new CountDownLatch(1);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < concurrentEngines; i++) {
+                    results.add(executor.submit(() -> {
+                        startSignal.await();
+                        try (NuixEngine nuixEngine = constructNuixEngine()) {
+                            Utilities utilities = nuixEngine.getUtilities();
+                            assertNotNull(utilities);
+                            return utilities.getItemTypeUtility().getAllTypes().size();
+                        }
+                    }));
+                }
+                startSignal.countDown();
+
+                for (Future<Integer> result : results) {
+                    assertTrue(result.get(10, TimeUnit.MINUTES) > 0);
+                }
+                assertEquals(0, GlobalContainerManager.getReferenceCount());
+                log.info("Round {} completed with {} concurrent engines", round, concurrentEngines);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void ClosingOneEngineLeavesOthersRunning() throws Exception {
+        NuixEngine first = constructNuixEngine();
+        NuixEngine second = constructNuixEngine();
+        try {
+            first.getUtilities();
+            second.getUtilities();
+            assertEquals(2, GlobalContainerManager.getReferenceCount());
+
+            first.close();
+            assertEquals(1, GlobalContainerManager.getReferenceCount());
+            assertTrue(((LifeCycle) LogManager.getContext(false)).isStarted());
+            assertTrue(second.isLicensed());
+            assertFalse(second.getUtilities().getItemTypeUtility().getAllTypes().isEmpty());
+
+            // Closing again should have no further effect
+            first.close();
+            assertEquals(1, GlobalContainerManager.getReferenceCount());
+        } finally {
+            first.close();
+            second.close();
+        }
+        assertEquals(0, GlobalContainerManager.getReferenceCount());
+    }
+}
@@ -0,0 +1,101 @@
+import com.nuix.innovation.enginewrapper.MultiServerLicenseResolver;
+import com.nuix.innovation.enginewrapper.ScopedSystemProperties;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiServerLicenseResolverTests {
+    /***
+     * A license offered by the given server, named after that server so tests can tell where it was acquired from.
+     */
+    private FakeLicensing.FakeLicense offeredBy(String server, int freeSeats) {
+        return new FakeLicensing.FakeLicense(server).withCount(freeSeats).withChoosableWorkers().fromSource("server", server);
+    }
+
+    @Test
+    public void AcquiresFromReachableServerWithMostFreeSeats() throws Exception {
+        try (ServerSocket nms1 = new ServerSocket(0); ServerSocket nms2 = new ServerSocket(0)) {
+            int unreachablePort;
+            try (ServerSocket closed = new ServerSocket(0)) {
+                unreachablePort = closed.getLocalPort();
+            }
+            String server1 = "localhost:" + nms1.getLocalPort();
+            String server2 = "127.0.0.1:" + nms2.getLocalPort();
+            String server3 = "localhost:" + unreachablePort;
+            MultiServerLicenseResolver resolver = MultiServerLicenseResolver.fromServers(server1, server2, server3);
+            String registryServersBefore = System.getProperty("nuix.registry.servers");
+
+            FakeLicensing licensing = new FakeLicensing()
+                    .withLicense(offeredBy(server1, 2))
+                    .withLicense(offeredBy(server1, 1))
+                    .withLicense(offeredBy(server2, 5));
+            assertTrue(resolver.resolveLicense(licensing.newEngine()));
+            assertEquals(server2, licensing.getLastAcquired());
+
+            // Unreachable server is left out of the licensor query, latency is learned for reachable ones
+            List<String> queried = List.of(licensing.getLastQueriedRegistryServers().split(","));
+            assertEquals(Set.of(server1, server2), Set.copyOf(queried));
+            assertEquals(Set.of(server1, server2), resolver.getServerLatencies().keySet());
+            assertFalse(resolver.getServers().get(2).isReachable());
+            assertEquals(registryServersBefore, System.getProperty("nuix.registry.servers"));
+
+            // Servers with the same number of free seats take turns
+            FakeLicensing tiedLicensing = new FakeLicensing()
+                    .withLicense(offeredBy(server1, 3))
+                    .withLicense(offeredBy(server2, 3));
+            List<String> acquisitions = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                assertTrue(resolver.resolveLicense(tiedLicensing.newEngine()));
+                acquisitions.add(tiedLicensing.getLastAcquired());
+            }
+            assertEquals(2, acquisitions.stream().filter(server1::equals).count());
+            assertEquals(2, acquisitions.stream().filter(server2::equals).count());
+        }
+    }
+
+    @Test
+    public void ServersAreProbedWithoutWaitingOnOtherLicenseQueries() throws Exception {
+        try (ServerSocket nms1 = new ServerSocket(0)) {
+            String server1 = "localhost:" + nms1.getLocalPort();
+            MultiServerLicenseResolver resolver = MultiServerLicenseResolver.fromServers(server1);
+            FakeLicensing licensing = new FakeLicensing().withLicense(offeredBy(server1, 1));
+
+            CountDownLatch queryStarted = new CountDownLatch(1);
+            CountDownLatch finishQuery = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                // Another engine's license query holds the registry servers property
+                Future<Object> otherQuery = executor.submit(() -> ScopedSystemProperties.call("nuix.registry.servers", "other:27443", () -> {
+                    queryStarted.countDown();
+                    return finishQuery.await(30, TimeUnit.SECONDS);
+                }));
+                assertTrue(queryStarted.await(30, TimeUnit.SECONDS));
+
+                Future<Boolean> resolution = executor.submit(() -> resolver.resolveLicense(licensing.newEngine()));
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (resolver.getServerLatencies().isEmpty() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(20);
+                }
+                assertEquals(Set.of(server1), resolver.getServerLatencies().keySet());
+                assertFalse(resolution.isDone());
+
+                finishQuery.countDown();
+                otherQuery.get();
+                assertTrue(resolution.get(30, TimeUnit.SECONDS));
+                assertEquals(server1, licensing.getLastQueriedRegistryServers());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
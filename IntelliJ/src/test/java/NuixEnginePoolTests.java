@@ -0,0 +1,107 @@
+import com.nuix.innovation.enginewrapper.NuixEngine;
+import com.nuix.innovation.enginewrapper.NuixEnginePool;
+import com.nuix.innovation.enginewrapper.NuixLicenseResolver;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NuixEnginePoolTests extends CommonTestFunctionality {
+    private NuixEngine constructNuixEngineUnchecked() {
+        try {
+            return constructNuixEngine();
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    @Test
+    public void PooledEngineIsReusedAcrossJobs() throws Exception {
+        try (NuixEnginePool pool = NuixEnginePool.using(this::constructNuixEngineUnchecked)
+                .withMaxSize(1)
+                .withMinIdle(1)
+                .start()) {
+            assertEquals(1, pool.getIdleCount());
+
+            NuixEngine first = pool.borrow();
+            assertTrue(first.isLicensed());
+            assertEquals(0, pool.getIdleCount());
+            pool.release(first);
+
+            // With a max size of 1, the second borrow must hand back the same warm engine
+            NuixEngine second = pool.borrow();
+            assertSame(first, second);
+            pool.release(second);
+        }
+    }
+
+    @Test
+    public void RunJobsThroughPool() throws Exception {
+        AtomicInteger jobsRun = new AtomicInteger(0);
+        try (NuixEnginePool pool = NuixEnginePool.using(this::constructNuixEngineUnchecked)
+                .withMaxSize(1)
+                .withIdleTimeout(Duration.ofMinutes(1))
+                .start()) {
+            for (int i = 0; i < 3; i++) {
+                long start = System.currentTimeMillis();
+                pool.run(utilities -> {
+                    utilities.getItemTypeUtility().getAllTypes();
+                    jobsRun.incrementAndGet();
+                });
+                log.info("Pooled job {} completed in {}ms", i, System.currentTimeMillis() - start);
+            }
+        }
+        assertEquals(3, jobsRun.get());
+    }
+
+    @Test
+    public void BorrowDuringHealthCheckTakesIdleEngine() throws Exception {
+        FakeLicensing licensing = new FakeLicensing().withLicense(new FakeLicensing.FakeLicense("enterprise-workstation"));
+        AtomicInteger enginesBuilt = new AtomicInteger(0);
+        CountDownLatch checking = new CountDownLatch(1);
+        CountDownLatch finishCheck = new CountDownLatch(1);
+        try (NuixEnginePool pool = NuixEnginePool.using(() -> {
+                    enginesBuilt.incrementAndGet();
+                    FakeLicensing.FakeNuixEngine nuixEngine = licensing.newNuixEngine(NuixLicenseResolver.fromDongle());
+                    try {
+                        assertTrue(nuixEngine.obtainLicense());
+                    } catch (Exception exc) {
+                        throw new IllegalStateException(exc);
+                    }
+                    return nuixEngine;
+                })
+                .withMaxSize(2)
+                .withMinIdle(1)
+                .withEvictionInterval(Duration.ofMillis(10))
+                .withHealthCheck(nuixEngine -> {
+                    if (Thread.currentThread().getName().startsWith("NuixEnginePool-Evictor")) {
+                        // Hold the evictor mid check so the borrow below overlaps it
+                        checking.countDown();
+                        try {
+                            finishCheck.await();
+                        } catch (InterruptedException exc) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return nuixEngine.isLicensed();
+                })
+                .start()) {
+            assertTrue(checking.await(10, TimeUnit.SECONDS));
+
+            // The idle engine being checked is still in the pool, so no second engine is built for this borrow
+            NuixEngine borrowed = pool.borrow(Duration.ofSeconds(10));
+            assertEquals(1, enginesBuilt.get());
+            finishCheck.countDown();
+            pool.release(borrowed);
+            assertEquals(1, enginesBuilt.get());
+        } finally {
+            finishCheck.countDown();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+import com.nuix.innovation.enginewrapper.NuixEngine;
+import com.nuix.innovation.enginewrapper.NuixJobScheduler;
+import nuix.Licence;
+import nuix.Utilities;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NuixJobSchedulerTests {
+    /***
+     * Stands in for a licensed engine so scheduling can be tested without a license.
+     */
+    private static class FakeLicensedEngine extends NuixEngine {
+        private final Utilities fakeUtilities;
+
+        private FakeLicensedEngine(int workers) {
+            Licence licence = (Licence) Proxy.newProxyInstance(Licence.class.getClassLoader(), new Class[]{Licence.class},
+                    (proxy, method, args) -> method.getName().equals("getWorkers") ? workers : null);
+            fakeUtilities = (Utilities) Proxy.newProxyInstance(Utilities.class.getClassLoader(), new Class[]{Utilities.class},
+                    (proxy, method, args) -> method.getName().equals("getLicence") ? licence : null);
+        }
+
+        @Override
+        public Utilities getUtilities() {
+            return fakeUtilities;
+        }
+    }
+
+    @Test
+    public void RunningJobsStayWithinWorkerBudget() throws Exception {
+        AtomicInteger workersInUse = new AtomicInteger(0);
+        AtomicInteger peakWorkersInUse = new AtomicInteger(0);
+        try (NuixJobScheduler scheduler = NuixJobScheduler.using(new FakeLicensedEngine(8)).start()) {
+            List<CompletableFuture<Void>> jobs = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                int workers = (i % 3) + 2;
+                jobs.add(scheduler.submit(NuixJobScheduler.Job.of("job" + i, workers, context -> {
+                    peakWorkersInUse.accumulateAndGet(workersInUse.addAndGet(context.getWorkerCount()), Math::max);
+                    Thread.sleep(50);
+                    workersInUse.addAndGet(-context.getWorkerCount());
+                }).forTenant(i % 2 == 0 ? "a" : "b")));
+            }
+            CompletableFuture.allOf(jobs.toArray(new CompletableFuture[0])).get(1, TimeUnit.MINUTES);
+
+            NuixJobScheduler.Metrics metrics = scheduler.getMetrics();
+            assertEquals(12, metrics.getCompleted());
+            assertEquals(0, metrics.getWorkersInUse());
+            assertTrue(peakWorkersInUse.get() <= 8, "Peak workers in use was " + peakWorkersInUse.get());
+        }
+    }
+
+    @Test
+    public void PriorityAndFairShareDecideOrder() throws Exception {
+        List<String> startOrder = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try (NuixJobScheduler scheduler = NuixJobScheduler.using(new FakeLicensedEngine(4)).start()) {
+            // Occupy all workers so following jobs queue up
+            CompletableFuture<Void> blocking = scheduler.submit(NuixJobScheduler.Job.of("blocking", 4, context -> blocker.await())
+                    .forTenant("a"));
+            Thread.sleep(100);
+
+            List<CompletableFuture<Void>> jobs = new ArrayList<>();
+            jobs.add(scheduler.submit(NuixJobScheduler.Job.of("a-low", 4, context -> startOrder.add("a-low")).forTenant("a")));
+            jobs.add(scheduler.submit(NuixJobScheduler.Job.of("b-low", 4, context -> startOrder.add("b-low")).forTenant("b")));
+            jobs.add(scheduler.submit(NuixJobScheduler.Job.of("a-high", 4, context -> startOrder.add("a-high"))
+                    .forTenant("a").withPriority(10)));
+            assertEquals(3, scheduler.getMetrics().getQueueDepth());
+            Thread.sleep(100);
+
+            blocker.countDown();
+            blocking.get(1, TimeUnit.MINUTES);
+            CompletableFuture.allOf(jobs.toArray(new CompletableFuture[0])).get(1, TimeUnit.MINUTES);
+
+            // High priority first, then tenant "b" since tenant "a" has already used more worker time
+            assertEquals(List.of("a-high", "b-low", "a-low"), startOrder);
+            assertTrue(scheduler.getMetrics().getMaxWaitMillis() >= 100);
+        }
+    }
+
+    @Test
+    public void AdmissionControlAndDeadlines() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        try (NuixJobScheduler scheduler = NuixJobScheduler.using(new FakeLicensedEngine(2))
+                .withMaxQueueDepth(1)
+                .start()) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> scheduler.submit(NuixJobScheduler.Job.of("too-big", 3, context -> {})));
+
+            scheduler.submit(NuixJobScheduler.Job.of("blocking", 2, context -> blocker.await()));
+            Thread.sleep(100);
+            CompletableFuture<Void> expiring = scheduler.submit(NuixJobScheduler.Job.of("expiring", 1, context -> {})
+                    .withDeadline(Instant.now().plusMillis(200)));
+            assertThrows(RejectedExecutionException.class,
+                    () -> scheduler.submit(NuixJobScheduler.Job.of("overflow", 1, context -> {})));
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> expiring.get(1, TimeUnit.MINUTES));
+            assertInstanceOf(TimeoutException.class, error.getCause());
+            blocker.countDown();
+
+            NuixJobScheduler.Metrics metrics = scheduler.getMetrics();
+            assertEquals(2, metrics.getRejected());
+            assertEquals(1, metrics.getExpired());
+        }
+    }
+
+    @Test
+    public void JobThrowingErrorReleasesWorkers() throws Exception {
+        try (NuixJobScheduler scheduler = NuixJobScheduler.using(new FakeLicensedEngine(2)).start()) {
+            CompletableFuture<Void> failing = scheduler.submit(NuixJobScheduler.Job.of("failing", 2, context -> {
+                throw new AssertionError("Job failed with an Error");
+            }));
+            ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(1, TimeUnit.MINUTES));
+            assertInstanceOf(AssertionError.class, error.getCause());
+
+            // The failed job's workers must have been released for this job to start
+            scheduler.submit(NuixJobScheduler.Job.of("after", 2, context -> {})).get(1, TimeUnit.MINUTES);
+
+            NuixJobScheduler.Metrics metrics = scheduler.getMetrics();
+            assertEquals(1, metrics.getFailed());
+            assertEquals(0, metrics.getWorkersInUse());
+            assertEquals(0, metrics.getRunningJobs());
+        }
+    }
+
+    @Test
+    public void StartsOnceAndAcceptsDistantDeadlines() throws Exception {
+        try (NuixJobScheduler scheduler = NuixJobScheduler.using(new FakeLicensedEngine(2)).start()) {
+            assertThrows(IllegalStateException.class, scheduler::start);
+
+            // Too far off to be represented as nanoseconds, treated as no deadline rather than overflowing
+            scheduler.submit(NuixJobScheduler.Job.of("patient", 1, context -> {})
+                    .withDeadline(Instant.MAX)).get(1, TimeUnit.MINUTES);
+            scheduler.submit(NuixJobScheduler.Job.of("centuries", 1, context -> {})
+                    .withDeadline(Instant.now().plus(Duration.ofDays(365L * 1_000)))).get(1, TimeUnit.MINUTES);
+            assertEquals(2, scheduler.getMetrics().getCompleted());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+import com.nuix.innovation.enginewrapper.NuixVersion;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NuixVersionTests {
+    @Test
+    public void ParsesVersionStrings() {
+        assertEquals("6.0.0.0", NuixVersion.parse("6").toString());
+        assertEquals("6.2.1.0", NuixVersion.parse(" 6.2.1-preview6 ").toString());
+        assertEquals("7.8.0.10", NuixVersion.parse("7.8.0.10").toString());
+        assertEquals("9.10.0.0", NuixVersion.parse("9.10.").toString());
+        assertEquals("0.0.0.0", NuixVersion.parse("1.2.3.4.5").toString());
+        // Unparseable versions are treated as a very high version
+        assertEquals("100.0.0.0", NuixVersion.parse("6..2").toString());
+        assertEquals("100.0.0.0", NuixVersion.parse("preview").toString());
+        assertEquals("100.0.0.0", NuixVersion.parse(null).toString());
+    }
+
+    @Test
+    public void ComparesPackedVersions() {
+        NuixVersion version = NuixVersion.parse("9.10.3.582");
+        assertTrue(version.isAtLeast("9.10"));
+        assertTrue(version.isAtLeast("9.10.3.582"));
+        assertTrue(version.isLessThan("10"));
+        assertTrue(version.isGreaterThan("9.9.65535"));
+        assertTrue(version.isEqualTo("9.10.3.582-release"));
+        assertEquals(NuixVersion.parse("9.10.3.582"), version);
+        assertEquals(NuixVersion.pack(9, 10, 3, 582), version.getPacked());
+        assertTrue(new NuixVersion(65535).isGreaterThan(new NuixVersion(32767, 65535)));
+        assertThrows(IllegalArgumentException.class, () -> new NuixVersion(70000));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void VersionsAreImmutable() {
+        NuixVersion version = new NuixVersion(9, 10, 3, 582);
+        NuixVersion derived = version.withMinor(11).withBuild(1);
+        assertEquals("9.11.3.1", derived.toString());
+        assertTrue(derived.isGreaterThan("9.10.65535.65535"));
+        assertEquals("9.10.3.582", version.toString());
+        assertThrows(IllegalArgumentException.class, () -> version.withMajor(70000));
+    }
+}
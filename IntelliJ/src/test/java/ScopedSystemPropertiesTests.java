@@ -0,0 +1,110 @@
+import com.nuix.innovation.enginewrapper.ScopedSystemProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScopedSystemPropertiesTests {
+    private static final String PROPERTY = "nuix.registry.servers";
+
+    @Test
+    public void ConcurrentScopesDoNotOverwriteEachOther() throws Exception {
+        System.setProperty(PROPERTY, "original:27443");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String server = "server" + i + ":27443";
+                results.add(executor.submit(() -> ScopedSystemProperties.call(PROPERTY, server, () -> {
+                    Thread.sleep(1);
+                    return server.equals(System.getProperty(PROPERTY));
+                })));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals("original:27443", System.getProperty(PROPERTY));
+        System.clearProperty(PROPERTY);
+    }
+
+    @Test
+    public void PropertiesRestoredWhenWorkFails() {
+        System.clearProperty(PROPERTY);
+        assertThrows(IllegalStateException.class, () -> ScopedSystemProperties.call(Map.of(PROPERTY, "server:27443"), () -> {
+            // Nested scopes on the same thread do not deadlock
+            assertEquals("other:27443", ScopedSystemProperties.call(PROPERTY, "other:27443", () -> System.getProperty(PROPERTY)));
+            assertEquals("server:27443", System.getProperty(PROPERTY));
+            throw new IllegalStateException("License server unreachable");
+        }));
+        assertNull(System.getProperty(PROPERTY));
+    }
+
+    @Test
+    public void DifferentPropertiesDoNotWaitOnEachOther() throws Exception {
+        String before = System.getProperty(PROPERTY);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> holder = executor.submit(() -> ScopedSystemProperties.call(PROPERTY, "server:27443", () -> {
+                entered.countDown();
+                return finish.await(30, TimeUnit.SECONDS);
+            }));
+            assertTrue(entered.await(30, TimeUnit.SECONDS));
+
+            // Another property can be scoped while the first is still held
+            Future<String> other = executor.submit(() ->
+                    ScopedSystemProperties.call("nuix.userDataBase", "/tmp/userdata", () -> System.getProperty("nuix.userDataBase")));
+            assertEquals("/tmp/userdata", other.get(10, TimeUnit.SECONDS));
+
+            finish.countDown();
+            holder.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(before, System.getProperty(PROPERTY));
+    }
+
+    @Test
+    public void RetainedPropertiesAreNotRestoredOverByScopesInProgress() throws Exception {
+        System.clearProperty(PROPERTY);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> scope = executor.submit(() -> ScopedSystemProperties.call(PROPERTY, "querying:27443", () -> {
+                entered.countDown();
+                finish.await();
+                return null;
+            }));
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+            // Retaining waits for the scope in progress, so the scope's restore does not replace the retained value
+            Future<?> retain = executor.submit(() -> ScopedSystemProperties.retain(Map.of(PROPERTY, "acquired:27443")));
+            Thread.sleep(200);
+            assertFalse(retain.isDone());
+            finish.countDown();
+            scope.get(10, TimeUnit.SECONDS);
+            retain.get(10, TimeUnit.SECONDS);
+            assertEquals("acquired:27443", System.getProperty(PROPERTY));
+
+            // Later scopes restore the retained value
+            assertEquals("other:27443", ScopedSystemProperties.call(PROPERTY, "other:27443", () -> System.getProperty(PROPERTY)));
+            assertEquals("acquired:27443", System.getProperty(PROPERTY));
+        } finally {
+            executor.shutdownNow();
+            System.clearProperty(PROPERTY);
+        }
+    }
+}
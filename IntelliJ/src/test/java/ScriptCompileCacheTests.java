@@ -0,0 +1,110 @@
+import com.nuix.innovation.enginewrapper.RubyScriptRunner;
+import com.nuix.innovation.enginewrapper.ScriptCompileCache;
+import com.nuix.innovation.enginewrapper.ScriptingContainerPool;
+import org.apache.commons.io.FileUtils;
+import org.jruby.embed.EmbedEvalUnit;
+import org.jruby.embed.ScriptingContainer;
+import org.jruby.javasupport.JavaEmbedUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScriptCompileCacheTests {
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void SameContentIsParsedOnce() throws Exception {
+        try (ScriptingContainerPool pool = ScriptingContainerPool.create().withMaxSize(1).start()) {
+            ScriptingContainer container = pool.borrow();
+            ScriptCompileCache cache = pool.getCompileCache(container);
+
+            for (int i = 0; i < 3; i++) {
+                container.put("$input", i);
+                EmbedEvalUnit unit = cache.parse("$input * 2");
+                assertEquals((Object) (i * 2L), JavaEmbedUtils.rubyToJava(unit.run()));
+            }
+            assertEquals(1, cache.getMisses());
+            assertEquals(2, cache.getHits());
+            pool.release(container);
+        }
+    }
+
+    @Test
+    public void LeastRecentlyUsedScriptIsEvicted() throws Exception {
+        try (ScriptingContainerPool pool = ScriptingContainerPool.create().withMaxSize(1).withCompileCacheSize(2).start()) {
+            ScriptingContainer container = pool.borrow();
+            ScriptCompileCache cache = pool.getCompileCache(container);
+
+            cache.parse("1");
+            cache.parse("2");
+            cache.parse("1");
+            cache.parse("3");
+            assertEquals(2, cache.size());
+
+            // "2" was least recently used, so it was evicted to make room for "3"
+            cache.parse("1");
+            cache.parse("2");
+            assertEquals(2, cache.getHits());
+            assertEquals(4, cache.getMisses());
+            pool.release(container);
+        }
+    }
+
+    @Test
+    public void ModifiedFileIsParsedAgain() throws Exception {
+        File scriptFile = new File(tempDir, "script.rb");
+        FileUtils.writeStringToFile(scriptFile, "'first'", StandardCharsets.UTF_8);
+
+        try (ScriptingContainerPool pool = ScriptingContainerPool.create().withMaxSize(1).start()) {
+            ScriptingContainer container = pool.borrow();
+            ScriptCompileCache cache = pool.getCompileCache(container);
+
+            assertEquals("first", JavaEmbedUtils.rubyToJava(cache.parse(scriptFile).run()));
+            assertEquals("first", JavaEmbedUtils.rubyToJava(cache.parse(scriptFile).run()));
+            assertEquals(1, cache.getHits());
+
+            FileUtils.writeStringToFile(scriptFile, "'second'", StandardCharsets.UTF_8);
+            scriptFile.setLastModified(scriptFile.lastModified() + 2000);
+            assertEquals("second", JavaEmbedUtils.rubyToJava(cache.parse(scriptFile).run()));
+            assertEquals(2, cache.getMisses());
+            assertEquals(1, cache.size());
+            pool.release(container);
+        }
+    }
+
+    @Test
+    public void RubyScriptRunnerUsesCompileCache() throws Exception {
+        File scriptFile = new File(tempDir, "runner_script.rb");
+        FileUtils.writeStringToFile(scriptFile, "\"#{NUIX_VERSION} #{$input}\"", StandardCharsets.UTF_8);
+
+        try (ScriptingContainerPool pool = ScriptingContainerPool.create().withMaxSize(1).start()) {
+            for (int i = 0; i < 3; i++) {
+                AtomicReference<Object> result = new AtomicReference<>();
+                Map<String, Object> variables = new HashMap<>();
+                variables.put("$input", i);
+
+                RubyScriptRunner runner = new RubyScriptRunner();
+                runner.setScriptingContainerPool(pool);
+                runner.whenScriptCompletes((returned, vars) -> result.set(returned));
+                runner.runFileAsync(scriptFile, "9.10.0", variables);
+                runner.join();
+
+                assertEquals("9.10.0 " + i, result.get());
+            }
+
+            ScriptingContainer container = pool.borrow();
+            ScriptCompileCache cache = pool.getCompileCache(container);
+            assertEquals(1, cache.getMisses());
+            assertEquals(2, cache.getHits());
+            pool.release(container);
+        }
+    }
+}
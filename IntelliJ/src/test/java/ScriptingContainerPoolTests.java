@@ -0,0 +1,135 @@
+import com.nuix.innovation.enginewrapper.RubyScriptRunner;
+import com.nuix.innovation.enginewrapper.ScriptingContainerPool;
+import org.jruby.embed.ScriptingContainer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScriptingContainerPoolTests {
+    @Test
+    public void ContainerIsWarmedAndReused() throws Exception {
+        try (ScriptingContainerPool pool = ScriptingContainerPool.create()
+                .withMaxSize(1)
+                .withMinIdle(1)
+                .withWarmupRequires("set")
+                .withBootstrapScript("def pool_greeting(name); \"Hello #{name}\"; end")
+                .start()) {
+            assertEquals(1, pool.getIdleCount());
+
+            ScriptingContainer first = pool.borrow();
+            assertEquals("Hello Nuix", first.runScriptlet("pool_greeting('Nuix')"));
+            assertEquals(true, first.runScriptlet("defined?(Set) == 'constant'"));
+            assertEquals(1, pool.getBorrowedCount());
+            pool.release(first);
+
+            ScriptingContainer second = pool.borrow();
+            assertSame(first, second);
+            pool.release(second);
+            assertEquals(1, pool.getCreatedCount());
+        }
+    }
+
+    @Test
+    public void StateIsResetBetweenBorrowers() throws Exception {
+        try (ScriptingContainerPool pool = ScriptingContainerPool.create().withMaxSize(1).start()) {
+            ScriptingContainer container = pool.borrow();
+            container.put("$left_behind", "value");
+            container.runScriptlet("$defined_by_script = 42; LEFT_CONSTANT = 1");
+            pool.release(container);
+
+            container = pool.borrow();
+            assertNull(container.runScriptlet("$left_behind"));
+            assertNull(container.runScriptlet("$defined_by_script"));
+            assertEquals(false, container.runScriptlet("Object.const_defined?(:LEFT_CONSTANT)"));
+            pool.release(container);
+        }
+    }
+
+    @Test
+    public void ContainerIsRetiredAfterMaxUses() throws Exception {
+        try (ScriptingContainerPool pool = ScriptingContainerPool.create().withMaxSize(1).withMaxUses(2).start()) {
+            ScriptingContainer first = pool.borrow();
+            pool.release(first);
+            assertSame(first, pool.borrow());
+            pool.release(first);
+            assertEquals(1, pool.getEvictedCount());
+
+            ScriptingContainer replacement = pool.borrow();
+            assertNotSame(first, replacement);
+            pool.release(replacement);
+        }
+    }
+
+    @Test
+    public void BorrowTimesOutAtMaxSize() throws Exception {
+        try (ScriptingContainerPool pool = ScriptingContainerPool.create().withMaxSize(1).start()) {
+            ScriptingContainer container = pool.borrow();
+            assertThrows(TimeoutException.class, () -> pool.borrow(Duration.ofMillis(100)));
+            pool.release(container);
+        }
+    }
+
+    @Test
+    public void RubyScriptRunnerUsesPool() throws Exception {
+        try (ScriptingContainerPool pool = ScriptingContainerPool.create().withMaxSize(1).start()) {
+            for (int i = 0; i < 3; i++) {
+                AtomicReference<Object> result = new AtomicReference<>();
+                Map<String, Object> variables = new HashMap<>();
+                variables.put("$input", i);
+
+                RubyScriptRunner runner = new RubyScriptRunner();
+                runner.setScriptingContainerPool(pool);
+                runner.whenScriptCompletes((returned, vars) -> result.set(returned));
+                runner.runScriptAsync("\"#{NUIX_VERSION} #{$input}\"", "9.10.0", variables);
+                runner.join();
+
+                assertEquals("9.10.0 " + i, result.get());
+            }
+            assertEquals(1, pool.getCreatedCount());
+            assertEquals(1, pool.getIdleCount());
+        }
+    }
+
+    @Test
+    public void RetiredContainerIsReplacedInBackground() throws Exception {
+        try (ScriptingContainerPool pool = ScriptingContainerPool.create()
+                .withMaxSize(1)
+                .withMinIdle(1)
+                .withMaxUses(1)
+                .start()) {
+            ScriptingContainer first = pool.borrow();
+            pool.release(first);
+            assertEquals(1, pool.getEvictedCount());
+
+            // Replacement is warmed on the pool's warm-up thread, not by the releasing thread
+            long deadline = System.currentTimeMillis() + 60_000;
+            while (pool.getIdleCount() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, pool.getIdleCount());
+            assertEquals(2, pool.getCreatedCount());
+        }
+    }
+
+    @Test
+    public void FailedRunnerInitializationDiscardsContainer() throws Exception {
+        try (ScriptingContainerPool pool = ScriptingContainerPool.create().withMaxSize(1).start()) {
+            RubyScriptRunner runner = new RubyScriptRunner();
+            runner.setScriptingContainerPool(pool);
+            // Version string breaks out of the NUIX_VERSION literal, so initializing the container fails
+            assertThrows(RuntimeException.class, () -> runner.runScriptAsync("1", "9.10\" +", new HashMap<>()));
+            assertEquals(0, pool.getBorrowedCount());
+            assertEquals(1, pool.getEvictedCount());
+
+            // Slot was given back, so the pool can still hand out a container
+            ScriptingContainer container = pool.borrow(Duration.ofSeconds(30));
+            pool.release(container);
+        }
+    }
+}
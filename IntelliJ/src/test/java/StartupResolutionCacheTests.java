@@ -0,0 +1,56 @@
+import com.nuix.innovation.enginewrapper.StartupResolutionCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StartupResolutionCacheTests {
+    @TempDir
+    File tempDirectory;
+
+    private StartupResolutionCache.Resolution createResolution(String fingerprint, String lastLicenseSource) {
+        StartupResolutionCache.Resolution resolution = new StartupResolutionCache.Resolution();
+        resolution.setFingerprint(fingerprint);
+        resolution.setLastLicenseSource(lastLicenseSource);
+        return resolution;
+    }
+
+    @Test
+    public void CachedResolutionOnlyMatchesSameFingerprint() throws Exception {
+        File engineDirectory = new File(tempDirectory, "engine");
+        new File(engineDirectory, "lib").mkdirs();
+        StartupResolutionCache cache = new StartupResolutionCache(new File(tempDirectory, "cache"), engineDirectory);
+
+        String fingerprint = StartupResolutionCache.computeFingerprint(engineDirectory, null);
+        assertEquals(fingerprint, StartupResolutionCache.computeFingerprint(engineDirectory, null));
+        assertNotEquals(fingerprint, StartupResolutionCache.computeFingerprint(engineDirectory, new File(tempDirectory, "userData")));
+        assertTrue(cache.load(fingerprint).isEmpty());
+
+        cache.save(createResolution(fingerprint, "NMS license server"));
+        assertTrue(cache.getCacheFile().exists());
+        assertEquals("NMS license server", cache.load(fingerprint).orElseThrow().getLastLicenseSource());
+
+        // Changing the engine distribution changes the fingerprint, the last license source can still be carried forward
+        assertTrue(engineDirectory.setLastModified(engineDirectory.lastModified() - 60_000));
+        String changedFingerprint = StartupResolutionCache.computeFingerprint(engineDirectory, null);
+        assertNotEquals(fingerprint, changedFingerprint);
+        assertTrue(cache.load(changedFingerprint).isEmpty());
+        assertEquals("NMS license server", cache.loadAny().orElseThrow().getLastLicenseSource());
+
+        cache.invalidate();
+        assertTrue(cache.loadAny().isEmpty());
+    }
+
+    @Test
+    public void SaveReplacesFileWithoutLeavingTemporaryFiles() throws Exception {
+        File cacheDirectory = new File(tempDirectory, "cache");
+        StartupResolutionCache cache = new StartupResolutionCache(cacheDirectory, new File(tempDirectory, "engine"));
+
+        cache.save(createResolution("first", "NMS license server"));
+        cache.save(createResolution("second", "Cloud license server"));
+        assertEquals("Cloud license server", cache.load("second").orElseThrow().getLastLicenseSource());
+        assertArrayEquals(new File[]{cache.getCacheFile()}, cacheDirectory.listFiles());
+    }
+}
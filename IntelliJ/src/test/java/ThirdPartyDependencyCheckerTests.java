@@ -0,0 +1,100 @@
+import com.nuix.innovation.enginewrapper.ThirdPartyDependencyChecker;
+import nuix.ThirdPartyDependency;
+import nuix.ThirdPartyDependencyStatus;
+import nuix.Utilities;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThirdPartyDependencyCheckerTests {
+    @TempDir
+    File tempDirectory;
+
+    private static ThirdPartyDependency fakeDependency(String description, long checkMillis, AtomicInteger checkCounter) {
+        ThirdPartyDependencyStatus status = (ThirdPartyDependencyStatus) Proxy.newProxyInstance(
+                ThirdPartyDependencyStatus.class.getClassLoader(), new Class[]{ThirdPartyDependencyStatus.class},
+                (proxy, method, args) -> method.getName().equals("isAttentionRequired") ? false : "OK");
+        return (ThirdPartyDependency) Proxy.newProxyInstance(
+                ThirdPartyDependency.class.getClassLoader(), new Class[]{ThirdPartyDependency.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("performCheck")) {
+                        checkCounter.incrementAndGet();
+                        Thread.sleep(checkMillis);
+                        return status;
+                    }
+                    return description;
+                });
+    }
+
+    private static Utilities fakeUtilities(List<ThirdPartyDependency> dependencies) {
+        return (Utilities) Proxy.newProxyInstance(Utilities.class.getClassLoader(), new Class[]{Utilities.class},
+                (proxy, method, args) -> method.getName().equals("getThirdPartyDependencies") ? dependencies : null);
+    }
+
+    @Test
+    public void ChecksRunInParallelAndAreCached() throws Exception {
+        File engineDirectory = new File(tempDirectory, "engine");
+        File cacheDirectory = new File(tempDirectory, "cache");
+        engineDirectory.mkdirs();
+
+        AtomicInteger checkCounter = new AtomicInteger(0);
+        Utilities utilities = fakeUtilities(List.of(
+                fakeDependency("First", 500, checkCounter),
+                fakeDependency("Second", 500, checkCounter),
+                fakeDependency("Third", 500, checkCounter)));
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            ThirdPartyDependencyChecker checker = new ThirdPartyDependencyChecker(
+                    engineDirectory, cacheDirectory, Duration.ofSeconds(10), executor);
+
+            long start = System.currentTimeMillis();
+            List<ThirdPartyDependencyChecker.Result> results = checker.performChecks(utilities, null);
+            long elapsed = System.currentTimeMillis() - start;
+            assertEquals(3, results.size());
+            assertTrue(results.stream().allMatch(ThirdPartyDependencyChecker.Result::isCompleted));
+            assertTrue(elapsed < 1400, "Checks should overlap, took " + elapsed + "ms");
+            assertTrue(checker.getCacheFile().exists());
+
+            // Second pass against the unchanged distribution should come entirely from the cache
+            List<ThirdPartyDependencyChecker.Result> cachedResults = checker.performChecks(utilities, null);
+            assertEquals(3, checkCounter.get());
+            assertEquals("Second", cachedResults.get(1).getDescription());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void SlowCheckTimesOutAndIsNotCached() throws Exception {
+        File engineDirectory = new File(tempDirectory, "engine");
+        File cacheDirectory = new File(tempDirectory, "cache");
+        engineDirectory.mkdirs();
+
+        AtomicInteger checkCounter = new AtomicInteger(0);
+        Utilities utilities = fakeUtilities(List.of(
+                fakeDependency("Fast", 10, checkCounter),
+                fakeDependency("Hanging", 60_000, checkCounter)));
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            ThirdPartyDependencyChecker checker = new ThirdPartyDependencyChecker(
+                    engineDirectory, cacheDirectory, Duration.ofMillis(500), executor);
+            List<ThirdPartyDependencyChecker.Result> results = checker.performChecks(utilities, null);
+            assertTrue(results.get(0).isCompleted());
+            assertFalse(results.get(1).isCompleted());
+            assertFalse(checker.getCacheFile().exists());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+import com.nuix.innovation.enginewrapper.WorkerCountPolicy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkerCountPolicyTests {
+    @Test
+    public void WorkerCountFollowsHostResources() {
+        WorkerCountPolicy policy = WorkerCountPolicy.hostAware()
+                .withWorkerMemoryMb(2048)
+                .withReservedMemoryMb(4096);
+
+        // Plenty of memory, cores are the limit
+        WorkerCountPolicy.Decision decision = policy.decide(16, 256 * 1024, 0, 100);
+        assertEquals(16, decision.getWorkerCount());
+        assertEquals("cores", decision.getLimitedBy());
+
+        // 20GB free less 4GB reserved only fits 8 workers of 2GB
+        decision = policy.decide(16, 20 * 1024, 0, 100);
+        assertEquals(8, decision.getWorkerCount());
+        assertEquals("memory", decision.getLimitedBy());
+
+        // License can only provide 4
+        decision = policy.decide(16, 256 * 1024, 0, 4);
+        assertEquals(4, decision.getWorkerCount());
+        assertEquals("license", decision.getLimitedBy());
+
+        // Caller cap
+        decision = policy.withMaxWorkers(6).decide(16, 256 * 1024, 0, 100);
+        assertEquals(6, decision.getWorkerCount());
+        assertEquals(6, decision.toParallelProcessingSettings().get("workerCount"));
+        assertEquals(2048, decision.toParallelProcessingSettings().get("workerMemory"));
+    }
+
+    @Test
+    public void MinimumIsHonoredOnSmallHosts() {
+        WorkerCountPolicy.Decision decision = WorkerCountPolicy.hostAware().decide(2, 4096, 4, null);
+        assertEquals(4, decision.getWorkerCount());
+        assertEquals("minimum", decision.getLimitedBy());
+    }
+}